@@ -42,5 +42,8 @@ public enum Capability {
     REFUND_AGENT,                       // Supports refund agents
     TRADE_STATISTICS_HASH_UPDATE,       // We changed the hash method in 1.2.0 and that requires update to 1.2.2 for handling it correctly, otherwise the seed nodes have to process too much data.
     NO_ADDRESS_PRE_FIX,                 // At 1.4.0 we removed the prefix filter for mailbox messages. If a peer has that capability we do not sent the prefix.
-    TRADE_STATISTICS_3                  // We used a new reduced trade statistics model from v1.4.0 on
+    TRADE_STATISTICS_3,                 // We used a new reduced trade statistics model from v1.4.0 on
+    GET_DATA_KNOWN_HASHES_FILTER,       // Supports a bloom filter of known hashes in GetDataRequests instead of the full excluded keys list
+    GET_DATA_RESPONSE_PARTS,            // Supports receiving the GetDataResponse split into multiple parts
+    MAILBOX_RECIPIENT_HINT              // Supports mailbox messages with a recipient hint. Older nodes would fail to verify the signature of such mailbox data.
 }
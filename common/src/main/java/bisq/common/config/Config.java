@@ -76,12 +76,14 @@ public class Config {
     public static final String WALLET_RPC_BIND_PORT = "walletRpcBindPort";
     public static final String USE_DEV_PRIVILEGE_KEYS = "useDevPrivilegeKeys";
     public static final String DUMP_STATISTICS = "dumpStatistics";
+    public static final String USE_PERSISTENCE_JOURNAL = "usePersistenceJournal";
     public static final String IGNORE_DEV_MSG = "ignoreDevMsg";
     public static final String PROVIDERS = "providers";
     public static final String SEED_NODES = "seedNodes";
     public static final String BAN_LIST = "banList";
     public static final String NODE_PORT = "nodePort";
     public static final String USE_LOCALHOST_FOR_P2P = "useLocalhostForP2P";
+    public static final String USE_NON_BLOCKING_IO = "useNonBlockingIo";
     public static final String MAX_CONNECTIONS = "maxConnections";
     public static final String SOCKS_5_PROXY_BTC_ADDRESS = "socks5ProxyBtcAddress";
     public static final String SOCKS_5_PROXY_HTTP_ADDRESS = "socks5ProxyHttpAddress";
@@ -97,6 +99,8 @@ public class Config {
     public static final String MSG_THROTTLE_PER_10_SEC = "msgThrottlePer10Sec";
     public static final String SEND_MSG_THROTTLE_TRIGGER = "sendMsgThrottleTrigger";
     public static final String SEND_MSG_THROTTLE_SLEEP = "sendMsgThrottleSleep";
+    public static final String SEND_MSG_THROTTLE_BURST = "sendMsgThrottleBurst";
+    public static final String MSG_THROTTLE_PER_SEC_BY_TYPE = "msgThrottlePerSecByType";
     public static final String IGNORE_LOCAL_BTC_NODE = "ignoreLocalBtcNode";
     public static final String BITCOIN_REGTEST_HOST = "bitcoinRegtestHost";
     public static final String BTC_NODES = "btcNodes";
@@ -117,6 +121,7 @@ public class Config {
     public static final String BTC_FEE_INFO = "bitcoinFeeInfo";
     public static final String BYPASS_MEMPOOL_VALIDATION = "bypassMempoolValidation";
     public static final String PASSWORD_REQUIRED = "passwordRequired";
+    public static final String METRICS_PORT = "metricsPort";
 
     // Default values for certain options
     public static final int UNSPECIFIED_PORT = -1;
@@ -160,11 +165,13 @@ public class Config {
     public final boolean useDevModeHeader;
     public final boolean useDevPrivilegeKeys;
     public final boolean dumpStatistics;
+    public final boolean usePersistenceJournal;
     public final boolean ignoreDevMsg;
     public final List<String> providers;
     public final List<String> seedNodes;
     public final List<String> banList;
     public final boolean useLocalhostForP2P;
+    public final boolean useNonBlockingIo;
     public final int maxConnections;
     public final String socks5ProxyBtcAddress;
     public final String socks5ProxyHttpAddress;
@@ -179,6 +186,8 @@ public class Config {
     public final int msgThrottlePer10Sec;
     public final int sendMsgThrottleTrigger;
     public final int sendMsgThrottleSleep;
+    public final int sendMsgThrottleBurst;
+    public final List<String> msgThrottlePerSecByType;
     public final String btcNodes;
     public final boolean useTorForBtc;
     public final boolean useTorForBtcOptionSetExplicitly;
@@ -194,6 +203,7 @@ public class Config {
     public final boolean republishMailboxEntries;
     public final boolean bypassMempoolValidation;
     public final boolean passwordRequired;
+    public final int metricsPort;
 
     // Properties derived from options but not exposed as options themselves
     public final File torDir;
@@ -373,6 +383,13 @@ public class Config {
                         .ofType(boolean.class)
                         .defaultsTo(false);
 
+        ArgumentAcceptingOptionSpec<Boolean> usePersistenceJournalOpt =
+                parser.accepts(USE_PERSISTENCE_JOURNAL, "If set to true data stores which support it append their " +
+                        "changes to a journal file instead of rewriting the whole file at each change")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
         ArgumentAcceptingOptionSpec<Boolean> ignoreDevMsgOpt =
                 parser.accepts(IGNORE_DEV_MSG, "If set to true all signed " +
                         "network_messages from bisq developers are ignored (Global " +
@@ -408,6 +425,13 @@ public class Config {
                         .ofType(boolean.class)
                         .defaultsTo(false);
 
+        ArgumentAcceptingOptionSpec<Boolean> useNonBlockingIoOpt =
+                parser.accepts(USE_NON_BLOCKING_IO, "Read all P2P connections on one selector thread instead of " +
+                        "using threads per connection. Only supported for the localhost P2P network yet.")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
         ArgumentAcceptingOptionSpec<Integer> maxConnectionsOpt =
                 parser.accepts(MAX_CONNECTIONS, "Max. connections a peer will try to keep")
                         .withRequiredArg()
@@ -500,6 +524,21 @@ public class Config {
                         .ofType(int.class)
                         .defaultsTo(50); // Pause in ms to sleep if we get too many messages to send
 
+        ArgumentAcceptingOptionSpec<Integer> sendMsgThrottleBurstOpt =
+                parser.accepts(SEND_MSG_THROTTLE_BURST, "Number of messages we send without delay before we " +
+                        "throttle to one message per sendMsgThrottleTrigger ms")
+                        .withRequiredArg()
+                        .ofType(int.class)
+                        .defaultsTo(10);
+
+        ArgumentAcceptingOptionSpec<String> msgThrottlePerSecByTypeOpt =
+                parser.accepts(MSG_THROTTLE_PER_SEC_BY_TYPE, "Message throttle per sec for connection class for " +
+                        "particular message types in addition to msgThrottlePerSec")
+                        .withRequiredArg()
+                        .ofType(String.class)
+                        .withValuesSeparatedBy(',')
+                        .describedAs("messageClassName:maxPerSec[,...]");
+
         ArgumentAcceptingOptionSpec<String> btcNodesOpt =
                 parser.accepts(BTC_NODES, "Custom nodes used for BitcoinJ as comma separated IP addresses.")
                         .withRequiredArg()
@@ -590,6 +629,13 @@ public class Config {
                         .ofType(boolean.class)
                         .defaultsTo(false);
 
+        ArgumentAcceptingOptionSpec<Integer> metricsPortOpt =
+                parser.accepts(METRICS_PORT,
+                        "Port of the local HTTP server exporting metrics in Prometheus format (-1 to disable)")
+                        .withRequiredArg()
+                        .ofType(Integer.class)
+                        .defaultsTo(UNSPECIFIED_PORT);
+
         try {
             CompositeOptionSet options = new CompositeOptionSet();
 
@@ -670,11 +716,13 @@ public class Config {
             this.useDevModeHeader = options.valueOf(useDevModeHeaderOpt);
             this.useDevPrivilegeKeys = options.valueOf(useDevPrivilegeKeysOpt);
             this.dumpStatistics = options.valueOf(dumpStatisticsOpt);
+            this.usePersistenceJournal = options.valueOf(usePersistenceJournalOpt);
             this.ignoreDevMsg = options.valueOf(ignoreDevMsgOpt);
             this.providers = options.valuesOf(providersOpt);
             this.seedNodes = options.valuesOf(seedNodesOpt);
             this.banList = options.valuesOf(banListOpt);
             this.useLocalhostForP2P = !this.baseCurrencyNetwork.isMainnet() && options.valueOf(useLocalhostForP2POpt);
+            this.useNonBlockingIo = options.valueOf(useNonBlockingIoOpt);
             this.maxConnections = options.valueOf(maxConnectionsOpt);
             this.socks5ProxyBtcAddress = options.valueOf(socks5ProxyBtcAddressOpt);
             this.socks5ProxyHttpAddress = options.valueOf(socks5ProxyHttpAddressOpt);
@@ -682,6 +730,8 @@ public class Config {
             this.msgThrottlePer10Sec = options.valueOf(msgThrottlePer10SecOpt);
             this.sendMsgThrottleTrigger = options.valueOf(sendMsgThrottleTriggerOpt);
             this.sendMsgThrottleSleep = options.valueOf(sendMsgThrottleSleepOpt);
+            this.sendMsgThrottleBurst = options.valueOf(sendMsgThrottleBurstOpt);
+            this.msgThrottlePerSecByType = options.valuesOf(msgThrottlePerSecByTypeOpt);
             this.btcNodes = options.valueOf(btcNodesOpt);
             this.useTorForBtc = options.valueOf(useTorForBtcOpt);
             this.useTorForBtcOptionSetExplicitly = options.has(useTorForBtcOpt);
@@ -698,6 +748,7 @@ public class Config {
             this.republishMailboxEntries = options.valueOf(republishMailboxEntriesOpt);
             this.bypassMempoolValidation = options.valueOf(bypassMempoolValidationOpt);
             this.passwordRequired = options.valueOf(passwordRequiredOpt);
+            this.metricsPort = options.valueOf(metricsPortOpt);
         } catch (OptionException ex) {
             throw new ConfigException("problem parsing option '%s': %s",
                     ex.options().get(0),
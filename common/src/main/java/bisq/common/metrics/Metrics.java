@@ -0,0 +1,47 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.metrics;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Access to the metrics registry of the application. Metrics are collected from code which is not created by
+ * Guice, like connections and tasks, so the registry is static.
+ */
+public final class Metrics {
+    private static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+    private Metrics() {
+    }
+
+    public static MetricsRegistry getRegistry() {
+        return REGISTRY;
+    }
+
+    public static Counter counter(String name, String help, String... labels) {
+        return REGISTRY.counter(name, help, labels);
+    }
+
+    public static Histogram histogram(String name, String help, String... labels) {
+        return REGISTRY.histogram(name, help, labels);
+    }
+
+    public static void gauge(String name, String help, DoubleSupplier supplier, String... labels) {
+        REGISTRY.gauge(name, help, supplier, labels);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Holds the counters, histograms and gauges of the application. Metrics are identified by name and labels, the
+ * labels are given as pairs of label name and value. Getting a metric which exists already is a map lookup, so
+ * call sites can look them up on each use. For hot paths without labels the metric should be kept in a field.
+ *
+ * The metrics are written in the Prometheus text format. Histograms are written as summaries with their
+ * percentiles in seconds.
+ */
+@Slf4j
+public final class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private enum Type {
+        COUNTER("counter"),
+        GAUGE("gauge"),
+        SUMMARY("summary");
+
+        private final String prometheusName;
+
+        Type(String prometheusName) {
+            this.prometheusName = prometheusName;
+        }
+    }
+
+    private static class Family {
+        private final Type type;
+        private final String help;
+        // Label string to the metric, sorted for a stable output
+        private final Map<String, Object> metrics = new ConcurrentSkipListMap<>();
+
+        Family(Type type, String help) {
+            this.type = type;
+            this.help = help;
+        }
+    }
+
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) getFamily(name, help, Type.COUNTER).metrics
+                .computeIfAbsent(toLabelString(labels), key -> new Counter());
+    }
+
+    public Histogram histogram(String name, String help, String... labels) {
+        return (Histogram) getFamily(name, help, Type.SUMMARY).metrics
+                .computeIfAbsent(toLabelString(labels), key -> new Histogram());
+    }
+
+    /**
+     * Registers a gauge, which replaces a gauge with the same name and labels. The supplier is called when the
+     * metrics are written, so it must be thread safe and cheap.
+     */
+    public void gauge(String name, String help, DoubleSupplier supplier, String... labels) {
+        getFamily(name, help, Type.GAUGE).metrics.put(toLabelString(labels), supplier);
+    }
+
+    public void writePrometheusText(Writer writer) throws IOException {
+        for (Map.Entry<String, Family> entry : new ConcurrentSkipListMap<>(families).entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            writer.write("# HELP " + name + " " + family.help + "\n");
+            writer.write("# TYPE " + name + " " + family.type.prometheusName + "\n");
+            for (Map.Entry<String, Object> metricEntry : family.metrics.entrySet()) {
+                String labels = metricEntry.getKey();
+                Object metric = metricEntry.getValue();
+                switch (family.type) {
+                    case COUNTER:
+                        writeSample(writer, name, labels, ((Counter) metric).get());
+                        break;
+                    case GAUGE:
+                        double value;
+                        try {
+                            value = ((DoubleSupplier) metric).getAsDouble();
+                        } catch (RuntimeException e) {
+                            log.warn("Gauge {} failed: {}", name, e.toString());
+                            continue;
+                        }
+                        writeSample(writer, name, labels, value);
+                        break;
+                    case SUMMARY:
+                        Histogram histogram = (Histogram) metric;
+                        for (double quantile : QUANTILES) {
+                            String quantileLabels = (labels.isEmpty() ? "" : labels + ",") + "quantile=\"" + quantile + "\"";
+                            writeSample(writer, name, quantileLabels, toSeconds(histogram.getValueAtPercentile(quantile * 100)));
+                        }
+                        writeSample(writer, name + "_sum", labels, toSeconds(histogram.getSum()));
+                        writeSample(writer, name + "_count", labels, histogram.getCount());
+                        break;
+                }
+            }
+        }
+    }
+
+    private Family getFamily(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(type, help));
+        checkArgument(family.type == type, "Metric %s is registered as %s already", name, family.type);
+        return family;
+    }
+
+    private static String toLabelString(String... labels) {
+        checkArgument(labels.length % 2 == 0, "Labels must be pairs of name and value");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        return sb.toString();
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static void writeSample(Writer writer, String name, String labels, double value) throws IOException {
+        writer.write(name);
+        if (!labels.isEmpty()) {
+            writer.write("{" + labels + "}");
+        }
+        writer.write(" " + (value == Math.rint(value) && !Double.isInfinite(value) ? Long.toString((long) value) : Double.toString(value)) + "\n");
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / 1e9;
+    }
+}
@@ -24,8 +24,11 @@ import bisq.common.config.Config;
 import bisq.common.file.CorruptedStorageFileHandler;
 import bisq.common.file.FileUtil;
 import bisq.common.handlers.ResultHandler;
+import bisq.common.metrics.Histogram;
+import bisq.common.metrics.Metrics;
 import bisq.common.proto.persistable.PersistableEnvelope;
 import bisq.common.proto.persistable.PersistenceProtoResolver;
+import bisq.common.proto.persistable.ShardedPersistableEnvelope;
 import bisq.common.util.Utilities;
 
 import com.google.inject.Inject;
@@ -34,14 +37,21 @@ import javax.inject.Named;
 
 import java.nio.file.Path;
 
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -54,6 +64,7 @@ import lombok.extern.slf4j.Slf4j;
 import javax.annotation.Nullable;
 
 import static bisq.common.util.Preconditions.checkDir;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
@@ -69,6 +80,15 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * previously we wasted a lot of resources as way too many threads have been created without doing actual work as well
  * the write operations got triggered way too often specially for the very frequent changes at SequenceNumberMap
  *
+ * Optionally (see {@link Config#USE_PERSISTENCE_JOURNAL}) data stores which only get entries added or overwritten can
+ * persist the changes with {@link #appendToJournal} instead of rewriting the whole file. The changes get appended to a
+ * journal file next to the snapshot and merged onto it at reading. If the journal grows too large we write a new
+ * snapshot and start a new journal.
+ *
+ * Persistables consisting of independent entries (see {@link ShardedPersistableEnvelope}) can be initialized with
+ * {@link #initializeSharded} to be persisted with one file per entry. Only the entries which got changed since the
+ * last write get written. Entries not changed for a while can be moved to an archive which is only read on request
+ * with {@link #readArchived} or {@link #getArchivedShard}. Data persisted in a single file gets migrated at the first write.
  *
  * @param <T>   The type of the {@link PersistableEnvelope} to be written or read from disk
  */
@@ -80,6 +100,9 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public static final Map<String, PersistenceManager<?>> ALL_PERSISTENCE_MANAGERS = new HashMap<>();
+    private static final String JOURNAL_FILE_POSTFIX = ".journal";
+    // We write a new snapshot once the journal is larger than half of the snapshot, but not below that size.
+    private static final long MIN_JOURNAL_SIZE_FOR_COMPACTION = 1024 * 1024;
     private static boolean flushAtShutdownCalled;
     private static final AtomicBoolean allServicesInitialized = new AtomicBoolean(false);
 
@@ -89,7 +112,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         ALL_PERSISTENCE_MANAGERS.values().forEach(persistenceManager -> {
             // In case we got a requestPersistence call before we got initialized we trigger the timer for the
             // persist call
-            if (persistenceManager.persistenceRequested) {
+            if (persistenceManager.hasPendingChanges()) {
                 persistenceManager.maybeStartTimerForPersistence();
             }
         });
@@ -141,7 +164,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
                 // read the data, which would lead to a write of empty data
                 // (fixes https://github.com/bisq-network/bisq/issues/4844).
                 if (persistenceManager.readCalled.get() &&
-                        (persistenceManager.source.flushAtShutDown || persistenceManager.persistenceRequested)) {
+                        (persistenceManager.source.flushAtShutDown || persistenceManager.hasPendingChanges())) {
                     // We always get our completeHandler called even if exceptions happen. In case a file write fails
                     // we still call our shutdown and count down routine as the completeHandler is triggered in any case.
 
@@ -209,6 +232,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     private final PersistenceProtoResolver persistenceProtoResolver;
     private final CorruptedStorageFileHandler corruptedStorageFileHandler;
     private File storageFile;
+    private File journalFile;
     private T persistable;
     private String fileName;
     private Source source = Source.PRIVATE_LOW_PRIO;
@@ -219,6 +243,16 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     private ExecutorService writeToDiskExecutor;
     public final AtomicBoolean initCalled = new AtomicBoolean(false);
     public final AtomicBoolean readCalled = new AtomicBoolean(false);
+    private boolean useJournal;
+    // Serialized journal entries not written yet. Only accessed from the user thread.
+    private final List<protobuf.PersistableEnvelope> pendingJournalEntries = new ArrayList<>();
+    // Size of the journal file including the scheduled writes. Only accessed from the user thread.
+    private long journalSize;
+    @Nullable
+    private ShardStore shardStore;
+    // Keys of the shards requested for persistence. Only accessed from the user thread.
+    private final Set<String> pendingShardKeys = new LinkedHashSet<>();
+    private volatile boolean migrateToShards;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -234,6 +268,11 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         this.corruptedStorageFileHandler = corruptedStorageFileHandler;
     }
 
+    @Inject(optional = true)
+    public void setUseJournal(@Named(Config.USE_PERSISTENCE_JOURNAL) boolean useJournal) {
+        this.useJournal = useJournal;
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -270,9 +309,27 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         this.fileName = fileName;
         this.source = source;
         storageFile = new File(dir, fileName);
+        journalFile = new File(dir, fileName + JOURNAL_FILE_POSTFIX);
+        journalSize = journalFile.length();
         ALL_PERSISTENCE_MANAGERS.put(fileName, this);
     }
 
+    /**
+     * Initializes the persistence with one file per shard of the persistable.
+     *
+     * @param persistable   The persistable, must be a {@link ShardedPersistableEnvelope}.
+     * @param fileName      The name used for the directory of the shards.
+     * @param source        The source of the data.
+     * @param archiveAge    Shards which have not been changed for that time in ms get archived at the next write of
+     *                      all shards. Use 0 to not archive any shards.
+     */
+    public void initializeSharded(T persistable, String fileName, Source source, long archiveAge) {
+        checkArgument(persistable instanceof ShardedPersistableEnvelope,
+                "Persistable must be a ShardedPersistableEnvelope");
+        initialize(persistable, fileName, source);
+        shardStore = new ShardStore(dir, fileName, archiveAge);
+    }
+
     public void shutdown() {
         ALL_PERSISTENCE_MANAGERS.remove(fileName);
 
@@ -340,23 +397,45 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
         readCalled.set(true);
 
+        if (shardStore != null && shardStore.exists()) {
+            return getPersistedShards();
+        }
+
         File storageFile = new File(dir, fileName);
-        if (!storageFile.exists()) {
+        File journalFile = new File(dir, fileName + JOURNAL_FILE_POSTFIX);
+        if (!storageFile.exists() && !journalFile.exists()) {
             return null;
         }
 
         long ts = System.currentTimeMillis();
-        try (FileInputStream fileInputStream = new FileInputStream(storageFile)) {
-            protobuf.PersistableEnvelope proto = protobuf.PersistableEnvelope.parseDelimitedFrom(fileInputStream);
+        try {
+            protobuf.PersistableEnvelope proto = protobuf.PersistableEnvelope.getDefaultInstance();
+            if (storageFile.exists()) {
+                try (FileInputStream fileInputStream = new FileInputStream(storageFile)) {
+                    proto = protobuf.PersistableEnvelope.parseDelimitedFrom(fileInputStream);
+                }
+            }
+            if (journalFile.exists()) {
+                proto = applyJournal(proto, journalFile);
+            }
+            if (proto.getMessageCase() == protobuf.PersistableEnvelope.MessageCase.MESSAGE_NOT_SET) {
+                return null;
+            }
             //noinspection unchecked
             T persistableEnvelope = (T) persistenceProtoResolver.fromProto(proto);
             log.info("Reading {} completed in {} ms", fileName, System.currentTimeMillis() - ts);
+            if (shardStore != null) {
+                // We write all shards at the next write and move the file to a backup folder afterwards.
+                migrateToShards = true;
+                persistenceRequested = true;
+            }
             return persistableEnvelope;
         } catch (Throwable t) {
             log.error("Reading {} failed with {}.", fileName, t.getMessage());
             try {
                 // We keep a backup which might be used for recovery
                 FileUtil.removeAndBackupFile(dir, storageFile, fileName, "backup_of_corrupted_data");
+                FileUtil.removeAndBackupFile(dir, journalFile, journalFile.getName(), "backup_of_corrupted_data");
                 DevEnv.logErrorAndThrowIfDevMode(t.toString());
             } catch (IOException e1) {
                 e1.printStackTrace();
@@ -370,6 +449,110 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         return null;
     }
 
+    @Nullable
+    private T getPersistedShards() {
+        long ts = System.currentTimeMillis();
+        try {
+            protobuf.PersistableEnvelope proto = checkNotNull(shardStore).readActive();
+            if (proto.getMessageCase() == protobuf.PersistableEnvelope.MessageCase.MESSAGE_NOT_SET) {
+                return null;
+            }
+            T persistableEnvelope = fromProto(proto);
+            log.info("Reading {} shards of {} completed in {} ms",
+                    shardStore.getNumActiveRecords(), fileName, System.currentTimeMillis() - ts);
+            return persistableEnvelope;
+        } catch (Throwable t) {
+            log.error("Reading shards of {} failed with {}.", fileName, t.getMessage());
+            DevEnv.logErrorAndThrowIfDevMode(t.toString());
+            if (corruptedStorageFileHandler != null) {
+                corruptedStorageFileHandler.addFile(fileName);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Read the archived shards in a thread.
+     * We map result handler calls to UserThread, so clients don't need to worry about threading
+     *
+     * @param resultHandler     Consumer of the archived data once it was read from disk.
+     * @param orElse            Called if the persistable is not sharded, there is no archived data or reading failed.
+     */
+    public void readArchived(Consumer<T> resultHandler, Runnable orElse) {
+        if (shardStore == null) {
+            UserThread.execute(orElse);
+            return;
+        }
+
+        new Thread(() -> {
+            T archived = null;
+            try {
+                protobuf.PersistableEnvelope proto = shardStore.readArchive();
+                if (proto.getMessageCase() != protobuf.PersistableEnvelope.MessageCase.MESSAGE_NOT_SET) {
+                    archived = fromProto(proto);
+                }
+            } catch (Throwable t) {
+                log.error("Reading archive of {} failed with {}.", fileName, t.getMessage());
+            }
+
+            if (archived != null) {
+                T result = archived;
+                UserThread.execute(() -> resultHandler.accept(result));
+            } else {
+                UserThread.execute(orElse);
+            }
+        }, "PersistenceManager-read-archive-" + fileName).start();
+    }
+
+    /**
+     * Reads a single archived shard. Used to resolve archived entries on demand without reading the whole archive.
+     *
+     * @param shardKey  The key of the shard.
+     * @return the archived shard or null if the persistable is not sharded, the shard is not archived or reading
+     * failed.
+     */
+    @Nullable
+    public T getArchivedShard(String shardKey) {
+        if (shardStore == null) {
+            return null;
+        }
+
+        try {
+            protobuf.PersistableEnvelope proto = shardStore.readArchived(shardKey);
+            return proto != null ? fromProto(proto) : null;
+        } catch (Throwable t) {
+            log.error("Reading archived shard {} of {} failed with {}.", shardKey, fileName, t.getMessage());
+            return null;
+        }
+    }
+
+    // Used for decoding parts of a persisted file without reading the whole file (e.g. memory mapped stores).
+    public T fromProto(protobuf.PersistableEnvelope proto) {
+        //noinspection unchecked
+        return (T) persistenceProtoResolver.fromProto(proto);
+    }
+
+    // The journal entries are PersistableEnvelopes of the same type containing only the changed data. We merge them in
+    // order onto the snapshot, so repeated fields get appended and set fields get overwritten. An incomplete last entry
+    // (e.g. caused by a crash while writing) is ignored.
+    private protobuf.PersistableEnvelope applyJournal(protobuf.PersistableEnvelope snapshot, File journalFile)
+            throws IOException {
+        protobuf.PersistableEnvelope.Builder builder = snapshot.toBuilder();
+        int numEntries = 0;
+        try (FileInputStream fileInputStream = new FileInputStream(journalFile)) {
+            protobuf.PersistableEnvelope entry;
+            while ((entry = protobuf.PersistableEnvelope.parseDelimitedFrom(fileInputStream)) != null) {
+                builder.mergeFrom(entry);
+                numEntries++;
+            }
+        } catch (InvalidProtocolBufferException e) {
+            log.warn("Reading journal {} stopped after {} entries due an incomplete entry: {}",
+                    journalFile.getName(), numEntries, e.getMessage());
+        }
+        log.info("Applied {} journal entries of {}", numEntries, journalFile.getName());
+        return builder.build();
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Write file to disk
@@ -397,6 +580,71 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         maybeStartTimerForPersistence();
     }
 
+    /**
+     * Requests persistence of the shard with the given key only. If the shard does not exist anymore it gets removed.
+     * If the persistable is not sharded it is the same as requestPersistence().
+     *
+     * @param shardKey  The key of the changed shard.
+     */
+    public void requestPersistence(String shardKey) {
+        if (shardStore == null) {
+            requestPersistence();
+            return;
+        }
+
+        if (flushAtShutdownCalled) {
+            log.warn("We have started the shut down routine already. We ignore that requestPersistence call.");
+            return;
+        }
+
+        if (!initCalled.get()) {
+            log.warn("requestPersistence() called before init. Ignoring request");
+            return;
+        }
+
+        pendingShardKeys.add(shardKey);
+
+        if (!allServicesInitialized.get()) {
+            return;
+        }
+
+        maybeStartTimerForPersistence();
+    }
+
+    /**
+     * Requests persistence of the given delta only. The delta is a persistable of the same type containing only the
+     * changed data. It gets merged onto the persisted data at reading, so it must only be used for data which gets
+     * added or overwritten, but not removed. For removals use requestPersistence(), which writes a new snapshot.
+     * If the journal is not enabled it is the same as requestPersistence().
+     *
+     * @param delta     Persistable containing only the changed data.
+     */
+    public void appendToJournal(T delta) {
+        if (!useJournal) {
+            requestPersistence();
+            return;
+        }
+
+        if (flushAtShutdownCalled) {
+            log.warn("We have started the shut down routine already. We ignore that appendToJournal call.");
+            return;
+        }
+
+        if (!initCalled.get()) {
+            log.warn("appendToJournal() called before init. Ignoring request");
+            return;
+        }
+
+        // We serialize on the user thread for the same reason as in persistNow.
+        pendingJournalEntries.add((protobuf.PersistableEnvelope) delta.toPersistableMessage());
+
+        if (!allServicesInitialized.get()) {
+            return;
+        }
+
+        maybeStartTimerForPersistence();
+    }
+
     private void maybeStartTimerForPersistence() {
         // We write to disk with a delay to avoid frequent write operations. Depending on the priority those delays
         // can be rather long.
@@ -409,11 +657,34 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     }
 
     public void persistNow(@Nullable Runnable completeHandler) {
+        if (shardStore != null) {
+            persistShards(completeHandler);
+            return;
+        }
+
+        if (!persistenceRequested && !pendingJournalEntries.isEmpty() && !isJournalCompactionRequired()) {
+            List<protobuf.PersistableEnvelope> journalEntries = new ArrayList<>(pendingJournalEntries);
+            pendingJournalEntries.clear();
+            journalSize += journalEntries.stream()
+                    .mapToInt(entry -> CodedOutputStream.computeUInt32SizeNoTag(entry.getSerializedSize()) +
+                            entry.getSerializedSize())
+                    .sum();
+            getWriteToDiskExecutor().execute(() -> writeToJournal(journalEntries, completeHandler));
+            return;
+        }
+
+        // The snapshot contains all pending journal entries and replaces the journal.
+        pendingJournalEntries.clear();
+        journalSize = 0;
+
         long ts = System.currentTimeMillis();
+        long startNanos = Histogram.startTimer();
         try {
             // The serialisation is done on the user thread to avoid threading issue with potential mutations of the
             // persistable object. Keeping it on the user thread we are in a synchronize model.
             protobuf.PersistableEnvelope serialized = (protobuf.PersistableEnvelope) persistable.toPersistableMessage();
+            Metrics.histogram("haveno_persistence_serialize_seconds", "Duration of serializing a persisted file",
+                    "file", fileName).recordSince(startNanos);
 
             // For the write to disk task we use a thread. We do not have any issues anymore if the persistable objects
             // gets mutated while the thread is running as we have serialized it already and do not operate on the
@@ -439,6 +710,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
 
         long ts = System.currentTimeMillis();
+        long startNanos = Histogram.startTimer();
         File tempFile = null;
         FileOutputStream fileOutputStream = null;
 
@@ -470,6 +742,11 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
             FileUtil.renameFile(tempFile, storageFile);
             usedTempFilePath = tempFile.toPath();
+
+            // The new snapshot contains all journal entries. If we get interrupted before the journal got deleted,
+            // its entries get merged again at reading, which does not change the data.
+            FileUtil.deleteFileIfExists(journalFile);
+            addWriteMetrics(startNanos, serialized.getSerializedSize());
         } catch (Throwable t) {
             // If an error occurred, don't attempt to reuse this path again, in case temp file cleanup fails.
             usedTempFilePath = null;
@@ -502,6 +779,122 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
     }
 
+    private void persistShards(@Nullable Runnable completeHandler) {
+        long ts = System.currentTimeMillis();
+        ShardedPersistableEnvelope sharded = (ShardedPersistableEnvelope) persistable;
+        ShardStore.WriteBatch batch;
+        // As for persistNow we serialize on the user thread. If only single shards got requested we only serialize
+        // those, otherwise we compare all shards with the persisted ones.
+        if (persistenceRequested || pendingShardKeys.isEmpty()) {
+            batch = checkNotNull(shardStore).prepareFullWrite(sharded.toShardMessages());
+        } else {
+            Map<String, protobuf.PersistableEnvelope> shards = new HashMap<>();
+            pendingShardKeys.forEach(key -> {
+                protobuf.PersistableEnvelope shard = sharded.toShardMessage(key);
+                if (shard != null) {
+                    shards.put(key, shard);
+                }
+            });
+            batch = checkNotNull(shardStore).prepareWrite(shards, pendingShardKeys);
+        }
+        persistenceRequested = false;
+        pendingShardKeys.clear();
+        boolean migrate = migrateToShards;
+        migrateToShards = false;
+
+        long duration = System.currentTimeMillis() - ts;
+        if (duration > 100) {
+            log.info("Serializing shards of {} took {} msec", fileName, duration);
+        }
+
+        if (batch.isEmpty() && !migrate) {
+            if (completeHandler != null) {
+                UserThread.execute(completeHandler);
+            }
+            return;
+        }
+
+        getWriteToDiskExecutor().execute(() -> writeShards(batch, migrate, completeHandler));
+    }
+
+    private void writeShards(ShardStore.WriteBatch batch, boolean migrate, @Nullable Runnable completeHandler) {
+        if (!allServicesInitialized.get()) {
+            log.warn("Application has not completed start up yet so we do not permit writing data to disk.");
+            checkNotNull(shardStore).onWriteFailed(batch);
+            if (completeHandler != null) {
+                UserThread.execute(completeHandler);
+            }
+            return;
+        }
+
+        long ts = System.currentTimeMillis();
+        try {
+            checkNotNull(shardStore).write(batch);
+            if (migrate) {
+                FileUtil.removeAndBackupFile(dir, storageFile, fileName, "backup_of_migrated_data");
+                FileUtil.deleteFileIfExists(journalFile);
+                log.info("Migrated {} to shards", fileName);
+            }
+        } catch (Throwable t) {
+            checkNotNull(shardStore).onWriteFailed(batch);
+            log.error("Error at writing shards, storageFile={}", fileName, t);
+        } finally {
+            long duration = System.currentTimeMillis() - ts;
+            if (duration > 100) {
+                log.info("Writing {} shards of {} completed in {} msec", batch.getNumRecordsToWrite(), fileName, duration);
+            }
+            if (completeHandler != null) {
+                UserThread.execute(completeHandler);
+            }
+        }
+    }
+
+    private void writeToJournal(List<protobuf.PersistableEnvelope> journalEntries, @Nullable Runnable completeHandler) {
+        if (!allServicesInitialized.get()) {
+            log.warn("Application has not completed start up yet so we do not permit writing data to disk.");
+            if (completeHandler != null) {
+                UserThread.execute(completeHandler);
+            }
+            return;
+        }
+
+        long ts = System.currentTimeMillis();
+        long startNanos = Histogram.startTimer();
+        try (FileOutputStream fileOutputStream = new FileOutputStream(journalFile, true)) {
+            for (protobuf.PersistableEnvelope entry : journalEntries) {
+                entry.writeDelimitedTo(fileOutputStream);
+            }
+            fileOutputStream.flush();
+            fileOutputStream.getFD().sync();
+            addWriteMetrics(startNanos, journalEntries.stream().mapToLong(protobuf.PersistableEnvelope::getSerializedSize).sum());
+        } catch (Throwable t) {
+            log.error("Error at writing journal, storageFile={}", fileName, t);
+        } finally {
+            long duration = System.currentTimeMillis() - ts;
+            if (duration > 100) {
+                log.info("Writing {} journal entries of {} completed in {} msec", journalEntries.size(), fileName, duration);
+            }
+            if (completeHandler != null) {
+                UserThread.execute(completeHandler);
+            }
+        }
+    }
+
+    private void addWriteMetrics(long startNanos, long numBytes) {
+        Metrics.histogram("haveno_persistence_write_seconds", "Duration of writing a persisted file or its journal",
+                "file", fileName).recordSince(startNanos);
+        Metrics.counter("haveno_persistence_written_bytes_total", "Bytes written to persisted files and journals",
+                "file", fileName).inc(numBytes);
+    }
+
+    private boolean hasPendingChanges() {
+        return persistenceRequested || !pendingJournalEntries.isEmpty() || !pendingShardKeys.isEmpty();
+    }
+
+    private boolean isJournalCompactionRequired() {
+        return journalSize > Math.max(MIN_JOURNAL_SIZE_FOR_COMPACTION, storageFile.length() / 2);
+    }
+
     private ExecutorService getWriteToDiskExecutor() {
         if (writeToDiskExecutor == null) {
             String name = "Write-" + fileName + "_to-disk";
@@ -520,6 +913,8 @@ public class PersistenceManager<T extends PersistableEnvelope> {
                 ",\n     source=" + source +
                 ",\n     usedTempFilePath=" + usedTempFilePath +
                 ",\n     persistenceRequested=" + persistenceRequested +
+                ",\n     useJournal=" + useJournal +
+                ",\n     journalSize=" + journalSize +
                 "\n}";
     }
 }
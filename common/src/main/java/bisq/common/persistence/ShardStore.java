@@ -0,0 +1,482 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.persistence;
+
+import bisq.common.crypto.Hash;
+import bisq.common.file.FileUtil;
+import bisq.common.util.Utilities;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Stores the shards of a {@link bisq.common.proto.persistable.ShardedPersistableEnvelope} in a directory with one file
+ * per record, so that a changed record costs only the write of its own file. The index lists the records stored in
+ * their own files and the keys of the archived records. Records which have not been changed for the archive age get
+ * moved to the archive file, which is only read on request. Archived records are not part of a full write, so they
+ * do not need to be held in memory. They only get written again if they got changed or removed by key. The files of removed and archived records are listed in
+ * the index until they got deleted, so that we do not take such a file for an interrupted write of a new record.
+ *
+ * The state is changed at reading and when preparing a write on the user thread. The prepared {@link WriteBatch} is
+ * written on the write thread of the PersistenceManager.
+ */
+@Slf4j
+class ShardStore {
+    private static final String SHARD_DIR_POSTFIX = "_shards";
+    private static final String INDEX_FILE_NAME = "index";
+    private static final String ARCHIVE_FILE_NAME = "archive";
+    private static final String SHARD_FILE_POSTFIX = ".shard";
+    private static final String TEMP_FILE_POSTFIX = ".tmp";
+    private static final Pattern PLAIN_KEY = Pattern.compile("[A-Za-z0-9_-]{1,100}");
+
+    private final File shardDir;
+    private final File indexFile;
+    private final File archiveFile;
+    private final long archiveAge;
+
+    // Records stored in their own file in the order they got added.
+    private final Map<String, String> activeFileNames = new LinkedHashMap<>();
+    private final Map<String, Long> lastModified = new HashMap<>();
+    private final Set<String> archivedKeys = new LinkedHashSet<>();
+    // Files of removed or archived records which might still exist.
+    private final Set<String> removedFileNames = new LinkedHashSet<>();
+    // Hash of the last persisted serialisation of each record we have read or written.
+    private final Map<String, byte[]> hashes = new HashMap<>();
+    private boolean indexDirty;
+
+    /**
+     * @param dir           The storage directory.
+     * @param name          The file name of the persistable.
+     * @param archiveAge    Records not changed for that time in ms get archived. 0 disables the archive.
+     */
+    ShardStore(File dir, String name, long archiveAge) {
+        this.shardDir = new File(dir, name + SHARD_DIR_POSTFIX);
+        this.indexFile = new File(shardDir, INDEX_FILE_NAME);
+        this.archiveFile = new File(shardDir, ARCHIVE_FILE_NAME);
+        this.archiveAge = archiveAge;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Reading
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    boolean exists() {
+        return indexFile.exists();
+    }
+
+    synchronized int getNumActiveRecords() {
+        return activeFileNames.size();
+    }
+
+    /**
+     * @return all records stored in their own files merged to one envelope.
+     */
+    synchronized protobuf.PersistableEnvelope readActive() throws IOException {
+        protobuf.ShardIndex index;
+        try (FileInputStream fileInputStream = new FileInputStream(indexFile)) {
+            index = protobuf.ShardIndex.parseDelimitedFrom(fileInputStream);
+        }
+
+        Map<String, protobuf.ShardRecord> records = new LinkedHashMap<>();
+        for (protobuf.ShardIndexEntry entry : index.getActiveList()) {
+            File file = new File(shardDir, entry.getFileName());
+            protobuf.ShardRecord record = readRecord(file);
+            if (record != null) {
+                records.put(entry.getKey(), record);
+                activeFileNames.put(entry.getKey(), entry.getFileName());
+                lastModified.put(entry.getKey(), file.lastModified());
+            } else {
+                indexDirty = true;
+            }
+        }
+
+        // If we got interrupted after writing a new record but before writing the index we find the record file
+        // without an index entry. Files of removed records which did not get deleted are listed in the index.
+        Set<String> removedFileNamesInIndex = new HashSet<>(index.getRemovedFileNameList());
+        if (!removedFileNamesInIndex.isEmpty()) {
+            indexDirty = true;
+        }
+        File[] files = shardDir.listFiles((d, name) -> name.endsWith(SHARD_FILE_POSTFIX));
+        if (files != null) {
+            for (File file : files) {
+                if (activeFileNames.containsValue(file.getName())) {
+                    continue;
+                }
+                if (removedFileNamesInIndex.contains(file.getName())) {
+                    log.info("Deleting file {} of removed record in {}", file.getName(), shardDir.getName());
+                    FileUtil.deleteFileIfExists(file);
+                    if (file.exists()) {
+                        removedFileNames.add(file.getName());
+                    }
+                    continue;
+                }
+                protobuf.ShardRecord record = readRecord(file);
+                if (record != null && !records.containsKey(record.getKey())) {
+                    log.info("Found record {} without index entry in {}", record.getKey(), shardDir.getName());
+                    records.put(record.getKey(), record);
+                    activeFileNames.put(record.getKey(), file.getName());
+                    lastModified.put(record.getKey(), file.lastModified());
+                    indexDirty = true;
+                }
+            }
+        }
+
+        index.getArchivedKeyList().stream()
+                .filter(key -> !activeFileNames.containsKey(key))
+                .forEach(archivedKeys::add);
+
+        protobuf.PersistableEnvelope.Builder builder = protobuf.PersistableEnvelope.newBuilder();
+        records.forEach((key, record) -> {
+            hashes.put(key, getHash(record.getEnvelope()));
+            builder.mergeFrom(record.getEnvelope());
+        });
+        return builder.build();
+    }
+
+    /**
+     * @return all archived records merged to one envelope.
+     */
+    synchronized protobuf.PersistableEnvelope readArchive() throws IOException {
+        Map<String, protobuf.ShardRecord> records = new LinkedHashMap<>();
+        for (protobuf.ShardRecord record : readArchiveRecords()) {
+            if (archivedKeys.contains(record.getKey())) {
+                // A record might have been archived again after it was changed, the last one is the valid one.
+                records.remove(record.getKey());
+                records.put(record.getKey(), record);
+            }
+        }
+
+        protobuf.PersistableEnvelope.Builder builder = protobuf.PersistableEnvelope.newBuilder();
+        records.forEach((key, record) -> {
+            hashes.put(key, getHash(record.getEnvelope()));
+            builder.mergeFrom(record.getEnvelope());
+        });
+        log.info("Read {} archived records of {}", records.size(), shardDir.getName());
+        return builder.build();
+    }
+
+    /**
+     * @param key   The key of the record.
+     * @return the archived record with the given key or null if the record is not archived.
+     */
+    @Nullable
+    synchronized protobuf.PersistableEnvelope readArchived(String key) throws IOException {
+        if (!archivedKeys.contains(key)) {
+            return null;
+        }
+
+        protobuf.ShardRecord result = null;
+        for (protobuf.ShardRecord record : readArchiveRecords()) {
+            // A record might have been archived again after it was changed, the last one is the valid one.
+            if (record.getKey().equals(key)) {
+                result = record;
+            }
+        }
+        if (result == null) {
+            return null;
+        }
+        hashes.put(key, getHash(result.getEnvelope()));
+        return result.getEnvelope();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Writing
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Compares all records with the persisted ones and archives records which have not been changed for the archive
+     * age. Archived records missing in the shards are kept, as they are not held in memory.
+     *
+     * @param shards    All records by key.
+     */
+    synchronized WriteBatch prepareFullWrite(Map<String, protobuf.PersistableEnvelope> shards) {
+        Set<String> keys = new LinkedHashSet<>(shards.keySet());
+        keys.addAll(activeFileNames.keySet());
+        return prepareWrite(shards, keys, true);
+    }
+
+    /**
+     * @param shards    The records by key. Keys without record get removed.
+     * @param keys      The keys of the records to check.
+     */
+    synchronized WriteBatch prepareWrite(Map<String, protobuf.PersistableEnvelope> shards, Collection<String> keys) {
+        return prepareWrite(shards, keys, false);
+    }
+
+    private WriteBatch prepareWrite(Map<String, protobuf.PersistableEnvelope> shards,
+                                    Collection<String> keys,
+                                    boolean allowArchiving) {
+        WriteBatch batch = new WriteBatch();
+        long now = System.currentTimeMillis();
+        boolean indexChanged = indexDirty;
+        for (String key : keys) {
+            protobuf.PersistableEnvelope envelope = shards.get(key);
+            if (envelope != null) {
+                byte[] hash = getHash(envelope);
+                if (!Arrays.equals(hash, hashes.get(key))) {
+                    hashes.put(key, hash);
+                    if (!activeFileNames.containsKey(key)) {
+                        String fileName = getFileName(key);
+                        activeFileNames.put(key, fileName);
+                        removedFileNames.remove(fileName);
+                        indexChanged = true;
+                        if (archivedKeys.remove(key)) {
+                            batch.keysToRemoveFromArchive.add(key);
+                        }
+                    }
+                    batch.recordsToWrite.put(activeFileNames.get(key), toRecord(key, envelope));
+                    lastModified.put(key, now);
+                } else if (allowArchiving && archiveAge > 0 && activeFileNames.containsKey(key) &&
+                        lastModified.getOrDefault(key, now) < now - archiveAge) {
+                    String fileName = activeFileNames.remove(key);
+                    batch.recordsToArchive.add(toRecord(key, envelope));
+                    batch.archivedFileNames.put(key, fileName);
+                    removedFileNames.add(fileName);
+                    lastModified.remove(key);
+                    archivedKeys.add(key);
+                    indexChanged = true;
+                }
+            } else {
+                hashes.remove(key);
+                lastModified.remove(key);
+                if (activeFileNames.containsKey(key)) {
+                    removedFileNames.add(activeFileNames.remove(key));
+                    indexChanged = true;
+                } else if (archivedKeys.remove(key)) {
+                    batch.keysToRemoveFromArchive.add(key);
+                    indexChanged = true;
+                }
+            }
+        }
+
+        if (indexChanged) {
+            protobuf.ShardIndex.Builder builder = protobuf.ShardIndex.newBuilder()
+                    .addAllArchivedKey(archivedKeys)
+                    .addAllRemovedFileName(removedFileNames);
+            activeFileNames.forEach((key, fileName) -> builder.addActive(protobuf.ShardIndexEntry.newBuilder()
+                    .setKey(key)
+                    .setFileName(fileName)));
+            batch.index = builder.build();
+            indexDirty = false;
+        }
+        // Files which could not be deleted at a previous write are deleted again.
+        batch.filesToDelete.addAll(removedFileNames);
+        return batch;
+    }
+
+    /**
+     * Writes the batch. The records get written before the index and files get deleted after it, so that we never
+     * have an index entry without a file if we get interrupted. The index lists the files to delete, so a file which
+     * is left over after an interruption gets deleted at the next read.
+     */
+    void write(WriteBatch batch) throws IOException {
+        if (!shardDir.exists() && !shardDir.mkdirs()) {
+            throw new IOException("Failed to create directory " + shardDir);
+        }
+
+        for (Map.Entry<String, protobuf.ShardRecord> entry : batch.recordsToWrite.entrySet()) {
+            writeAtomically(new File(shardDir, entry.getKey()), entry.getValue());
+        }
+
+        if (!batch.recordsToArchive.isEmpty()) {
+            try (FileOutputStream fileOutputStream = new FileOutputStream(archiveFile, true)) {
+                for (protobuf.ShardRecord record : batch.recordsToArchive) {
+                    record.writeDelimitedTo(fileOutputStream);
+                }
+                fileOutputStream.flush();
+                fileOutputStream.getFD().sync();
+            }
+        }
+
+        if (!batch.keysToRemoveFromArchive.isEmpty()) {
+            rewriteArchive(batch.keysToRemoveFromArchive);
+        }
+
+        if (batch.index != null) {
+            writeAtomically(indexFile, batch.index);
+        }
+
+        List<String> deletedFileNames = new ArrayList<>();
+        for (String fileName : batch.filesToDelete) {
+            // The index got written already, so a failed delete must not fail the write. We retry at the next write.
+            File file = new File(shardDir, fileName);
+            try {
+                FileUtil.deleteFileIfExists(file);
+            } catch (IOException e) {
+                log.warn("Deleting {} of {} failed: {}", fileName, shardDir.getName(), e.getMessage());
+            }
+            if (!file.exists()) {
+                deletedFileNames.add(fileName);
+            }
+        }
+        onFilesDeleted(deletedFileNames);
+    }
+
+    // If a write failed we do not know which records got persisted, so we write them again at the next write. Records
+    // which should have been archived stay in their files, as we do not know if they got added to the archive.
+    synchronized void onWriteFailed(WriteBatch batch) {
+        batch.recordsToWrite.values().forEach(record -> hashes.remove(record.getKey()));
+        batch.archivedFileNames.forEach((key, fileName) -> {
+            if (!activeFileNames.containsKey(key) && archivedKeys.remove(key)) {
+                activeFileNames.put(key, fileName);
+                removedFileNames.remove(fileName);
+                // We try to archive it again at the next full write
+                lastModified.put(key, 0L);
+            }
+        });
+        indexDirty = true;
+    }
+
+    // The file name might have been used again by a record added after the batch was prepared.
+    private synchronized void onFilesDeleted(List<String> fileNames) {
+        fileNames.stream()
+                .filter(fileName -> !activeFileNames.containsValue(fileName))
+                .forEach(removedFileNames::remove);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Nullable
+    private protobuf.ShardRecord readRecord(File file) {
+        try (FileInputStream fileInputStream = new FileInputStream(file)) {
+            return protobuf.ShardRecord.parseDelimitedFrom(fileInputStream);
+        } catch (Throwable t) {
+            log.error("Reading record {} of {} failed with {}.", file.getName(), shardDir.getName(), t.getMessage());
+            try {
+                // We keep a backup which might be used for recovery
+                FileUtil.removeAndBackupFile(shardDir, file, file.getName(), "backup_of_corrupted_data");
+            } catch (IOException e) {
+                log.error(e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    // An incomplete last entry (e.g. caused by a crash while appending) is ignored.
+    private List<protobuf.ShardRecord> readArchiveRecords() throws IOException {
+        List<protobuf.ShardRecord> records = new ArrayList<>();
+        if (!archiveFile.exists()) {
+            return records;
+        }
+
+        try (FileInputStream fileInputStream = new FileInputStream(archiveFile)) {
+            protobuf.ShardRecord record;
+            while ((record = protobuf.ShardRecord.parseDelimitedFrom(fileInputStream)) != null) {
+                records.add(record);
+            }
+        } catch (InvalidProtocolBufferException e) {
+            log.warn("Reading archive of {} stopped after {} records due an incomplete record: {}",
+                    shardDir.getName(), records.size(), e.getMessage());
+        }
+        return records;
+    }
+
+    private void rewriteArchive(Set<String> keysToRemove) throws IOException {
+        File tempFile = new File(shardDir, ARCHIVE_FILE_NAME + TEMP_FILE_POSTFIX);
+        try (FileOutputStream fileOutputStream = new FileOutputStream(tempFile)) {
+            for (protobuf.ShardRecord record : readArchiveRecords()) {
+                if (!keysToRemove.contains(record.getKey())) {
+                    record.writeDelimitedTo(fileOutputStream);
+                }
+            }
+            fileOutputStream.flush();
+            fileOutputStream.getFD().sync();
+        }
+        FileUtil.renameFile(tempFile, archiveFile);
+    }
+
+    private void writeAtomically(File file, Message message) throws IOException {
+        File tempFile = new File(shardDir, file.getName() + TEMP_FILE_POSTFIX);
+        try (FileOutputStream fileOutputStream = new FileOutputStream(tempFile)) {
+            message.writeDelimitedTo(fileOutputStream);
+            fileOutputStream.flush();
+            fileOutputStream.getFD().sync();
+        }
+        FileUtil.renameFile(tempFile, file);
+    }
+
+    private String getFileName(String key) {
+        String name = PLAIN_KEY.matcher(key).matches() ?
+                key :
+                Utilities.bytesAsHexString(Hash.getSha256Hash(key));
+        return name + SHARD_FILE_POSTFIX;
+    }
+
+    private static protobuf.ShardRecord toRecord(String key, protobuf.PersistableEnvelope envelope) {
+        return protobuf.ShardRecord.newBuilder()
+                .setKey(key)
+                .setEnvelope(envelope)
+                .build();
+    }
+
+    private static byte[] getHash(protobuf.PersistableEnvelope envelope) {
+        return Hash.getSha256Hash(envelope.toByteArray());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // WriteBatch
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    static class WriteBatch {
+        // Records by file name
+        private final Map<String, protobuf.ShardRecord> recordsToWrite = new LinkedHashMap<>();
+        private final List<protobuf.ShardRecord> recordsToArchive = new ArrayList<>();
+        // File names of the archived records by key
+        private final Map<String, String> archivedFileNames = new HashMap<>();
+        private final Set<String> keysToRemoveFromArchive = new HashSet<>();
+        private final List<String> filesToDelete = new ArrayList<>();
+        @Nullable
+        private protobuf.ShardIndex index;
+
+        boolean isEmpty() {
+            return recordsToWrite.isEmpty() && recordsToArchive.isEmpty() && keysToRemoveFromArchive.isEmpty() &&
+                    filesToDelete.isEmpty() && index == null;
+        }
+
+        int getNumRecordsToWrite() {
+            return recordsToWrite.size();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.proto.persistable;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link PersistableEnvelope} consisting of independent entries which can be persisted as one record per entry
+ * (see {@link bisq.common.persistence.PersistenceManager#initializeSharded}). A shard is an envelope of the same type
+ * containing only one entry, so that merging the shards results in the envelope containing all entries.
+ */
+public interface ShardedPersistableEnvelope extends PersistableEnvelope {
+
+    /**
+     * @return the stable and unique keys of all entries.
+     */
+    Collection<String> getShardKeys();
+
+    /**
+     * @param key   The key of the entry.
+     * @return the envelope containing only the entry with the given key or null if there is no such entry.
+     */
+    @Nullable
+    protobuf.PersistableEnvelope toShardMessage(String key);
+
+    default Map<String, protobuf.PersistableEnvelope> toShardMessages() {
+        Map<String, protobuf.PersistableEnvelope> shards = new LinkedHashMap<>();
+        getShardKeys().forEach(key -> shards.put(key, toShardMessage(key)));
+        return shards;
+    }
+}
@@ -19,6 +19,8 @@ package bisq.common.taskrunner;
 
 import bisq.common.handlers.ErrorMessageHandler;
 import bisq.common.handlers.ResultHandler;
+import bisq.common.metrics.Histogram;
+import bisq.common.metrics.Metrics;
 
 import java.util.Arrays;
 import java.util.Queue;
@@ -37,6 +39,7 @@ public class TaskRunner<T extends Model> {
     private boolean isCanceled;
 
     private Class<? extends Task<T>> currentTask;
+    private long currentTaskStartNanos;
 
 
     public TaskRunner(T sharedModel, ResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
@@ -65,6 +68,7 @@ public class TaskRunner<T extends Model> {
             if (tasks.size() > 0) {
                 try {
                     currentTask = tasks.poll();
+                    currentTaskStartNanos = Histogram.startTimer();
                     log.info("Run task: " + currentTask.getSimpleName());
                     currentTask.getDeclaredConstructor(TaskRunner.class, sharedModelClass).newInstance(this, sharedModel).run();
                 } catch (Throwable throwable) {
@@ -82,12 +86,15 @@ public class TaskRunner<T extends Model> {
     }
 
     void handleComplete() {
+        Metrics.histogram("haveno_task_duration_seconds", "Duration of completed tasks",
+                "task", currentTask.getSimpleName()).recordSince(currentTaskStartNanos);
         next();
     }
 
     void handleErrorMessage(String errorMessage) {
         log.error("Task failed: " + currentTask.getSimpleName() + " / errorMessage: " + errorMessage);
         failed = true;
+        Metrics.counter("haveno_task_failures_total", "Failed tasks", "task", currentTask.getSimpleName()).inc();
         errorMessageHandler.handleErrorMessage(errorMessage);
     }
 }
@@ -0,0 +1,83 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testHistogramPercentiles() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500_500_000L, histogram.getSum());
+        assertEquals(1_000_000L, histogram.getMax());
+        assertEquals(500_000, histogram.getValueAtPercentile(50), 500_000 * 0.05);
+        assertEquals(990_000, histogram.getValueAtPercentile(99), 990_000 * 0.05);
+        assertEquals(1_000_000L, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testHistogramBucketsAreMonotonic() {
+        int lastIndex = -1;
+        for (long value = 0; value < 10_000_000L; value += 997) {
+            int index = Histogram.getBucketIndex(value);
+            assertTrue(index >= lastIndex);
+            lastIndex = index;
+        }
+        assertEquals(Histogram.getBucketIndex(Long.MAX_VALUE), Histogram.getBucketIndex(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    public void testPrometheusText() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("test_messages_total", "Messages", "type", "Ping").inc(3);
+        registry.counter("test_messages_total", "Messages", "type", "Pong").inc();
+        registry.gauge("test_connections", "Connections", () -> 7);
+        registry.histogram("test_duration_seconds", "Duration").record(2_000_000_000L);
+
+        StringWriter writer = new StringWriter();
+        registry.writePrometheusText(writer);
+        String text = writer.toString();
+
+        assertTrue(text.contains("# TYPE test_messages_total counter\n"));
+        assertTrue(text.contains("test_messages_total{type=\"Ping\"} 3\n"));
+        assertTrue(text.contains("test_messages_total{type=\"Pong\"} 1\n"));
+        assertTrue(text.contains("test_connections 7\n"));
+        assertTrue(text.contains("# TYPE test_duration_seconds summary\n"));
+        assertTrue(text.contains("test_duration_seconds_sum 2\n"));
+        assertTrue(text.contains("test_duration_seconds_count 1\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisteringNameWithOtherTypeFails() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("test_metric", "Metric");
+        registry.histogram("test_metric", "Metric");
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.persistence;
+
+import bisq.common.Payload;
+import bisq.common.proto.persistable.PersistableEnvelope;
+import bisq.common.proto.persistable.PersistablePayload;
+import bisq.common.proto.persistable.PersistenceProtoResolver;
+
+import com.google.protobuf.Message;
+
+import java.nio.file.Files;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PersistenceManagerJournalTest {
+    private static final String FILE_NAME = "PathStore";
+
+    private File dir;
+    private File journalFile;
+    private PersistenceManager<PathStore> persistenceManager;
+
+    @Before
+    public void setUp() throws IOException {
+        PersistenceManager.onAllServicesInitialized();
+        dir = Files.createTempDirectory("persistence").toFile();
+        journalFile = new File(dir, FILE_NAME + ".journal");
+        persistenceManager = createPersistenceManager();
+    }
+
+    @After
+    public void tearDown() {
+        persistenceManager.shutdown();
+    }
+
+    @Test
+    public void testAppendToJournalIsMergedAtReading() throws InterruptedException {
+        persistenceManager.setUseJournal(true);
+        persistenceManager.initialize(new PathStore("a"), FILE_NAME, PersistenceManager.Source.PRIVATE_LOW_PRIO);
+        persistNow();
+
+        persistenceManager.appendToJournal(new PathStore("b"));
+        persistenceManager.appendToJournal(new PathStore("c"));
+        persistNow();
+
+        assertTrue(journalFile.exists());
+        assertEquals(Arrays.asList("a", "b", "c"), readPaths());
+    }
+
+    @Test
+    public void testSnapshotReplacesJournal() throws InterruptedException {
+        PathStore pathStore = new PathStore("a");
+        persistenceManager.setUseJournal(true);
+        persistenceManager.initialize(pathStore, FILE_NAME, PersistenceManager.Source.PRIVATE_LOW_PRIO);
+        persistNow();
+
+        pathStore.paths.add("b");
+        persistenceManager.appendToJournal(new PathStore("b"));
+        persistNow();
+        assertTrue(journalFile.exists());
+
+        pathStore.paths.remove("a");
+        persistenceManager.requestPersistence();
+        persistNow();
+
+        assertFalse(journalFile.exists());
+        assertEquals(List.of("b"), readPaths());
+    }
+
+    @Test
+    public void testIncompleteJournalEntryIsIgnored() throws InterruptedException, IOException {
+        persistenceManager.setUseJournal(true);
+        persistenceManager.initialize(new PathStore("a"), FILE_NAME, PersistenceManager.Source.PRIVATE_LOW_PRIO);
+        persistNow();
+
+        persistenceManager.appendToJournal(new PathStore("b"));
+        persistNow();
+
+        // Simulate a crash while writing the next entry: The length prefix announces more bytes than are written.
+        try (FileOutputStream fileOutputStream = new FileOutputStream(journalFile, true)) {
+            fileOutputStream.write(new byte[]{20, 42, 3});
+        }
+
+        assertEquals(Arrays.asList("a", "b"), readPaths());
+    }
+
+    @Test
+    public void testAppendToJournalWithoutJournalWritesSnapshot() throws InterruptedException {
+        PathStore pathStore = new PathStore("a");
+        persistenceManager.initialize(pathStore, FILE_NAME, PersistenceManager.Source.PRIVATE_LOW_PRIO);
+
+        pathStore.paths.add("b");
+        persistenceManager.appendToJournal(new PathStore("b"));
+        persistNow();
+
+        assertFalse(journalFile.exists());
+        assertEquals(Arrays.asList("a", "b"), readPaths());
+    }
+
+    private void persistNow() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        persistenceManager.persistNow(latch::countDown);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    private List<String> readPaths() {
+        PathStore persisted = createPersistenceManager().getPersisted(FILE_NAME);
+        return persisted == null ? List.of() : persisted.paths;
+    }
+
+    private PersistenceManager<PathStore> createPersistenceManager() {
+        PersistenceProtoResolver persistenceProtoResolver = new PersistenceProtoResolver() {
+            @Override
+            public PersistableEnvelope fromProto(protobuf.PersistableEnvelope persistable) {
+                return new PathStore(persistable.getNavigationPath().getPathList());
+            }
+
+            @Override
+            public Payload fromProto(protobuf.PaymentAccountPayload proto) {
+                return null;
+            }
+
+            @Override
+            public PersistablePayload fromProto(protobuf.PersistableNetworkPayload proto) {
+                return null;
+            }
+        };
+        return new PersistenceManager<>(dir, persistenceProtoResolver, null);
+    }
+
+    private static class PathStore implements PersistableEnvelope {
+        private final List<String> paths;
+
+        PathStore(String path) {
+            this(List.of(path));
+        }
+
+        PathStore(List<String> paths) {
+            this.paths = new ArrayList<>(paths);
+        }
+
+        @Override
+        public Message toProtoMessage() {
+            return protobuf.PersistableEnvelope.newBuilder()
+                    .setNavigationPath(protobuf.NavigationPath.newBuilder().addAllPath(paths))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.persistence;
+
+import bisq.common.Payload;
+import bisq.common.proto.persistable.PersistableEnvelope;
+import bisq.common.proto.persistable.PersistablePayload;
+import bisq.common.proto.persistable.PersistenceProtoResolver;
+import bisq.common.proto.persistable.ShardedPersistableEnvelope;
+
+import com.google.protobuf.Message;
+
+import java.nio.file.Files;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PersistenceManagerShardsTest {
+    private static final String FILE_NAME = "PathStore";
+    private static final long ARCHIVE_AGE = TimeUnit.DAYS.toMillis(1);
+
+    private File dir;
+    private File shardDir;
+    private PersistenceManager<PathStore> persistenceManager;
+
+    @Before
+    public void setUp() throws IOException {
+        PersistenceManager.onAllServicesInitialized();
+        dir = Files.createTempDirectory("persistence").toFile();
+        shardDir = new File(dir, FILE_NAME + "_shards");
+        persistenceManager = createPersistenceManager();
+    }
+
+    @After
+    public void tearDown() {
+        persistenceManager.shutdown();
+    }
+
+    @Test
+    public void testOnlyChangedShardsAreWritten() throws InterruptedException {
+        PathStore pathStore = new PathStore(Arrays.asList("a", "b"));
+        persistenceManager.initializeSharded(pathStore, FILE_NAME, PersistenceManager.Source.PRIVATE, 0);
+        persistNow();
+
+        File shardA = new File(shardDir, "a.shard");
+        assertTrue(shardA.exists());
+        assertTrue(shardA.setLastModified(1000));
+
+        pathStore.paths.add("c");
+        persistenceManager.requestPersistence("c");
+        persistNow();
+        assertEquals(1000, shardA.lastModified());
+        assertTrue(new File(shardDir, "c.shard").exists());
+
+        // A full comparison does not write unchanged shards either.
+        persistenceManager.requestPersistence();
+        persistNow();
+        assertEquals(1000, shardA.lastModified());
+
+        assertEquals(Arrays.asList("a", "b", "c"), reopen().paths);
+    }
+
+    @Test
+    public void testRemovedShardIsDeleted() throws InterruptedException {
+        PathStore pathStore = new PathStore(Arrays.asList("a", "b"));
+        persistenceManager.initializeSharded(pathStore, FILE_NAME, PersistenceManager.Source.PRIVATE, 0);
+        persistNow();
+
+        pathStore.paths.remove("a");
+        persistenceManager.requestPersistence("a");
+        persistNow();
+
+        assertFalse(new File(shardDir, "a.shard").exists());
+        assertEquals(List.of("b"), reopen().paths);
+    }
+
+    @Test
+    public void testRemovedShardIsNotRestoredIfDeleteGotInterrupted() throws InterruptedException, IOException {
+        PathStore pathStore = new PathStore(Arrays.asList("a", "b"));
+        persistenceManager.initializeSharded(pathStore, FILE_NAME, PersistenceManager.Source.PRIVATE, 0);
+        persistNow();
+        File shardA = new File(shardDir, "a.shard");
+        byte[] shardABytes = Files.readAllBytes(shardA.toPath());
+
+        pathStore.paths.remove("a");
+        persistenceManager.requestPersistence("a");
+        persistNow();
+
+        // As if we got interrupted after writing the index but before deleting the file
+        Files.write(shardA.toPath(), shardABytes);
+        assertEquals(List.of("b"), reopen().paths);
+        assertFalse(shardA.exists());
+
+        // Once the index got written again without the deleted file, a record file without index entry is taken for
+        // an interrupted write of a new record
+        persistenceManager.requestPersistence();
+        persistNow();
+        Files.write(shardA.toPath(), shardABytes);
+        assertEquals(Arrays.asList("b", "a"), reopen().paths);
+    }
+
+    @Test
+    public void testMigrationFromSingleFile() throws InterruptedException {
+        persistenceManager.initialize(new PathStore(Arrays.asList("a", "b")), FILE_NAME,
+                PersistenceManager.Source.PRIVATE);
+        persistNow();
+        File storageFile = new File(dir, FILE_NAME);
+        assertTrue(storageFile.exists());
+
+        PathStore migrated = reopen();
+        assertEquals(Arrays.asList("a", "b"), migrated.paths);
+        persistNow();
+
+        assertFalse(storageFile.exists());
+        assertTrue(new File(new File(dir, "backup_of_migrated_data"), FILE_NAME).exists());
+        assertEquals(Arrays.asList("a", "b"), reopen().paths);
+    }
+
+    @Test
+    public void testUnchangedShardsGetArchived() throws InterruptedException {
+        persistenceManager.initializeSharded(new PathStore(Arrays.asList("a", "b")), FILE_NAME,
+                PersistenceManager.Source.PRIVATE, ARCHIVE_AGE);
+        persistNow();
+        File shardA = new File(shardDir, "a.shard");
+        assertTrue(shardA.setLastModified(System.currentTimeMillis() - 2 * ARCHIVE_AGE));
+
+        reopen();
+        persistenceManager.requestPersistence();
+        persistNow();
+        assertFalse(shardA.exists());
+
+        assertEquals(List.of("b"), reopen().paths);
+        assertEquals(List.of("a"), readArchived());
+        assertEquals(List.of("a"), persistenceManager.getArchivedShard("a").paths);
+        assertNull(persistenceManager.getArchivedShard("b"));
+
+        // The archived shard is not in memory, a full write keeps it in the archive.
+        persistenceManager.requestPersistence();
+        persistNow();
+        assertEquals(List.of("a"), readArchived());
+
+        // A removed archived shard gets removed from the archive.
+        persistenceManager.requestPersistence("a");
+        persistNow();
+        assertEquals(List.of("b"), reopen().paths);
+        assertEquals(List.of(), readArchived());
+        assertNull(persistenceManager.getArchivedShard("a"));
+    }
+
+    private void persistNow() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        persistenceManager.persistNow(latch::countDown);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    // Replaces our persistenceManager with a new one reading the persisted shards.
+    private PathStore reopen() {
+        persistenceManager.shutdown();
+        PathStore pathStore = new PathStore(List.of());
+        persistenceManager = createPersistenceManager();
+        persistenceManager.initializeSharded(pathStore, FILE_NAME, PersistenceManager.Source.PRIVATE, ARCHIVE_AGE);
+        PathStore persisted = persistenceManager.getPersisted();
+        if (persisted != null) {
+            pathStore.paths.addAll(persisted.paths);
+        }
+        return pathStore;
+    }
+
+    private List<String> readArchived() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<List<String>> result = new AtomicReference<>(List.of());
+        persistenceManager.readArchived(archived -> {
+            result.set(archived.paths);
+            latch.countDown();
+        }, latch::countDown);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        return result.get();
+    }
+
+    private PersistenceManager<PathStore> createPersistenceManager() {
+        PersistenceProtoResolver persistenceProtoResolver = new PersistenceProtoResolver() {
+            @Override
+            public PersistableEnvelope fromProto(protobuf.PersistableEnvelope persistable) {
+                return new PathStore(persistable.getNavigationPath().getPathList());
+            }
+
+            @Override
+            public Payload fromProto(protobuf.PaymentAccountPayload proto) {
+                return null;
+            }
+
+            @Override
+            public PersistablePayload fromProto(protobuf.PersistableNetworkPayload proto) {
+                return null;
+            }
+        };
+        return new PersistenceManager<>(dir, persistenceProtoResolver, null);
+    }
+
+    private static class PathStore implements ShardedPersistableEnvelope {
+        private final List<String> paths;
+
+        PathStore(List<String> paths) {
+            this.paths = new ArrayList<>(paths);
+        }
+
+        @Override
+        public Message toProtoMessage() {
+            return toProto(paths);
+        }
+
+        @Override
+        public Collection<String> getShardKeys() {
+            return paths;
+        }
+
+        @Nullable
+        @Override
+        public protobuf.PersistableEnvelope toShardMessage(String key) {
+            return paths.contains(key) ? toProto(List.of(key)) : null;
+        }
+
+        private static protobuf.PersistableEnvelope toProto(List<String> paths) {
+            return protobuf.PersistableEnvelope.newBuilder()
+                    .setNavigationPath(protobuf.NavigationPath.newBuilder().addAllPath(paths))
+                    .build();
+        }
+    }
+}
@@ -21,6 +21,7 @@ import bisq.core.api.model.AddressBalanceInfo;
 import bisq.core.api.model.BalancesInfo;
 import bisq.core.api.model.MarketDepthInfo;
 import bisq.core.api.model.MarketPriceInfo;
+import bisq.core.api.model.TradeStatisticsPage;
 import bisq.core.api.model.TxFeeRateInfo;
 import bisq.core.app.AppStartupState;
 import bisq.core.monetary.Price;
@@ -30,7 +31,10 @@ import bisq.core.offer.OpenOffer;
 import bisq.core.payment.PaymentAccount;
 import bisq.core.payment.payload.PaymentMethod;
 import bisq.core.trade.Trade;
+import bisq.core.trade.statistics.TickUnit;
 import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.trade.statistics.TradeStatisticsCandle;
+import bisq.core.trade.statistics.TradeStatisticsCandleService;
 import bisq.core.trade.statistics.TradeStatisticsManager;
 import bisq.common.app.Version;
 import bisq.common.config.Config;
@@ -38,7 +42,11 @@ import bisq.common.crypto.IncorrectPasswordException;
 import bisq.common.handlers.ErrorMessageHandler;
 import bisq.common.handlers.ResultHandler;
 
+import bisq.proto.grpc.BalancesUpdate;
+import bisq.proto.grpc.MarketPricesUpdate;
 import bisq.proto.grpc.NotificationMessage;
+import bisq.proto.grpc.OfferUpdate;
+import bisq.proto.grpc.TradeUpdate;
 
 import org.bitcoinj.core.Coin;
 import org.bitcoinj.core.Transaction;
@@ -61,6 +69,7 @@ import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
 
 import monero.common.MoneroRpcConnection;
 import monero.wallet.model.MoneroDestination;
@@ -86,8 +95,11 @@ public class CoreApi {
     private final CoreTradesService coreTradesService;
     private final CoreWalletsService walletsService;
     private final TradeStatisticsManager tradeStatisticsManager;
+    private final TradeStatisticsCandleService tradeStatisticsCandleService;
+    private final CoreTradeStatisticsService coreTradeStatisticsService;
     private final CoreNotificationService notificationService;
     private final CoreMoneroConnectionsService coreMoneroConnectionsService;
+    private final CoreSubscriptionService subscriptionService;
 
     @Inject
     public CoreApi(Config config,
@@ -101,8 +113,11 @@ public class CoreApi {
                    CoreTradesService coreTradesService,
                    CoreWalletsService walletsService,
                    TradeStatisticsManager tradeStatisticsManager,
+                   TradeStatisticsCandleService tradeStatisticsCandleService,
+                   CoreTradeStatisticsService coreTradeStatisticsService,
                    CoreNotificationService notificationService,
-                   CoreMoneroConnectionsService coreMoneroConnectionsService) {
+                   CoreMoneroConnectionsService coreMoneroConnectionsService,
+                   CoreSubscriptionService subscriptionService) {
         this.config = config;
         this.appStartupState = appStartupState;
         this.coreAccountService = coreAccountService;
@@ -114,8 +129,11 @@ public class CoreApi {
         this.corePriceService = corePriceService;
         this.walletsService = walletsService;
         this.tradeStatisticsManager = tradeStatisticsManager;
+        this.tradeStatisticsCandleService = tradeStatisticsCandleService;
+        this.coreTradeStatisticsService = coreTradeStatisticsService;
         this.notificationService = notificationService;
         this.coreMoneroConnectionsService = coreMoneroConnectionsService;
+        this.subscriptionService = subscriptionService;
     }
 
     @SuppressWarnings("SameReturnValue")
@@ -313,6 +331,22 @@ public class CoreApi {
         return new ArrayList<>(tradeStatisticsManager.getObservableTradeStatisticsSet());
     }
 
+    public TradeStatisticsPage getTradeStatistics(@Nullable String currencyCode,
+                                                  @Nullable String paymentMethodId,
+                                                  long fromDate,
+                                                  long toDate,
+                                                  @Nullable String cursor,
+                                                  int limit) {
+        return coreTradeStatisticsService.getTradeStatistics(currencyCode, paymentMethodId, fromDate, toDate, cursor, limit);
+    }
+
+    public List<TradeStatisticsCandle> getTradeStatisticsCandles(@Nullable String currencyCode,
+                                                                 TickUnit tickUnit,
+                                                                 long fromDate,
+                                                                 long toDate) {
+        return tradeStatisticsCandleService.getCandles(currencyCode, tickUnit, fromDate, toDate);
+    }
+
     public int getNumConfirmationsForMostRecentTransaction(String addressString) {
         return walletsService.getNumConfirmationsForMostRecentTransaction(addressString);
     }
@@ -333,6 +367,46 @@ public class CoreApi {
         notificationService.sendNotification(notification);
     }
 
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Subscriptions
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public interface SubscriptionListener<T> {
+        void onUpdate(@NonNull T update);
+    }
+
+    public void addOfferListener(String resumeToken, SubscriptionListener<OfferUpdate> listener) {
+        subscriptionService.addOfferListener(resumeToken, listener);
+    }
+
+    public void removeOfferListener(SubscriptionListener<OfferUpdate> listener) {
+        subscriptionService.removeOfferListener(listener);
+    }
+
+    public void addTradeListener(String resumeToken, SubscriptionListener<TradeUpdate> listener) {
+        subscriptionService.addTradeListener(resumeToken, listener);
+    }
+
+    public void removeTradeListener(SubscriptionListener<TradeUpdate> listener) {
+        subscriptionService.removeTradeListener(listener);
+    }
+
+    public void addBalancesListener(String resumeToken, SubscriptionListener<BalancesUpdate> listener) {
+        subscriptionService.addBalancesListener(resumeToken, listener);
+    }
+
+    public void removeBalancesListener(SubscriptionListener<BalancesUpdate> listener) {
+        subscriptionService.removeBalancesListener(listener);
+    }
+
+    public void addMarketPricesListener(String resumeToken, SubscriptionListener<MarketPricesUpdate> listener) {
+        subscriptionService.addMarketPricesListener(resumeToken, listener);
+    }
+
+    public void removeMarketPricesListener(SubscriptionListener<MarketPricesUpdate> listener) {
+        subscriptionService.removeMarketPricesListener(listener);
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Dispute Agents
     ///////////////////////////////////////////////////////////////////////////////////////////
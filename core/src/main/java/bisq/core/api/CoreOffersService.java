@@ -107,29 +107,26 @@ class CoreOffersService {
     }
 
     Offer getOffer(String id) {
-        return offerBookService.getOffers().stream()
-                .filter(o -> o.getId().equals(id))
+        return offerBookService.getOfferById(id)
                 .filter(o -> !o.isMyOffer(keyRing))
                 .filter(o -> {
                     Result result = offerFilter.canTakeOffer(o, coreContext.isApiUser());
                     return result.isValid() || result == Result.HAS_NO_PAYMENT_ACCOUNT_VALID_FOR_OFFER;
                 })
-                .findAny().orElseThrow(() ->
+                .orElseThrow(() ->
                         new IllegalStateException(format("offer with id '%s' not found", id)));
     }
 
     Offer getMyOffer(String id) {
-        Offer offer = offerBookService.getOffers().stream()
-                .filter(o -> o.getId().equals(id))
+        Offer offer = offerBookService.getOfferById(id)
                 .filter(o -> o.isMyOffer(keyRing))
-                .findAny().orElseThrow(() ->
+                .orElseThrow(() ->
                         new IllegalStateException(format("offer with id '%s' not found", id)));
-        setOpenOfferState(offer);
-        return offer;
+        return copyWithOpenOfferState(offer);
     }
 
     List<Offer> getOffers(String direction, String currencyCode) {
-        List<Offer> offers = offerBookService.getOffers().stream()
+        List<Offer> offers = offerBookService.getOffers(direction, currencyCode).stream()
                 .filter(o -> !o.isMyOffer(keyRing))
                 .filter(o -> offerMatchesDirectionAndCurrency(o, direction, currencyCode))
                 .filter(o -> {
@@ -145,7 +142,7 @@ class CoreOffersService {
     List<Offer> getMyOffers(String direction, String currencyCode) {
 
         // get my offers posted to books
-        List<Offer> offers = offerBookService.getOffers().stream()
+        List<Offer> offers = offerBookService.getOffers(direction, currencyCode).stream()
                 .filter(o -> o.isMyOffer(keyRing))
                 .filter(o -> offerMatchesDirectionAndCurrency(o, direction, currencyCode))
                 .sorted(priceComparator(direction))
@@ -163,9 +160,9 @@ class CoreOffersService {
         openOfferManager.removeOpenOffers(unreservedOpenOffers, null);
 
         // set offer states
-        for (Offer offer : offers) setOpenOfferState(offer);
-
-        return offers;
+        return offers.stream()
+                .map(this::copyWithOpenOfferState)
+                .collect(Collectors.toList());
     }
     
     private Set<Offer> getUnreservedOffers(List<Offer> offers) {
@@ -324,9 +321,12 @@ class CoreOffersService {
         return offerOfWantedDirection && offerInWantedCurrency;
     }
 
-    private void setOpenOfferState(Offer offer) {
+    // The offers of the offer book are shared, so we set the state of the open offer on a copy
+    private Offer copyWithOpenOfferState(Offer offer) {
+        Offer copy = offer.copy();
         Optional<OpenOffer> openOffer = openOfferManager.getOpenOfferById(offer.getId());
-        if (openOffer.isPresent()) offer.setState(openOffer.get().getState() == OpenOffer.State.AVAILABLE ? Offer.State.AVAILABLE : Offer.State.NOT_AVAILABLE);
+        if (openOffer.isPresent()) copy.setState(openOffer.get().getState() == OpenOffer.State.AVAILABLE ? Offer.State.AVAILABLE : Offer.State.NOT_AVAILABLE);
+        return copy;
     }
 
     private Comparator<Offer> priceComparator(String direction) {
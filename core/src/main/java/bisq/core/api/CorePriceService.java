@@ -20,21 +20,18 @@ package bisq.core.api;
 import bisq.core.api.model.MarketDepthInfo;
 import bisq.core.api.model.MarketPriceInfo;
 import bisq.core.locale.CurrencyUtil;
-import bisq.core.monetary.Price;
-import bisq.core.offer.Offer;
-import bisq.core.offer.OfferBookService;
-import bisq.core.offer.OfferPayload.Direction;
+import bisq.core.offer.MarketDepth;
+import bisq.core.offer.OrderBookService;
 import bisq.core.provider.price.PriceFeedService;
+import bisq.core.provider.price.PriceSnapshot;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
-import com.google.common.math.LongMath;
-
+import java.util.Arrays;
 import java.util.List;
-import java.util.Comparator;
-import java.util.LinkedHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
@@ -46,19 +43,19 @@ import lombok.extern.slf4j.Slf4j;
 class CorePriceService {
 
     private final PriceFeedService priceFeedService;
-    private final OfferBookService offerBookService;
+    private final OrderBookService orderBookService;
 
     @Inject
-    public CorePriceService(PriceFeedService priceFeedService, OfferBookService offerBookService) {
+    public CorePriceService(PriceFeedService priceFeedService, OrderBookService orderBookService) {
         this.priceFeedService = priceFeedService;
-        this.offerBookService = offerBookService;
+        this.orderBookService = orderBookService;
     }
 
     /**
      * @return Price per 1 XMR in the given currency (fiat or crypto)
      */
     public double getMarketPrice(String currencyCode) throws ExecutionException, InterruptedException, TimeoutException, IllegalArgumentException {
-        var marketPrice = priceFeedService.requestAllPrices().get(currencyCode);
+        var marketPrice = getPriceSnapshot().getMarketPrice(currencyCode);
         if (marketPrice == null) {
             throw new IllegalArgumentException("Currency not found: " + currencyCode); // message sent to client
         }
@@ -69,7 +66,7 @@ class CorePriceService {
      * @return Price per 1 XMR in all supported currencies (fiat & crypto)
      */
     public List<MarketPriceInfo> getMarketPrices() throws ExecutionException, InterruptedException, TimeoutException {
-        return priceFeedService.requestAllPrices().values().stream()
+        return getPriceSnapshot().getMarketPrices().values().stream()
                 .map(marketPrice -> {
                     double mappedPrice = mapPriceFeedServicePrice(marketPrice.getPrice(), marketPrice.getCurrencyCode());
                     return new MarketPriceInfo(marketPrice.getCurrencyCode(), mappedPrice);
@@ -81,67 +78,26 @@ class CorePriceService {
      * @return Data for market depth chart
      */
      public MarketDepthInfo getMarketDepth(String currencyCode) throws ExecutionException, InterruptedException, TimeoutException, IllegalArgumentException  {
-        if (priceFeedService.requestAllPrices().get(currencyCode.toUpperCase()) == null) throw new IllegalArgumentException("Currency not found: " + currencyCode) ;
-
-        // Offer price can be null (if price feed unavailable), thus a null-tolerant comparator is used.
-        Comparator<Offer> offerPriceComparator = Comparator.comparing(Offer::getPrice, Comparator.nullsLast(Comparator.naturalOrder()));
-
-        // Trading btc-fiat is considered as buying/selling BTC, but trading btc-altcoin is
-        // considered as buying/selling Altcoin. Because of this, when viewing a btc-altcoin pair,
-        // the buy column is actually the sell column and vice versa. To maintain the expected
-        // ordering, we have to reverse the price comparator.
-        boolean isCrypto = CurrencyUtil.isCryptoCurrency(currencyCode);
-        if (isCrypto) offerPriceComparator = offerPriceComparator.reversed();
-
-        // Offer amounts are used for the secondary sort. They are sorted from high to low.
-        Comparator<Offer> offerAmountComparator = Comparator.comparing(Offer::getAmount).reversed();
-
-        var buyOfferSortComparator =
-                offerPriceComparator.reversed() // Buy offers, as opposed to sell offers, are primarily sorted from high price to low.
-                        .thenComparing(offerAmountComparator);
-        var sellOfferSortComparator =
-                offerPriceComparator
-                        .thenComparing(offerAmountComparator);
-        List<Offer> buyOffers = offerBookService.getOffersByCurrency(Direction.BUY.name(), currencyCode).stream().sorted(buyOfferSortComparator).collect(Collectors.toList());
-        List<Offer> sellOffers = offerBookService.getOffersByCurrency(Direction.SELL.name(), currencyCode).stream().sorted(sellOfferSortComparator).collect(Collectors.toList());
-
-        // Create buyer hashmap {key:price, value:count}, uses LinkedHashMap to maintain insertion order
-        double accumulatedAmount = 0;
-        LinkedHashMap<Double,Double> buyTM = new LinkedHashMap<Double,Double>();
-        for(Offer offer: buyOffers) {
-            Price price = offer.getPrice();
-            if (price != null) {
-                double amount = (double) offer.getAmount().value / LongMath.pow(10, offer.getAmount().smallestUnitExponent());
-                accumulatedAmount += amount;
-                double priceAsDouble = (double) price.getValue() / LongMath.pow(10, price.smallestUnitExponent());
-                buyTM.put(mapPriceFeedServicePrice(priceAsDouble, currencyCode), accumulatedAmount);
-            }
-        };
-
-        // Create buyer hashmap {key:price, value:count}, uses TreeMap to sort by key (asc)
-        accumulatedAmount = 0;
-        LinkedHashMap<Double,Double> sellTM = new LinkedHashMap<Double,Double>();
-        for(Offer offer: sellOffers){
-            Price price = offer.getPrice();
-            if (price != null) {
-                double amount = (double) offer.getAmount().value / LongMath.pow(10, offer.getAmount().smallestUnitExponent());
-                accumulatedAmount += amount;
-                double priceAsDouble = (double) price.getValue() / LongMath.pow(10, price.smallestUnitExponent());
-                sellTM.put(mapPriceFeedServicePrice(priceAsDouble, currencyCode), accumulatedAmount);
-            }
-        };
-
-        // Make array of buyPrices and buyDepth
-        Double[] buyDepth = buyTM.values().toArray(new Double[buyTM.size()]);
-        Double[] buyPrices = buyTM.keySet().toArray(new Double[buyTM.size()]);
-
-        // Make array of sellPrices and sellDepth
-        Double[] sellDepth = sellTM.values().toArray(new Double[sellTM.size()]);
-        Double[] sellPrices = sellTM.keySet().toArray(new Double[sellTM.size()]);
+        if (getPriceSnapshot().getMarketPrice(currencyCode.toUpperCase()) == null) throw new IllegalArgumentException("Currency not found: " + currencyCode) ;
+
+        MarketDepth marketDepth = orderBookService.getMarketDepth(currencyCode);
+        Double[] buyPrices = mapPriceFeedServicePrices(marketDepth.getBuyPrices(), currencyCode);
+        Double[] buyDepth = Arrays.stream(marketDepth.getBuyDepth()).boxed().toArray(Double[]::new);
+        Double[] sellPrices = mapPriceFeedServicePrices(marketDepth.getSellPrices(), currencyCode);
+        Double[] sellDepth = Arrays.stream(marketDepth.getSellDepth()).boxed().toArray(Double[]::new);
 
         return new MarketDepthInfo(currencyCode, buyPrices, buyDepth, sellPrices, sellDepth);
     }
     
+    // Reads the cached prices, only the first request waits for the response of the price node.
+    private PriceSnapshot getPriceSnapshot() throws ExecutionException, InterruptedException, TimeoutException {
+        PriceSnapshot priceSnapshot = priceFeedService.getPriceSnapshot();
+        if (priceSnapshot.isEmpty()) {
+            priceSnapshot = priceFeedService.requestPriceSnapshot().get(20, TimeUnit.SECONDS);
+        }
+        return priceSnapshot;
+    }
+
     /**
      * PriceProvider returns different values for crypto and fiat,
      * e.g. 1 XMR = X USD
@@ -149,12 +105,16 @@ class CorePriceService {
      * Here we convert all to:
      * 1 XMR = X (FIAT or CRYPTO)
      */
-    private double mapPriceFeedServicePrice(double price, String currencyCode) {
+    static double mapPriceFeedServicePrice(double price, String currencyCode) {
         if (CurrencyUtil.isFiatCurrency(currencyCode)) {
             return price;
         }
         return price == 0 ? 0 : 1 / price;
         // TODO PriceProvider.getAll() could provide these values directly when the original values are not needed for the 'desktop' UI anymore
     }
+
+    private static Double[] mapPriceFeedServicePrices(double[] prices, String currencyCode) {
+        return Arrays.stream(prices).mapToObj(price -> mapPriceFeedServicePrice(price, currencyCode)).toArray(Double[]::new);
+    }
 }
 
@@ -0,0 +1,281 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api;
+
+import bisq.core.api.CoreApi.SubscriptionListener;
+import bisq.core.api.model.BalancesInfo;
+import bisq.core.api.model.BtcBalanceInfo;
+import bisq.core.api.model.MarketPriceInfo;
+import bisq.core.api.model.OfferInfo;
+import bisq.core.api.model.TradeInfo;
+import bisq.core.api.model.XmrBalanceInfo;
+import bisq.core.btc.Balances;
+import bisq.core.offer.Offer;
+import bisq.core.offer.OfferBookService;
+import bisq.core.provider.price.PriceFeedService;
+import bisq.core.provider.price.PriceSnapshot;
+import bisq.core.trade.Trade;
+import bisq.core.trade.TradeManager;
+
+import bisq.common.UserThread;
+
+import bisq.proto.grpc.BalancesUpdate;
+import bisq.proto.grpc.MarketPricesUpdate;
+import bisq.proto.grpc.OfferUpdate;
+import bisq.proto.grpc.TradeUpdate;
+
+import org.bitcoinj.core.Coin;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import javafx.beans.value.ChangeListener;
+
+import javafx.collections.ListChangeListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Publishes the changes of the offer book, the open trades, the balances and the market prices to the
+ * subscription streams of the API. The updates are taken from the listeners of the core services, so subscribers do
+ * not need to poll.
+ *
+ * Offer and trade updates are deltas, a resuming subscriber gets the ones it missed. Balance and price updates
+ * carry the full state, so only the latest one is kept for a resuming subscriber.
+ */
+@Singleton
+@Slf4j
+class CoreSubscriptionService {
+    private static final int MAX_DELTA_UPDATES = 1000;
+
+    private final OfferBookService offerBookService;
+    private final TradeManager tradeManager;
+    private final Balances balances;
+    private final PriceFeedService priceFeedService;
+
+    private final EventJournal<OfferUpdate> offerUpdates = new EventJournal<>(MAX_DELTA_UPDATES);
+    private final EventJournal<TradeUpdate> tradeUpdates = new EventJournal<>(MAX_DELTA_UPDATES);
+    private final EventJournal<BalancesUpdate> balancesUpdates = new EventJournal<>(1);
+    private final EventJournal<MarketPricesUpdate> marketPricesUpdates = new EventJournal<>(1);
+
+    private final Map<String, ChangeListener<Trade.State>> tradeStateListeners = new HashMap<>();
+    private boolean balancesUpdatePending;
+
+    @Inject
+    public CoreSubscriptionService(OfferBookService offerBookService,
+                                   TradeManager tradeManager,
+                                   Balances balances,
+                                   PriceFeedService priceFeedService) {
+        this.offerBookService = offerBookService;
+        this.tradeManager = tradeManager;
+        this.balances = balances;
+        this.priceFeedService = priceFeedService;
+
+        offerBookService.addOfferBookChangedListener(new OfferBookService.OfferBookChangedListener() {
+            @Override
+            public void onAdded(Offer offer) {
+                if (offer.getPrice() == null) {
+                    log.debug("Offer {} is not published to subscribers as its price is not available", offer.getId());
+                    return;
+                }
+                publishOfferUpdate(OfferUpdate.UpdateType.ADDED, OfferInfo.toOfferInfo(offer).toProtoMessage());
+            }
+
+            @Override
+            public void onRemoved(Offer offer) {
+                // The price of a removed offer might not be available, the subscriber only needs to identify it.
+                publishOfferUpdate(OfferUpdate.UpdateType.REMOVED, bisq.proto.grpc.OfferInfo.newBuilder()
+                        .setId(offer.getId())
+                        .setDirection(offer.getDirection().name())
+                        .setBaseCurrencyCode(offer.getOfferPayload().getBaseCurrencyCode())
+                        .setCounterCurrencyCode(offer.getOfferPayload().getCounterCurrencyCode())
+                        .build());
+            }
+        });
+
+        tradeManager.getObservableList().addListener((ListChangeListener<Trade>) change -> {
+            while (change.next()) {
+                change.getRemoved().forEach(this::onTradeRemoved);
+                change.getAddedSubList().forEach(this::onTradeAdded);
+            }
+        });
+        tradeManager.getObservableList().forEach(this::onTradeAdded);
+
+        Stream.of(balances.getAvailableBalance(),
+                balances.getLockedBalance(),
+                balances.getReservedOfferBalance(),
+                balances.getReservedTradeBalance())
+                .forEach(property -> property.addListener((observable, oldValue, newValue) -> onBalancesChanged()));
+
+        priceFeedService.priceSnapshotProperty().addListener((observable, oldValue, newValue) ->
+                marketPricesUpdates.publish(token -> createMarketPricesUpdate(newValue, token)));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    void addOfferListener(@Nullable String resumeToken, SubscriptionListener<OfferUpdate> listener) {
+        offerUpdates.addListener(resumeToken, listener, token -> OfferUpdate.newBuilder()
+                .setType(OfferUpdate.UpdateType.SNAPSHOT)
+                .addAllOffers(offerBookService.getOffers().stream()
+                        .filter(offer -> offer.getPrice() != null)
+                        .map(offer -> OfferInfo.toOfferInfo(offer).toProtoMessage())
+                        .collect(Collectors.toList()))
+                .setResumeToken(token)
+                .build());
+    }
+
+    void removeOfferListener(SubscriptionListener<OfferUpdate> listener) {
+        offerUpdates.removeListener(listener);
+    }
+
+    void addTradeListener(@Nullable String resumeToken, SubscriptionListener<TradeUpdate> listener) {
+        tradeUpdates.addListener(resumeToken, listener, token -> TradeUpdate.newBuilder()
+                .setType(TradeUpdate.UpdateType.SNAPSHOT)
+                .addAllTrades(new ArrayList<>(tradeManager.getObservableList()).stream()
+                        .map(trade -> TradeInfo.toTradeInfo(trade).toProtoMessage())
+                        .collect(Collectors.toList()))
+                .setResumeToken(token)
+                .build());
+    }
+
+    void removeTradeListener(SubscriptionListener<TradeUpdate> listener) {
+        tradeUpdates.removeListener(listener);
+    }
+
+    void addBalancesListener(@Nullable String resumeToken, SubscriptionListener<BalancesUpdate> listener) {
+        balancesUpdates.addListener(resumeToken, listener, this::createBalancesUpdate);
+    }
+
+    void removeBalancesListener(SubscriptionListener<BalancesUpdate> listener) {
+        balancesUpdates.removeListener(listener);
+    }
+
+    void addMarketPricesListener(@Nullable String resumeToken, SubscriptionListener<MarketPricesUpdate> listener) {
+        marketPricesUpdates.addListener(resumeToken, listener, token ->
+                createMarketPricesUpdate(priceFeedService.getPriceSnapshot(), token));
+    }
+
+    void removeMarketPricesListener(SubscriptionListener<MarketPricesUpdate> listener) {
+        marketPricesUpdates.removeListener(listener);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void publishOfferUpdate(OfferUpdate.UpdateType type, bisq.proto.grpc.OfferInfo offerInfo) {
+        offerUpdates.publish(token -> OfferUpdate.newBuilder()
+                .setType(type)
+                .addOffers(offerInfo)
+                .setResumeToken(token)
+                .build());
+    }
+
+    private void onTradeAdded(Trade trade) {
+        ChangeListener<Trade.State> listener = (observable, oldValue, newValue) ->
+                publishTradeUpdate(TradeUpdate.UpdateType.UPDATED, trade);
+        tradeStateListeners.put(trade.getId(), listener);
+        trade.stateProperty().addListener(listener);
+        publishTradeUpdate(TradeUpdate.UpdateType.UPDATED, trade);
+    }
+
+    private void onTradeRemoved(Trade trade) {
+        ChangeListener<Trade.State> listener = tradeStateListeners.remove(trade.getId());
+        if (listener != null) {
+            trade.stateProperty().removeListener(listener);
+        }
+        publishTradeUpdate(TradeUpdate.UpdateType.REMOVED, trade);
+    }
+
+    private void publishTradeUpdate(TradeUpdate.UpdateType type, Trade trade) {
+        bisq.proto.grpc.TradeInfo tradeInfo = TradeInfo.toTradeInfo(trade).toProtoMessage();
+        tradeUpdates.publish(token -> TradeUpdate.newBuilder()
+                .setType(type)
+                .addTrades(tradeInfo)
+                .setResumeToken(token)
+                .build());
+    }
+
+    // The balances are updated one by one in the same user thread task, we publish once after all got updated.
+    private void onBalancesChanged() {
+        if (!balancesUpdatePending) {
+            balancesUpdatePending = true;
+            UserThread.execute(() -> {
+                balancesUpdatePending = false;
+                if (hasBalances()) {
+                    balancesUpdates.publish(this::createBalancesUpdate);
+                }
+            });
+        }
+    }
+
+    private boolean hasBalances() {
+        return Stream.of(balances.getAvailableBalance(),
+                balances.getLockedBalance(),
+                balances.getReservedOfferBalance(),
+                balances.getReservedTradeBalance())
+                .allMatch(property -> property.get() != null);
+    }
+
+    @Nullable
+    private BalancesUpdate createBalancesUpdate(String resumeToken) {
+        if (!hasBalances()) {
+            return null;
+        }
+        Coin availableBalance = balances.getAvailableBalance().get();
+        Coin lockedBalance = balances.getLockedBalance().get();
+        XmrBalanceInfo xmrBalanceInfo = new XmrBalanceInfo(availableBalance.longValue() + lockedBalance.longValue(),
+                availableBalance.longValue(),
+                lockedBalance.longValue(),
+                balances.getReservedOfferBalance().get().longValue(),
+                balances.getReservedTradeBalance().get().longValue());
+        return BalancesUpdate.newBuilder()
+                .setBalances(new BalancesInfo(BtcBalanceInfo.EMPTY, xmrBalanceInfo).toProtoMessage())
+                .setResumeToken(resumeToken)
+                .build();
+    }
+
+    @Nullable
+    private static MarketPricesUpdate createMarketPricesUpdate(PriceSnapshot priceSnapshot, String resumeToken) {
+        List<bisq.proto.grpc.MarketPriceInfo> marketPrices = priceSnapshot.getMarketPrices().values().stream()
+                .map(marketPrice -> new MarketPriceInfo(marketPrice.getCurrencyCode(),
+                        CorePriceService.mapPriceFeedServicePrice(marketPrice.getPrice(), marketPrice.getCurrencyCode()))
+                        .toProtoMessage())
+                .collect(Collectors.toList());
+        if (marketPrices.isEmpty()) {
+            return null;
+        }
+        return MarketPricesUpdate.newBuilder()
+                .addAllMarketPrice(marketPrices)
+                .setResumeToken(resumeToken)
+                .build();
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api;
+
+import bisq.core.api.model.TradeStatisticsPage;
+import bisq.core.trade.statistics.CompactTradeStatisticsSet;
+import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.trade.statistics.TradeStatisticsDateIndex;
+import bisq.core.trade.statistics.TradeStatisticsManager;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import javafx.collections.SetChangeListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Answers filtered and paginated trade statistics queries from indexes ordered by date, one over all trade
+ * statistics and one per currency. A query only visits the trade statistics of the requested range.
+ *
+ * The cursor is the date and the position in the trade statistics set of the last visited element. Both do not
+ * change when trade statistics get added, so a cursor stays valid while the client is paging. A query filtering by
+ * payment method visits at most MAX_SCANNED_PER_PAGE trade statistics per page, so a page can contain fewer
+ * elements than the limit, or none, and still have a next cursor.
+ */
+@Singleton
+@Slf4j
+class CoreTradeStatisticsService {
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+    static final int MAX_SCANNED_PER_PAGE = 10000;
+
+    private final CompactTradeStatisticsSet tradeStatisticsSet;
+    private final TradeStatisticsDateIndex dateIndex;
+    private final Map<String, TradeStatisticsDateIndex> dateIndexByCurrency = new HashMap<>();
+    private final int maxScannedPerPage;
+    // Index of the next trade statistic of the set we have not added to the indexes.
+    private int numProcessed;
+
+    @Inject
+    public CoreTradeStatisticsService(TradeStatisticsManager tradeStatisticsManager) {
+        this(tradeStatisticsManager.getCompactTradeStatisticsSet());
+    }
+
+    CoreTradeStatisticsService(CompactTradeStatisticsSet tradeStatisticsSet) {
+        this(tradeStatisticsSet, MAX_SCANNED_PER_PAGE);
+    }
+
+    CoreTradeStatisticsService(CompactTradeStatisticsSet tradeStatisticsSet, int maxScannedPerPage) {
+        this.tradeStatisticsSet = tradeStatisticsSet;
+        this.maxScannedPerPage = maxScannedPerPage;
+        this.dateIndex = new TradeStatisticsDateIndex(tradeStatisticsSet);
+
+        tradeStatisticsSet.addListener((SetChangeListener<TradeStatistics3>) change -> {
+            if (change.wasAdded()) {
+                processNewTradeStatistics();
+            }
+        });
+        processNewTradeStatistics();
+    }
+
+    /**
+     * @param currencyCode      Only trade statistics of this currency, all currencies if null
+     * @param paymentMethodId   Only trade statistics of this payment method, all payment methods if null
+     * @param fromDate          Trade statistics at this date or later are included
+     * @param toDate            Trade statistics at this date or later are excluded
+     * @param cursor            The next cursor of the previous page, null for the first page
+     * @param limit             Maximum number of trade statistics of the page, the default limit if 0
+     */
+    synchronized TradeStatisticsPage getTradeStatistics(@Nullable String currencyCode,
+                                                        @Nullable String paymentMethodId,
+                                                        long fromDate,
+                                                        long toDate,
+                                                        @Nullable String cursor,
+                                                        int limit) {
+        if (limit < 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 0 and " + MAX_LIMIT);
+        }
+        int pageSize = limit == 0 ? DEFAULT_LIMIT : limit;
+
+        TradeStatisticsDateIndex index = currencyCode == null ?
+                dateIndex :
+                dateIndexByCurrency.get(currencyCode.toUpperCase());
+        List<TradeStatistics3> tradeStatistics = new ArrayList<>();
+        if (index == null) {
+            return new TradeStatisticsPage(tradeStatistics, null);
+        }
+
+        int position = index.getPositionAfter(fromDate, -1);
+        if (cursor != null) {
+            long[] parsedCursor = parseCursor(cursor);
+            position = Math.max(position, index.getPositionAfter(parsedCursor[0], (int) parsedCursor[1]));
+        }
+
+        // We continue after the last visited element, so the next page does not scan the skipped elements again
+        int lastElementIndex = -1;
+        int numScanned = 0;
+        for (; position < index.size() && tradeStatistics.size() < pageSize && numScanned < maxScannedPerPage;
+             position++, numScanned++) {
+            int elementIndex = index.getElementIndex(position);
+            if (tradeStatisticsSet.getDate(elementIndex) >= toDate) {
+                break;
+            }
+            if (paymentMethodId == null || paymentMethodId.equals(tradeStatisticsSet.getPaymentMethod(elementIndex))) {
+                tradeStatistics.add(tradeStatisticsSet.get(elementIndex));
+            }
+            lastElementIndex = elementIndex;
+        }
+
+        boolean hasMore = position < index.size() &&
+                tradeStatisticsSet.getDate(index.getElementIndex(position)) < toDate;
+        String nextCursor = hasMore && lastElementIndex >= 0 ?
+                tradeStatisticsSet.getDate(lastElementIndex) + ":" + lastElementIndex :
+                null;
+        return new TradeStatisticsPage(tradeStatistics, nextCursor);
+    }
+
+    private synchronized void processNewTradeStatistics() {
+        int size = tradeStatisticsSet.size();
+        for (; numProcessed < size; numProcessed++) {
+            dateIndex.add(numProcessed);
+            dateIndexByCurrency.computeIfAbsent(tradeStatisticsSet.getCurrency(numProcessed).toUpperCase(),
+                    key -> new TradeStatisticsDateIndex(tradeStatisticsSet))
+                    .add(numProcessed);
+        }
+    }
+
+    private static long[] parseCursor(String cursor) {
+        String[] tokens = cursor.split(":");
+        try {
+            if (tokens.length == 2) {
+                return new long[]{Long.parseLong(tokens[0]), Integer.parseInt(tokens[1])};
+            }
+        } catch (NumberFormatException ignore) {
+        }
+        throw new IllegalArgumentException("invalid cursor '" + cursor + "'");
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api;
+
+import bisq.core.api.CoreApi.SubscriptionListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Delivers the updates of one subscription stream of the API to its listeners and keeps the most recent updates,
+ * so that a client reconnecting with the resume token of the last update it received gets the updates it missed.
+ * If the journal does not reach back to the resume token, e.g. after a restart of the daemon, the listener gets a
+ * snapshot of the current state instead.
+ *
+ * Each update is created once with its resume token and the same instance is delivered to all listeners.
+ * A listener which throws is removed, so a closed or too slow subscriber does not get further updates.
+ */
+@Slf4j
+class EventJournal<T> {
+
+    private static class Entry<T> {
+        private final long sequence;
+        private final T update;
+
+        private Entry(long sequence, T update) {
+            this.sequence = sequence;
+            this.update = update;
+        }
+    }
+
+    private final Object lock = new Object();
+    private final int capacity;
+    // Tokens of a previous run of the daemon must not match the sequence numbers of this run.
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final Deque<Entry<T>> entries = new ArrayDeque<>();
+    private final List<SubscriptionListener<T>> listeners = new LinkedList<>();
+    private long sequence;
+
+    EventJournal(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param updateFactory Creates the update for the given resume token, or returns null if there is nothing to
+     *                      publish. A null update is neither stored nor delivered.
+     */
+    void publish(Function<String, T> updateFactory) {
+        synchronized (lock) {
+            T update = updateFactory.apply(toResumeToken(sequence + 1));
+            if (update == null) {
+                return;
+            }
+            sequence++;
+            entries.addLast(new Entry<>(sequence, update));
+            if (entries.size() > capacity) {
+                entries.removeFirst();
+            }
+            for (Iterator<SubscriptionListener<T>> iter = listeners.iterator(); iter.hasNext(); ) {
+                SubscriptionListener<T> listener = iter.next();
+                try {
+                    listener.onUpdate(update);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to send update to listener {}: {}", listener, e.getMessage());
+                    iter.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the listener after sending it either the updates following the resume token or, if they are not
+     * available anymore, the snapshot. No update published in the meantime gets lost.
+     *
+     * @param resumeToken       The token of the last update received by the client, or empty.
+     * @param listener          The listener.
+     * @param snapshotFactory   Creates the snapshot for the given resume token, or returns null if there is no
+     *                          state to send yet.
+     */
+    void addListener(@Nullable String resumeToken, SubscriptionListener<T> listener, Function<String, T> snapshotFactory) {
+        synchronized (lock) {
+            long resumeSequence = fromResumeToken(resumeToken);
+            boolean canResume = resumeSequence == sequence ||
+                    (resumeSequence >= 0 && resumeSequence < sequence && !entries.isEmpty() &&
+                            entries.getFirst().sequence <= resumeSequence + 1);
+            try {
+                if (canResume) {
+                    entries.stream()
+                            .filter(entry -> entry.sequence > resumeSequence)
+                            .forEach(entry -> listener.onUpdate(entry.update));
+                } else {
+                    T snapshot = snapshotFactory.apply(toResumeToken(sequence));
+                    if (snapshot != null) {
+                        listener.onUpdate(snapshot);
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to send updates to new listener {}: {}", listener, e.getMessage());
+                return;
+            }
+            listeners.add(listener);
+        }
+    }
+
+    void removeListener(SubscriptionListener<T> listener) {
+        synchronized (lock) {
+            listeners.remove(listener);
+        }
+    }
+
+    private String toResumeToken(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    // Returns -1 if the token is empty, invalid or of another epoch.
+    private long fromResumeToken(@Nullable String resumeToken) {
+        if (resumeToken == null || !resumeToken.startsWith(epoch + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(resumeToken.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api.model;
+
+import bisq.core.trade.statistics.TradeStatisticsCandle;
+
+import bisq.common.Payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@ToString
+@Getter
+@AllArgsConstructor
+public class TradeStatisticsCandleInfo implements Payload {
+
+    private final long tickStart;
+    private final long tickEnd;
+    private final long open;
+    private final long close;
+    private final long high;
+    private final long low;
+    private final long averagePrice;
+    private final long medianPrice;
+    private final long accumulatedAmount;
+    private final long accumulatedVolume;
+    private final long numTrades;
+    private final boolean isBullish;
+    private final long volumeInUsd;
+
+    public static TradeStatisticsCandleInfo toTradeStatisticsCandleInfo(TradeStatisticsCandle candle) {
+        return new TradeStatisticsCandleInfo(candle.getTickStart(),
+                candle.getTickEnd(),
+                candle.getOpen(),
+                candle.getClose(),
+                candle.getHigh(),
+                candle.getLow(),
+                candle.getAveragePrice(),
+                candle.getMedianPrice(),
+                candle.getAccumulatedAmount(),
+                candle.getAccumulatedVolume(),
+                candle.getNumTrades(),
+                candle.isBullish(),
+                candle.getVolumeInUsd());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public bisq.proto.grpc.TradeStatisticsCandleInfo toProtoMessage() {
+        return bisq.proto.grpc.TradeStatisticsCandleInfo.newBuilder()
+                .setTickStart(tickStart)
+                .setTickEnd(tickEnd)
+                .setOpen(open)
+                .setClose(close)
+                .setHigh(high)
+                .setLow(low)
+                .setAveragePrice(averagePrice)
+                .setMedianPrice(medianPrice)
+                .setAccumulatedAmount(accumulatedAmount)
+                .setAccumulatedVolume(accumulatedVolume)
+                .setNumTrades(numTrades)
+                .setIsBullish(isBullish)
+                .setVolumeInUsd(volumeInUsd)
+                .build();
+    }
+
+    public static TradeStatisticsCandleInfo fromProto(bisq.proto.grpc.TradeStatisticsCandleInfo proto) {
+        return new TradeStatisticsCandleInfo(proto.getTickStart(),
+                proto.getTickEnd(),
+                proto.getOpen(),
+                proto.getClose(),
+                proto.getHigh(),
+                proto.getLow(),
+                proto.getAveragePrice(),
+                proto.getMedianPrice(),
+                proto.getAccumulatedAmount(),
+                proto.getAccumulatedVolume(),
+                proto.getNumTrades(),
+                proto.getIsBullish(),
+                proto.getVolumeInUsd());
+    }
+}
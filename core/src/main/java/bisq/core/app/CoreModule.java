@@ -77,6 +77,7 @@ public class CoreModule extends AppModule {
         bind(PersistenceProtoResolver.class).to(CorePersistenceProtoResolver.class);
 
         bindConstant().annotatedWith(named(USE_DEV_PRIVILEGE_KEYS)).to(config.useDevPrivilegeKeys);
+        bindConstant().annotatedWith(named(USE_PERSISTENCE_JOURNAL)).to(config.usePersistenceJournal);
         bindConstant().annotatedWith(named(USE_DEV_MODE)).to(config.useDevMode);
         bindConstant().annotatedWith(named(USE_DEV_MODE_HEADER)).to(config.useDevModeHeader);
         bindConstant().annotatedWith(named(REFERRAL_ID)).to(config.referralId);
@@ -38,6 +38,8 @@ import bisq.common.config.Config;
 import bisq.common.config.ConfigException;
 import bisq.common.crypto.IncorrectPasswordException;
 import bisq.common.handlers.ResultHandler;
+import bisq.common.metrics.Metrics;
+import bisq.common.metrics.PrometheusExporter;
 import bisq.common.persistence.PersistenceManager;
 import bisq.common.proto.persistable.PersistedDataHost;
 import bisq.common.setup.CommonSetup;
@@ -47,6 +49,9 @@ import bisq.common.util.Utilities;
 
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+
+import java.io.IOException;
+
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -69,6 +74,8 @@ public abstract class HavenoExecutable implements GracefulShutDownHandler, Haven
     protected Injector injector;
     protected AppModule module;
     protected Config config;
+    @Nullable
+    private PrometheusExporter metricsExporter;
     private boolean isShutdownInProgress;
     private boolean isReadOnly;
 
@@ -135,6 +142,7 @@ public abstract class HavenoExecutable implements GracefulShutDownHandler, Haven
         // As the handler method might be overwritten by subclasses and they use the application as handler
         // we need to setup the handler after the application is created.
         CommonSetup.setupUncaughtExceptionHandler(this);
+        startMetricsExporter();
         setupGuice();
         setupAvoidStandbyMode();
 
@@ -193,6 +201,27 @@ public abstract class HavenoExecutable implements GracefulShutDownHandler, Haven
         return accountService.isAccountOpen();
     }
 
+    protected void startMetricsExporter() {
+        if (config.metricsPort == Config.UNSPECIFIED_PORT) {
+            return;
+        }
+        metricsExporter = new PrometheusExporter(Metrics.getRegistry());
+        try {
+            metricsExporter.start(config.metricsPort);
+        } catch (IOException e) {
+            log.error("Starting metrics exporter at port {} failed", config.metricsPort, e);
+            metricsExporter.shutDown();
+            metricsExporter = null;
+        }
+    }
+
+    protected void shutDownMetricsExporter() {
+        if (metricsExporter != null) {
+            metricsExporter.shutDown();
+            metricsExporter = null;
+        }
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // We continue with a series of synchronous execution tasks
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -266,6 +295,7 @@ public abstract class HavenoExecutable implements GracefulShutDownHandler, Haven
         }
 
         isShutdownInProgress = true;
+        shutDownMetricsExporter();
 
         if (injector == null) {
             log.info("Shut down called before injector was created");
@@ -82,6 +82,7 @@ public abstract class ExecutableForAppWithP2p extends HavenoExecutable {
     @Override
     public void gracefulShutDown(ResultHandler resultHandler) {
         log.info("gracefulShutDown");
+        shutDownMetricsExporter();
         try {
             if (injector != null) {
                 JsonFileManager.shutDownAllInstances();
@@ -18,6 +18,7 @@
 package bisq.core.btc;
 
 import bisq.common.UserThread;
+import bisq.core.btc.wallet.XmrBalanceSnapshot;
 import bisq.core.btc.wallet.XmrWalletService;
 import bisq.core.offer.OfferPayload;
 import bisq.core.offer.OpenOffer;
@@ -105,12 +106,13 @@ public class Balances {
     // TODO (woodser): balances being set as Coin from BigInteger.longValue(), which can lose precision. should be in centineros for consistency with the rest of the application
 
     private void updateAvailableBalance() {
-        availableBalance.set(Coin.valueOf(xmrWalletService.getWallet().getUnlockedBalance(0).longValueExact()));
+        availableBalance.set(Coin.valueOf(xmrWalletService.getBalanceSnapshot().getUnlockedBalance().longValueExact()));
     }
     
     private void updateLockedBalance() {
-        BigInteger balance = xmrWalletService.getWallet().getBalance(0);
-        BigInteger unlockedBalance = xmrWalletService.getWallet().getUnlockedBalance(0);
+        XmrBalanceSnapshot balanceSnapshot = xmrWalletService.getBalanceSnapshot();
+        BigInteger balance = balanceSnapshot.getBalance();
+        BigInteger unlockedBalance = balanceSnapshot.getUnlockedBalance();
         lockedBalance.set(Coin.valueOf(balance.subtract(unlockedBalance).longValueExact()));
     }
     
@@ -54,7 +54,7 @@ public class MoneroWalletRpcManager {
         int portArgumentPosition = cmd.indexOf(RPC_BIND_PORT_ARGUMENT) + 1;
         int port = Integer.parseInt(cmd.get(portArgumentPosition));
         MoneroWalletRpc walletRpc = new MoneroWalletRpc(cmd); // starts monero-wallet-rpc process
-        registeredPorts.put(port, walletRpc);
+        synchronized (this) { registeredPorts.put(port, walletRpc); }
         return walletRpc;
       }
 
@@ -70,9 +70,10 @@ public class MoneroWalletRpcManager {
             cmdCopy.add(RPC_BIND_PORT_ARGUMENT);
             cmdCopy.add("" + port);
             MoneroWalletRpc walletRpc = new MoneroWalletRpc(cmdCopy); // start monero-wallet-rpc process
-            registeredPorts.put(port, walletRpc);
+            synchronized (this) { registeredPorts.put(port, walletRpc); }
             return walletRpc;
           } catch (Exception e) {
+            if (port != -1) unregisterPort(port);
             if (numAttempts >= NUM_ALLOWED_ATTEMPTS) {
               log.error("Unable to start monero-wallet-rpc instance after {} attempts", NUM_ALLOWED_ATTEMPTS);
               throw e;
@@ -93,21 +94,22 @@ public class MoneroWalletRpcManager {
    * @param save specifies if the wallet should be saved before closing
    */
   public void stopInstance(MoneroWalletRpc walletRpc, boolean save) {
-    boolean found = false;
-    for (Map.Entry<Integer, MoneroWalletRpc> entry : registeredPorts.entrySet()) {
-      if (walletRpc == entry.getValue()) {
-        walletRpc.close(save);
-        walletRpc.stopProcess();
-        found = true;
-        try { unregisterPort(entry.getKey()); }
-        catch (Exception e) { throw new MoneroError(e); }
-        break;
+    Integer port = null;
+    synchronized (this) {
+      for (Map.Entry<Integer, MoneroWalletRpc> entry : registeredPorts.entrySet()) {
+        if (walletRpc == entry.getValue()) {
+          port = entry.getKey();
+          break;
+        }
       }
     }
-    if (!found) throw new RuntimeException("MoneroWalletRpc instance not associated with port");
+    if (port == null) throw new RuntimeException("MoneroWalletRpc instance not associated with port");
+    if (walletRpc.getPath() != null) walletRpc.close(save); // pooled instances might not have a wallet open
+    walletRpc.stopProcess();
+    unregisterPort(port);
   }
 
-  private int registerPort() throws IOException {
+  private synchronized int registerPort() throws IOException {
 
     // register next consecutive port
     if (startPort != null) {
@@ -127,7 +129,7 @@ public class MoneroWalletRpcManager {
     }
   }
 
-  private void unregisterPort(int port) {
+  private synchronized void unregisterPort(int port) {
     registeredPorts.remove(port);
   }
 }
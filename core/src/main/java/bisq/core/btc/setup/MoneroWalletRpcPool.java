@@ -0,0 +1,408 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.core.btc.setup;
+
+import bisq.common.util.Utilities;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.time.Clock;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+import monero.common.MoneroRpcConnection;
+import monero.wallet.MoneroWalletRpc;
+import monero.wallet.model.MoneroWalletConfig;
+
+/**
+ * Pool of monero-wallet-rpc processes for wallets which are only needed from time to time, like the multisig wallets
+ * of trades. Each process has at most one wallet open.
+ *
+ * If a wallet is closed by its client its process is kept as idle process and used for the next wallet which gets
+ * opened. If the maximum number of processes is reached we close the least recently used wallet which is idle and stop
+ * its process, so we can start a new one. Wallets with listeners or which have been used recently are never closed.
+ * If there is no such wallet we start another process, so the maximum is a soft limit. Wallets which have not been
+ * used for a while get closed periodically so they stop polling the daemon.
+ *
+ * The MoneroWalletRpc of a wallet which gets closed by the pool itself is never used for another wallet, as clients
+ * might still hold a reference to it. Using that reference fails instead of silently operating on another wallet.
+ *
+ * Wallets are identified by a key (e.g. the trade id). Opening and closing a wallet is done while holding the lock of
+ * its key, so different wallets can be opened in parallel.
+ */
+@Slf4j
+public class MoneroWalletRpcPool {
+    private static final long MIN_IDLE_TIME_FOR_EVICTION_MS = TimeUnit.MINUTES.toMillis(2);
+    private static final long IDLE_TIME_FOR_CLOSING_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final long CLOSE_IDLE_WALLETS_INTERVAL_SEC = 60;
+    private static final int MAX_IDLE_PROCESSES = 2;
+
+    private final MoneroWalletRpcManager rpcManager;
+    private final Supplier<MoneroWalletRpc> processStarter;
+    private final Supplier<MoneroRpcConnection> daemonConnectionSupplier;
+    private final int maxProcesses;
+    private final ToLongFunction<String> syncPeriodProvider;
+    private final Clock clock;
+
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+    // Access ordered, so the first entry is the least recently used one
+    private final LinkedHashMap<String, OpenWallet> openWallets = new LinkedHashMap<>(16, 0.75f, true);
+    private final Deque<MoneroWalletRpc> idleProcesses = new ArrayDeque<>();
+    private int numProcesses;
+    @Nullable
+    private ScheduledExecutorService idleWalletCloser;
+
+    /**
+     * @param rpcManager               the manager used for stopping processes
+     * @param processStarter           starts a new monero-wallet-rpc process
+     * @param daemonConnectionSupplier the current daemon connection, set on each opened wallet
+     * @param maxProcesses             the number of processes we try not to exceed
+     * @param syncPeriodProvider       the sync period for the wallet with the given key, 0 if it should not sync
+     */
+    public MoneroWalletRpcPool(MoneroWalletRpcManager rpcManager,
+                               Supplier<MoneroWalletRpc> processStarter,
+                               Supplier<MoneroRpcConnection> daemonConnectionSupplier,
+                               int maxProcesses,
+                               ToLongFunction<String> syncPeriodProvider) {
+        this(rpcManager, processStarter, daemonConnectionSupplier, maxProcesses, syncPeriodProvider,
+                Clock.systemDefaultZone());
+    }
+
+    @VisibleForTesting
+    MoneroWalletRpcPool(MoneroWalletRpcManager rpcManager,
+                        Supplier<MoneroWalletRpc> processStarter,
+                        Supplier<MoneroRpcConnection> daemonConnectionSupplier,
+                        int maxProcesses,
+                        ToLongFunction<String> syncPeriodProvider,
+                        Clock clock) {
+        this.rpcManager = rpcManager;
+        this.processStarter = processStarter;
+        this.daemonConnectionSupplier = daemonConnectionSupplier;
+        this.maxProcesses = maxProcesses;
+        this.syncPeriodProvider = syncPeriodProvider;
+        this.clock = clock;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns the open wallet for the given key or opens (or creates) it.
+     *
+     * @param key    the key of the wallet
+     * @param config the config used if the wallet is not open yet
+     * @param create if the wallet should be created instead of opened
+     * @return the open wallet
+     */
+    public MoneroWalletRpc openWallet(String key, MoneroWalletConfig config, boolean create) {
+        ReentrantLock lock = getLock(key);
+        lock.lock();
+        try {
+            MoneroWalletRpc openWallet = getOpenWallet(key);
+            if (openWallet != null) {
+                return openWallet;
+            }
+
+            MoneroWalletRpc walletRpc = acquireProcess();
+            try {
+                if (create) {
+                    walletRpc.createWallet(config);
+                } else {
+                    walletRpc.openWallet(config);
+                }
+                walletRpc.setDaemonConnection(daemonConnectionSupplier.get());
+                long syncPeriodMs = syncPeriodProvider.applyAsLong(key);
+                if (syncPeriodMs > 0) {
+                    walletRpc.startSyncing(syncPeriodMs);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to open wallet {}. We stop its monero-wallet-rpc process.", key);
+                stopProcess(walletRpc, false);
+                throw e;
+            }
+
+            synchronized (this) {
+                openWallets.put(key, new OpenWallet(walletRpc, clock.millis()));
+                maybeStartIdleWalletCloser();
+            }
+            log.info("Opened wallet {}. Number of open wallets: {}, number of processes: {}",
+                    key, openWallets.size(), numProcesses);
+            return walletRpc;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the wallet with the given key if it is open, otherwise null
+     */
+    @Nullable
+    public synchronized MoneroWalletRpc getOpenWallet(String key) {
+        OpenWallet openWallet = openWallets.get(key);
+        if (openWallet == null) {
+            return null;
+        }
+        openWallet.lastAccessTime = clock.millis();
+        return openWallet.walletRpc;
+    }
+
+    /**
+     * @return the wallet with the given key if it is open, otherwise null. Does not count as access, so it does not
+     * keep an idle wallet open.
+     */
+    @Nullable
+    public synchronized MoneroWalletRpc peekOpenWallet(String key) {
+        OpenWallet openWallet = openWallets.get(key);
+        return openWallet == null ? null : openWallet.walletRpc;
+    }
+
+    public synchronized List<MoneroWalletRpc> getOpenWallets() {
+        List<MoneroWalletRpc> result = new ArrayList<>();
+        openWallets.values().forEach(openWallet -> result.add(openWallet.walletRpc));
+        return result;
+    }
+
+    public synchronized Map<String, MoneroWalletRpc> getOpenWalletsByKey() {
+        Map<String, MoneroWalletRpc> result = new LinkedHashMap<>();
+        openWallets.forEach((key, openWallet) -> result.put(key, openWallet.walletRpc));
+        return result;
+    }
+
+    /**
+     * Closes the wallet with the given key if it is open. Its process is kept for opening other wallets.
+     */
+    public void closeWallet(String key, boolean save) {
+        ReentrantLock lock = getLock(key);
+        lock.lock();
+        try {
+            OpenWallet openWallet;
+            synchronized (this) {
+                openWallet = openWallets.remove(key);
+            }
+            if (openWallet != null) {
+                closeAndReleaseProcess(key, openWallet.walletRpc, save);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes all wallets and stops all processes.
+     */
+    public void shutDown(boolean save) {
+        List<MoneroWalletRpc> openWalletRpcs;
+        List<MoneroWalletRpc> idleWalletRpcs;
+        synchronized (this) {
+            if (idleWalletCloser != null) {
+                idleWalletCloser.shutdownNow();
+                idleWalletCloser = null;
+            }
+            openWalletRpcs = getOpenWallets();
+            idleWalletRpcs = new ArrayList<>(idleProcesses);
+            openWallets.clear();
+            idleProcesses.clear();
+        }
+        // Saving and stopping takes a while per process, so we do it in parallel
+        openWalletRpcs.parallelStream().forEach(walletRpc -> stopProcess(walletRpc, save));
+        idleWalletRpcs.parallelStream().forEach(walletRpc -> stopProcess(walletRpc, false));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private ReentrantLock getLock(String key) {
+        return locks.computeIfAbsent(key, k -> new ReentrantLock());
+    }
+
+    private MoneroWalletRpc acquireProcess() {
+        String evictedKey = null;
+        ReentrantLock evictedLock = null;
+        MoneroWalletRpc evictedWalletRpc = null;
+        synchronized (this) {
+            if (!idleProcesses.isEmpty()) {
+                return idleProcesses.pop();
+            }
+
+            if (numProcesses >= maxProcesses) {
+                long now = clock.millis();
+                Iterator<Map.Entry<String, OpenWallet>> iterator = openWallets.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<String, OpenWallet> entry = iterator.next();
+                    OpenWallet openWallet = entry.getValue();
+                    if (!openWallet.isIdle(now, MIN_IDLE_TIME_FOR_EVICTION_MS)) {
+                        continue;
+                    }
+                    // We must not block here as the other wallet might wait for our lock
+                    ReentrantLock lock = getLock(entry.getKey());
+                    if (lock.tryLock()) {
+                        iterator.remove();
+                        evictedKey = entry.getKey();
+                        evictedLock = lock;
+                        evictedWalletRpc = openWallet.walletRpc;
+                        break;
+                    }
+                }
+                if (evictedWalletRpc == null) {
+                    log.warn("All {} monero-wallet-rpc processes are in use. We start another one.", numProcesses);
+                }
+            }
+
+            // An evicted process gets replaced by the new one
+            numProcesses++;
+        }
+
+        if (evictedWalletRpc != null) {
+            try {
+                log.info("We close the least recently used wallet {} and replace its monero-wallet-rpc process",
+                        evictedKey);
+                stopProcess(evictedWalletRpc, true);
+            } finally {
+                evictedLock.unlock();
+            }
+        }
+
+        try {
+            return processStarter.get();
+        } catch (Exception e) {
+            synchronized (this) {
+                numProcesses--;
+            }
+            throw e;
+        }
+    }
+
+    private void closeAndReleaseProcess(String key, MoneroWalletRpc walletRpc, boolean save) {
+        try {
+            walletRpc.stopSyncing();
+            walletRpc.close(save);
+        } catch (Exception e) {
+            log.warn("Failed to close wallet {}. We stop its process. Error={}", key, e.toString());
+            stopProcess(walletRpc, false);
+            return;
+        }
+
+        boolean keepProcess;
+        synchronized (this) {
+            keepProcess = idleProcesses.size() < MAX_IDLE_PROCESSES;
+            if (keepProcess) {
+                idleProcesses.push(walletRpc);
+            }
+        }
+        if (!keepProcess) {
+            stopProcess(walletRpc, false);
+        }
+        log.info("Closed wallet {}. Number of open wallets: {}, number of processes: {}",
+                key, openWallets.size(), numProcesses);
+    }
+
+    private void stopProcess(MoneroWalletRpc walletRpc, boolean save) {
+        synchronized (this) {
+            numProcesses--;
+        }
+        try {
+            rpcManager.stopInstance(walletRpc, save);
+        } catch (Exception e) {
+            log.warn("Failed to stop monero-wallet-rpc process. Error={}", e.toString());
+        }
+    }
+
+    private void maybeStartIdleWalletCloser() {
+        if (idleWalletCloser == null) {
+            idleWalletCloser = Utilities.getScheduledThreadPoolExecutor("MoneroWalletRpcPool", 1, 1, 60);
+            idleWalletCloser.scheduleWithFixedDelay(this::closeIdleWallets,
+                    CLOSE_IDLE_WALLETS_INTERVAL_SEC, CLOSE_IDLE_WALLETS_INTERVAL_SEC, TimeUnit.SECONDS);
+        }
+    }
+
+    private void closeIdleWallets() {
+        List<String> idleKeys = new ArrayList<>();
+        synchronized (this) {
+            long now = clock.millis();
+            openWallets.forEach((key, openWallet) -> {
+                if (openWallet.isIdle(now, IDLE_TIME_FOR_CLOSING_MS)) {
+                    idleKeys.add(key);
+                }
+            });
+        }
+        for (String key : idleKeys) {
+            ReentrantLock lock = getLock(key);
+            if (!lock.tryLock()) {
+                continue;
+            }
+            try {
+                OpenWallet openWallet;
+                synchronized (this) {
+                    // Check again as it might have been used in the meantime
+                    OpenWallet candidate = openWallets.get(key);
+                    openWallet = candidate != null && candidate.isIdle(clock.millis(), IDLE_TIME_FOR_CLOSING_MS) ?
+                            openWallets.remove(key) :
+                            null;
+                }
+                if (openWallet != null) {
+                    log.info("We close wallet {} as it was not used for {} min", key,
+                            TimeUnit.MILLISECONDS.toMinutes(IDLE_TIME_FOR_CLOSING_MS));
+                    stopProcess(openWallet.walletRpc, true);
+                }
+            } catch (Throwable t) {
+                log.error("Closing idle wallet {} failed", key, t);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // OpenWallet class
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static class OpenWallet {
+        private final MoneroWalletRpc walletRpc;
+        private long lastAccessTime;
+
+        OpenWallet(MoneroWalletRpc walletRpc, long lastAccessTime) {
+            this.walletRpc = walletRpc;
+            this.lastAccessTime = lastAccessTime;
+        }
+
+        // Wallets with listeners are in use by clients (e.g. waiting for the deposit txs)
+        boolean isIdle(long now, long minIdleTime) {
+            return now - lastAccessTime >= minIdleTime && walletRpc.getListeners().isEmpty();
+        }
+    }
+}
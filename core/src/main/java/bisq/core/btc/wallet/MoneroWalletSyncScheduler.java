@@ -0,0 +1,194 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.core.btc.wallet;
+
+import bisq.core.trade.Trade;
+
+import bisq.common.metrics.Counter;
+import bisq.common.metrics.Metrics;
+import bisq.common.util.Utilities;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+import monero.wallet.MoneroWallet;
+
+/**
+ * Decides how often the multisig wallet of a trade syncs, based on the phase of the trade.
+ *
+ * While we wait for the deposit txs or the payout tx we sync fast to detect them in the mempool. In the phases where
+ * nothing happens on chain for a while (e.g. waiting for the fiat payment) we sync slowly and trigger a sync of those
+ * wallets once we see a new block, so they still see confirmations in time. After the payout is withdrawn we stop
+ * syncing.
+ *
+ * Blocking wallet calls are done on a single thread. New blocks seen while a block triggered sync is still pending
+ * get coalesced into that sync.
+ */
+@Slf4j
+public class MoneroWalletSyncScheduler {
+    static final long FAST_SYNC_PERIOD_MS = TimeUnit.SECONDS.toMillis(5);
+    static final long SLOW_SYNC_PERIOD_MS = TimeUnit.SECONDS.toMillis(60);
+    static final long NO_SYNC = 0;
+
+    static final Counter SYNC_PERIOD_UPDATES = Metrics.counter("haveno_wallet_sync_period_updates_total",
+            "Updates of the sync period of multisig wallets");
+    private static final Counter BLOCK_SYNCS = Metrics.counter("haveno_wallet_block_syncs_total",
+            "Syncs of the slowly syncing multisig wallets triggered by a new block");
+    private static final Counter COALESCED_BLOCK_SYNCS = Metrics.counter("haveno_wallet_coalesced_block_syncs_total",
+            "New blocks coalesced into a pending block triggered sync");
+
+    private final Function<String, MoneroWallet> openWalletLookup;
+    private final Supplier<Map<String, ? extends MoneroWallet>> openWalletsSupplier;
+    private final Map<String, Long> syncPeriodsByKey = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Utilities.getSingleThreadExecutor("MoneroWalletSyncScheduler");
+    private final AtomicBoolean blockSyncPending = new AtomicBoolean();
+    private long lastHeight;
+
+    /**
+     * @param openWalletLookup    returns the wallet with the given key if it is open, otherwise null. Must not count
+     *                            as access to the wallet, so it does not keep an idle wallet open.
+     * @param openWalletsSupplier returns all open wallets managed by this scheduler by their key
+     */
+    public MoneroWalletSyncScheduler(Function<String, MoneroWallet> openWalletLookup,
+                                     Supplier<Map<String, ? extends MoneroWallet>> openWalletsSupplier) {
+        this.openWalletLookup = openWalletLookup;
+        this.openWalletsSupplier = openWalletsSupplier;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public static long getSyncPeriodMs(Trade.Phase phase) {
+        switch (phase) {
+            case INIT:
+            case TAKER_FEE_PUBLISHED:
+            case DEPOSIT_PUBLISHED:
+            case FIAT_RECEIVED:
+                // We wait for the deposit txs or the payout tx
+                return FAST_SYNC_PERIOD_MS;
+            case DEPOSIT_CONFIRMED:
+            case FIAT_SENT:
+            case PAYOUT_PUBLISHED:
+                // We wait for the fiat payment or for confirmations, which we also get from block triggered syncs
+                return SLOW_SYNC_PERIOD_MS;
+            case WITHDRAWN:
+            default:
+                return NO_SYNC;
+        }
+    }
+
+    /**
+     * @return the sync period for the wallet with the given key. Wallets we do not know the trade phase of sync fast.
+     */
+    public long getSyncPeriodMs(String key) {
+        return syncPeriodsByKey.getOrDefault(key, FAST_SYNC_PERIOD_MS);
+    }
+
+    /**
+     * Updates the sync period of the wallet with the given key. Applied to the wallet if it is open, otherwise at
+     * opening the wallet.
+     */
+    public void onPhaseChanged(String key, Trade.Phase phase) {
+        long syncPeriodMs = getSyncPeriodMs(phase);
+        Long previous = syncPeriodsByKey.put(key, syncPeriodMs);
+        if (previous != null && previous == syncPeriodMs) {
+            return;
+        }
+
+        SYNC_PERIOD_UPDATES.inc();
+        log.info("Sync period of wallet {} in phase {} is {}", key, phase,
+                syncPeriodMs == NO_SYNC ? "paused" : syncPeriodMs + " ms");
+        executor.execute(() -> {
+            MoneroWallet wallet = openWalletLookup.apply(key);
+            if (wallet == null) {
+                return;
+            }
+            try {
+                applySyncPeriod(wallet, getSyncPeriodMs(key));
+            } catch (Exception e) {
+                log.warn("Failed to update sync period of wallet {}. Error={}", key, e.toString());
+            }
+        });
+    }
+
+    public void remove(String key) {
+        syncPeriodsByKey.remove(key);
+    }
+
+    /**
+     * Called when the daemon has a new block. Triggers a sync of the open wallets which sync slowly.
+     */
+    public void onNewBlock(long height) {
+        synchronized (this) {
+            if (height <= lastHeight) {
+                return;
+            }
+            lastHeight = height;
+        }
+
+        if (!blockSyncPending.compareAndSet(false, true)) {
+            COALESCED_BLOCK_SYNCS.inc();
+            return;
+        }
+
+        executor.execute(() -> {
+            blockSyncPending.set(false);
+            long ts = System.currentTimeMillis();
+            int numSynced = 0;
+            for (Map.Entry<String, ? extends MoneroWallet> entry : openWalletsSupplier.get().entrySet()) {
+                if (getSyncPeriodMs(entry.getKey()) < SLOW_SYNC_PERIOD_MS) {
+                    // Fast syncing wallets do not need it, paused ones do not want it
+                    continue;
+                }
+                try {
+                    entry.getValue().sync();
+                    numSynced++;
+                } catch (Exception e) {
+                    log.warn("Failed to sync wallet {} at new block. Error={}", entry.getKey(), e.toString());
+                }
+            }
+            BLOCK_SYNCS.inc();
+            log.debug("Synced {} wallets at new block {} in {} ms", numSynced, height, System.currentTimeMillis() - ts);
+        });
+    }
+
+    public void shutDown() {
+        executor.shutdownNow();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static void applySyncPeriod(MoneroWallet wallet, long syncPeriodMs) {
+        if (syncPeriodMs == NO_SYNC) {
+            wallet.stopSyncing();
+        } else {
+            wallet.startSyncing(syncPeriodMs);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.core.btc.wallet;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.math.BigInteger;
+
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * Immutable balances of the main wallet account at one point in time, so they can be read by any thread without
+ * a wallet RPC call.
+ */
+public final class XmrBalanceSnapshot {
+    static final XmrBalanceSnapshot EMPTY = new XmrBalanceSnapshot(ImmutableMap.of(), ImmutableMap.of());
+
+    private final Map<Integer, BigInteger> balanceBySubaddress;
+    private final Map<Integer, BigInteger> unlockedBalanceBySubaddress;
+    @Getter
+    private final BigInteger balance;
+    @Getter
+    private final BigInteger unlockedBalance;
+    @Getter
+    private final long timestamp = System.currentTimeMillis();
+
+    XmrBalanceSnapshot(Map<Integer, BigInteger> balanceBySubaddress,
+                       Map<Integer, BigInteger> unlockedBalanceBySubaddress) {
+        this.balanceBySubaddress = ImmutableMap.copyOf(balanceBySubaddress);
+        this.unlockedBalanceBySubaddress = ImmutableMap.copyOf(unlockedBalanceBySubaddress);
+        this.balance = sum(balanceBySubaddress);
+        this.unlockedBalance = sum(unlockedBalanceBySubaddress);
+    }
+
+    public BigInteger getBalance(int subaddressIndex) {
+        return balanceBySubaddress.getOrDefault(subaddressIndex, BigInteger.ZERO);
+    }
+
+    public BigInteger getUnlockedBalance(int subaddressIndex) {
+        return unlockedBalanceBySubaddress.getOrDefault(subaddressIndex, BigInteger.ZERO);
+    }
+
+    private static BigInteger sum(Map<Integer, BigInteger> balances) {
+        return balances.values().stream().reduce(BigInteger.ZERO, BigInteger::add);
+    }
+}
@@ -12,6 +12,7 @@ import bisq.core.btc.listeners.XmrBalanceListener;
 import bisq.core.btc.model.XmrAddressEntry;
 import bisq.core.btc.model.XmrAddressEntryList;
 import bisq.core.btc.setup.MoneroWalletRpcManager;
+import bisq.core.btc.setup.MoneroWalletRpcPool;
 import bisq.core.btc.setup.WalletsSetup;
 import bisq.core.trade.Trade;
 import bisq.core.trade.TradeManager;
@@ -21,6 +22,7 @@ import java.io.File;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -64,6 +66,7 @@ public class XmrWalletService {
     private static final String MONERO_WALLET_RPC_DEFAULT_PASSWORD = "password"; // only used if account password is null
     private static final String MONERO_WALLET_NAME = "haveno_XMR";
     private static final long MONERO_WALLET_SYNC_RATE = 5000l;
+    private static final int MAX_MULTISIG_WALLET_PROCESSES = 8; // multisig wallets are opened and closed on demand to stay below this number of monero-wallet-rpc processes
 
     private final CoreAccountService accountService;
     private final CoreMoneroConnectionsService connectionsService;
@@ -77,7 +80,11 @@ public class XmrWalletService {
 
     private TradeManager tradeManager;
     private MoneroWallet wallet;
-    private Map<String, MoneroWallet> multisigWallets;
+    // Balances of the main wallet. Refreshed once per balance change event and read without wallet RPC calls.
+    private volatile XmrBalanceSnapshot balanceSnapshot = XmrBalanceSnapshot.EMPTY;
+    private volatile boolean balanceSnapshotValid;
+    private final MoneroWalletRpcPool multisigWalletPool;
+    private final MoneroWalletSyncScheduler multisigWalletSyncScheduler;
 
     @Inject
     XmrWalletService(CoreAccountService accountService,
@@ -90,7 +97,18 @@ public class XmrWalletService {
         this.connectionsService = connectionsService;
         this.walletsSetup = walletsSetup;
         this.xmrAddressEntryList = xmrAddressEntryList;
-        this.multisigWallets = new HashMap<String, MoneroWallet>();
+        this.multisigWalletPool = new MoneroWalletRpcPool(MONERO_WALLET_RPC_MANAGER,
+                () -> startWalletRpcInstance(null), // auto-assign port
+                connectionsService::getConnection,
+                MAX_MULTISIG_WALLET_PROCESSES,
+                key -> getMultisigWalletSyncScheduler().getSyncPeriodMs(key));
+        this.multisigWalletSyncScheduler = new MoneroWalletSyncScheduler(multisigWalletPool::peekOpenWallet,
+                multisigWalletPool::getOpenWalletsByKey);
+
+        // sync slowly syncing multisig wallets once per block
+        connectionsService.chainHeightProperty().addListener((observable, oldValue, newValue) -> {
+            multisigWalletSyncScheduler.onNewBlock(newValue.longValue());
+        });
         this.walletDir = walletDir;
         this.rpcBindPort = rpcBindPort;
         this.xmrWalletFile = new File(walletDir, MONERO_WALLET_NAME);
@@ -146,6 +164,10 @@ public class XmrWalletService {
         return connectionsService.getDaemon();
     }
     
+    public MoneroWalletSyncScheduler getMultisigWalletSyncScheduler() {
+        return multisigWalletSyncScheduler;
+    }
+
     public CoreMoneroConnectionsService getConnectionsService() {
         return connectionsService;
     }
@@ -233,42 +255,45 @@ public class XmrWalletService {
     }
 
     // TODO (woodser): test retaking failed trade. create new multisig wallet or replace? cannot reuse
-    public synchronized MoneroWallet createMultisigWallet(String tradeId) {
+    public MoneroWallet createMultisigWallet(String tradeId) {
         log.info("{}.createMultisigWallet({})", getClass(), tradeId);
-        if (multisigWallets.containsKey(tradeId)) return multisigWallets.get(tradeId);
-        String path = "xmr_multisig_trade_" + tradeId;
-        MoneroWallet multisigWallet = null;
-        multisigWallet = createWallet(new MoneroWalletConfig().setPath(path).setPassword(getWalletPassword()), null); // auto-assign port
-        multisigWallets.put(tradeId, multisigWallet);
-        multisigWallet.startSyncing(5000l);
-        return multisigWallet;
+        String path = getMultisigWalletPath(tradeId);
+        return multisigWalletPool.openWallet(tradeId, new MoneroWalletConfig().setPath(path).setPassword(getWalletPassword()), true);
     }
 
-    public MoneroWallet getMultisigWallet(String tradeId) { // TODO (woodser): synchronize per wallet id
+    // Multisig wallets are opened on demand in a pooled monero-wallet-rpc process and might get closed if not used for
+    // a while, so clients should not keep a reference to the returned wallet unless they register a listener on it.
+    public MoneroWallet getMultisigWallet(String tradeId) {
         log.info("{}.getMultisigWallet({})", getClass(), tradeId);
-        if (multisigWallets.containsKey(tradeId)) return multisigWallets.get(tradeId);
-        String path = "xmr_multisig_trade_" + tradeId;
+        MoneroWallet openWallet = multisigWalletPool.getOpenWallet(tradeId);
+        if (openWallet != null) return openWallet;
+        String path = getMultisigWalletPath(tradeId);
         if (!walletExists(path)) return null;
-        MoneroWallet multisigWallet = openWallet(new MoneroWalletConfig().setPath(path).setPassword(getWalletPassword()), null);
-        multisigWallets.put(tradeId, multisigWallet);
-        multisigWallet.startSyncing(5000l); // TODO (woodser): use sync period from config. apps stall if too many multisig wallets and too short sync period
-        return multisigWallet;
+        return multisigWalletPool.openWallet(tradeId, new MoneroWalletConfig().setPath(path).setPassword(getWalletPassword()), false);
     }
 
-    public synchronized boolean deleteMultisigWallet(String tradeId) {
+    public boolean deleteMultisigWallet(String tradeId) {
         log.info("{}.deleteMultisigWallet({})", getClass(), tradeId);
-        String walletName = "xmr_multisig_trade_" + tradeId;
+        String walletName = getMultisigWalletPath(tradeId);
         if (!walletExists(walletName)) return false;
         try {
-            closeWallet(getMultisigWallet(tradeId), false);
+            multisigWalletPool.closeWallet(tradeId, false);
         } catch (Exception err) {
-            // multisig wallet may not be open
+            log.warn("Error closing multisig wallet {}: {}", walletName, err.toString());
         }
         deleteWallet(walletName);
-        multisigWallets.remove(tradeId);
+        multisigWalletSyncScheduler.remove(tradeId);
         return true;
     }
 
+    public void updateMultisigWalletSyncPeriod(String tradeId, Trade.Phase phase) {
+        multisigWalletSyncScheduler.onPhaseChanged(tradeId, phase);
+    }
+
+    private static String getMultisigWalletPath(String tradeId) {
+        return "xmr_multisig_trade_" + tradeId;
+    }
+
     public MoneroTxWallet createTx(List<MoneroDestination> destinations) {
         try {
             MoneroTxWallet tx = wallet.createTx(new MoneroTxConfig().setAccountIndex(0).setDestinations(destinations).setRelay(false).setCanSplit(false));
@@ -281,6 +306,7 @@ public class XmrWalletService {
 
     public void shutDown() {
         closeAllWallets();
+        multisigWalletSyncScheduler.shutDown();
     }
 
     // ------------------------------ PRIVATE HELPERS -------------------------
@@ -307,12 +333,24 @@ public class XmrWalletService {
             setWalletDaemonConnections(newConnection);
         });
 
-        // notify on balance changes
+        // refresh cached balances and notify on balance changes
+        invalidateBalances();
         wallet.addListener(new MoneroWalletListener() {
             @Override
             public void onBalancesChanged(BigInteger newBalance, BigInteger newUnlockedBalance) {
+                invalidateBalances();
                 notifyBalanceListeners();
             }
+
+            @Override
+            public void onOutputReceived(MoneroOutputWallet output) {
+                invalidateBalances();
+            }
+
+            @Override
+            public void onOutputSpent(MoneroOutputWallet output) {
+                invalidateBalances();
+            }
         });
     }
 
@@ -325,14 +363,15 @@ public class XmrWalletService {
     private void setWalletDaemonConnections(MoneroRpcConnection connection) {
         log.info("Setting wallet daemon connections: " + (connection == null ? null : connection.getUri()));
         if (wallet != null) wallet.setDaemonConnection(connection);
-        for (MoneroWallet multisigWallet : multisigWallets.values()) multisigWallet.setDaemonConnection(connection);
+        for (MoneroWallet multisigWallet : multisigWalletPool.getOpenWallets()) multisigWallet.setDaemonConnection(connection);
     }
 
     private void notifyBalanceListeners() {
+        XmrBalanceSnapshot snapshot = getBalanceSnapshot(); // all listeners are served from one balance query
         for (XmrBalanceListener balanceListener : balanceListeners) {
             Coin balance;
-            if (balanceListener.getSubaddressIndex() != null && balanceListener.getSubaddressIndex() != 0) balance = getBalanceForSubaddress(balanceListener.getSubaddressIndex());
-            else balance = getAvailableConfirmedBalance();
+            if (balanceListener.getSubaddressIndex() != null && balanceListener.getSubaddressIndex() != 0) balance = Coin.valueOf(snapshot.getBalance(balanceListener.getSubaddressIndex()).longValueExact());
+            else balance = Coin.valueOf(snapshot.getUnlockedBalance().longValueExact());
             UserThread.execute(new Runnable() {
                 @Override
                 public void run() {
@@ -380,30 +419,27 @@ public class XmrWalletService {
     
     private void closeAllWallets() {
 
-        // collect wallets to shutdown
-        List<MoneroWallet> openWallets = new ArrayList<MoneroWallet>();
-        if (wallet != null) openWallets.add(wallet);
-        for (String multisigWalletKey : multisigWallets.keySet()) {
-            openWallets.add(multisigWallets.get(multisigWalletKey));
-        }
-
-        // done if no open wallets
-        if (openWallets.isEmpty()) return;
-
-        // close all wallets in parallel
-        ExecutorService pool = Executors.newFixedThreadPool(Math.min(10, openWallets.size()));
-        for (MoneroWallet openWallet : openWallets) {
+        // close main wallet and pooled multisig wallets in parallel
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        if (wallet != null) {
+            MoneroWallet mainWallet = wallet;
             pool.submit(new Runnable() {
                 @Override
                 public void run() {
                     try {
-                        closeWallet(openWallet, true);
+                        closeWallet(mainWallet, true);
                     } catch (Exception e) {
                         log.warn("Error closing monero-wallet-rpc subprocess. Was Haveno stopped manually with ctrl+c?");
                     }
                 }
             });
         }
+        pool.submit(new Runnable() {
+            @Override
+            public void run() {
+                multisigWalletPool.shutDown(true);
+            }
+        });
         pool.shutdown();
         try {
             if (!pool.awaitTermination(60000, TimeUnit.SECONDS)) pool.shutdownNow();
@@ -414,7 +450,8 @@ public class XmrWalletService {
 
         // clear wallets
         wallet = null;
-        multisigWallets.clear();
+        balanceSnapshot = XmrBalanceSnapshot.EMPTY;
+        balanceSnapshotValid = false;
     }
     
     // ----------------------------- LEGACY APP -------------------------------
@@ -515,10 +552,60 @@ public class XmrWalletService {
         // does not include unconfirmed funds
     }
 
+    /**
+     * Returns the balances of the main wallet account. They are cached and refreshed with a single wallet query after
+     * they got invalidated by a balance change or an output received or spent.
+     */
+    public XmrBalanceSnapshot getBalanceSnapshot() {
+        if (!balanceSnapshotValid) refreshBalances();
+        return balanceSnapshot;
+    }
+
+    /**
+     * Freezes the outputs with the given key images so they are not spent by other transactions. Freezing does not
+     * trigger a wallet event, so we invalidate the cached balances.
+     */
+    public void freezeOutputs(Collection<String> keyImages) {
+        for (String keyImage : keyImages) wallet.freezeOutput(keyImage);
+        invalidateBalances();
+    }
+
+    /**
+     * Thaws the outputs with the given key images and invalidates the cached balances.
+     */
+    public void thawOutputs(Collection<String> keyImages) {
+        for (String keyImage : keyImages) wallet.thawOutput(keyImage);
+        invalidateBalances();
+    }
+
+    // Called after operations of our own which change the balances without a wallet event, e.g. freezing outputs
+    public void invalidateBalances() {
+        balanceSnapshotValid = false;
+    }
+
+    private synchronized void refreshBalances() {
+        if (balanceSnapshotValid) return; // refreshed by another thread in the meantime
+        MoneroWallet wallet = this.wallet;
+        if (wallet == null) return;
+        balanceSnapshotValid = true; // set before the query so changes during the query invalidate the result
+        try {
+            Map<Integer, BigInteger> balances = new HashMap<>();
+            Map<Integer, BigInteger> unlockedBalances = new HashMap<>();
+            for (MoneroSubaddress subaddress : wallet.getSubaddresses(0)) {
+                balances.put(subaddress.getIndex(), subaddress.getBalance());
+                unlockedBalances.put(subaddress.getIndex(), subaddress.getUnlockedBalance());
+            }
+            balanceSnapshot = new XmrBalanceSnapshot(balances, unlockedBalances);
+        } catch (Exception e) {
+            balanceSnapshotValid = false;
+            throw e;
+        }
+    }
+
     public Coin getBalanceForSubaddress(int subaddressIndex) {
 
         // get subaddress balance
-        BigInteger balance = wallet.getBalance(0, subaddressIndex);
+        BigInteger balance = getBalanceSnapshot().getBalance(subaddressIndex);
 
 //    // balance from xmr wallet does not include unconfirmed funds, so add them  // TODO: support lower in stack?
 //    for (MoneroTxWallet unconfirmedTx : wallet.getTxs(new MoneroTxQuery().setIsConfirmed(false))) {
@@ -529,17 +616,15 @@ public class XmrWalletService {
 //      }
 //    }
 
-        System.out.println("Returning balance for subaddress " + subaddressIndex + ": " + balance.longValueExact());
-
         return Coin.valueOf(balance.longValueExact());
     }
 
     public Coin getAvailableConfirmedBalance() {
-        return wallet != null ? Coin.valueOf(wallet.getUnlockedBalance(0).longValueExact()) : Coin.ZERO;
+        return wallet != null ? Coin.valueOf(getBalanceSnapshot().getUnlockedBalance().longValueExact()) : Coin.ZERO;
     }
 
     public Coin getSavingWalletBalance() {
-        return wallet != null ? Coin.valueOf(wallet.getBalance(0).longValueExact()) : Coin.ZERO;
+        return wallet != null ? Coin.valueOf(getBalanceSnapshot().getBalance().longValueExact()) : Coin.ZERO;
     }
 
     public Stream<XmrAddressEntry> getAddressEntriesForAvailableBalanceStream() {
@@ -30,7 +30,6 @@ import bisq.network.p2p.network.NetworkNode;
 import bisq.network.p2p.network.Statistic;
 import bisq.network.p2p.peers.PeerManager;
 import bisq.network.p2p.storage.P2PDataStorage;
-import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
 
 import bisq.common.app.Version;
 import bisq.common.config.Config;
@@ -41,12 +40,9 @@ import bisq.common.util.Utilities;
 import javax.inject.Inject;
 import javax.inject.Named;
 
-import com.google.common.base.Enums;
 import com.google.common.base.Joiner;
-import com.google.common.base.Optional;
 
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.Map;
 
 import java.lang.management.ManagementFactory;
@@ -57,9 +53,10 @@ import lombok.extern.slf4j.Slf4j;
 public class GetInventoryRequestHandler implements MessageListener {
     private final NetworkNode networkNode;
     private final PeerManager peerManager;
-    private final P2PDataStorage p2PDataStorage;
     private final FilterManager filterManager;
-    private final int maxConnections;
+    private final InventoryDataCounter inventoryDataCounter;
+    // Items which do not change while the app is running
+    private final Map<InventoryItem, String> staticInventory = new HashMap<>();
 
     @Inject
     public GetInventoryRequestHandler(NetworkNode networkNode,
@@ -69,9 +66,13 @@ public class GetInventoryRequestHandler implements MessageListener {
                                       @Named(Config.MAX_CONNECTIONS) int maxConnections) {
         this.networkNode = networkNode;
         this.peerManager = peerManager;
-        this.p2PDataStorage = p2PDataStorage;
         this.filterManager = filterManager;
-        this.maxConnections = maxConnections;
+        this.inventoryDataCounter = new InventoryDataCounter(p2PDataStorage);
+
+        staticInventory.put(InventoryItem.maxConnections, String.valueOf(maxConnections));
+        staticInventory.put(InventoryItem.version, Version.VERSION);
+        staticInventory.put(InventoryItem.commitHash, RequestInfo.COMMIT_HASH);
+        staticInventory.put(InventoryItem.jvmStartTime, String.valueOf(ManagementFactory.getRuntimeMXBean().getStartTime()));
 
         this.networkNode.addMessageListener(this);
     }
@@ -81,21 +82,11 @@ public class GetInventoryRequestHandler implements MessageListener {
         if (networkEnvelope instanceof GetInventoryRequest) {
             // Data
             GetInventoryRequest getInventoryRequest = (GetInventoryRequest) networkEnvelope;
-            Map<InventoryItem, Integer> dataObjects = new HashMap<>();
-            p2PDataStorage.getMapForDataResponse(getInventoryRequest.getVersion()).values().stream()
-                    .map(e -> e.getClass().getSimpleName())
-                    .forEach(className -> addClassNameToMap(dataObjects, className));
-            p2PDataStorage.getMap().values().stream()
-                    .map(ProtectedStorageEntry::getProtectedStoragePayload)
-                    .map(e -> e.getClass().getSimpleName())
-                    .forEach(className -> addClassNameToMap(dataObjects, className));
-            Map<InventoryItem, String> inventory = new HashMap<>();
-            dataObjects.forEach((key, value) -> inventory.put(key, String.valueOf(value)));
-
-
+            Map<InventoryItem, String> inventory = new HashMap<>(staticInventory);
+            inventoryDataCounter.getCounts(getInventoryRequest.getVersion())
+                    .forEach((key, value) -> inventory.put(key, String.valueOf(value)));
 
             // network
-            inventory.put(InventoryItem.maxConnections, String.valueOf(maxConnections));
             inventory.put(InventoryItem.numConnections, String.valueOf(networkNode.getAllConnections().size()));
             inventory.put(InventoryItem.peakNumConnections, String.valueOf(peerManager.getPeakNumConnections()));
             inventory.put(InventoryItem.numAllConnectionsLostEvents, String.valueOf(peerManager.getNumAllConnectionsLostEvents()));
@@ -108,10 +99,7 @@ public class GetInventoryRequestHandler implements MessageListener {
             inventory.put(InventoryItem.sentMessagesPerSec, String.valueOf(Statistic.numTotalSentMessagesPerSecProperty().get()));
 
             // node
-            inventory.put(InventoryItem.version, Version.VERSION);
-            inventory.put(InventoryItem.commitHash, RequestInfo.COMMIT_HASH);
             inventory.put(InventoryItem.usedMemory, String.valueOf(Profiler.getUsedMemoryInBytes()));
-            inventory.put(InventoryItem.jvmStartTime, String.valueOf(ManagementFactory.getRuntimeMXBean().getStartTime()));
 
             Filter filter = filterManager.getFilter();
             if (filter != null) {
@@ -126,15 +114,6 @@ public class GetInventoryRequestHandler implements MessageListener {
 
     public void shutDown() {
         networkNode.removeMessageListener(this);
-    }
-
-    private void addClassNameToMap(Map<InventoryItem, Integer> dataObjects, String className) {
-        Optional<InventoryItem> optionalEnum = Enums.getIfPresent(InventoryItem.class, className);
-        if (optionalEnum.isPresent()) {
-            InventoryItem key = optionalEnum.get();
-            dataObjects.putIfAbsent(key, 0);
-            int prev = dataObjects.get(key);
-            dataObjects.put(key, prev + 1);
-        }
+        inventoryDataCounter.shutDown();
     }
 }
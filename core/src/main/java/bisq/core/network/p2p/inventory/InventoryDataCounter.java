@@ -0,0 +1,175 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.network.p2p.inventory;
+
+import bisq.core.network.p2p.inventory.model.InventoryItem;
+
+import bisq.network.p2p.storage.HashMapChangedListener;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+import bisq.network.p2p.storage.payload.ProtectedStoragePayload;
+import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreListener;
+
+import bisq.common.app.Version;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Counts the data items of the inventory. The counts are kept up to date by the add and remove events of the
+ * P2PDataStorage, so an inventory request does not iterate over the data stores.
+ *
+ * The append-only data of an inventory depends on the historical stores which are newer than the requesters
+ * version. The historical stores are immutable, so we count the data once for each set of historical stores and
+ * apply the added payloads to all counts.
+ *
+ * The add event of a protected storage entry is fired as well for a republished entry with a higher sequence number
+ * and the remove event for entries we did not have. We keep the payloads per item in a set, so those events do not
+ * change the counts.
+ */
+@Slf4j
+class InventoryDataCounter implements AppendOnlyDataStoreListener, HashMapChangedListener {
+    private static final Map<String, InventoryItem> INVENTORY_ITEM_BY_KEY = Arrays.stream(InventoryItem.values())
+            .collect(Collectors.toMap(InventoryItem::getKey, Function.identity()));
+
+    private final P2PDataStorage p2PDataStorage;
+    private final Map<Class<?>, Optional<InventoryItem>> inventoryItemByClass = new ConcurrentHashMap<>();
+    // Key is the list of historical store versions included for the requesters version
+    private final Map<String, Map<InventoryItem, Integer>> persistableNetworkPayloadCounts = new HashMap<>();
+    // Gets filled at the first request, until then we ignore the events of the P2PDataStorage
+    @Nullable
+    private Map<InventoryItem, Set<ProtectedStoragePayload>> protectedStoragePayloads;
+
+    InventoryDataCounter(P2PDataStorage p2PDataStorage) {
+        this.p2PDataStorage = p2PDataStorage;
+
+        p2PDataStorage.addAppendOnlyDataStoreListener(this);
+        p2PDataStorage.addHashMapChangedListener(this);
+    }
+
+    synchronized Map<InventoryItem, Integer> getCounts(@Nullable String requestersVersion) {
+        Map<InventoryItem, Integer> counts = new EnumMap<>(InventoryItem.class);
+        counts.putAll(persistableNetworkPayloadCounts.computeIfAbsent(getHistoricalStoresKey(requestersVersion),
+                key -> countPersistableNetworkPayloads(requestersVersion)));
+        getProtectedStoragePayloads().forEach((item, payloads) -> {
+            if (!payloads.isEmpty()) {
+                counts.merge(item, payloads.size(), Integer::sum);
+            }
+        });
+        return counts;
+    }
+
+    void shutDown() {
+        p2PDataStorage.removeAppendOnlyDataStoreListener(this);
+        p2PDataStorage.removeHashMapChangedListener(this);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // AppendOnlyDataStoreListener
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public synchronized void onAdded(PersistableNetworkPayload payload) {
+        // The append-only data store only notifies about payloads which were not in any store yet
+        getInventoryItem(payload).ifPresent(item ->
+                persistableNetworkPayloadCounts.values().forEach(counts -> counts.merge(item, 1, Integer::sum)));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // HashMapChangedListener
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public synchronized void onAdded(Collection<ProtectedStorageEntry> protectedStorageEntries) {
+        if (protectedStoragePayloads == null) {
+            return;
+        }
+        protectedStorageEntries.forEach(entry -> {
+            ProtectedStoragePayload payload = entry.getProtectedStoragePayload();
+            getInventoryItem(payload).ifPresent(item ->
+                    protectedStoragePayloads.computeIfAbsent(item, key -> new HashSet<>()).add(payload));
+        });
+    }
+
+    @Override
+    public synchronized void onRemoved(Collection<ProtectedStorageEntry> protectedStorageEntries) {
+        if (protectedStoragePayloads == null) {
+            return;
+        }
+        protectedStorageEntries.forEach(entry -> {
+            ProtectedStoragePayload payload = entry.getProtectedStoragePayload();
+            getInventoryItem(payload).ifPresent(item -> {
+                Set<ProtectedStoragePayload> payloads = protectedStoragePayloads.get(item);
+                if (payloads != null) {
+                    payloads.remove(payload);
+                }
+            });
+        });
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private Map<InventoryItem, Integer> countPersistableNetworkPayloads(@Nullable String requestersVersion) {
+        long ts = System.currentTimeMillis();
+        Map<InventoryItem, Integer> counts = new EnumMap<>(InventoryItem.class);
+        p2PDataStorage.getMapForDataResponse(requestersVersion).values()
+                .forEach(payload -> getInventoryItem(payload).ifPresent(item -> counts.merge(item, 1, Integer::sum)));
+        log.info("Counting the persistable network payloads for requesters version {} took {} ms",
+                requestersVersion, System.currentTimeMillis() - ts);
+        return counts;
+    }
+
+    private Map<InventoryItem, Set<ProtectedStoragePayload>> getProtectedStoragePayloads() {
+        if (protectedStoragePayloads == null) {
+            protectedStoragePayloads = new EnumMap<>(InventoryItem.class);
+            onAdded(p2PDataStorage.getMap().values());
+        }
+        return protectedStoragePayloads;
+    }
+
+    private Optional<InventoryItem> getInventoryItem(Object payload) {
+        return inventoryItemByClass.computeIfAbsent(payload.getClass(),
+                clazz -> Optional.ofNullable(INVENTORY_ITEM_BY_KEY.get(clazz.getSimpleName())));
+    }
+
+    // Same filter as used by HistoricalDataStoreService.getMapsSinceVersion
+    private static String getHistoricalStoresKey(@Nullable String requestersVersion) {
+        return Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS.stream()
+                .filter(storeVersion -> requestersVersion == null || Version.isNewVersion(storeVersion, requestersVersion))
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.offer;
+
+import bisq.core.monetary.Price;
+
+import java.util.List;
+
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+
+/**
+ * Immutable snapshot of the order book of one market. The buy offers are sorted from the best (highest) bid down,
+ * the sell offers from the best (lowest) ask up. Prices and amounts of the depth arrays are in units of the
+ * currency, the depth is the accumulated amount of all offers up to and including the price level.
+ */
+@Getter
+public final class MarketDepth {
+    private final String currencyCode;
+    private final List<Offer> buyOffers;
+    private final List<Offer> sellOffers;
+    private final double[] buyPrices;
+    private final double[] buyDepth;
+    private final double[] sellPrices;
+    private final double[] sellDepth;
+
+    MarketDepth(String currencyCode,
+                List<Offer> buyOffers,
+                List<Offer> sellOffers,
+                double[] buyPrices,
+                double[] buyDepth,
+                double[] sellPrices,
+                double[] sellDepth) {
+        this.currencyCode = currencyCode;
+        this.buyOffers = List.copyOf(buyOffers);
+        this.sellOffers = List.copyOf(sellOffers);
+        this.buyPrices = buyPrices;
+        this.buyDepth = buyDepth;
+        this.sellPrices = sellPrices;
+        this.sellDepth = sellDepth;
+    }
+
+    @Nullable
+    public Price getBestBid() {
+        return buyOffers.isEmpty() ? null : buyOffers.get(0).getPrice();
+    }
+
+    @Nullable
+    public Price getBestAsk() {
+        return sellOffers.isEmpty() ? null : sellOffers.get(0).getPrice();
+    }
+}
@@ -251,6 +251,15 @@ public class Offer implements NetworkPayload, PersistablePayload {
         setState(Offer.State.UNKNOWN);
     }
 
+    // Returns a copy sharing the immutable payload but having its own state, so the state of a shared offer (e.g. of
+    // the offer book) is not changed by the user of the copy.
+    public Offer copy() {
+        Offer offer = new Offer(offerPayload);
+        offer.setPriceFeedService(priceFeedService);
+        offer.setState(getState());
+        return offer;
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Setter
@@ -38,10 +38,15 @@ import javax.inject.Named;
 
 import java.io.File;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -52,6 +57,8 @@ import javax.annotation.Nullable;
 /**
  * Handles storage and retrieval of offers.
  * Uses an invalidation flag to only request the full offer map in case there was a change (anyone has added or removed an offer).
+ * The offers are indexed by id and by currency and direction. The indexes are kept current from the changes of the
+ * P2P data map, so lookups do not need to scan and convert all offer payloads.
  */
 public class OfferBookService {
     private static final Logger log = LoggerFactory.getLogger(OfferBookService.class);
@@ -67,6 +74,11 @@ public class OfferBookService {
     private final List<OfferBookChangedListener> offerBookChangedListeners = new LinkedList<>();
     private final FilterManager filterManager;
     private final JsonFileManager jsonFileManager;
+    // The index is updated on the user thread but read from API threads as well.
+    private final Map<String, Offer> offersById = new ConcurrentHashMap<>();
+    // Offers by currency and direction. An offer is added for its base and counter currency, so that each market
+    // definition used by the clients is covered.
+    private final Map<String, Map<String, Offer>> offersByCurrencyAndDirection = new ConcurrentHashMap<>();
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -87,6 +99,9 @@ public class OfferBookService {
         p2PService.addHashSetChangedListener(new HashMapChangedListener() {
             @Override
             public void onAdded(Collection<ProtectedStorageEntry> protectedStorageEntries) {
+                protectedStorageEntries.stream()
+                        .filter(protectedStorageEntry -> protectedStorageEntry.getProtectedStoragePayload() instanceof OfferPayload)
+                        .forEach(protectedStorageEntry -> addToIndex((OfferPayload) protectedStorageEntry.getProtectedStoragePayload()));
                 protectedStorageEntries.forEach(protectedStorageEntry -> offerBookChangedListeners.forEach(listener -> {
                     if (protectedStorageEntry.getProtectedStoragePayload() instanceof OfferPayload) {
                         OfferPayload offerPayload = (OfferPayload) protectedStorageEntry.getProtectedStoragePayload();
@@ -99,6 +114,9 @@ public class OfferBookService {
 
             @Override
             public void onRemoved(Collection<ProtectedStorageEntry> protectedStorageEntries) {
+                protectedStorageEntries.stream()
+                        .filter(protectedStorageEntry -> protectedStorageEntry.getProtectedStoragePayload() instanceof OfferPayload)
+                        .forEach(protectedStorageEntry -> removeFromIndex((OfferPayload) protectedStorageEntry.getProtectedStoragePayload()));
                 protectedStorageEntries.forEach(protectedStorageEntry -> offerBookChangedListeners.forEach(listener -> {
                     if (protectedStorageEntry.getProtectedStoragePayload() instanceof OfferPayload) {
                         OfferPayload offerPayload = (OfferPayload) protectedStorageEntry.getProtectedStoragePayload();
@@ -110,6 +128,10 @@ public class OfferBookService {
             }
         });
 
+        p2PService.getDataMap().values().stream()
+                .filter(data -> data.getProtectedStoragePayload() instanceof OfferPayload)
+                .forEach(data -> addToIndex((OfferPayload) data.getProtectedStoragePayload()));
+
         if (dumpStatistics) {
             p2PService.addP2PServiceListener(new BootstrapListener() {
                 @Override
@@ -191,20 +213,26 @@ public class OfferBookService {
     }
 
     public List<Offer> getOffers() {
-        return p2PService.getDataMap().values().stream()
-                .filter(data -> data.getProtectedStoragePayload() instanceof OfferPayload)
-                .map(data -> {
-                    OfferPayload offerPayload = (OfferPayload) data.getProtectedStoragePayload();
-                    Offer offer = new Offer(offerPayload);
-                    offer.setPriceFeedService(priceFeedService);
-                    return offer;
-                })
-                .collect(Collectors.toList());
+        return new ArrayList<>(offersById.values());
+    }
+
+    public Optional<Offer> getOfferById(String offerId) {
+        return Optional.ofNullable(offersById.get(offerId));
+    }
+
+    /**
+     * @param direction     The direction of the offers.
+     * @param currencyCode  The base or counter currency of the offers.
+     * @return the offers with the given direction having the given currency as base or counter currency.
+     */
+    public List<Offer> getOffers(String direction, String currencyCode) {
+        Map<String, Offer> offers = offersByCurrencyAndDirection.get(getIndexKey(currencyCode, direction));
+        return offers != null ? new ArrayList<>(offers.values()) : Collections.emptyList();
     }
 
     public List<Offer> getOffersByCurrency(String direction, String currencyCode) {
-        return getOffers().stream()
-                .filter(o -> o.getOfferPayload().getBaseCurrencyCode().equalsIgnoreCase(currencyCode) && o.getDirection().name() == direction)
+        return getOffers(direction, currencyCode).stream()
+                .filter(o -> o.getOfferPayload().getBaseCurrencyCode().equalsIgnoreCase(currencyCode) && o.getDirection().name().equals(direction))
                 .collect(Collectors.toList());
     }
 
@@ -225,6 +253,46 @@ public class OfferBookService {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    private void addToIndex(OfferPayload offerPayload) {
+        Offer offer = new Offer(offerPayload);
+        offer.setPriceFeedService(priceFeedService);
+        // A re-published offer replaces the previous one, which might have had other currencies.
+        removeFromIndex(offerPayload.getId());
+        offersById.put(offer.getId(), offer);
+        getIndexKeys(offerPayload).forEach(key ->
+                offersByCurrencyAndDirection.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(offer.getId(), offer));
+    }
+
+    private void removeFromIndex(OfferPayload offerPayload) {
+        // If an edited offer got added before the old one got removed we keep the edited one.
+        Offer offer = offersById.get(offerPayload.getId());
+        if (offer != null && offer.getOfferPayload().equals(offerPayload)) {
+            removeFromIndex(offerPayload.getId());
+        }
+    }
+
+    private void removeFromIndex(String offerId) {
+        Offer offer = offersById.remove(offerId);
+        if (offer != null) {
+            getIndexKeys(offer.getOfferPayload()).forEach(key -> {
+                Map<String, Offer> offers = offersByCurrencyAndDirection.get(key);
+                if (offers != null) {
+                    offers.remove(offer.getId());
+                }
+            });
+        }
+    }
+
+    private static List<String> getIndexKeys(OfferPayload offerPayload) {
+        String direction = offerPayload.getDirection().name();
+        return List.of(getIndexKey(offerPayload.getBaseCurrencyCode(), direction),
+                getIndexKey(offerPayload.getCounterCurrencyCode(), direction));
+    }
+
+    private static String getIndexKey(String currencyCode, String direction) {
+        return currencyCode.toUpperCase() + "_" + direction.toUpperCase();
+    }
+
     private void doDumpStatistics() {
         // We filter the case that it is a MarketBasedPrice but the price is not available
         // That should only be possible if the price feed provider is not available
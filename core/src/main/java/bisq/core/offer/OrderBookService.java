@@ -0,0 +1,186 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.offer;
+
+import bisq.core.locale.CurrencyUtil;
+import bisq.core.monetary.Price;
+import bisq.core.provider.price.PriceFeedService;
+
+import com.google.common.math.LongMath;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the offers of the offer book grouped by market and provides a sorted snapshot with the accumulated depth
+ * per market. The offers are maintained from the changes of the offer book, the snapshot of a market is only
+ * rebuilt at the next request after an offer of the market was added or removed or, for markets with offers using
+ * a market based price, after the price feed got updated. Frequent polling of the depth does not cost more than
+ * returning the cached snapshot.
+ */
+@Slf4j
+@Singleton
+public class OrderBookService {
+    private final Map<String, Market> marketsByCurrency = new HashMap<>();
+
+    @Inject
+    public OrderBookService(OfferBookService offerBookService, PriceFeedService priceFeedService) {
+        offerBookService.addOfferBookChangedListener(new OfferBookService.OfferBookChangedListener() {
+            @Override
+            public void onAdded(Offer offer) {
+                addOffer(offer);
+            }
+
+            @Override
+            public void onRemoved(Offer offer) {
+                removeOffer(offer);
+            }
+        });
+        offerBookService.getOffers().forEach(this::addOffer);
+
+        priceFeedService.updateCounterProperty().addListener((observable, oldValue, newValue) -> onPriceFeedChanged());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param currencyCode The currency of the market.
+     * @return the order book of the market, which might be empty.
+     */
+    public synchronized MarketDepth getMarketDepth(String currencyCode) {
+        String key = currencyCode.toUpperCase();
+        Market market = marketsByCurrency.get(key);
+        if (market == null) {
+            return createMarketDepth(key, List.of());
+        }
+        if (market.marketDepth == null) {
+            market.marketDepth = createMarketDepth(key, market.offersById.values());
+        }
+        return market.marketDepth;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private synchronized void addOffer(Offer offer) {
+        Market market = marketsByCurrency.computeIfAbsent(offer.getCurrencyCode().toUpperCase(), key -> new Market());
+        market.offersById.put(offer.getId(), offer);
+        market.marketDepth = null;
+    }
+
+    private synchronized void removeOffer(Offer offer) {
+        Market market = marketsByCurrency.get(offer.getCurrencyCode().toUpperCase());
+        if (market == null) {
+            return;
+        }
+        // If an edited offer got added before the old one got removed we keep the edited one.
+        Offer existing = market.offersById.get(offer.getId());
+        if (existing != null && existing.getOfferPayload().equals(offer.getOfferPayload())) {
+            market.offersById.remove(offer.getId());
+            market.marketDepth = null;
+        }
+    }
+
+    private synchronized void onPriceFeedChanged() {
+        marketsByCurrency.values().stream()
+                .filter(market -> market.offersById.values().stream().anyMatch(Offer::isUseMarketBasedPrice))
+                .forEach(market -> market.marketDepth = null);
+    }
+
+    private static MarketDepth createMarketDepth(String currencyCode, Collection<Offer> offers) {
+        // Offer price can be null (if price feed unavailable), thus a null-tolerant comparator is used.
+        Comparator<Offer> offerPriceComparator = Comparator.comparing(Offer::getPrice, Comparator.nullsLast(Comparator.naturalOrder()));
+
+        // Trading btc-fiat is considered as buying/selling BTC, but trading btc-altcoin is
+        // considered as buying/selling Altcoin. Because of this, when viewing a btc-altcoin pair,
+        // the buy column is actually the sell column and vice versa. To maintain the expected
+        // ordering, we have to reverse the price comparator.
+        if (CurrencyUtil.isCryptoCurrency(currencyCode)) {
+            offerPriceComparator = offerPriceComparator.reversed();
+        }
+
+        // Offer amounts are used for the secondary sort. They are sorted from high to low.
+        Comparator<Offer> offerAmountComparator = Comparator.comparing(Offer::getAmount).reversed();
+
+        // Buy offers, as opposed to sell offers, are primarily sorted from high price to low.
+        List<Offer> buyOffers = offers.stream()
+                .filter(offer -> offer.getDirection() == OfferPayload.Direction.BUY)
+                .sorted(offerPriceComparator.reversed().thenComparing(offerAmountComparator))
+                .collect(Collectors.toList());
+        List<Offer> sellOffers = offers.stream()
+                .filter(offer -> offer.getDirection() == OfferPayload.Direction.SELL)
+                .sorted(offerPriceComparator.thenComparing(offerAmountComparator))
+                .collect(Collectors.toList());
+
+        Map<Double, Double> buyDepth = getAccumulatedDepth(buyOffers);
+        Map<Double, Double> sellDepth = getAccumulatedDepth(sellOffers);
+        return new MarketDepth(currencyCode,
+                buyOffers,
+                sellOffers,
+                toArray(buyDepth.keySet()),
+                toArray(buyDepth.values()),
+                toArray(sellDepth.keySet()),
+                toArray(sellDepth.values()));
+    }
+
+    // Price levels in the order of the offers, mapped to the amount of all offers up to and including the level.
+    private static Map<Double, Double> getAccumulatedDepth(List<Offer> sortedOffers) {
+        double accumulatedAmount = 0;
+        Map<Double, Double> depth = new LinkedHashMap<>();
+        for (Offer offer : sortedOffers) {
+            Price price = offer.getPrice();
+            if (price != null) {
+                double amount = (double) offer.getAmount().value / LongMath.pow(10, offer.getAmount().smallestUnitExponent());
+                accumulatedAmount += amount;
+                double priceAsDouble = (double) price.getValue() / LongMath.pow(10, price.smallestUnitExponent());
+                depth.put(priceAsDouble, accumulatedAmount);
+            }
+        }
+        return depth;
+    }
+
+    private static double[] toArray(Collection<Double> values) {
+        return values.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Market
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static class Market {
+        private final Map<String, Offer> offersById = new HashMap<>();
+        // Null if the snapshot needs to be rebuilt.
+        private MarketDepth marketDepth;
+    }
+}
@@ -28,7 +28,6 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 import monero.daemon.model.MoneroOutput;
-import monero.wallet.MoneroWallet;
 import monero.wallet.model.MoneroTxWallet;
 
 public class MakerReservesTradeFunds extends Task<PlaceOfferModel> {
@@ -54,11 +53,10 @@ public class MakerReservesTradeFunds extends Task<PlaceOfferModel> {
             // freeze reserved outputs
             // TODO (woodser): synchronize to handle potential race condition where concurrent trades freeze each other's outputs
             List<String> reservedKeyImages = new ArrayList<String>();
-            MoneroWallet wallet = model.getXmrWalletService().getWallet();
             for (MoneroOutput input : reserveTx.getInputs()) {
                 reservedKeyImages.add(input.getKeyImage().getHex());
-                wallet.freezeOutput(input.getKeyImage().getHex());
             }
+            model.getXmrWalletService().freezeOutputs(reservedKeyImages);
             
             // save offer state
             // TODO (woodser): persist
@@ -35,17 +35,23 @@ import bisq.common.util.Tuple2;
 
 import com.google.inject.Inject;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
+import java.time.Clock;
 import java.time.Instant;
 
 import java.util.ArrayList;
@@ -75,8 +81,9 @@ public class PriceFeedService {
     private final HttpClient httpClient;
     private final ProvidersRepository providersRepository;
     private final Preferences preferences;
+    private final Clock clock;
 
-    private static final long PERIOD_SEC = 60;
+    static final long PERIOD_SEC = 60;
 
     private final Map<String, MarketPrice> cache = new HashMap<>();
     private PriceProvider priceProvider;
@@ -87,6 +94,13 @@ public class PriceFeedService {
     private String currencyCode;
     private final StringProperty currencyCodeProperty = new SimpleStringProperty();
     private final IntegerProperty updateCounter = new SimpleIntegerProperty(0);
+    // Read from API threads, the property is only used on the user thread.
+    private volatile PriceSnapshot priceSnapshot = PriceSnapshot.EMPTY;
+    private final ObjectProperty<PriceSnapshot> priceSnapshotProperty = new SimpleObjectProperty<>(priceSnapshot);
+    @Nullable
+    private SettableFuture<PriceSnapshot> pendingPriceSnapshotRequest;
+    // Time of the last request of a price snapshot, also if it failed.
+    private long lastPriceSnapshotRequestTs;
     private long epochInMillisAtLastRequest;
     private long retryDelay = 1;
     private long requestTs;
@@ -106,9 +120,18 @@ public class PriceFeedService {
     public PriceFeedService(PriceHttpClient httpClient,
                             @SuppressWarnings("SameParameterValue") ProvidersRepository providersRepository,
                             @SuppressWarnings("SameParameterValue") Preferences preferences) {
+        this(httpClient, providersRepository, preferences, Clock.systemDefaultZone());
+    }
+
+    @VisibleForTesting
+    PriceFeedService(PriceHttpClient httpClient,
+                     ProvidersRepository providersRepository,
+                     Preferences preferences,
+                     Clock clock) {
         this.httpClient = httpClient;
         this.providersRepository = providersRepository;
         this.preferences = preferences;
+        this.clock = clock;
 
         // Do not use Guice for PriceProvider as we might create multiple instances
         this.priceProvider = new PriceProvider(httpClient, providersRepository.getBaseUrl());
@@ -259,6 +282,63 @@ public class PriceFeedService {
         return cache.getOrDefault(currencyCode, null);
     }
 
+    /**
+     * Returns the latest prices without blocking. If the price node was not requested within the request period, e.g.
+     * as the prices are not requested periodically, a refresh is requested in the background.
+     */
+    public PriceSnapshot getPriceSnapshot() {
+        PriceSnapshot snapshot = priceSnapshot;
+        if (isPriceSnapshotRefreshDue(snapshot)) {
+            requestPriceSnapshot();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns a future for prices of a request to the price node within the request period. Concurrent callers share
+     * the same request to the price node. The result is applied to the cache like the result of a periodic request.
+     * If the last request within the request period failed, the current prices are returned.
+     */
+    public synchronized ListenableFuture<PriceSnapshot> requestPriceSnapshot() {
+        if (pendingPriceSnapshotRequest != null) {
+            return pendingPriceSnapshotRequest;
+        }
+        PriceSnapshot snapshot = priceSnapshot;
+        if (!isPriceSnapshotRefreshDue(snapshot)) {
+            return Futures.immediateFuture(snapshot);
+        }
+
+        lastPriceSnapshotRequestTs = clock.millis();
+        SettableFuture<PriceSnapshot> resultFuture = SettableFuture.create();
+        pendingPriceSnapshotRequest = resultFuture;
+        Futures.addCallback(new PriceRequest().requestAllPrices(priceProvider), new FutureCallback<>() {
+            @Override
+            public void onSuccess(@Nullable Tuple2<Map<String, Long>, Map<String, MarketPrice>> result) {
+                UserThread.execute(() -> {
+                    if (result != null) {
+                        epochInMillisAtLastRequest = clock.millis();
+                        cache.putAll(result.second);
+                        updatePriceSnapshot();
+                        updateCounter.set(updateCounter.get() + 1);
+                    }
+                    onPriceSnapshotRequestCompleted();
+                    resultFuture.set(priceSnapshot);
+                });
+            }
+
+            @Override
+            public void onFailure(@NotNull Throwable throwable) {
+                onPriceSnapshotRequestCompleted();
+                resultFuture.setException(throwable);
+            }
+        }, MoreExecutors.directExecutor());
+        return resultFuture;
+    }
+
+    public ReadOnlyObjectProperty<PriceSnapshot> priceSnapshotProperty() {
+        return priceSnapshotProperty;
+    }
+
     private void setBisqMarketPrice(String currencyCode, Price price) {
         if (!cache.containsKey(currencyCode) || !cache.get(currencyCode).isExternallyProvidedPrice()) {
             cache.put(currencyCode, new MarketPrice(currencyCode,
@@ -325,6 +405,7 @@ public class PriceFeedService {
                     TradeStatistics3 tradeStatistics = list.get(list.size() - 1);
                     setBisqMarketPrice(tradeStatistics.getCurrency(), tradeStatistics.getTradePrice());
                 });
+        updatePriceSnapshot();
     }
 
     /**
@@ -343,6 +424,23 @@ public class PriceFeedService {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    private void updatePriceSnapshot() {
+        priceSnapshot = new PriceSnapshot(priceSnapshot.getVersion() + 1, cache, epochInMillisAtLastRequest);
+        priceSnapshotProperty.set(priceSnapshot);
+    }
+
+    // Only the responses of the price node count for the age of the prices, the prices from the trade statistics are
+    // set without a request. We also do not request again within the request period after a failed request, so an
+    // unreachable price node is not requested at each call.
+    private synchronized boolean isPriceSnapshotRefreshDue(PriceSnapshot snapshot) {
+        long lastRequestTs = Math.max(snapshot.getRequestTimestamp(), lastPriceSnapshotRequestTs);
+        return clock.millis() - lastRequestTs > TimeUnit.SECONDS.toMillis(PERIOD_SEC);
+    }
+
+    private synchronized void onPriceSnapshotRequestCompleted() {
+        pendingPriceSnapshotRequest = null;
+    }
+
     private boolean applyPriceToConsumer() {
         boolean result = false;
         String errorMessage = null;
@@ -412,11 +510,12 @@ public class PriceFeedService {
                     // Each currency rate has a different timestamp, depending on when
                     // the priceNode aggregate rate was calculated
                     // However, the request timestamp is when the pricenode was queried
-                    epochInMillisAtLastRequest = System.currentTimeMillis();
+                    epochInMillisAtLastRequest = clock.millis();
 
                     Map<String, MarketPrice> priceMap = result.second;
 
                     cache.putAll(priceMap);
+                    updatePriceSnapshot();
 
                     resultHandler.run();
                 });
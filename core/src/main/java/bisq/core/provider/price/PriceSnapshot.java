@@ -0,0 +1,53 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.provider.price;
+
+import java.util.Map;
+
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+
+/**
+ * Immutable copy of the market prices of the PriceFeedService. A new version is created at each change of the
+ * prices, so it can be read from any thread without locking or requesting the price node.
+ */
+@Getter
+public final class PriceSnapshot {
+    public static final PriceSnapshot EMPTY = new PriceSnapshot(0, Map.of(), 0);
+
+    private final long version;
+    private final Map<String, MarketPrice> marketPrices;
+    // Time of the last response of the price node, 0 if there was none yet.
+    private final long requestTimestamp;
+
+    PriceSnapshot(long version, Map<String, MarketPrice> marketPrices, long requestTimestamp) {
+        this.version = version;
+        this.marketPrices = Map.copyOf(marketPrices);
+        this.requestTimestamp = requestTimestamp;
+    }
+
+    @Nullable
+    public MarketPrice getMarketPrice(String currencyCode) {
+        return marketPrices.get(currencyCode);
+    }
+
+    public boolean isEmpty() {
+        return marketPrices.isEmpty();
+    }
+}
@@ -40,7 +40,10 @@ public class CoreNetworkCapabilities {
                 Capability.REFUND_AGENT,
                 Capability.TRADE_STATISTICS_HASH_UPDATE,
                 Capability.NO_ADDRESS_PRE_FIX,
-                Capability.TRADE_STATISTICS_3
+                Capability.TRADE_STATISTICS_3,
+                Capability.GET_DATA_KNOWN_HASHES_FILTER,
+                Capability.GET_DATA_RESPONSE_PARTS,
+                Capability.MAILBOX_RECIPIENT_HINT
         );
 
         log.info(Capabilities.app.prettyPrint());
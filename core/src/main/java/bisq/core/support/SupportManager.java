@@ -98,7 +98,7 @@ public abstract class SupportManager {
 
     public abstract void addAndPersistChatMessage(ChatMessage message);
 
-    public abstract void requestPersistence();
+    public abstract void requestPersistence(String tradeId);
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -177,7 +177,7 @@ public abstract class SupportManager {
                         else
                             msg.setAckError(ackMessage.getErrorMessage());
                     });
-            requestPersistence();
+            requestPersistence(ackMessage.getSourceId());
         }
     }
 
@@ -207,7 +207,7 @@ public abstract class SupportManager {
                             log.info("{} arrived at peer {}. tradeId={}, uid={}",
                                     message.getClass().getSimpleName(), peersNodeAddress, message.getTradeId(), message.getUid());
                             message.setArrived(true);
-                            requestPersistence();
+                            requestPersistence(message.getTradeId());
                         }
 
                         @Override
@@ -215,7 +215,7 @@ public abstract class SupportManager {
                             log.info("{} stored in mailbox for peer {}. tradeId={}, uid={}",
                                     message.getClass().getSimpleName(), peersNodeAddress, message.getTradeId(), message.getUid());
                             message.setStoredInMailbox(true);
-                            requestPersistence();
+                            requestPersistence(message.getTradeId());
                         }
 
                         @Override
@@ -223,7 +223,7 @@ public abstract class SupportManager {
                             log.error("{} failed: Peer {}. tradeId={}, uid={}, errorMessage={}",
                                     message.getClass().getSimpleName(), peersNodeAddress, message.getTradeId(), message.getUid(), errorMessage);
                             message.setSendMessageError(errorMessage);
-                            requestPersistence();
+                            requestPersistence(message.getTradeId());
                         }
                     }
             );
@@ -138,6 +138,11 @@ public abstract class DisputeManager<T extends DisputeList<Dispute>> extends Sup
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     @Override
+    public void requestPersistence(String tradeId) {
+        // All disputes are persisted in one file
+        requestPersistence();
+    }
+
     public void requestPersistence() {
         disputeListService.requestPersistence();
     }
@@ -397,7 +402,7 @@ public abstract class DisputeManager<T extends DisputeList<Dispute>> extends Sup
                 if (!storedDisputeOptional.isPresent()) {
                     disputeList.add(dispute);
                     trade.setDisputeState(getDisputeStateStartedByPeer());
-                    tradeManager.requestPersistence();
+                    tradeManager.requestPersistence(trade);
                     errorMessage = null;
                 } else {
                     // valid case if both have opened a dispute and agent was not online.
@@ -75,8 +75,8 @@ public class TraderChatManager extends SupportManager {
     }
 
     @Override
-    public void requestPersistence() {
-        tradeManager.requestPersistence();
+    public void requestPersistence(String tradeId) {
+        tradeManager.getTradeById(tradeId).ifPresent(tradeManager::requestPersistence);
     }
 
     @Override
@@ -122,7 +122,7 @@ public class TraderChatManager extends SupportManager {
                     addSystemMsg(trade);
                 }
                 trade.addAndPersistChatMessage(message);
-                tradeManager.requestPersistence();
+                tradeManager.requestPersistence(trade);
             } else {
                 log.warn("Trade got a chatMessage that we have already stored. UId = {} TradeId = {}",
                         message.getUid(), message.getTradeId());
@@ -24,23 +24,41 @@ import bisq.core.proto.CoreProtoResolver;
 import bisq.common.proto.ProtoUtil;
 import bisq.common.proto.ProtobufferRuntimeException;
 import bisq.common.proto.persistable.PersistableListAsObservable;
+import bisq.common.proto.persistable.ShardedPersistableEnvelope;
 
 import com.google.protobuf.Message;
 
+import javafx.collections.ListChangeListener;
+
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 @Slf4j
-public final class TradableList<T extends Tradable> extends PersistableListAsObservable<T> {
+public final class TradableList<T extends Tradable> extends PersistableListAsObservable<T>
+        implements ShardedPersistableEnvelope {
+    private static final String TRADE_SHARD_KEY_PREFIX = "trade_";
+    private static final String OFFER_SHARD_KEY_PREFIX = "offer_";
+
+    // Tradables by id, kept current from the list changes. A closed offer and the trade taken from it have the same
+    // id, in that case we keep the first one of the list.
+    private final Map<String, T> tradablesById = new ConcurrentHashMap<>();
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public TradableList() {
+        indexTradables();
     }
 
 
@@ -50,6 +68,7 @@ public final class TradableList<T extends Tradable> extends PersistableListAsObs
 
     protected TradableList(Collection<T> collection) {
         super(collection);
+        indexTradables();
     }
 
     @Override
@@ -60,6 +79,37 @@ public final class TradableList<T extends Tradable> extends PersistableListAsObs
                 .build();
     }
 
+    @Override
+    public Collection<String> getShardKeys() {
+        return getList().stream()
+                .map(TradableList::getShardKey)
+                .collect(Collectors.toList());
+    }
+
+    @Nullable
+    @Override
+    public protobuf.PersistableEnvelope toShardMessage(String key) {
+        return getList().stream()
+                .filter(tradable -> getShardKey(tradable).equals(key))
+                .findFirst()
+                .map(TradableList::toShardMessage)
+                .orElse(null);
+    }
+
+    @Override
+    public Map<String, protobuf.PersistableEnvelope> toShardMessages() {
+        Map<String, protobuf.PersistableEnvelope> shards = new LinkedHashMap<>();
+        getList().forEach(tradable -> shards.put(getShardKey(tradable), toShardMessage(tradable)));
+        return shards;
+    }
+
+    private static protobuf.PersistableEnvelope toShardMessage(Tradable tradable) {
+        return protobuf.PersistableEnvelope.newBuilder()
+                .setTradableList(protobuf.TradableList.newBuilder()
+                        .addTradable((protobuf.Tradable) tradable.toProtoMessage()))
+                .build();
+    }
+
     public static TradableList<Tradable> fromProto(protobuf.TradableList proto,
                                                    CoreProtoResolver coreProtoResolver,
                                                    XmrWalletService xmrWalletService) {
@@ -89,6 +139,49 @@ public final class TradableList<T extends Tradable> extends PersistableListAsObs
         return new TradableList<>(list);
     }
 
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public Optional<T> getTradableById(String id) {
+        return Optional.ofNullable(tradablesById.get(id));
+    }
+
+    // A closed offer and the trade taken from it have the same id.
+    public static String getShardKey(Tradable tradable) {
+        return (tradable instanceof Trade ? TRADE_SHARD_KEY_PREFIX : OFFER_SHARD_KEY_PREFIX) + tradable.getId();
+    }
+
+    // The keys of the shards which might contain a tradable with the given id, the trade first.
+    public static List<String> getShardKeysForId(String id) {
+        return List.of(TRADE_SHARD_KEY_PREFIX + id, OFFER_SHARD_KEY_PREFIX + id);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void indexTradables() {
+        getList().forEach(tradable -> tradablesById.putIfAbsent(tradable.getId(), tradable));
+        getObservableList().addListener((ListChangeListener<T>) change -> {
+            while (change.next()) {
+                change.getRemoved().forEach(this::onTradableRemoved);
+                change.getAddedSubList().forEach(tradable -> tradablesById.putIfAbsent(tradable.getId(), tradable));
+            }
+        });
+    }
+
+    private void onTradableRemoved(T tradable) {
+        if (tradablesById.remove(tradable.getId(), tradable)) {
+            getList().stream()
+                    .filter(e -> e.getId().equals(tradable.getId()))
+                    .findFirst()
+                    .ifPresent(e -> tradablesById.put(e.getId(), e));
+        }
+    }
+
     @Override
     public String toString() {
         return "TradableList{" +
@@ -208,7 +208,8 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
         this.allowFaultyDelayedTxs = allowFaultyDelayedTxs;
         this.persistenceManager = persistenceManager;
 
-        this.persistenceManager.initialize(tradableList, "PendingTrades", PersistenceManager.Source.PRIVATE);
+        // Each trade is persisted in its own file, so a state change of a trade does not rewrite the other trades.
+        this.persistenceManager.initializeSharded(tradableList, "PendingTrades", PersistenceManager.Source.PRIVATE, 0);
 
         p2PService.addDecryptedDirectMessageListener(this);
 
@@ -347,17 +348,23 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
     private void initPersistedTrade(Trade trade) {
         initTradeAndProtocol(trade, getTradeProtocol(trade));
         trade.updateDepositTxFromWallet(); // TODO (woodser): this re-opens all multisig wallets. only open active wallets
-        requestPersistence();
+        requestPersistence(trade);
     }
 
     private void initTradeAndProtocol(Trade trade, TradeProtocol tradeProtocol) {
         tradeProtocol.initialize(processModelServiceProvider, this, trade.getOffer());
         trade.initialize(processModelServiceProvider);
-        requestPersistence(); // TODO requesting persistence twice with initPersistedTrade()
+
+        // sync the multisig wallet as often as needed in the trade phase
+        xmrWalletService.updateMultisigWalletSyncPeriod(trade.getId(), trade.getPhase());
+        trade.statePhaseProperty().addListener((observable, oldValue, newValue) -> {
+            xmrWalletService.updateMultisigWalletSyncPeriod(trade.getId(), newValue);
+        });
+        requestPersistence(trade); // TODO requesting persistence twice with initPersistedTrade()
     }
 
-    public void requestPersistence() {
-        persistenceManager.requestPersistence();
+    public void requestPersistence(Trade trade) {
+        persistenceManager.requestPersistence(TradableList.getShardKey(trade));
     }
 
     private void handleInitTradeRequest(InitTradeRequest request, NodeAddress sender) {
@@ -454,7 +461,7 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
               removeTrade(trade);
           });
 
-          requestPersistence();
+          requestPersistence(trade);
       }
 
       // handle request as maker
@@ -531,7 +538,7 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
               if (takeOfferRequestErrorMessageHandler != null) takeOfferRequestErrorMessageHandler.handleErrorMessage(errorMessage);
           });
 
-          requestPersistence();
+          requestPersistence(trade);
       }
     }
 
@@ -744,18 +751,16 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
                         // take offer and persist trade on success
                         ((TakerProtocol) tradeProtocol).onTakeOffer(result -> {
                             tradeResultHandler.handleResult(trade);
-                            requestPersistence();
+                            requestPersistence(trade);
                         }, errorMessage -> {
                             log.warn("Taker error during trade initialization: " + errorMessage);
                             removeTrade(trade);
                             errorMessageHandler.handleErrorMessage(errorMessage);
                         });
-                        requestPersistence();
+                        requestPersistence(trade);
                     }
                 },
                 errorMessageHandler);
-
-        requestPersistence();
     }
 
     private ProcessModel getNewProcessModel(Offer offer) {
@@ -802,7 +807,7 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
 
         // TODO The address entry should have been removed already. Check and if its the case remove that.
         xmrWalletService.resetAddressEntriesForPendingTrade(trade.getId());
-        requestPersistence();
+        requestPersistence(trade);
     }
 
 
@@ -817,7 +822,7 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
             trade.setDisputeState(disputeState);
             onTradeCompleted(trade);
             xmrWalletService.swapTradeEntryToAvailableEntry(trade.getId(), XmrAddressEntry.Context.TRADE_PAYOUT);
-            requestPersistence();
+            requestPersistence(trade);
         }
     }
 
@@ -848,10 +853,10 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
                     Date now = new Date();
                     if (now.after(maxTradePeriodDate)) {
                         trade.setTradePeriodState(Trade.TradePeriodState.TRADE_PERIOD_OVER);
-                        requestPersistence();
+                        requestPersistence(trade);
                     } else if (now.after(halfTradePeriodDate)) {
                         trade.setTradePeriodState(Trade.TradePeriodState.SECOND_HALF);
-                        requestPersistence();
+                        requestPersistence(trade);
                     }
                 }
             }
@@ -993,7 +998,7 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
     }
 
     public Optional<Trade> getTradeById(String tradeId) {
-        return tradableList.stream().filter(e -> e.getId().equals(tradeId)).findFirst();
+        return tradableList.getTradableById(tradeId);
     }
 
     public List<Trade> getTrades() {
@@ -1008,20 +1013,18 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
 
             // unreserve taker trade key images
             if (trade instanceof TakerTrade && trade.getSelf().getReserveTxKeyImages() != null) {
-                for (String keyImage : trade.getSelf().getReserveTxKeyImages()) {
-                    xmrWalletService.getWallet().thawOutput(keyImage);
-                }
+                xmrWalletService.thawOutputs(trade.getSelf().getReserveTxKeyImages());
             }
 
             p2PService.removeDecryptedDirectMessageListener(getTradeProtocol(trade));
             xmrWalletService.deleteMultisigWallet(trade.getId()); // TODO (woodser): don't delete multisig wallet until payout tx unlocked?
-            requestPersistence();
+            requestPersistence(trade);
         }
     }
 
     private void addTrade(Trade trade) {
         if (tradableList.add(trade)) {
-            requestPersistence();
+            requestPersistence(trade);
         }
     }
 
@@ -36,6 +36,8 @@ import javafx.collections.ObservableList;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -43,6 +45,10 @@ import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class ClosedTradableManager implements PersistedDataHost {
+    // Closed tradables not changed for that time get archived to a single file, so they are not compared at each write.
+    // Archived tradables are not held in memory, lookups by id read them from the archive.
+    private static final long ARCHIVE_AGE = TimeUnit.DAYS.toMillis(30);
+
     private final PersistenceManager<TradableList<Tradable>> persistenceManager;
     private final TradableList<Tradable> closedTradables = new TradableList<>();
     private final KeyRing keyRing;
@@ -62,16 +68,15 @@ public class ClosedTradableManager implements PersistedDataHost {
         this.dumpDelayedPayoutTx = dumpDelayedPayoutTx;
         this.persistenceManager = persistenceManager;
 
-        this.persistenceManager.initialize(closedTradables, "ClosedTrades", PersistenceManager.Source.PRIVATE);
+        this.persistenceManager.initializeSharded(closedTradables, "ClosedTrades", PersistenceManager.Source.PRIVATE,
+                ARCHIVE_AGE);
     }
 
     @Override
     public void readPersisted(Runnable completeHandler) {
         persistenceManager.readPersisted(persisted -> {
                     closedTradables.setAll(persisted.getList());
-                    closedTradables.stream()
-                            .filter(tradable -> tradable.getOffer() != null)
-                            .forEach(tradable -> tradable.getOffer().setPriceFeedService(priceFeedService));
+                    setPriceFeedService(closedTradables.getList());
                     dumpDelayedPayoutTx.maybeDumpDelayedPayoutTxs(closedTradables, "delayed_payout_txs_closed");
                     completeHandler.run();
                 },
@@ -84,14 +89,14 @@ public class ClosedTradableManager implements PersistedDataHost {
 
     public void add(Tradable tradable) {
         if (closedTradables.add(tradable)) {
-            requestPersistence();
+            requestPersistence(tradable);
         }
     }
 
+    // An archived tradable is not in the list, the request removes it from the archive.
     public void remove(Tradable tradable) {
-        if (closedTradables.remove(tradable)) {
-            requestPersistence();
-        }
+        closedTradables.remove(tradable);
+        requestPersistence(tradable);
     }
 
     public boolean wasMyOffer(Offer offer) {
@@ -110,7 +115,22 @@ public class ClosedTradableManager implements PersistedDataHost {
     }
 
     public Optional<Tradable> getTradableById(String id) {
-        return closedTradables.stream().filter(e -> e.getId().equals(id)).findFirst();
+        Optional<Tradable> tradable = closedTradables.getTradableById(id);
+        return tradable.isPresent() ? tradable : getArchivedTradableById(id);
+    }
+
+    /**
+     * Reads the archived closed tradables in a thread. They are not added to the closed tradables, so the caller
+     * decides how long they are held in memory.
+     *
+     * @param resultHandler     Consumer of the archived tradables, called on the UserThread.
+     */
+    public void readArchived(Consumer<List<Tradable>> resultHandler) {
+        persistenceManager.readArchived(archived -> {
+                    setPriceFeedService(archived.getList());
+                    resultHandler.accept(archived.getList());
+                },
+                () -> resultHandler.accept(List.of()));
     }
 
     public Stream<Trade> getTradesStreamWithFundsLockedIn() {
@@ -118,7 +138,24 @@ public class ClosedTradableManager implements PersistedDataHost {
                 .filter(Trade::isFundsLockedIn);
     }
 
-    private void requestPersistence() {
-        persistenceManager.requestPersistence();
+    private Optional<Tradable> getArchivedTradableById(String id) {
+        for (String shardKey : TradableList.getShardKeysForId(id)) {
+            TradableList<Tradable> archived = persistenceManager.getArchivedShard(shardKey);
+            if (archived != null && !archived.getList().isEmpty()) {
+                setPriceFeedService(archived.getList());
+                return Optional.of(archived.getList().get(0));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void setPriceFeedService(List<Tradable> tradables) {
+        tradables.stream()
+                .filter(tradable -> tradable.getOffer() != null)
+                .forEach(tradable -> tradable.getOffer().setPriceFeedService(priceFeedService));
+    }
+
+    private void requestPersistence(Tradable tradable) {
+        persistenceManager.requestPersistence(TradableList.getShardKey(tradable));
     }
 }
@@ -74,7 +74,7 @@ public class ArbitratorProcessesReserveTx extends TradeTask {
             trader.setReserveTxKey(request.getReserveTxKey());
             
             // persist trade
-            processModel.getTradeManager().requestPersistence();
+            processModel.getTradeManager().requestPersistence(trade);
             complete();
         } catch (Throwable t) {
             failed(t);
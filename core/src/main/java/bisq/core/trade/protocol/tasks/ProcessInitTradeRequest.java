@@ -122,7 +122,7 @@ public class ProcessInitTradeRequest extends TradeTask {
             trade.setTradeAmount(Coin.valueOf(request.getTradeAmount()));
 
             // persist trade
-            processModel.getTradeManager().requestPersistence();
+            processModel.getTradeManager().requestPersistence(trade);
             complete();
         } catch (Throwable t) {
             failed(t);
@@ -68,7 +68,7 @@ public class ProcessPaymentAccountPayloadRequest extends TradeTask {
           if (trade.isDepositPublished()) applyPublishedDepositTxs(); // deposit txs might be seen before subcription
           
           // persist and complete
-          processModel.getTradeManager().requestPersistence();
+          processModel.getTradeManager().requestPersistence(trade);
           complete();
         } catch (Throwable t) {
           failed(t);
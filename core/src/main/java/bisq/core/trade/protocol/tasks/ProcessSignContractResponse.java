@@ -106,7 +106,7 @@ public class ProcessSignContractResponse extends TradeTask {
           }
           
           // persist and complete
-          processModel.getTradeManager().requestPersistence();
+          processModel.getTradeManager().requestPersistence(trade);
           complete();
         } catch (Throwable t) {
           failed(t);
@@ -33,7 +33,9 @@ import bisq.network.p2p.AckMessage;
 import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.SendDirectMessageListener;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
 import monero.daemon.model.MoneroOutput;
@@ -65,10 +67,7 @@ public class SendSignContractRequestAfterMultisig extends TradeTask {
           if (processModel.getDepositTxXmr() != null) return;
 
           // thaw reserved outputs
-          MoneroWallet wallet = trade.getXmrWalletService().getWallet();
-          for (String reserveTxKeyImage : trade.getSelf().getReserveTxKeyImages()) {
-              wallet.thawOutput(reserveTxKeyImage);
-          }
+          trade.getXmrWalletService().thawOutputs(trade.getSelf().getReserveTxKeyImages());
           
           // create deposit tx
           BigInteger tradeFee = ParsingUtils.coinToAtomicUnits(trade instanceof MakerTrade ? trade.getOffer().getMakerFee() : trade.getTakerFee());
@@ -80,9 +79,11 @@ public class SendSignContractRequestAfterMultisig extends TradeTask {
           
           // freeze deposit outputs
           // TODO (woodser): save frozen key images and unfreeze if trade fails before deposited to multisig
+          List<String> depositTxKeyImages = new ArrayList<String>();
           for (MoneroOutput input : depositTx.getInputs()) {
-              wallet.freezeOutput(input.getKeyImage().getHex());
+              depositTxKeyImages.add(input.getKeyImage().getHex());
           }
+          trade.getXmrWalletService().freezeOutputs(depositTxKeyImages);
           
           // save process state
           processModel.setDepositTxXmr(depositTx);
@@ -92,7 +92,7 @@ public class BuyerSendCounterCurrencyTransferStartedMessage extends SendMailboxM
             trade.setStateIfValidTransitionTo(Trade.State.BUYER_SENT_FIAT_PAYMENT_INITIATED_MSG);
         }
 
-        processModel.getTradeManager().requestPersistence();
+        processModel.getTradeManager().requestPersistence(trade);
     }
 
     @Override
@@ -115,7 +115,7 @@ public class BuyerSendCounterCurrencyTransferStartedMessage extends SendMailboxM
         if (!trade.isPayoutPublished()) {
             tryToSendAgainLater();
         }
-        processModel.getTradeManager().requestPersistence();
+        processModel.getTradeManager().requestPersistence(trade);
     }
 
     // We override the default behaviour for onFault and do not call appendToErrorMessage and failed
@@ -130,7 +130,7 @@ public class BuyerSendCounterCurrencyTransferStartedMessage extends SendMailboxM
         if (!trade.isPayoutPublished()) {
             tryToSendAgainLater();
         }
-        processModel.getTradeManager().requestPersistence();
+        processModel.getTradeManager().requestPersistence(trade);
     }
 
     @Override
@@ -194,7 +194,7 @@ public class BuyerSendCounterCurrencyTransferStartedMessage extends SendMailboxM
             // We treat a ACK like BUYER_SAW_ARRIVED_FIAT_PAYMENT_INITIATED_MSG
             trade.setStateIfValidTransitionTo(Trade.State.BUYER_SAW_ARRIVED_FIAT_PAYMENT_INITIATED_MSG);
 
-            processModel.getTradeManager().requestPersistence();
+            processModel.getTradeManager().requestPersistence(trade);
 
             cleanup();
             super.complete();   // received AckMessage, complete this task
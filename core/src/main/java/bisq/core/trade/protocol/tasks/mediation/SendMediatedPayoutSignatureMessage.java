@@ -60,7 +60,7 @@ public class SendMediatedPayoutSignatureMessage extends TradeTask {
                     message.getClass().getSimpleName(), peersNodeAddress, message.getTradeId(), message.getUid());
 
             trade.setMediationResultState(MediationResultState.SIG_MSG_SENT);
-            processModel.getTradeManager().requestPersistence();
+            processModel.getTradeManager().requestPersistence(trade);
             p2PService.getMailboxMessageService().sendEncryptedMailboxMessage(peersNodeAddress,
                     peersPubKeyRing,
                     message,
@@ -71,7 +71,7 @@ public class SendMediatedPayoutSignatureMessage extends TradeTask {
                                     message.getClass().getSimpleName(), peersNodeAddress, message.getTradeId(), message.getUid());
 
                             trade.setMediationResultState(MediationResultState.SIG_MSG_ARRIVED);
-                            processModel.getTradeManager().requestPersistence();
+                            processModel.getTradeManager().requestPersistence(trade);
                             complete();
                         }
 
@@ -81,7 +81,7 @@ public class SendMediatedPayoutSignatureMessage extends TradeTask {
                                     message.getClass().getSimpleName(), peersNodeAddress, message.getTradeId(), message.getUid());
 
                             trade.setMediationResultState(MediationResultState.SIG_MSG_IN_MAILBOX);
-                            processModel.getTradeManager().requestPersistence();
+                            processModel.getTradeManager().requestPersistence(trade);
                             complete();
                         }
 
@@ -91,7 +91,7 @@ public class SendMediatedPayoutSignatureMessage extends TradeTask {
                                     message.getClass().getSimpleName(), peersNodeAddress, message.getTradeId(), message.getUid(), errorMessage);
                             trade.setMediationResultState(MediationResultState.SIG_MSG_SEND_FAILED);
                             appendToErrorMessage("Sending message failed: message=" + message + "\nerrorMessage=" + errorMessage);
-                            processModel.getTradeManager().requestPersistence();
+                            processModel.getTradeManager().requestPersistence(trade);
                             failed(errorMessage);
                         }
                     }
@@ -42,7 +42,7 @@ public class SellerAsMakerSendsInputsForDepositTxResponse extends MakerSendsInpu
             input.setScriptSig(new Script(new byte[]{}));
         });
 
-        processModel.getTradeManager().requestPersistence();
+        processModel.getTradeManager().requestPersistence(trade);
 
         // Make sure witnesses are removed as well before sending, to cover the segwit case.
         return preparedDepositTx.bitcoinSerialize(false);
@@ -27,7 +27,6 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 import monero.daemon.model.MoneroOutput;
-import monero.wallet.MoneroWallet;
 import monero.wallet.model.MoneroTxWallet;
 
 public class TakerReservesTradeFunds extends TradeTask {
@@ -50,11 +49,10 @@ public class TakerReservesTradeFunds extends TradeTask {
             // freeze trade funds
             // TODO (woodser): synchronize to handle potential race condition where concurrent trades freeze each other's outputs
             List<String> reserveTxKeyImages = new ArrayList<String>();
-            MoneroWallet wallet = model.getXmrWalletService().getWallet();
             for (MoneroOutput input : reserveTx.getInputs()) {
                 reserveTxKeyImages.add(input.getKeyImage().getHex());
-                wallet.freezeOutput(input.getKeyImage().getHex());
             }
+            model.getXmrWalletService().freezeOutputs(reserveTxKeyImages);
             
             // save process state
             // TODO (woodser): persist
@@ -0,0 +1,368 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.core.monetary.Price;
+
+import org.bitcoinj.core.Coin;
+
+import javafx.beans.InvalidationListener;
+
+import javafx.collections.ObservableSet;
+import javafx.collections.SetChangeListener;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps the trade statistics in primitive columns instead of one object per trade statistic. Currency, payment
+ * method and arbitrator are dictionary encoded, the hashes are packed into one array and indexed by an open
+ * addressing table. A trade statistic takes about 70 bytes this way, compared to several hundred bytes for the
+ * TradeStatistics3 object with its strings, hash, date and the entry of a hash set.
+ *
+ * The set is append only. TradeStatistics3 objects are only created when they are accessed, so consumers who
+ * only need some fields should use the column getters with the index. Elements are only added on the user thread.
+ * Readers on other threads see a consistent state up to the size they read.
+ */
+@Slf4j
+public final class CompactTradeStatisticsSet extends AbstractSet<TradeStatistics3>
+        implements ObservableSet<TradeStatistics3> {
+    private static final int HASH_LENGTH = 20;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private volatile int size;
+    private long[] dates = new long[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private int[] currencyIds = new int[INITIAL_CAPACITY];
+    private int[] paymentMethodIds = new int[INITIAL_CAPACITY];
+    private int[] arbitratorIds = new int[INITIAL_CAPACITY];
+    private byte[] hashes = new byte[INITIAL_CAPACITY * HASH_LENGTH];
+    // Index + 1 of the element with the hash, 0 for an empty slot.
+    private int[] hashTable = new int[INITIAL_CAPACITY * 2];
+
+    private final Dictionary currencies = new Dictionary();
+    private final Dictionary paymentMethods = new Dictionary();
+    private final Dictionary arbitrators = new Dictionary();
+    // Only few trade statistics have extra data or hashes not matching the usual length.
+    private final Map<Integer, Map<String, String>> extraDataMaps = new ConcurrentHashMap<>();
+    private final Map<Integer, byte[]> irregularHashes = new ConcurrentHashMap<>();
+
+    private final List<SetChangeListener<? super TradeStatistics3>> changeListeners = new CopyOnWriteArrayList<>();
+    private final List<InvalidationListener> invalidationListeners = new CopyOnWriteArrayList<>();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Columns
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public long getDate(int index) {
+        return dates[checkIndex(index)];
+    }
+
+    public long getPrice(int index) {
+        return prices[checkIndex(index)];
+    }
+
+    public long getAmount(int index) {
+        return amounts[checkIndex(index)];
+    }
+
+    // Same as get(index).getTradeVolume().getValue() without creating the TradeStatistics3
+    public long getVolume(int index) {
+        return TradeStatistics3.getTradeVolume(Price.valueOf(getCurrency(index), getPrice(index)),
+                Coin.valueOf(getAmount(index))).getValue();
+    }
+
+    public String getCurrency(int index) {
+        return currencies.get(currencyIds[checkIndex(index)]);
+    }
+
+    public String getPaymentMethod(int index) {
+        return paymentMethods.get(paymentMethodIds[checkIndex(index)]);
+    }
+
+    public TradeStatistics3 get(int index) {
+        checkIndex(index);
+        return new TradeStatistics3(currencies.get(currencyIds[index]),
+                prices[index],
+                amounts[index],
+                paymentMethods.get(paymentMethodIds[index]),
+                dates[index],
+                arbitratorIds[index] < 0 ? null : arbitrators.get(arbitratorIds[index]),
+                extraDataMaps.get(index),
+                getHash(index));
+    }
+
+    public int indexOf(byte[] hash) {
+        int[] table = hashTable;
+        int mask = table.length - 1;
+        for (int slot = hashCode(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int index = table[slot] - 1;
+            if (index < size && Arrays.equals(getHash(index), hash)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Set
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof TradeStatistics3)) {
+            return false;
+        }
+        TradeStatistics3 tradeStatistics = (TradeStatistics3) o;
+        int index = indexOf(tradeStatistics.getHash());
+        return index >= 0 && get(index).equals(tradeStatistics);
+    }
+
+    @Override
+    public Iterator<TradeStatistics3> iterator() {
+        int sizeAtStart = size;
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < sizeAtStart;
+            }
+
+            @Override
+            public TradeStatistics3 next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(index++);
+            }
+        };
+    }
+
+    @Override
+    public boolean add(TradeStatistics3 tradeStatistics) {
+        if (!append(tradeStatistics)) {
+            return false;
+        }
+        fireAdded(tradeStatistics);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException("Trade statistics cannot be removed");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("Trade statistics cannot be removed");
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // ObservableSet
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void addListener(SetChangeListener<? super TradeStatistics3> listener) {
+        changeListeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(SetChangeListener<? super TradeStatistics3> listener) {
+        changeListeners.remove(listener);
+    }
+
+    @Override
+    public void addListener(InvalidationListener listener) {
+        invalidationListeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(InvalidationListener listener) {
+        invalidationListeners.remove(listener);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private boolean append(TradeStatistics3 tradeStatistics) {
+        byte[] hash = tradeStatistics.getHash();
+        if (indexOf(hash) >= 0) {
+            return false;
+        }
+
+        int index = size;
+        if (index == dates.length) {
+            grow();
+        }
+        dates[index] = tradeStatistics.getDateAsLong();
+        prices[index] = tradeStatistics.getPrice();
+        amounts[index] = tradeStatistics.getAmount();
+        currencyIds[index] = currencies.getId(tradeStatistics.getCurrency());
+        paymentMethodIds[index] = paymentMethods.getId(tradeStatistics.getPaymentMethod());
+        arbitratorIds[index] = tradeStatistics.getArbitrator() == null ? -1 : arbitrators.getId(tradeStatistics.getArbitrator());
+        if (tradeStatistics.getExtraDataMap() != null && !tradeStatistics.getExtraDataMap().isEmpty()) {
+            extraDataMaps.put(index, tradeStatistics.getExtraDataMap());
+        }
+        if (hash.length == HASH_LENGTH) {
+            System.arraycopy(hash, 0, hashes, index * HASH_LENGTH, HASH_LENGTH);
+        } else {
+            irregularHashes.put(index, hash.clone());
+        }
+        if ((index + 1) * 2 > hashTable.length) {
+            rehash(hashTable.length * 2, index);
+        }
+        insertIntoHashTable(hashTable, hash, index);
+
+        // Publishes the new element to readers on other threads.
+        size = index + 1;
+        return true;
+    }
+
+    private void grow() {
+        int capacity = dates.length * 2;
+        dates = Arrays.copyOf(dates, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        currencyIds = Arrays.copyOf(currencyIds, capacity);
+        paymentMethodIds = Arrays.copyOf(paymentMethodIds, capacity);
+        arbitratorIds = Arrays.copyOf(arbitratorIds, capacity);
+        hashes = Arrays.copyOf(hashes, capacity * HASH_LENGTH);
+    }
+
+    private void rehash(int capacity, int numElements) {
+        int[] table = new int[capacity];
+        for (int i = 0; i < numElements; i++) {
+            insertIntoHashTable(table, getHash(i), i);
+        }
+        hashTable = table;
+    }
+
+    private static void insertIntoHashTable(int[] table, byte[] hash, int index) {
+        int mask = table.length - 1;
+        int slot = hashCode(hash) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    // The hashes are cryptographic hashes, so their first bytes are well distributed.
+    private static int hashCode(byte[] hash) {
+        if (hash.length < 4) {
+            return Arrays.hashCode(hash);
+        }
+        return (hash[0] & 0xff) << 24 | (hash[1] & 0xff) << 16 | (hash[2] & 0xff) << 8 | (hash[3] & 0xff);
+    }
+
+    private byte[] getHash(int index) {
+        byte[] irregularHash = irregularHashes.get(index);
+        if (irregularHash != null) {
+            return irregularHash;
+        }
+        return Arrays.copyOfRange(hashes, index * HASH_LENGTH, (index + 1) * HASH_LENGTH);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return index;
+    }
+
+    private void fireAdded(TradeStatistics3 tradeStatistics) {
+        invalidationListeners.forEach(listener -> listener.invalidated(this));
+        if (changeListeners.isEmpty()) {
+            return;
+        }
+        SetChangeListener.Change<TradeStatistics3> change = new SetChangeListener.Change<>(this) {
+            @Override
+            public boolean wasAdded() {
+                return true;
+            }
+
+            @Override
+            public boolean wasRemoved() {
+                return false;
+            }
+
+            @Override
+            public TradeStatistics3 getElementAdded() {
+                return tradeStatistics;
+            }
+
+            @Nullable
+            @Override
+            public TradeStatistics3 getElementRemoved() {
+                return null;
+            }
+        };
+        changeListeners.forEach(listener -> {
+            try {
+                listener.onChanged(change);
+            } catch (RuntimeException e) {
+                log.error("Trade statistics listener failed", e);
+            }
+        });
+    }
+
+    private static class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private volatile List<String> values = new ArrayList<>();
+
+        private int getId(String value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                // Copy on write for readers on other threads.
+                List<String> newValues = new ArrayList<>(values);
+                newValues.add(value);
+                id = newValues.size() - 1;
+                ids.put(value, id);
+                values = newValues;
+            }
+            return id;
+        }
+
+        private String get(int id) {
+            return values.get(id);
+        }
+    }
+}
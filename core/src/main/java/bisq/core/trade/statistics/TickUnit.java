@@ -0,0 +1,88 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Time intervals of the trade statistics candles. The ticks are aligned to the calendar of the given time zone.
+ */
+public enum TickUnit {
+    YEAR,
+    MONTH,
+    WEEK,
+    DAY,
+    HOUR,
+    MINUTE_10;
+
+    public long roundToTick(long time, ZoneId zoneId) {
+        return roundToTick(Instant.ofEpochMilli(time).atZone(zoneId).toLocalDateTime())
+                .atZone(zoneId)
+                .toInstant()
+                .toEpochMilli();
+    }
+
+    public long getNextTick(long tickStart, ZoneId zoneId) {
+        LocalDateTime localDateTime = Instant.ofEpochMilli(tickStart).atZone(zoneId).toLocalDateTime();
+        switch (this) {
+            case YEAR:
+                localDateTime = localDateTime.plusYears(1);
+                break;
+            case MONTH:
+                localDateTime = localDateTime.plusMonths(1);
+                break;
+            case WEEK:
+                localDateTime = localDateTime.plusWeeks(1);
+                break;
+            case DAY:
+                localDateTime = localDateTime.plusDays(1);
+                break;
+            case HOUR:
+                localDateTime = localDateTime.plusHours(1);
+                break;
+            case MINUTE_10:
+                localDateTime = localDateTime.plusMinutes(10);
+                break;
+        }
+        return roundToTick(localDateTime).atZone(zoneId).toInstant().toEpochMilli();
+    }
+
+    private LocalDateTime roundToTick(LocalDateTime localDate) {
+        switch (this) {
+            case YEAR:
+                return localDate.withMonth(1).withDayOfYear(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+            case MONTH:
+                return localDate.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+            case WEEK:
+                int dayOfWeek = localDate.getDayOfWeek().getValue();
+                LocalDateTime firstDayOfWeek = ChronoUnit.DAYS.addTo(localDate, 1 - dayOfWeek);
+                return firstDayOfWeek.withHour(0).withMinute(0).withSecond(0).withNano(0);
+            case DAY:
+                return localDate.withHour(0).withMinute(0).withSecond(0).withNano(0);
+            case HOUR:
+                return localDate.withMinute(0).withSecond(0).withNano(0);
+            case MINUTE_10:
+                return localDate.withMinute(localDate.getMinute() - localDate.getMinute() % 10).withSecond(0).withNano(0);
+            default:
+                return localDate;
+        }
+    }
+}
@@ -361,16 +361,20 @@ public final class TradeStatistics3 implements ProcessOncePersistableNetworkPayl
 
     public Volume getTradeVolume() {
         if (volume == null) {
-            if (getTradePrice().getMonetary() instanceof Altcoin) {
-                volume = new Volume(new AltcoinExchangeRate((Altcoin) getTradePrice().getMonetary()).coinToAltcoin(getTradeAmount()));
-            } else {
-                Volume exactVolume = new Volume(new ExchangeRate((Fiat) getTradePrice().getMonetary()).coinToFiat(getTradeAmount()));
-                volume = VolumeUtil.getRoundedFiatVolume(exactVolume);
-            }
+            volume = getTradeVolume(getTradePrice(), getTradeAmount());
         }
         return volume;
     }
 
+    static Volume getTradeVolume(Price tradePrice, Coin tradeAmount) {
+        if (tradePrice.getMonetary() instanceof Altcoin) {
+            return new Volume(new AltcoinExchangeRate((Altcoin) tradePrice.getMonetary()).coinToAltcoin(tradeAmount));
+        } else {
+            Volume exactVolume = new Volume(new ExchangeRate((Fiat) tradePrice.getMonetary()).coinToFiat(tradeAmount));
+            return VolumeUtil.getRoundedFiatVolume(exactVolume);
+        }
+    }
+
     public boolean isValid() {
         return amount > 0 &&
                 price > 0 &&
@@ -0,0 +1,53 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import lombok.Value;
+
+import javax.annotation.Nullable;
+
+/**
+ * Open, high, low, close and volume of the trade statistics of one market in one tick. Prices are in the
+ * precision of the market's Price, amounts in the precision of Coin and volumes in the precision of the market's
+ * Volume. The USD volume is in whole USD.
+ */
+@Value
+public class TradeStatisticsCandle {
+    // Null for the rollup over all markets
+    @Nullable
+    String currencyCode;
+    TickUnit tickUnit;
+    long tickStart;
+    long tickEnd;
+    long open;
+    long close;
+    long high;
+    long low;
+    long averagePrice;
+    long medianPrice;
+    long accumulatedAmount;
+    long accumulatedVolume;
+    long numTrades;
+    boolean isBullish;
+    long volumeInUsd;
+
+    TradeStatisticsCandle withVolumeInUsd(long volumeInUsd) {
+        return new TradeStatisticsCandle(currencyCode, tickUnit, tickStart, tickEnd, open, close, high, low,
+                averagePrice, medianPrice, accumulatedAmount, accumulatedVolume, numTrades, isBullish, volumeInUsd);
+    }
+}
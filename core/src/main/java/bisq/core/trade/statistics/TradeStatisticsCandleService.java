@@ -0,0 +1,254 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.core.locale.CurrencyUtil;
+import bisq.core.monetary.Altcoin;
+
+import bisq.common.util.MathUtils;
+
+import org.bitcoinj.core.Coin;
+
+import com.google.inject.Inject;
+
+import javax.inject.Singleton;
+
+import javafx.collections.SetChangeListener;
+
+import java.time.ZoneId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Maintains the candles of all markets and tick units. The candles are updated when a trade statistic is added,
+ * so reading the candles of a time range does not need to go over the trade statistics. Only the median price needs
+ * the prices of the tick, it is computed when a changed candle is read from the trade statistics of the tick, which
+ * we find with a date index per market.
+ */
+@Singleton
+@Slf4j
+public class TradeStatisticsCandleService {
+    private static final String USD = "USD";
+
+    private final CompactTradeStatisticsSet tradeStatisticsSet;
+    private final ZoneId zoneId;
+    private final Map<String, Map<TickUnit, NavigableMap<Long, Rollup>>> rollupsByMarket = new HashMap<>();
+    private final Map<TickUnit, NavigableMap<Long, Rollup>> allMarketsRollups = createRollupMaps();
+    private final Map<String, TradeStatisticsDateIndex> dateIndexByMarket = new HashMap<>();
+    private final TradeStatisticsDateIndex allMarketsDateIndex;
+    // Index of the next trade statistic of the set we have not added to the rollups.
+    private int numProcessed;
+
+    @Inject
+    public TradeStatisticsCandleService(TradeStatisticsManager tradeStatisticsManager) {
+        this(tradeStatisticsManager.getCompactTradeStatisticsSet(), ZoneId.systemDefault());
+    }
+
+    TradeStatisticsCandleService(CompactTradeStatisticsSet tradeStatisticsSet, ZoneId zoneId) {
+        this.tradeStatisticsSet = tradeStatisticsSet;
+        this.zoneId = zoneId;
+        this.allMarketsDateIndex = new TradeStatisticsDateIndex(tradeStatisticsSet);
+
+        tradeStatisticsSet.addListener((SetChangeListener<TradeStatistics3>) change -> {
+            if (change.wasAdded()) {
+                processNewTradeStatistics();
+            }
+        });
+        processNewTradeStatistics();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param currencyCode  The market, or null for the rollup over all markets
+     * @param tickUnit      The time interval of the candles
+     * @param fromDate      Candles of ticks containing this date or later ones are included
+     * @param toDate        Candles of ticks starting at this date or later are excluded
+     * @return The candles of the ticks with trades, ordered by date
+     */
+    public synchronized List<TradeStatisticsCandle> getCandles(@Nullable String currencyCode,
+                                                              TickUnit tickUnit,
+                                                              long fromDate,
+                                                              long toDate) {
+        String marketCode = currencyCode == null ? null : currencyCode.toUpperCase();
+        Map<TickUnit, NavigableMap<Long, Rollup>> rollupMaps = marketCode == null ?
+                allMarketsRollups :
+                rollupsByMarket.get(marketCode);
+        TradeStatisticsDateIndex dateIndex = marketCode == null ?
+                allMarketsDateIndex :
+                dateIndexByMarket.get(marketCode);
+        List<TradeStatisticsCandle> candles = new ArrayList<>();
+        long fromTick = tickUnit.roundToTick(fromDate, zoneId);
+        if (rollupMaps == null || fromTick >= toDate) {
+            return candles;
+        }
+
+        NavigableMap<Long, Rollup> usdRollups = rollupsByMarket.containsKey(USD) ?
+                rollupsByMarket.get(USD).get(tickUnit) :
+                new TreeMap<>();
+        for (Rollup rollup : rollupMaps.get(tickUnit).subMap(fromTick, true, toDate, false).values()) {
+            TradeStatisticsCandle candle = rollup.getCandle(marketCode, tickUnit, dateIndex);
+            // If there was no USD trade in the tick we use the USD price of the latest tick before
+            Map.Entry<Long, Rollup> usdRollup = usdRollups.floorEntry(rollup.tickStart);
+            long usdPrice = usdRollup != null ?
+                    usdRollup.getValue().getCandle(USD, tickUnit, dateIndexByMarket.get(USD)).getAveragePrice() :
+                    0;
+            candles.add(candle.withVolumeInUsd(getVolumeInUsd(usdPrice, candle.getAccumulatedAmount())));
+        }
+        return candles;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private synchronized void processNewTradeStatistics() {
+        int size = tradeStatisticsSet.size();
+        for (; numProcessed < size; numProcessed++) {
+            long date = tradeStatisticsSet.getDate(numProcessed);
+            long price = tradeStatisticsSet.getPrice(numProcessed);
+            long amount = tradeStatisticsSet.getAmount(numProcessed);
+            String marketCode = tradeStatisticsSet.getCurrency(numProcessed).toUpperCase();
+            long volume = tradeStatisticsSet.getVolume(numProcessed);
+
+            allMarketsDateIndex.add(numProcessed);
+            dateIndexByMarket.computeIfAbsent(marketCode, key -> new TradeStatisticsDateIndex(tradeStatisticsSet))
+                    .add(numProcessed);
+            Map<TickUnit, NavigableMap<Long, Rollup>> rollupMaps = rollupsByMarket.computeIfAbsent(marketCode,
+                    key -> createRollupMaps());
+            for (TickUnit tickUnit : TickUnit.values()) {
+                long tickStart = tickUnit.roundToTick(date, zoneId);
+                long tickEnd = tickUnit.getNextTick(tickStart, zoneId);
+                rollupMaps.get(tickUnit).computeIfAbsent(tickStart, key -> new Rollup(tickStart, tickEnd))
+                        .add(date, price, amount, volume);
+                allMarketsRollups.get(tickUnit).computeIfAbsent(tickStart, key -> new Rollup(tickStart, tickEnd))
+                        .add(date, price, amount, volume);
+            }
+        }
+    }
+
+    private static Map<TickUnit, NavigableMap<Long, Rollup>> createRollupMaps() {
+        Map<TickUnit, NavigableMap<Long, Rollup>> rollupMaps = new EnumMap<>(TickUnit.class);
+        for (TickUnit tickUnit : TickUnit.values()) {
+            rollupMaps.put(tickUnit, new TreeMap<>());
+        }
+        return rollupMaps;
+    }
+
+    static long getVolumeInUsd(long usdPrice, long accumulatedAmount) {
+        // We do not need precision, so we scale down before multiplication otherwise we could get an overflow.
+        long scaledUsdPrice = (long) MathUtils.scaleDownByPowerOf10((double) usdPrice, 4);
+        long volumeInUsd = scaledUsdPrice * (long) MathUtils.scaleDownByPowerOf10((double) accumulatedAmount, 4);
+        // We store USD value without decimals as its only total volume, no precision is needed.
+        return (long) MathUtils.scaleDownByPowerOf10((double) volumeInUsd, 4);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Rollup
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Accumulates the trade statistics of one tick. The candle is created when it is read after a change.
+    private class Rollup {
+        private final long tickStart;
+        private final long tickEnd;
+        private long open;
+        private long openDate = Long.MAX_VALUE;
+        private long close;
+        private long closeDate = Long.MIN_VALUE;
+        private long high;
+        private long low = Long.MAX_VALUE;
+        private long accumulatedAmount;
+        private long accumulatedVolume;
+        private int numTrades;
+        @Nullable
+        private TradeStatisticsCandle candle;
+
+        Rollup(long tickStart, long tickEnd) {
+            this.tickStart = tickStart;
+            this.tickEnd = tickEnd;
+        }
+
+        void add(long date, long price, long amount, long volume) {
+            if (date < openDate) {
+                openDate = date;
+                open = price;
+            }
+            if (date >= closeDate) {
+                closeDate = date;
+                close = price;
+            }
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            accumulatedAmount += amount;
+            accumulatedVolume += volume;
+            numTrades++;
+            candle = null;
+        }
+
+        // The date index contains the trade statistics of the market of the rollup
+        TradeStatisticsCandle getCandle(@Nullable String currencyCode,
+                                        TickUnit tickUnit,
+                                        TradeStatisticsDateIndex dateIndex) {
+            if (candle == null) {
+                long medianPrice = getMedianPrice(dateIndex);
+
+                long averagePrice;
+                boolean isBullish;
+                if (currencyCode != null && CurrencyUtil.isCryptoCurrency(currencyCode)) {
+                    isBullish = close < open;
+                    double accumulatedAmountAsDouble = MathUtils.scaleUpByPowerOf10((double) accumulatedAmount, Altcoin.SMALLEST_UNIT_EXPONENT);
+                    averagePrice = MathUtils.roundDoubleToLong(accumulatedAmountAsDouble / (double) accumulatedVolume);
+                } else {
+                    isBullish = close > open;
+                    double accumulatedVolumeAsDouble = MathUtils.scaleUpByPowerOf10((double) accumulatedVolume, Coin.SMALLEST_UNIT_EXPONENT);
+                    averagePrice = MathUtils.roundDoubleToLong(accumulatedVolumeAsDouble / (double) accumulatedAmount);
+                }
+                candle = new TradeStatisticsCandle(currencyCode, tickUnit, tickStart, tickEnd, open, close, high, low,
+                        averagePrice, medianPrice, accumulatedAmount, accumulatedVolume, numTrades, isBullish, 0);
+            }
+            return candle;
+        }
+
+        private long getMedianPrice(TradeStatisticsDateIndex dateIndex) {
+            int fromPosition = dateIndex.getPositionAfter(tickStart, -1);
+            int toPosition = dateIndex.getPositionAfter(tickEnd, -1);
+            long[] sortedPrices = new long[toPosition - fromPosition];
+            for (int position = fromPosition; position < toPosition; position++) {
+                sortedPrices[position - fromPosition] = tradeStatisticsSet.getPrice(dateIndex.getElementIndex(position));
+            }
+            Arrays.sort(sortedPrices);
+            return MathUtils.getMedian(Arrays.stream(sortedPrices).boxed().toArray(Long[]::new));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import java.util.Arrays;
+
+/**
+ * Indexes of elements of a CompactTradeStatisticsSet ordered by date and index. Trade statistics mostly arrive in
+ * date order, so adding is usually an append. Not thread safe, the owner synchronizes the access.
+ */
+public final class TradeStatisticsDateIndex {
+    private final CompactTradeStatisticsSet tradeStatisticsSet;
+    private int[] elementIndexes = new int[16];
+    private int size;
+
+    public TradeStatisticsDateIndex(CompactTradeStatisticsSet tradeStatisticsSet) {
+        this.tradeStatisticsSet = tradeStatisticsSet;
+    }
+
+    public void add(int elementIndex) {
+        int position = getPositionAfter(tradeStatisticsSet.getDate(elementIndex), elementIndex);
+        if (size == elementIndexes.length) {
+            elementIndexes = Arrays.copyOf(elementIndexes, size * 2);
+        }
+        System.arraycopy(elementIndexes, position, elementIndexes, position + 1, size - position);
+        elementIndexes[position] = elementIndex;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Index in the trade statistics set of the element at the given position
+    public int getElementIndex(int position) {
+        return elementIndexes[position];
+    }
+
+    // Position of the first element ordered after the given date and index. Use -1 as index for the position of the
+    // first element at the given date or later.
+    public int getPositionAfter(long date, int elementIndex) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int middleElementIndex = elementIndexes[middle];
+            long middleDate = tradeStatisticsSet.getDate(middleElementIndex);
+            if (middleDate < date || (middleDate == date && middleElementIndex <= elementIndex)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -37,7 +37,6 @@ import com.google.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
-import javafx.collections.FXCollections;
 import javafx.collections.ObservableSet;
 
 import java.time.Instant;
@@ -45,7 +44,10 @@ import java.time.Instant;
 import java.io.File;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -63,7 +65,9 @@ public class TradeStatisticsManager {
     private final TradeStatisticsConverter tradeStatisticsConverter;
     private final File storageDir;
     private final boolean dumpStatistics;
-    private final ObservableSet<TradeStatistics3> observableTradeStatisticsSet = FXCollections.observableSet();
+    private final CompactTradeStatisticsSet tradeStatisticsSet = new CompactTradeStatisticsSet();
+    // Index of the latest trade statistic of each currency. PriceFeedService only uses those.
+    private final Map<String, Integer> latestIndexByCurrency = new HashMap<>();
     private JsonFileManager jsonFileManager;
 
     @Inject
@@ -99,24 +103,52 @@ public class TradeStatisticsManager {
                 if (!tradeStatistics.isValid()) {
                     return;
                 }
-                observableTradeStatisticsSet.add(tradeStatistics);
-                priceFeedService.applyLatestBisqMarketPrice(observableTradeStatisticsSet);
+                if (!tradeStatisticsSet.add(tradeStatistics)) {
+                    return;
+                }
+                // Added statistics are appended, so we only need to compare with the latest one of its currency
+                if (updateLatestIndex(tradeStatisticsSet.size() - 1)) {
+                    priceFeedService.applyLatestBisqMarketPrice(Set.of(tradeStatistics));
+                }
                 maybeDumpStatistics();
             }
         });
 
-        Set<TradeStatistics3> set = tradeStatistics3StorageService.getMapOfAllData().values().stream()
+        // We add them sorted by date, so the index order matches the date order for all but late arriving ones.
+        List<TradeStatistics3> list = tradeStatistics3StorageService.streamAllData()
                 .filter(e -> e instanceof TradeStatistics3)
                 .map(e -> (TradeStatistics3) e)
                 .filter(TradeStatistics3::isValid)
-                .collect(Collectors.toSet());
-        observableTradeStatisticsSet.addAll(set);
-        priceFeedService.applyLatestBisqMarketPrice(observableTradeStatisticsSet);
+                .sorted(Comparator.comparing(TradeStatistics3::getDateAsLong))
+                .collect(Collectors.toList());
+        tradeStatisticsSet.addAll(list);
+        for (int i = 0; i < tradeStatisticsSet.size(); i++) {
+            updateLatestIndex(i);
+        }
+        priceFeedService.applyLatestBisqMarketPrice(latestIndexByCurrency.values().stream()
+                .map(tradeStatisticsSet::get)
+                .collect(Collectors.toSet()));
         maybeDumpStatistics();
     }
 
     public ObservableSet<TradeStatistics3> getObservableTradeStatisticsSet() {
-        return observableTradeStatisticsSet;
+        return tradeStatisticsSet;
+    }
+
+    // Gives access to the fields of the trade statistics without creating TradeStatistics3 objects.
+    public CompactTradeStatisticsSet getCompactTradeStatisticsSet() {
+        return tradeStatisticsSet;
+    }
+
+    // Returns true if the trade statistic at the given index is the latest one of its currency.
+    private boolean updateLatestIndex(int index) {
+        String currency = tradeStatisticsSet.getCurrency(index);
+        Integer latestIndex = latestIndexByCurrency.get(currency);
+        if (latestIndex != null && tradeStatisticsSet.getDate(index) < tradeStatisticsSet.getDate(latestIndex)) {
+            return false;
+        }
+        latestIndexByCurrency.put(currency, index);
+        return true;
     }
 
     private void maybeDumpStatistics() {
@@ -140,7 +172,7 @@ public class TradeStatisticsManager {
             jsonFileManager.writeToDiscThreaded(Utilities.objectToJson(cryptoCurrencyList), "crypto_currency_list");
 
             Instant yearAgo = Instant.ofEpochSecond(Instant.now().getEpochSecond() - TimeUnit.DAYS.toSeconds(365));
-            Set<String> activeCurrencies = observableTradeStatisticsSet.stream()
+            Set<String> activeCurrencies = tradeStatisticsSet.stream()
                     .filter(e -> e.getDate().toInstant().isAfter(yearAgo))
                     .map(p -> p.getCurrency())
                     .collect(Collectors.toSet());
@@ -158,7 +190,7 @@ public class TradeStatisticsManager {
             jsonFileManager.writeToDiscThreaded(Utilities.objectToJson(activeCryptoCurrencyList), "active_crypto_currency_list");
         }
 
-        List<TradeStatisticsForJson> list = observableTradeStatisticsSet.stream()
+        List<TradeStatisticsForJson> list = tradeStatisticsSet.stream()
                 .map(TradeStatisticsForJson::new)
                 .sorted((o1, o2) -> (Long.compare(o2.tradeDate, o1.tradeDate)))
                 .collect(Collectors.toList());
@@ -171,7 +203,6 @@ public class TradeStatisticsManager {
                                               @Nullable String referralId,
                                               boolean isTorNetworkNode) {
         long ts = System.currentTimeMillis();
-        Set<P2PDataStorage.ByteArray> hashes = tradeStatistics3StorageService.getMapOfAllData().keySet();
         trades.forEach(trade -> {
             if (trade instanceof BuyerTrade) {
                 log.debug("Trade: {} is a buyer trade, we only republish we have been seller.",
@@ -180,7 +211,8 @@ public class TradeStatisticsManager {
             }
 
             TradeStatistics3 tradeStatistics3 = TradeStatistics3.from(trade, referralId, isTorNetworkNode);
-            boolean hasTradeStatistics3 = hashes.contains(new P2PDataStorage.ByteArray(tradeStatistics3.getHash()));
+            boolean hasTradeStatistics3 = tradeStatistics3StorageService.containsKey(
+                    new P2PDataStorage.ByteArray(tradeStatistics3.getHash()));
             if (hasTradeStatistics3) {
                 log.debug("Trade: {}. We have already a tradeStatistics matching the hash of tradeStatistics3.",
                         trade.getShortId());
@@ -191,7 +223,8 @@ public class TradeStatisticsManager {
             // TradeStatistics2 where we used the original hash, which is not the native hash of the
             // TradeStatistics3 but of TradeStatistics2.
             TradeStatistics2 tradeStatistics2 = TradeStatistics2.from(trade, referralId, isTorNetworkNode);
-            boolean hasTradeStatistics2 = hashes.contains(new P2PDataStorage.ByteArray(tradeStatistics2.getHash()));
+            boolean hasTradeStatistics2 = tradeStatistics3StorageService.containsKey(
+                    new P2PDataStorage.ByteArray(tradeStatistics2.getHash()));
             if (hasTradeStatistics2) {
                 log.debug("Trade: {}. We have already a tradeStatistics matching the hash of tradeStatistics2. ",
                         trade.getShortId());
@@ -208,6 +241,6 @@ public class TradeStatisticsManager {
             p2PService.addPersistableNetworkPayload(tradeStatistics3, true);
         });
         log.info("maybeRepublishTradeStatistics took {} ms. Number of tradeStatistics: {}. Number of own trades: {}",
-                System.currentTimeMillis() - ts, hashes.size(), trades.size());
+                System.currentTimeMillis() - ts, tradeStatisticsSet.size(), trades.size());
     }
 }
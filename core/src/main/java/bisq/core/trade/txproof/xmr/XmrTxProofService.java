@@ -171,10 +171,11 @@ public class XmrTxProofService implements AssetTxProofService {
         // We register a listener to stop running services. For new trades we check anyway in the trade validation
         filterManager.filterProperty().addListener((observable, oldValue, newValue) -> {
             if (isAutoConfDisabledByFilter()) {
-                servicesByTradeId.values().stream().map(XmrTxProofRequestsPerTrade::getTrade).forEach(trade ->
-                        trade.setAssetTxProofResult(AssetTxProofResult.FEATURE_DISABLED
-                                .details(Res.get("portfolio.pending.autoConf.state.filterDisabledFeature"))));
-                tradeManager.requestPersistence();
+                servicesByTradeId.values().stream().map(XmrTxProofRequestsPerTrade::getTrade).forEach(trade -> {
+                    trade.setAssetTxProofResult(AssetTxProofResult.FEATURE_DISABLED
+                            .details(Res.get("portfolio.pending.autoConf.state.filterDisabledFeature")));
+                    tradeManager.requestPersistence(trade);
+                });
                 shutDown();
             }
         });
@@ -228,21 +229,21 @@ public class XmrTxProofService implements AssetTxProofService {
         String txHash = trade.getCounterCurrencyExtraData();
         if (is32BitHexStringInValid(txId) || is32BitHexStringInValid(txHash)) {
             trade.setAssetTxProofResult(AssetTxProofResult.INVALID_DATA.details(Res.get("portfolio.pending.autoConf.state.txKeyOrTxIdInvalid")));
-            tradeManager.requestPersistence();
+            tradeManager.requestPersistence(trade);
             return;
         }
 
         if (isAutoConfDisabledByFilter()) {
             trade.setAssetTxProofResult(AssetTxProofResult.FEATURE_DISABLED
                     .details(Res.get("portfolio.pending.autoConf.state.filterDisabledFeature")));
-            tradeManager.requestPersistence();
+            tradeManager.requestPersistence(trade);
             return;
         }
 
         if (wasTxKeyReUsed(trade, tradeManager.getObservableList())) {
             trade.setAssetTxProofResult(AssetTxProofResult.INVALID_DATA
                     .details(Res.get("portfolio.pending.autoConf.state.xmr.txKeyReused")));
-            tradeManager.requestPersistence();
+            tradeManager.requestPersistence(trade);
             return;
         }
 
@@ -275,7 +276,7 @@ public class XmrTxProofService implements AssetTxProofService {
                         servicesByTradeId.remove(trade.getId());
                     }
 
-                    tradeManager.requestPersistence();
+                    tradeManager.requestPersistence(trade);
                 },
                 (errorMessage, throwable) -> {
                     log.error(errorMessage);
@@ -0,0 +1,93 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api;
+
+import bisq.core.btc.wallet.XmrWalletService;
+import bisq.core.offer.CreateOfferService;
+import bisq.core.offer.Offer;
+import bisq.core.offer.OfferBookService;
+import bisq.core.offer.OfferFilter;
+import bisq.core.offer.OfferPayload;
+import bisq.core.offer.OfferUtil;
+import bisq.core.offer.OpenOffer;
+import bisq.core.offer.OpenOfferManager;
+import bisq.core.user.User;
+
+import bisq.common.crypto.KeyRing;
+import bisq.common.crypto.PubKeyRing;
+
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CoreOffersServiceTest {
+    private static final String OFFER_ID = "offerId";
+
+    private Offer sharedOffer;
+    private OpenOffer openOffer;
+    private CoreOffersService coreOffersService;
+
+    @Before
+    public void setUp() {
+        PubKeyRing pubKeyRing = mock(PubKeyRing.class);
+        KeyRing keyRing = mock(KeyRing.class);
+        when(keyRing.getPubKeyRing()).thenReturn(pubKeyRing);
+        OfferPayload offerPayload = mock(OfferPayload.class);
+        when(offerPayload.getId()).thenReturn(OFFER_ID);
+        when(offerPayload.getPubKeyRing()).thenReturn(pubKeyRing);
+        sharedOffer = new Offer(offerPayload);
+
+        OfferBookService offerBookService = mock(OfferBookService.class);
+        when(offerBookService.getOfferById(OFFER_ID)).thenReturn(Optional.of(sharedOffer));
+        openOffer = mock(OpenOffer.class);
+        OpenOfferManager openOfferManager = mock(OpenOfferManager.class);
+        when(openOfferManager.getOpenOfferById(OFFER_ID)).thenReturn(Optional.of(openOffer));
+
+        coreOffersService = new CoreOffersService(mock(CoreContext.class),
+                keyRing,
+                mock(CoreWalletsService.class),
+                mock(CreateOfferService.class),
+                offerBookService,
+                mock(OfferFilter.class),
+                openOfferManager,
+                mock(OfferUtil.class),
+                mock(User.class),
+                mock(XmrWalletService.class));
+    }
+
+    @Test
+    public void testStateOfMyOfferDoesNotLeakIntoOtherLookups() {
+        when(openOffer.getState()).thenReturn(OpenOffer.State.DEACTIVATED);
+        Offer first = coreOffersService.getMyOffer(OFFER_ID);
+
+        when(openOffer.getState()).thenReturn(OpenOffer.State.AVAILABLE);
+        Offer second = coreOffersService.getMyOffer(OFFER_ID);
+
+        assertNotSame(first, second);
+        assertEquals(Offer.State.NOT_AVAILABLE, first.getState());
+        assertEquals(Offer.State.AVAILABLE, second.getState());
+        // The offer of the offer book is not changed
+        assertEquals(Offer.State.UNKNOWN, sharedOffer.getState());
+    }
+}
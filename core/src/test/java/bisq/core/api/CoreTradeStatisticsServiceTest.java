@@ -0,0 +1,140 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api;
+
+import bisq.core.api.model.TradeStatisticsPage;
+import bisq.core.trade.statistics.CompactTradeStatisticsSet;
+import bisq.core.trade.statistics.TradeStatistics3;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CoreTradeStatisticsServiceTest {
+    private CompactTradeStatisticsSet tradeStatisticsSet;
+    private CoreTradeStatisticsService service;
+
+    @Before
+    public void setUp() {
+        tradeStatisticsSet = new CompactTradeStatisticsSet();
+        for (int i = 0; i < 50; i++) {
+            addTradeStatistics(i % 2 == 0 ? "USD" : "EUR", i % 5 == 0 ? "SEPA" : "F2F", 1000 + i * 10);
+        }
+        service = new CoreTradeStatisticsService(tradeStatisticsSet);
+        for (int i = 50; i < 100; i++) {
+            addTradeStatistics(i % 2 == 0 ? "USD" : "EUR", i % 5 == 0 ? "SEPA" : "F2F", 1000 + i * 10);
+        }
+    }
+
+    @Test
+    public void testPagination() {
+        List<TradeStatistics3> all = getAllPages(null, null, 0, Long.MAX_VALUE, 7);
+        assertEquals(100, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getDateAsLong() < all.get(i).getDateAsLong());
+        }
+
+        TradeStatisticsPage page = service.getTradeStatistics(null, null, 0, Long.MAX_VALUE, null, 0);
+        assertEquals(CoreTradeStatisticsService.DEFAULT_LIMIT, page.getTradeStatistics().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testFilters() {
+        List<TradeStatistics3> eur = getAllPages("eur", null, 0, Long.MAX_VALUE, 10);
+        assertEquals(50, eur.size());
+        assertTrue(eur.stream().allMatch(e -> e.getCurrency().equals("EUR")));
+
+        List<TradeStatistics3> usdSepa = getAllPages("USD", "SEPA", 0, Long.MAX_VALUE, 3);
+        assertEquals(10, usdSepa.size());
+        assertTrue(usdSepa.stream().allMatch(e -> e.getPaymentMethod().equals("SEPA")));
+
+        // The from date is inclusive, the to date exclusive
+        List<TradeStatistics3> range = getAllPages(null, null, 1100, 1200, 4);
+        assertEquals(10, range.size());
+        assertEquals(1100, range.get(0).getDateAsLong());
+        assertEquals(1190, range.get(9).getDateAsLong());
+
+        assertTrue(getAllPages("JPY", null, 0, Long.MAX_VALUE, 10).isEmpty());
+    }
+
+    @Test
+    public void testLateTradeStatistics() {
+        TradeStatisticsPage page = service.getTradeStatistics(null, null, 0, Long.MAX_VALUE, null, 10);
+        assertEquals(1090, page.getTradeStatistics().get(9).getDateAsLong());
+
+        // Trade statistics added between pages are returned if they are after the cursor
+        addTradeStatistics("USD", "SEPA", 995);
+        addTradeStatistics("USD", "SEPA", 1095);
+        page = service.getTradeStatistics(null, null, 0, Long.MAX_VALUE, page.getNextCursor(), 10);
+        assertEquals(1095, page.getTradeStatistics().get(0).getDateAsLong());
+        assertEquals(1100, page.getTradeStatistics().get(1).getDateAsLong());
+
+        page = service.getTradeStatistics(null, null, 0, Long.MAX_VALUE, null, 1);
+        assertEquals(995, page.getTradeStatistics().get(0).getDateAsLong());
+        assertNotNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testScanLimit() {
+        service = new CoreTradeStatisticsService(tradeStatisticsSet, 2);
+
+        // Only every 5th USD trade statistic is paid with SEPA, so the second page has none but a cursor
+        TradeStatisticsPage page = service.getTradeStatistics("USD", "SEPA", 0, Long.MAX_VALUE, null, 10);
+        assertEquals(1, page.getTradeStatistics().size());
+        page = service.getTradeStatistics("USD", "SEPA", 0, Long.MAX_VALUE, page.getNextCursor(), 10);
+        assertTrue(page.getTradeStatistics().isEmpty());
+        assertNotNull(page.getNextCursor());
+
+        List<TradeStatistics3> usdSepa = getAllPages("USD", "SEPA", 0, Long.MAX_VALUE, 10);
+        assertEquals(10, usdSepa.size());
+        assertTrue(usdSepa.stream().allMatch(e -> e.getPaymentMethod().equals("SEPA")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCursor() {
+        service.getTradeStatistics(null, null, 0, Long.MAX_VALUE, "abc", 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLimit() {
+        service.getTradeStatistics(null, null, 0, Long.MAX_VALUE, null, CoreTradeStatisticsService.MAX_LIMIT + 1);
+    }
+
+    private List<TradeStatistics3> getAllPages(String currencyCode, String paymentMethodId, long fromDate, long toDate, int limit) {
+        List<TradeStatistics3> tradeStatistics = new ArrayList<>();
+        String cursor = null;
+        do {
+            TradeStatisticsPage page = service.getTradeStatistics(currencyCode, paymentMethodId, fromDate, toDate, cursor, limit);
+            tradeStatistics.addAll(page.getTradeStatistics());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return tradeStatistics;
+    }
+
+    private void addTradeStatistics(String currencyCode, String paymentMethodId, long date) {
+        tradeStatisticsSet.add(new TradeStatistics3(currencyCode, 10000, 100000, paymentMethodId, date, null, null));
+    }
+}
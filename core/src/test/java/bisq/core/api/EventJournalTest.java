@@ -0,0 +1,97 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class EventJournalTest {
+
+    @Test
+    public void testResume() {
+        EventJournal<String> journal = new EventJournal<>(2);
+        List<String> tokens = new ArrayList<>();
+        journal.publish(token -> { tokens.add(token); return "a"; });
+        journal.publish(token -> { tokens.add(token); return "b"; });
+        journal.publish(token -> { tokens.add(token); return "c"; });
+
+        // The updates after the resume token are replayed, followed by the new ones.
+        List<String> received = new ArrayList<>();
+        journal.addListener(tokens.get(1), received::add, token -> "snapshot");
+        journal.publish(token -> "d");
+        assertEquals(List.of("c", "d"), received);
+
+        // The journal only keeps the last 2 updates, so an older token gets the snapshot.
+        received.clear();
+        journal.addListener(tokens.get(0), received::add, token -> "snapshot");
+        assertEquals(List.of("snapshot"), received);
+
+        received.clear();
+        journal.addListener("", received::add, token -> "snapshot");
+        journal.addListener("unknown-1", received::add, token -> "snapshot");
+        assertEquals(List.of("snapshot", "snapshot"), received);
+    }
+
+    @Test
+    public void testFailingListenerIsRemoved() {
+        EventJournal<String> journal = new EventJournal<>(1);
+        List<String> received = new ArrayList<>();
+        journal.addListener(null, update -> {
+            received.add(update);
+            throw new IllegalStateException("closed");
+        }, token -> null);
+        journal.publish(token -> "a");
+        journal.publish(token -> "b");
+        assertEquals(List.of("a"), received);
+    }
+
+    @Test
+    public void testNullUpdateIsSkipped() {
+        EventJournal<String> journal = new EventJournal<>(2);
+        List<String> tokens = new ArrayList<>();
+        journal.publish(token -> { tokens.add(token); return "a"; });
+        journal.publish(token -> null);
+
+        // The skipped update neither gets delivered nor replayed and does not use up a resume token.
+        List<String> received = new ArrayList<>();
+        journal.addListener(tokens.get(0), received::add, token -> "snapshot");
+        journal.publish(token -> null);
+        journal.publish(token -> { tokens.add(token); return "b"; });
+        assertEquals(List.of("b"), received);
+
+        received.clear();
+        journal.addListener(tokens.get(0), received::add, token -> "snapshot");
+        assertEquals(List.of("b"), received);
+    }
+
+    @Test
+    public void testListenerFailingOnReplayIsNotAdded() {
+        EventJournal<String> journal = new EventJournal<>(1);
+        List<String> received = new ArrayList<>();
+        journal.addListener(null, update -> {
+            received.add(update);
+            throw new IllegalStateException("closed");
+        }, token -> "snapshot");
+        journal.publish(token -> "a");
+        assertEquals(List.of("snapshot"), received);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.setup;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import monero.wallet.MoneroWalletRpc;
+import monero.wallet.model.MoneroWalletConfig;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class MoneroWalletRpcPoolTest {
+    private final MoneroWalletConfig config = new MoneroWalletConfig();
+    private final List<MoneroWalletRpc> startedProcesses = new ArrayList<>();
+    private MoneroWalletRpcManager rpcManager;
+    private TestClock clock;
+    private MoneroWalletRpcPool pool;
+
+    @Before
+    public void setUp() {
+        rpcManager = mock(MoneroWalletRpcManager.class);
+        clock = new TestClock();
+        pool = new MoneroWalletRpcPool(rpcManager,
+                () -> {
+                    MoneroWalletRpc walletRpc = mock(MoneroWalletRpc.class);
+                    startedProcesses.add(walletRpc);
+                    return walletRpc;
+                },
+                () -> null,
+                1,
+                key -> 0,
+                clock);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutDown(false);
+    }
+
+    @Test
+    public void testEvictedWalletIsNotReusedForOtherWallet() {
+        MoneroWalletRpc walletA = pool.openWallet("a", config, false);
+        clock.advance(TimeUnit.MINUTES.toMillis(3));
+
+        MoneroWalletRpc walletB = pool.openWallet("b", config, false);
+
+        // The process of the evicted wallet got stopped and a new one started
+        assertNotSame(walletA, walletB);
+        assertEquals(2, startedProcesses.size());
+        verify(rpcManager).stopInstance(walletA, true);
+        verify(walletA, times(1)).openWallet(any(MoneroWalletConfig.class));
+        assertNull(pool.getOpenWallet("a"));
+        assertSame(walletB, pool.getOpenWallet("b"));
+    }
+
+    @Test
+    public void testRecentlyUsedWalletIsNotEvicted() {
+        MoneroWalletRpc walletA = pool.openWallet("a", config, false);
+        MoneroWalletRpc walletB = pool.openWallet("b", config, false);
+
+        assertNotSame(walletA, walletB);
+        verify(rpcManager, never()).stopInstance(any(), anyBoolean());
+        assertSame(walletA, pool.getOpenWallet("a"));
+        assertSame(walletB, pool.getOpenWallet("b"));
+    }
+
+    @Test
+    public void testPeekDoesNotKeepWalletOpen() {
+        MoneroWalletRpc walletA = pool.openWallet("a", config, false);
+        clock.advance(TimeUnit.MINUTES.toMillis(3));
+        assertSame(walletA, pool.peekOpenWallet("a"));
+
+        pool.openWallet("b", config, false);
+
+        // Wallet a is still idle, so it got evicted
+        verify(rpcManager).stopInstance(walletA, true);
+        assertNull(pool.peekOpenWallet("a"));
+    }
+
+    @Test
+    public void testReopenEvictedWallet() {
+        MoneroWalletRpc walletA = pool.openWallet("a", config, false);
+        clock.advance(TimeUnit.MINUTES.toMillis(3));
+        pool.openWallet("b", config, false);
+
+        // Wallet b was used recently, so we start another process for wallet a
+        MoneroWalletRpc reopenedWalletA = pool.openWallet("a", config, false);
+        assertNotSame(walletA, reopenedWalletA);
+        assertEquals(3, startedProcesses.size());
+        assertSame(reopenedWalletA, pool.getOpenWallet("a"));
+    }
+
+    @Test
+    public void testProcessOfClosedWalletIsReused() {
+        MoneroWalletRpc walletA = pool.openWallet("a", config, false);
+        pool.closeWallet("a", true);
+        verify(walletA).close(true);
+        assertNull(pool.getOpenWallet("a"));
+
+        MoneroWalletRpc reopenedWalletA = pool.openWallet("a", config, false);
+        assertSame(walletA, reopenedWalletA);
+        assertEquals(1, startedProcesses.size());
+        verify(rpcManager, never()).stopInstance(any(), anyBoolean());
+    }
+
+    private static class TestClock extends Clock {
+        private long millis = System.currentTimeMillis();
+
+        void advance(long millis) {
+            this.millis += millis;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.core.btc.wallet;
+
+import bisq.core.trade.Trade;
+
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class MoneroWalletSyncSchedulerTest {
+    private MoneroWalletSyncScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new MoneroWalletSyncScheduler(key -> null, Collections::emptyMap);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutDown();
+    }
+
+    @Test
+    public void testSyncPeriodByPhase() {
+        assertEquals(MoneroWalletSyncScheduler.FAST_SYNC_PERIOD_MS,
+                MoneroWalletSyncScheduler.getSyncPeriodMs(Trade.Phase.DEPOSIT_PUBLISHED));
+        assertEquals(MoneroWalletSyncScheduler.SLOW_SYNC_PERIOD_MS,
+                MoneroWalletSyncScheduler.getSyncPeriodMs(Trade.Phase.FIAT_SENT));
+        assertEquals(MoneroWalletSyncScheduler.FAST_SYNC_PERIOD_MS,
+                MoneroWalletSyncScheduler.getSyncPeriodMs(Trade.Phase.FIAT_RECEIVED));
+        assertEquals(MoneroWalletSyncScheduler.NO_SYNC,
+                MoneroWalletSyncScheduler.getSyncPeriodMs(Trade.Phase.WITHDRAWN));
+    }
+
+    @Test
+    public void testOnPhaseChanged() {
+        long numSyncPeriodUpdates = MoneroWalletSyncScheduler.SYNC_PERIOD_UPDATES.get();
+        // Unknown wallets sync fast
+        assertEquals(MoneroWalletSyncScheduler.FAST_SYNC_PERIOD_MS, scheduler.getSyncPeriodMs("tradeId"));
+
+        scheduler.onPhaseChanged("tradeId", Trade.Phase.DEPOSIT_CONFIRMED);
+        assertEquals(MoneroWalletSyncScheduler.SLOW_SYNC_PERIOD_MS, scheduler.getSyncPeriodMs("tradeId"));
+        // Same period does not count as update
+        scheduler.onPhaseChanged("tradeId", Trade.Phase.FIAT_SENT);
+        scheduler.onPhaseChanged("tradeId", Trade.Phase.WITHDRAWN);
+        assertEquals(MoneroWalletSyncScheduler.NO_SYNC, scheduler.getSyncPeriodMs("tradeId"));
+        assertEquals(numSyncPeriodUpdates + 2, MoneroWalletSyncScheduler.SYNC_PERIOD_UPDATES.get());
+
+        scheduler.remove("tradeId");
+        assertEquals(MoneroWalletSyncScheduler.FAST_SYNC_PERIOD_MS, scheduler.getSyncPeriodMs("tradeId"));
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.core.btc.wallet;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class XmrBalanceSnapshotTest {
+
+    @Test
+    public void testBalances() {
+        XmrBalanceSnapshot snapshot = new XmrBalanceSnapshot(
+                ImmutableMap.of(0, BigInteger.valueOf(100), 1, BigInteger.valueOf(50)),
+                ImmutableMap.of(0, BigInteger.valueOf(80), 1, BigInteger.valueOf(0)));
+
+        assertEquals(BigInteger.valueOf(150), snapshot.getBalance());
+        assertEquals(BigInteger.valueOf(80), snapshot.getUnlockedBalance());
+        assertEquals(BigInteger.valueOf(50), snapshot.getBalance(1));
+        assertEquals(BigInteger.ZERO, snapshot.getUnlockedBalance(1));
+        // Subaddresses created after the snapshot have no balance yet
+        assertEquals(BigInteger.ZERO, snapshot.getBalance(2));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(BigInteger.ZERO, XmrBalanceSnapshot.EMPTY.getBalance());
+        assertEquals(BigInteger.ZERO, XmrBalanceSnapshot.EMPTY.getUnlockedBalance(0));
+    }
+}
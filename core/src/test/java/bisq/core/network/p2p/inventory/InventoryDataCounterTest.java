@@ -0,0 +1,118 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.network.p2p.inventory;
+
+import bisq.core.alert.Alert;
+import bisq.core.network.p2p.inventory.model.InventoryItem;
+import bisq.core.trade.statistics.TradeStatistics3;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+
+import bisq.common.app.Version;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InventoryDataCounterTest {
+    private P2PDataStorage p2PDataStorage;
+    private Map<P2PDataStorage.ByteArray, ProtectedStorageEntry> protectedStorageEntries;
+    private InventoryDataCounter inventoryDataCounter;
+
+    @Before
+    public void setUp() {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> persistableNetworkPayloads = new HashMap<>();
+        addTo(persistableNetworkPayloads, newTradeStatistics(1));
+        addTo(persistableNetworkPayloads, newTradeStatistics(2));
+        protectedStorageEntries = new HashMap<>();
+        protectedStorageEntries.put(new P2PDataStorage.ByteArray(new byte[]{1}), newEntry(new Alert("alert 1", false, false, "1.0.0")));
+
+        p2PDataStorage = mock(P2PDataStorage.class);
+        when(p2PDataStorage.getMapForDataResponse(any())).thenReturn(persistableNetworkPayloads);
+        when(p2PDataStorage.getMap()).thenReturn(protectedStorageEntries);
+        inventoryDataCounter = new InventoryDataCounter(p2PDataStorage);
+    }
+
+    @Test
+    public void testInitialCounts() {
+        Map<InventoryItem, Integer> counts = inventoryDataCounter.getCounts(Version.VERSION);
+        assertEquals(2, (int) counts.get(InventoryItem.TradeStatistics3));
+        assertEquals(1, (int) counts.get(InventoryItem.Alert));
+        assertFalse(counts.containsKey(InventoryItem.OfferPayload));
+    }
+
+    @Test
+    public void testAppendOnlyDataIsCountedOncePerHistoricalStores() {
+        inventoryDataCounter.getCounts(Version.VERSION);
+        inventoryDataCounter.onAdded(newTradeStatistics(3));
+
+        assertEquals(3, (int) inventoryDataCounter.getCounts(Version.VERSION).get(InventoryItem.TradeStatistics3));
+        verify(p2PDataStorage, times(1)).getMapForDataResponse(any());
+
+        // A requester without a version gets all historical stores, so we count those separately
+        inventoryDataCounter.getCounts(null);
+        verify(p2PDataStorage, times(2)).getMapForDataResponse(any());
+    }
+
+    @Test
+    public void testProtectedStorageEntries() {
+        inventoryDataCounter.getCounts(Version.VERSION);
+        Alert alert = new Alert("alert 2", false, false, "1.0.0");
+
+        inventoryDataCounter.onAdded(Collections.singletonList(newEntry(alert)));
+        // A republished entry with a higher sequence number notifies listeners again
+        inventoryDataCounter.onAdded(Collections.singletonList(newEntry(new Alert("alert 2", false, false, "1.0.0"))));
+        assertEquals(2, (int) inventoryDataCounter.getCounts(Version.VERSION).get(InventoryItem.Alert));
+
+        // Removals of entries we do not have are ignored
+        inventoryDataCounter.onRemoved(Collections.singletonList(newEntry(new Alert("alert 3", false, false, "1.0.0"))));
+        assertEquals(2, (int) inventoryDataCounter.getCounts(Version.VERSION).get(InventoryItem.Alert));
+
+        inventoryDataCounter.onRemoved(Collections.singletonList(newEntry(alert)));
+        inventoryDataCounter.onRemoved(protectedStorageEntries.values());
+        assertFalse(inventoryDataCounter.getCounts(Version.VERSION).containsKey(InventoryItem.Alert));
+    }
+
+    private static TradeStatistics3 newTradeStatistics(long date) {
+        return new TradeStatistics3("EUR", 10000, 100000, "SEPA", date, null, null);
+    }
+
+    private static void addTo(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map,
+                              PersistableNetworkPayload payload) {
+        map.put(new P2PDataStorage.ByteArray(payload.getHash()), payload);
+    }
+
+    private static ProtectedStorageEntry newEntry(Alert alert) {
+        ProtectedStorageEntry entry = mock(ProtectedStorageEntry.class);
+        when(entry.getProtectedStoragePayload()).thenReturn(alert);
+        return entry;
+    }
+}
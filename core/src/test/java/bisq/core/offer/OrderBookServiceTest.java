@@ -0,0 +1,94 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.offer;
+
+import bisq.core.provider.price.PriceFeedService;
+
+import javafx.beans.property.SimpleIntegerProperty;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OrderBookServiceTest {
+    private OrderBookService orderBookService;
+    private OfferBookService.OfferBookChangedListener listener;
+
+    @Before
+    public void setUp() {
+        OfferBookService offerBookService = mock(OfferBookService.class);
+        when(offerBookService.getOffers()).thenReturn(List.of(createOffer("1", OfferPayload.Direction.BUY, 10000L, 100000000L)));
+        PriceFeedService priceFeedService = mock(PriceFeedService.class);
+        when(priceFeedService.updateCounterProperty()).thenReturn(new SimpleIntegerProperty());
+
+        orderBookService = new OrderBookService(offerBookService, priceFeedService);
+
+        ArgumentCaptor<OfferBookService.OfferBookChangedListener> captor =
+                ArgumentCaptor.forClass(OfferBookService.OfferBookChangedListener.class);
+        verify(offerBookService).addOfferBookChangedListener(captor.capture());
+        listener = captor.getValue();
+    }
+
+    @Test
+    public void testGetMarketDepth() {
+        listener.onAdded(createOffer("2", OfferPayload.Direction.BUY, 20000L, 200000000L));
+        Offer sellOffer = createOffer("3", OfferPayload.Direction.SELL, 30000L, 100000000L);
+        listener.onAdded(sellOffer);
+        listener.onAdded(createOffer("4", OfferPayload.Direction.SELL, 40000L, 100000000L));
+
+        MarketDepth marketDepth = orderBookService.getMarketDepth("usd");
+        assertEquals("2", marketDepth.getBuyOffers().get(0).getId());
+        assertEquals(20000L, marketDepth.getBestBid().getValue());
+        assertEquals(30000L, marketDepth.getBestAsk().getValue());
+        assertArrayEquals(new double[]{2, 1}, marketDepth.getBuyPrices(), 0);
+        assertArrayEquals(new double[]{2, 3}, marketDepth.getBuyDepth(), 0);
+        assertArrayEquals(new double[]{3, 4}, marketDepth.getSellPrices(), 0);
+        assertArrayEquals(new double[]{1, 2}, marketDepth.getSellDepth(), 0);
+
+        // The snapshot is reused until the market changes.
+        assertSame(marketDepth, orderBookService.getMarketDepth("USD"));
+        listener.onRemoved(new Offer(sellOffer.getOfferPayload()));
+        MarketDepth updated = orderBookService.getMarketDepth("USD");
+        assertNotSame(marketDepth, updated);
+        assertEquals(40000L, updated.getBestAsk().getValue());
+
+        assertTrue(orderBookService.getMarketDepth("EUR").getBuyOffers().isEmpty());
+    }
+
+    private static Offer createOffer(String id, OfferPayload.Direction direction, long price, long amount) {
+        OfferPayload offerPayload = mock(OfferPayload.class);
+        when(offerPayload.getId()).thenReturn(id);
+        when(offerPayload.getDirection()).thenReturn(direction);
+        when(offerPayload.getPrice()).thenReturn(price);
+        when(offerPayload.getAmount()).thenReturn(amount);
+        when(offerPayload.getBaseCurrencyCode()).thenReturn("XMR");
+        when(offerPayload.getCounterCurrencyCode()).thenReturn("USD");
+        return new Offer(offerPayload);
+    }
+}
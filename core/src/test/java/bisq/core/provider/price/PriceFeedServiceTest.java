@@ -0,0 +1,146 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.provider.price;
+
+import bisq.core.provider.PriceHttpClient;
+import bisq.core.provider.ProvidersRepository;
+import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.user.Preferences;
+
+import java.io.IOException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PriceFeedServiceTest {
+    private static final String PRICES_JSON = "{\"btcAverageTs\":0,\"poloniexTs\":0,\"coinmarketcapTs\":0,\"data\":[" +
+            "{\"currencyCode\":\"XMR\",\"price\":0.005,\"timestampSec\":1600000000}," +
+            "{\"currencyCode\":\"EUR\",\"price\":50000.0,\"timestampSec\":1600000000}]}";
+
+    private PriceHttpClient httpClient;
+    private TestClock clock;
+    private PriceFeedService priceFeedService;
+
+    @Before
+    public void setUp() {
+        httpClient = mock(PriceHttpClient.class);
+        ProvidersRepository providersRepository = mock(ProvidersRepository.class);
+        when(providersRepository.getBaseUrl()).thenReturn("http://localhost/");
+        clock = new TestClock();
+        priceFeedService = new PriceFeedService(httpClient, providersRepository, mock(Preferences.class), clock);
+    }
+
+    @Test
+    public void testSnapshotIsCached() throws Exception {
+        when(httpClient.get(anyString(), anyString(), anyString())).thenReturn(PRICES_JSON);
+
+        PriceSnapshot snapshot = priceFeedService.requestPriceSnapshot().get(10, TimeUnit.SECONDS);
+        assertNotNull(snapshot.getMarketPrice("EUR"));
+        assertEquals(clock.millis(), snapshot.getRequestTimestamp());
+
+        // Within the request period the snapshot is served from the cache
+        clock.advance(TimeUnit.SECONDS.toMillis(PriceFeedService.PERIOD_SEC));
+        assertSame(snapshot, priceFeedService.getPriceSnapshot());
+        assertSame(snapshot, priceFeedService.requestPriceSnapshot().get(10, TimeUnit.SECONDS));
+        verify(httpClient, times(1)).get(anyString(), anyString(), anyString());
+
+        // After the request period a refresh is requested
+        clock.advance(1);
+        assertSame(snapshot, priceFeedService.getPriceSnapshot());
+        awaitPriceSnapshotRequest();
+        verify(httpClient, times(2)).get(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void testPricesOfTradeStatisticsDoNotTriggerRequests() throws Exception {
+        when(httpClient.get(anyString(), anyString(), anyString())).thenThrow(new IOException("Price node not reachable"));
+        priceFeedService.applyLatestBisqMarketPrice(Set.of(
+                new TradeStatistics3("EUR", 10000, 100000, "SEPA", clock.millis(), null, null)));
+
+        // We have prices but never got a response of the price node, so we request once
+        PriceSnapshot snapshot = priceFeedService.getPriceSnapshot();
+        assertFalse(snapshot.isEmpty());
+        assertEquals(0, snapshot.getRequestTimestamp());
+        awaitPriceSnapshotRequest();
+        verify(httpClient, times(1)).get(anyString(), anyString(), anyString());
+
+        // The request failed, we do not request again within the request period
+        clock.advance(TimeUnit.SECONDS.toMillis(PriceFeedService.PERIOD_SEC));
+        for (int i = 0; i < 10; i++) {
+            assertSame(snapshot, priceFeedService.getPriceSnapshot());
+        }
+        assertSame(snapshot, priceFeedService.requestPriceSnapshot().get(10, TimeUnit.SECONDS));
+        verify(httpClient, times(1)).get(anyString(), anyString(), anyString());
+
+        clock.advance(1);
+        priceFeedService.getPriceSnapshot();
+        awaitPriceSnapshotRequest();
+        verify(httpClient, times(2)).get(anyString(), anyString(), anyString());
+    }
+
+    // Waits for the pending request to the price node if there is one
+    private void awaitPriceSnapshotRequest() throws Exception {
+        try {
+            priceFeedService.requestPriceSnapshot().get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException ignore) {
+            // Expected if the price node is not reachable
+        }
+    }
+
+    private static class TestClock extends Clock {
+        private long millis = System.currentTimeMillis();
+
+        void advance(long millis) {
+            this.millis += millis;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
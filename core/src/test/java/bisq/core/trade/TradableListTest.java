@@ -24,8 +24,10 @@ import bisq.core.offer.OpenOffer;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static protobuf.PersistableEnvelope.MessageCase.TRADABLE_LIST;
 
 public class TradableListTest {
@@ -45,4 +47,29 @@ public class TradableListTest {
         assertEquals(message.getMessageCase(), TRADABLE_LIST);
         assertEquals(1, message.getTradableList().getTradableList().size());
     }
+
+    @Test
+    public void testGetTradableById() {
+        TradableList<OpenOffer> openOfferTradableList = new TradableList<>();
+        OpenOffer first = createOpenOffer("id");
+        OpenOffer second = createOpenOffer("id");
+        openOfferTradableList.add(first);
+        openOfferTradableList.add(second);
+        openOfferTradableList.add(createOpenOffer("other"));
+        assertEquals(first, openOfferTradableList.getTradableById("id").orElseThrow());
+
+        // If the indexed tradable gets removed the next one with the same id is found.
+        openOfferTradableList.remove(first);
+        assertEquals(second, openOfferTradableList.getTradableById("id").orElseThrow());
+
+        openOfferTradableList.remove(second);
+        assertFalse(openOfferTradableList.getTradableById("id").isPresent());
+        assertEquals("other", openOfferTradableList.getTradableById("other").orElseThrow().getId());
+    }
+
+    private static OpenOffer createOpenOffer(String id) {
+        OfferPayload offerPayload = mock(OfferPayload.class, RETURNS_DEEP_STUBS);
+        when(offerPayload.getId()).thenReturn(id);
+        return new OpenOffer(new Offer(offerPayload), 0, "", "", "");
+    }
 }
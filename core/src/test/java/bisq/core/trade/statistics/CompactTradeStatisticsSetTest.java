@@ -0,0 +1,82 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import javafx.collections.SetChangeListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompactTradeStatisticsSetTest {
+
+    @Test
+    public void testAddAndMaterialize() {
+        CompactTradeStatisticsSet set = new CompactTradeStatisticsSet();
+        List<TradeStatistics3> added = new ArrayList<>();
+        set.addListener((SetChangeListener<TradeStatistics3>) change -> added.add(change.getElementAdded()));
+
+        List<TradeStatistics3> tradeStatistics = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            tradeStatistics.add(new TradeStatistics3(i % 2 == 0 ? "USD" : "EUR",
+                    1000 + i,
+                    10000 + i,
+                    i % 3 == 0 ? "SEPA" : "UNKNOWN_METHOD",
+                    1600000000000L + i,
+                    i % 5 == 0 ? null : "abcd",
+                    i % 7 == 0 ? Map.of("key", "value") : null));
+        }
+        tradeStatistics.forEach(set::add);
+
+        assertEquals(3000, set.size());
+        assertEquals(3000, added.size());
+        for (int i = 0; i < tradeStatistics.size(); i++) {
+            TradeStatistics3 expected = tradeStatistics.get(i);
+            TradeStatistics3 actual = set.get(i);
+            assertEquals(expected, actual);
+            assertEquals(expected.getPaymentMethod(), actual.getPaymentMethod());
+            assertEquals(expected.getArbitrator(), actual.getArbitrator());
+            assertEquals(expected.getExtraDataMap(), actual.getExtraDataMap());
+            assertEquals(expected.getCurrency(), set.getCurrency(i));
+            assertEquals(expected.getDateAsLong(), set.getDate(i));
+            assertEquals(expected.getTradeVolume().getValue(), set.getVolume(i));
+            assertTrue(set.contains(expected));
+        }
+
+        // Duplicates are ignored.
+        assertFalse(set.add(tradeStatistics.get(42)));
+        assertEquals(3000, set.size());
+        assertEquals(tradeStatistics, new ArrayList<>(set));
+    }
+
+    @Test
+    public void testIrregularHash() {
+        CompactTradeStatisticsSet set = new CompactTradeStatisticsSet();
+        TradeStatistics3 tradeStatistics = new TradeStatistics3("USD", 1, 1, "SEPA", 1, null, null, new byte[]{1, 2, 3});
+        set.add(tradeStatistics);
+        assertEquals(tradeStatistics, set.get(0));
+        assertEquals(0, set.indexOf(new byte[]{1, 2, 3}));
+        assertEquals(-1, set.indexOf(new byte[20]));
+    }
+}
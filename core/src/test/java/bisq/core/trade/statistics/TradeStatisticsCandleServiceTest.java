@@ -0,0 +1,130 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.core.monetary.Price;
+
+import org.bitcoinj.core.Coin;
+
+import java.time.ZoneOffset;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TradeStatisticsCandleServiceTest {
+    private static final long DAY_0 = 1609459200000L; // 2021-01-01T00:00:00Z
+    private static final long DAY_1 = DAY_0 + TimeUnit.DAYS.toMillis(1);
+    private static final long DAY_2 = DAY_0 + TimeUnit.DAYS.toMillis(2);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private CompactTradeStatisticsSet tradeStatisticsSet;
+    private TradeStatisticsCandleService candleService;
+
+    @Before
+    public void setUp() {
+        tradeStatisticsSet = new CompactTradeStatisticsSet();
+        // Trade statistics existing before the service is created are added as well
+        addTradeStatistics("EUR", "500", "1", DAY_0 + HOUR);
+        addTradeStatistics("EUR", "600", "1", DAY_0 + 2 * HOUR);
+        candleService = new TradeStatisticsCandleService(tradeStatisticsSet, ZoneOffset.UTC);
+        addTradeStatistics("EUR", "400", "1", DAY_0 + 3 * HOUR);
+        addTradeStatistics("USD", "100", "2", DAY_0 + 5 * HOUR);
+        addTradeStatistics("EUR", "550", "1", DAY_1 + HOUR);
+    }
+
+    @Test
+    public void testCandles() {
+        List<TradeStatisticsCandle> candles = candleService.getCandles("EUR", TickUnit.DAY, DAY_0, DAY_2);
+        assertEquals(2, candles.size());
+
+        TradeStatisticsCandle candle = candles.get(0);
+        assertEquals(DAY_0, candle.getTickStart());
+        assertEquals(DAY_1, candle.getTickEnd());
+        assertEquals(getPrice("EUR", "500"), candle.getOpen());
+        assertEquals(getPrice("EUR", "400"), candle.getClose());
+        assertEquals(getPrice("EUR", "600"), candle.getHigh());
+        assertEquals(getPrice("EUR", "400"), candle.getLow());
+        assertEquals(getPrice("EUR", "500"), candle.getAveragePrice());
+        assertEquals(getPrice("EUR", "500"), candle.getMedianPrice());
+        assertEquals(Coin.parseCoin("3").value, candle.getAccumulatedAmount());
+        assertEquals(3, candle.getNumTrades());
+        assertFalse(candle.isBullish());
+        assertEquals(300, candle.getVolumeInUsd());
+
+        // Without a USD trade in the tick the USD price of the previous tick is used
+        assertEquals(100, candles.get(1).getVolumeInUsd());
+
+        assertEquals(3, candleService.getCandles("eur", TickUnit.HOUR, DAY_0, DAY_1).size());
+        assertEquals(4, candleService.getCandles(null, TickUnit.DAY, DAY_0, DAY_1).get(0).getNumTrades());
+    }
+
+    @Test
+    public void testRange() {
+        List<TradeStatisticsCandle> candles = candleService.getCandles("EUR", TickUnit.DAY, DAY_1 + HOUR / 2, DAY_2);
+        assertEquals(1, candles.size());
+        assertEquals(DAY_1, candles.get(0).getTickStart());
+
+        assertEquals(1, candleService.getCandles("EUR", TickUnit.DAY, DAY_0, DAY_1).size());
+        assertEquals(1, candleService.getCandles("EUR", TickUnit.MONTH, DAY_0, DAY_2).size());
+        assertTrue(candleService.getCandles("EUR", TickUnit.DAY, DAY_2, DAY_2 + HOUR).isEmpty());
+        assertTrue(candleService.getCandles("JPY", TickUnit.DAY, DAY_0, DAY_2).isEmpty());
+    }
+
+    @Test
+    public void testIncrementalUpdate() {
+        TradeStatisticsCandle candle = candleService.getCandles("EUR", TickUnit.DAY, DAY_1, DAY_2).get(0);
+        assertEquals(1, candle.getNumTrades());
+
+        addTradeStatistics("EUR", "700", "1", DAY_1 + 2 * HOUR);
+        candle = candleService.getCandles("EUR", TickUnit.DAY, DAY_1, DAY_2).get(0);
+        assertEquals(2, candle.getNumTrades());
+        assertEquals(getPrice("EUR", "550"), candle.getOpen());
+        assertEquals(getPrice("EUR", "700"), candle.getClose());
+        assertEquals(getPrice("EUR", "700"), candle.getHigh());
+        assertEquals(getPrice("EUR", "625"), candle.getMedianPrice());
+        assertTrue(candle.isBullish());
+
+        // Trade statistics arriving late only change the open if they are older
+        addTradeStatistics("EUR", "450", "1", DAY_1 + HOUR / 2);
+        candle = candleService.getCandles("EUR", TickUnit.DAY, DAY_1, DAY_2).get(0);
+        assertEquals(getPrice("EUR", "450"), candle.getOpen());
+        assertEquals(getPrice("EUR", "450"), candle.getLow());
+        assertEquals(getPrice("EUR", "700"), candle.getClose());
+    }
+
+    private void addTradeStatistics(String currencyCode, String price, String amount, long date) {
+        tradeStatisticsSet.add(new TradeStatistics3(currencyCode,
+                getPrice(currencyCode, price),
+                Coin.parseCoin(amount).value,
+                "SEPA",
+                date,
+                null,
+                null));
+    }
+
+    private static long getPrice(String currencyCode, String price) {
+        return Price.parse(currencyCode, price).getValue();
+    }
+}
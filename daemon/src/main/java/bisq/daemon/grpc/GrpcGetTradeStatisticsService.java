@@ -1,12 +1,20 @@
 package bisq.daemon.grpc;
 
 import bisq.core.api.CoreApi;
+import bisq.core.api.model.TradeStatisticsCandleInfo;
+import bisq.core.api.model.TradeStatisticsPage;
+import bisq.core.trade.statistics.TickUnit;
 import bisq.core.trade.statistics.TradeStatistics3;
 
+import bisq.proto.grpc.GetTradeStatisticsCandlesReply;
+import bisq.proto.grpc.GetTradeStatisticsCandlesRequest;
 import bisq.proto.grpc.GetTradeStatisticsReply;
 import bisq.proto.grpc.GetTradeStatisticsRequest;
+import bisq.proto.grpc.QueryTradeStatisticsReply;
+import bisq.proto.grpc.QueryTradeStatisticsRequest;
 
 import io.grpc.ServerInterceptor;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 
 import javax.inject.Inject;
@@ -19,7 +27,10 @@ import lombok.extern.slf4j.Slf4j;
 
 import static bisq.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCustomRateMeteringInterceptor;
 import static bisq.proto.grpc.GetTradeStatisticsGrpc.GetTradeStatisticsImplBase;
+import static bisq.proto.grpc.GetTradeStatisticsGrpc.getGetTradeStatisticsCandlesMethod;
 import static bisq.proto.grpc.GetTradeStatisticsGrpc.getGetTradeStatisticsMethod;
+import static bisq.proto.grpc.GetTradeStatisticsGrpc.getQueryTradeStatisticsMethod;
+import static bisq.proto.grpc.GetTradeStatisticsGrpc.getStreamTradeStatisticsMethod;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 
@@ -55,6 +66,93 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsImplBase {
         }
     }
 
+    @Override
+    public void getTradeStatisticsCandles(GetTradeStatisticsCandlesRequest req,
+                                          StreamObserver<GetTradeStatisticsCandlesReply> responseObserver) {
+        try {
+            TickUnit tickUnit = TickUnit.valueOf(req.getTickUnit().toUpperCase());
+            long toDate = req.getToDate() == 0 ? System.currentTimeMillis() : req.getToDate();
+            var candles = coreApi.getTradeStatisticsCandles(req.getCurrencyCode().isEmpty() ? null : req.getCurrencyCode(),
+                    tickUnit,
+                    req.getFromDate(),
+                    toDate).stream()
+                    .map(TradeStatisticsCandleInfo::toTradeStatisticsCandleInfo)
+                    .map(TradeStatisticsCandleInfo::toProtoMessage)
+                    .collect(Collectors.toList());
+
+            var reply = GetTradeStatisticsCandlesReply.newBuilder().addAllCandles(candles).build();
+            responseObserver.onNext(reply);
+            responseObserver.onCompleted();
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    @Override
+    public void queryTradeStatistics(QueryTradeStatisticsRequest req,
+                                     StreamObserver<QueryTradeStatisticsReply> responseObserver) {
+        try {
+            responseObserver.onNext(toQueryTradeStatisticsReply(getTradeStatisticsPage(req, req.getCursor())));
+            responseObserver.onCompleted();
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    // The pages are sent from the onReady handler, so we only query the next page when the client has read the
+    // previous ones. gRPC calls the handler again when the stream gets ready after it was not.
+    @Override
+    public void streamTradeStatistics(QueryTradeStatisticsRequest req,
+                                      StreamObserver<QueryTradeStatisticsReply> responseObserver) {
+        try {
+            var serverCallStreamObserver = (ServerCallStreamObserver<QueryTradeStatisticsReply>) responseObserver;
+            serverCallStreamObserver.setOnReadyHandler(new Runnable() {
+                private String cursor = req.getCursor();
+                private boolean done;
+
+                @Override
+                public void run() {
+                    try {
+                        while (!done && serverCallStreamObserver.isReady() && !serverCallStreamObserver.isCancelled()) {
+                            TradeStatisticsPage page = getTradeStatisticsPage(req, cursor);
+                            responseObserver.onNext(toQueryTradeStatisticsReply(page));
+                            if (page.getNextCursor() == null) {
+                                done = true;
+                                responseObserver.onCompleted();
+                            } else {
+                                cursor = page.getNextCursor();
+                            }
+                        }
+                    } catch (Throwable cause) {
+                        done = true;
+                        exceptionHandler.handleException(log, cause, responseObserver);
+                    }
+                }
+            });
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    private TradeStatisticsPage getTradeStatisticsPage(QueryTradeStatisticsRequest req, String cursor) {
+        long toDate = req.getToDate() == 0 ? System.currentTimeMillis() : req.getToDate();
+        return coreApi.getTradeStatistics(req.getCurrencyCode().isEmpty() ? null : req.getCurrencyCode(),
+                req.getPaymentMethodId().isEmpty() ? null : req.getPaymentMethodId(),
+                req.getFromDate(),
+                toDate,
+                cursor.isEmpty() ? null : cursor,
+                req.getLimit());
+    }
+
+    private static QueryTradeStatisticsReply toQueryTradeStatisticsReply(TradeStatisticsPage page) {
+        return QueryTradeStatisticsReply.newBuilder()
+                .addAllTradeStatistics(page.getTradeStatistics().stream()
+                        .map(TradeStatistics3::toProtoTradeStatistics3)
+                        .collect(Collectors.toList()))
+                .setNextCursor(page.getNextCursor() == null ? "" : page.getNextCursor())
+                .build();
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -66,6 +164,9 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsImplBase {
                 .or(() -> Optional.of(CallRateMeteringInterceptor.valueOf(
                         new HashMap<>() {{
                             put(getGetTradeStatisticsMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
+                            put(getGetTradeStatisticsCandlesMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
+                            put(getQueryTradeStatisticsMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
+                            put(getStreamTradeStatisticsMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
                         }}
                 )));
     }
@@ -18,6 +18,7 @@
 package bisq.daemon.grpc;
 
 import bisq.core.api.CoreApi;
+import bisq.core.api.CoreApi.SubscriptionListener;
 import bisq.core.api.model.OfferInfo;
 import bisq.core.offer.Offer;
 import bisq.core.offer.OpenOffer;
@@ -34,6 +35,8 @@ import bisq.proto.grpc.GetOfferReply;
 import bisq.proto.grpc.GetOfferRequest;
 import bisq.proto.grpc.GetOffersReply;
 import bisq.proto.grpc.GetOffersRequest;
+import bisq.proto.grpc.OfferUpdate;
+import bisq.proto.grpc.SubscribeOffersRequest;
 
 import io.grpc.ServerInterceptor;
 import io.grpc.stub.StreamObserver;
@@ -181,6 +184,40 @@ class GrpcOffersService extends OffersImplBase {
         }
     }
 
+    @Override
+    public void subscribeOffers(SubscribeOffersRequest req,
+                                StreamObserver<OfferUpdate> responseObserver) {
+        try {
+            SubscriptionListener<OfferUpdate> listener = new GrpcSubscriptionListener<>(responseObserver,
+                    coreApi::removeOfferListener,
+                    update -> filterOfferUpdate(update, req.getDirection(), req.getCurrencyCode()));
+            coreApi.addOfferListener(req.getResumeToken(), listener);
+            // No onNext / onCompleted, as the response observer should be kept open
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    // Returns null if a delta does not contain offers of the subscribed market. Snapshots are always sent.
+    private static OfferUpdate filterOfferUpdate(OfferUpdate update, String direction, String currencyCode) {
+        if (direction.isEmpty() && currencyCode.isEmpty()) {
+            return update;
+        }
+        List<bisq.proto.grpc.OfferInfo> offers = update.getOffersList().stream()
+                .filter(o -> direction.isEmpty() || o.getDirection().equalsIgnoreCase(direction))
+                .filter(o -> currencyCode.isEmpty() ||
+                        o.getBaseCurrencyCode().equalsIgnoreCase(currencyCode) ||
+                        o.getCounterCurrencyCode().equalsIgnoreCase(currencyCode))
+                .collect(Collectors.toList());
+        if (offers.size() == update.getOffersCount()) {
+            return update;
+        }
+        if (offers.isEmpty() && update.getType() != OfferUpdate.UpdateType.SNAPSHOT) {
+            return null;
+        }
+        return update.toBuilder().clearOffers().addAllOffers(offers).build();
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -197,6 +234,7 @@ class GrpcOffersService extends OffersImplBase {
                             put(getGetMyOffersMethod().getFullMethodName(), new GrpcCallRateMeter(20, SECONDS));
                             put(getCreateOfferMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                             put(getCancelOfferMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
+                            put(getSubscribeOffersMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                         }}
                 )));
     }
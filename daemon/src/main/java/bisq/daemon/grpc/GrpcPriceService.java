@@ -18,6 +18,7 @@
 package bisq.daemon.grpc;
 
 import bisq.core.api.CoreApi;
+import bisq.core.api.CoreApi.SubscriptionListener;
 import bisq.core.api.model.MarketDepthInfo;
 import bisq.core.api.model.MarketPriceInfo;
 import bisq.proto.grpc.MarketDepthReply;
@@ -26,6 +27,8 @@ import bisq.proto.grpc.MarketPriceReply;
 import bisq.proto.grpc.MarketPriceRequest;
 import bisq.proto.grpc.MarketPricesReply;
 import bisq.proto.grpc.MarketPricesRequest;
+import bisq.proto.grpc.MarketPricesUpdate;
+import bisq.proto.grpc.SubscribeMarketPricesRequest;
 
 import io.grpc.ServerInterceptor;
 import io.grpc.stub.StreamObserver;
@@ -41,6 +44,7 @@ import lombok.extern.slf4j.Slf4j;
 import static bisq.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCustomRateMeteringInterceptor;
 import static bisq.proto.grpc.PriceGrpc.PriceImplBase;
 import static bisq.proto.grpc.PriceGrpc.getGetMarketPriceMethod;
+import static bisq.proto.grpc.PriceGrpc.getSubscribeMarketPricesMethod;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 
@@ -106,6 +110,19 @@ class GrpcPriceService extends PriceImplBase {
         return MarketDepthReply.newBuilder().setMarketDepth(marketDepth.toProtoMessage()).build();
     }
 
+    @Override
+    public void subscribeMarketPrices(SubscribeMarketPricesRequest req,
+                                      StreamObserver<MarketPricesUpdate> responseObserver) {
+        try {
+            SubscriptionListener<MarketPricesUpdate> listener = new GrpcSubscriptionListener<>(responseObserver,
+                    coreApi::removeMarketPricesListener);
+            coreApi.addMarketPricesListener(req.getResumeToken(), listener);
+            // No onNext / onCompleted, as the response observer should be kept open
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -117,6 +134,7 @@ class GrpcPriceService extends PriceImplBase {
                 .or(() -> Optional.of(CallRateMeteringInterceptor.valueOf(
                         new HashMap<>() {{
                             put(getGetMarketPriceMethod().getFullMethodName(), new GrpcCallRateMeter(20, SECONDS));
+                            put(getSubscribeMarketPricesMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                         }}
                 )));
     }
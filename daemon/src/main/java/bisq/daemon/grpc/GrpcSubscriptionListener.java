@@ -0,0 +1,96 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc;
+
+import bisq.core.api.CoreApi.SubscriptionListener;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends the updates of a subscription to the response stream of a gRPC call.
+ *
+ * gRPC buffers the messages which the client does not read in time without limit. If more than MAX_PENDING_UPDATES
+ * updates are sent while the stream is not ready, the subscription of the slow client is closed with
+ * RESOURCE_EXHAUSTED. The client can resubscribe with the resume token of the last update it received.
+ *
+ * A unique instance should be used for a single gRPC call, created inside the call handler.
+ */
+@Slf4j
+class GrpcSubscriptionListener<T> implements SubscriptionListener<T> {
+    static final int MAX_PENDING_UPDATES = 100;
+
+    private final ServerCallStreamObserver<T> responseObserver;
+    private final Function<T, T> filter;
+    private int numPendingUpdates;
+    private boolean closed;
+
+    GrpcSubscriptionListener(StreamObserver<T> responseObserver, Consumer<SubscriptionListener<T>> removeHandler) {
+        this(responseObserver, removeHandler, update -> update);
+    }
+
+    /**
+     * @param responseObserver  The response stream of the gRPC call.
+     * @param removeHandler     Removes this listener from the core api if the client cancels the call.
+     * @param filter            Returns the update to send, or null if the update is not sent to this client.
+     */
+    GrpcSubscriptionListener(StreamObserver<T> responseObserver,
+                             Consumer<SubscriptionListener<T>> removeHandler,
+                             Function<T, T> filter) {
+        this.responseObserver = (ServerCallStreamObserver<T>) responseObserver;
+        this.filter = filter;
+        this.responseObserver.setOnCancelHandler(() -> removeHandler.accept(this));
+        this.responseObserver.setOnReadyHandler(this::onReady);
+    }
+
+    // The core api removes a listener which throws, so we throw if the subscription is closed.
+    @Override
+    public synchronized void onUpdate(@NonNull T update) {
+        if (closed) {
+            throw new IllegalStateException("Subscription is closed");
+        }
+        T filteredUpdate = filter.apply(update);
+        if (filteredUpdate == null) {
+            return;
+        }
+        if (!responseObserver.isReady() && ++numPendingUpdates > MAX_PENDING_UPDATES) {
+            closed = true;
+            log.warn("Client does not read the updates of its subscription in time. We close the subscription.");
+            try {
+                responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                        .withDescription("too many pending updates, resubscribe with the last resume token")
+                        .asRuntimeException());
+            } catch (RuntimeException e) {
+                log.debug("Could not close the subscription: {}", e.getMessage());
+            }
+            throw new IllegalStateException("Subscription got closed as client is too slow");
+        }
+        responseObserver.onNext(filteredUpdate);
+    }
+
+    private synchronized void onReady() {
+        numPendingUpdates = 0;
+    }
+}
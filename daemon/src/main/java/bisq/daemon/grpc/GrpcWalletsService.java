@@ -18,9 +18,11 @@
 package bisq.daemon.grpc;
 
 import bisq.core.api.CoreApi;
+import bisq.core.api.CoreApi.SubscriptionListener;
 import bisq.core.api.model.AddressBalanceInfo;
 import bisq.core.api.model.TxFeeRateInfo;
 
+import bisq.proto.grpc.BalancesUpdate;
 import bisq.proto.grpc.GetAddressBalanceReply;
 import bisq.proto.grpc.GetAddressBalanceRequest;
 import bisq.proto.grpc.GetBalancesReply;
@@ -49,6 +51,7 @@ import bisq.proto.grpc.SetTxFeeRatePreferenceReply;
 import bisq.proto.grpc.SetTxFeeRatePreferenceRequest;
 import bisq.proto.grpc.SetWalletPasswordReply;
 import bisq.proto.grpc.SetWalletPasswordRequest;
+import bisq.proto.grpc.SubscribeBalancesRequest;
 import bisq.proto.grpc.UnlockWalletReply;
 import bisq.proto.grpc.UnlockWalletRequest;
 import bisq.proto.grpc.UnsetTxFeeRatePreferenceReply;
@@ -370,6 +373,19 @@ class GrpcWalletsService extends WalletsImplBase {
         }
     }
 
+    @Override
+    public void subscribeBalances(SubscribeBalancesRequest req,
+                                  StreamObserver<BalancesUpdate> responseObserver) {
+        try {
+            SubscriptionListener<BalancesUpdate> listener = new GrpcSubscriptionListener<>(responseObserver,
+                    coreApi::removeBalancesListener);
+            coreApi.addBalancesListener(req.getResumeToken(), listener);
+            // No onNext / onCompleted, as the response observer should be kept open
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -381,6 +397,7 @@ class GrpcWalletsService extends WalletsImplBase {
                 .or(() -> Optional.of(CallRateMeteringInterceptor.valueOf(
                         new HashMap<>() {{
                             put(getGetBalancesMethod().getFullMethodName(), new GrpcCallRateMeter(20, SECONDS));
+                            put(getSubscribeBalancesMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                             put(getGetAddressBalanceMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
                             put(getGetFundingAddressesMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
                             put(getSendBtcMethod().getFullMethodName(), new GrpcCallRateMeter(1, MINUTES));
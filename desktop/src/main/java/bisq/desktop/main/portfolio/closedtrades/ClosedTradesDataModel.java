@@ -46,6 +46,7 @@ import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -59,6 +60,9 @@ class ClosedTradesDataModel extends ActivatableDataModel {
     private final PriceFeedService priceFeedService;
     private final ObservableList<ClosedTradableListItem> list = FXCollections.observableArrayList();
     private final ListChangeListener<Tradable> tradesListChangeListener;
+    // Archived closed tradables are only held in memory while the view is active.
+    private List<Tradable> archivedTradables = List.of();
+    private boolean activated;
 
     @Inject
     public ClosedTradesDataModel(ClosedTradableManager closedTradableManager,
@@ -75,13 +79,22 @@ class ClosedTradesDataModel extends ActivatableDataModel {
 
     @Override
     protected void activate() {
+        activated = true;
         applyList();
         closedTradableManager.getObservableList().addListener(tradesListChangeListener);
+        closedTradableManager.readArchived(archived -> {
+            if (activated) {
+                archivedTradables = archived;
+                applyList();
+            }
+        });
     }
 
     @Override
     protected void deactivate() {
+        activated = false;
         closedTradableManager.getObservableList().removeListener(tradesListChangeListener);
+        archivedTradables = List.of();
     }
 
     public ObservableList<ClosedTradableListItem> getList() {
@@ -96,6 +109,7 @@ class ClosedTradesDataModel extends ActivatableDataModel {
         list.clear();
 
         list.addAll(closedTradableManager.getObservableList().stream().map(ClosedTradableListItem::new).collect(Collectors.toList()));
+        list.addAll(archivedTradables.stream().map(ClosedTradableListItem::new).collect(Collectors.toList()));
 
         // we sort by date, earliest first
         list.sort((o1, o2) -> o2.getTradable().getDate().compareTo(o1.getTradable().getDate()));
@@ -449,7 +449,7 @@ public class PendingTradesView extends ActivatableViewAndModel<VBox, PendingTrad
         }
 
         trade.getChatMessages().forEach(m -> m.setWasDisplayed(true));
-        model.dataModel.getTradeManager().requestPersistence();
+        model.dataModel.getTradeManager().requestPersistence(trade);
         tradeIdOfOpenChat = trade.getId();
 
         ChatView chatView = new ChatView(traderChatManager, formatter, Res.get("offerbook.trader"));
@@ -508,7 +508,7 @@ public class PendingTradesView extends ActivatableViewAndModel<VBox, PendingTrad
             chatView.deactivate();
             // at close we set all as displayed. While open we ignore updates of the numNewMsg in the list icon.
             trade.getChatMessages().forEach(m -> m.setWasDisplayed(true));
-            model.dataModel.getTradeManager().requestPersistence();
+            model.dataModel.getTradeManager().requestPersistence(trade);
             tradeIdOfOpenChat = null;
 
             if (xPositionListener != null) {
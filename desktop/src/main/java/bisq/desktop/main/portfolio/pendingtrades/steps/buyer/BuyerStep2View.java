@@ -475,7 +475,7 @@ public class BuyerStep2View extends TradeStepView {
                         trade.setCounterCurrencyExtraData(txKey);
                         trade.setCounterCurrencyTxId(txHash);
 
-                        model.dataModel.getTradeManager().requestPersistence();
+                        model.dataModel.getTradeManager().requestPersistence(trade);
                         showConfirmPaymentStartedPopup();
                     })
                     .closeButtonText(Res.get("shared.cancel"))
@@ -523,7 +523,7 @@ public class BuyerStep2View extends TradeStepView {
         //TODO seems this was a hack to enable repeated confirm???
         if (trade.isFiatSent()) {
             trade.setState(Trade.State.DEPOSIT_CONFIRMED_IN_BLOCK_CHAIN);
-            model.dataModel.getTradeManager().requestPersistence();
+            model.dataModel.getTradeManager().requestPersistence(trade);
         }
 
         model.dataModel.onPaymentStarted(() -> {
@@ -25,7 +25,11 @@ import bisq.core.monetary.Price;
 import bisq.core.offer.OfferPayload;
 import bisq.core.payment.payload.PaymentMethod;
 import bisq.core.provider.price.PriceFeedService;
+import bisq.core.trade.statistics.CompactTradeStatisticsSet;
+import bisq.core.trade.statistics.TickUnit;
 import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.trade.statistics.TradeStatisticsCandle;
+import bisq.core.trade.statistics.TradeStatisticsCandleService;
 import bisq.core.trade.statistics.TradeStatisticsManager;
 import bisq.core.user.Preferences;
 
@@ -53,10 +57,12 @@ import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class TradesChartsViewModelTest {
     TradesChartsViewModel model;
     TradeStatisticsManager tradeStatisticsManager;
+    CompactTradeStatisticsSet tradeStatisticsSet;
 
     DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
     private File dir;
@@ -103,8 +109,10 @@ public class TradesChartsViewModelTest {
     @Before
     public void setup() throws IOException {
         tradeStatisticsManager = mock(TradeStatisticsManager.class);
-        model = new TradesChartsViewModel(tradeStatisticsManager, mock(Preferences.class), mock(PriceFeedService.class),
-                mock(Navigation.class));
+        tradeStatisticsSet = new CompactTradeStatisticsSet();
+        when(tradeStatisticsManager.getCompactTradeStatisticsSet()).thenReturn(tradeStatisticsSet);
+        model = new TradesChartsViewModel(tradeStatisticsManager, new TradeStatisticsCandleService(tradeStatisticsManager),
+                mock(Preferences.class), mock(PriceFeedService.class), mock(Navigation.class));
         dir = File.createTempFile("temp_tests1", "");
         //noinspection ResultOfMethodCallIgnored
         dir.delete();
@@ -127,7 +135,7 @@ public class TradesChartsViewModelTest {
         long volume = Fiat.parseFiat("EUR", "2200").value;
         boolean isBullish = true;
 
-        Set<TradeStatistics3> set = new HashSet<>();
+        Set<TradeStatistics3> set = tradeStatisticsSet;
         final Date now = new Date();
 
         set.add(new TradeStatistics3(offer.getCurrencyCode(),
@@ -163,7 +171,9 @@ public class TradesChartsViewModelTest {
                 null,
                 null));
 
-        CandleData candleData = model.getCandleData(model.roundToTick(now, TradesChartsViewModel.TickUnit.DAY).getTime(), set, 0);
+        TradeStatisticsCandle candle = new TradeStatisticsCandleService(tradeStatisticsManager)
+                .getCandles("EUR", TickUnit.DAY, now.getTime(), Long.MAX_VALUE).get(0);
+        CandleData candleData = model.getCandleData(model.roundToTick(now, TickUnit.DAY).getTime(), candle);
         assertEquals(open, candleData.open);
         assertEquals(close, candleData.close);
         assertEquals(high, candleData.high);
@@ -228,7 +238,7 @@ public class TradesChartsViewModelTest {
         ObservableSet<TradeStatistics3> tradeStats = FXCollections.observableSet(set);
 
         // Run test for each tick type
-        for (TradesChartsViewModel.TickUnit tick : TradesChartsViewModel.TickUnit.values()) {
+        for (TickUnit tick : TickUnit.values()) {
 /*            new Expectations() {{
                 tradeStatisticsManager.getObservableTradeStatisticsSet();
                 result = tradeStats;
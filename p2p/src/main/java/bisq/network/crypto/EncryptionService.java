@@ -18,6 +18,8 @@
 package bisq.network.crypto;
 
 import bisq.network.p2p.DecryptedMessageWithPubKey;
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.PrefixedSealedAndSignedMessage;
 
 import bisq.common.crypto.CryptoException;
 import bisq.common.crypto.Encryption;
@@ -39,6 +41,9 @@ import javax.crypto.SecretKey;
 import java.security.KeyPair;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.security.SecureRandom;
+
+import java.util.Arrays;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -46,6 +51,13 @@ import static bisq.common.crypto.Encryption.decryptSecretKey;
 
 @Slf4j
 public class EncryptionService {
+    // The recipient hint is kept short on purpose. Anyone knowing the pub key of a user can compute the hint for a
+    // message, so a long hint would reveal the receiver of each mailbox message. With 1 byte a message matches about
+    // 1 of 256 keys, which still lets uninvolved nodes skip about 99.6% of the decryption attempts.
+    private static final int RECIPIENT_HINT_LENGTH = 1;
+    private static final int RECIPIENT_HINT_NONCE_LENGTH = 16;
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
     private final KeyRing keyRing;
     private final NetworkProtoResolver networkProtoResolver;
 
@@ -92,6 +104,44 @@ public class EncryptionService {
                 decryptedDataTuple.getSigPublicKey());
     }
 
+    /**
+     * Creates a mailbox message for the receiver with a recipient hint, so other nodes can skip decrypting it.
+     */
+    public PrefixedSealedAndSignedMessage createPrefixedSealedAndSignedMessage(NodeAddress senderNodeAddress,
+                                                                              PubKeyRing receiversPubKeyRing,
+                                                                              NetworkEnvelope networkEnvelope)
+            throws CryptoException {
+        SealedAndSigned sealedAndSigned = encryptAndSign(receiversPubKeyRing, networkEnvelope);
+        byte[] nonce = new byte[RECIPIENT_HINT_NONCE_LENGTH];
+        SECURE_RANDOM.nextBytes(nonce);
+        byte[] recipientHint = getRecipientHint(nonce, receiversPubKeyRing.getEncryptionPubKey(), RECIPIENT_HINT_LENGTH);
+        return new PrefixedSealedAndSignedMessage(senderNodeAddress, sealedAndSigned, nonce, recipientHint);
+    }
+
+    /**
+     * @return False if the message is certainly not intended for us. True if it might be intended for us or if it
+     * has no recipient hint.
+     */
+    public boolean mightBeForMe(PrefixedSealedAndSignedMessage message) {
+        if (!message.hasRecipientHint()) {
+            return true;
+        }
+        byte[] recipientHint = message.getRecipientHint();
+        byte[] myRecipientHint = getRecipientHint(message.getRecipientHintNonce(),
+                keyRing.getPubKeyRing().getEncryptionPubKey(),
+                recipientHint.length);
+        return Arrays.equals(recipientHint, myRecipientHint);
+    }
+
+    static byte[] getRecipientHint(byte[] nonce, PublicKey encryptionPubKey, int length) {
+        byte[] encodedPubKey = encryptionPubKey.getEncoded();
+        byte[] data = new byte[nonce.length + encodedPubKey.length];
+        System.arraycopy(nonce, 0, data, 0, nonce.length);
+        System.arraycopy(encodedPubKey, 0, data, nonce.length, encodedPubKey.length);
+        byte[] hash = Hash.getSha256Hash(data);
+        return Arrays.copyOf(hash, Math.min(length, hash.length));
+    }
+
     private static byte[] encryptPayloadWithHmac(NetworkEnvelope networkEnvelope, SecretKey secretKey) throws CryptoException {
         return Encryption.encryptPayloadWithHmac(networkEnvelope.toProtoNetworkEnvelope().toByteArray(), secretKey);
     }
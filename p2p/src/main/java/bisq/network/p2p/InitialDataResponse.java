@@ -20,4 +20,9 @@ package bisq.network.p2p;
 // Marker interface for initial data response
 public interface InitialDataResponse {
     Class<? extends InitialDataRequest> associatedRequest();
+
+    // Responses might be delivered in multiple parts. Only the last part completes the request.
+    default boolean isLastPart() {
+        return true;
+    }
 }
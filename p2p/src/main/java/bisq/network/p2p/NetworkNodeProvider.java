@@ -46,6 +46,7 @@ public class NetworkNodeProvider implements Provider<NetworkNode> {
                                BridgeAddressProvider bridgeAddressProvider,
                                @Nullable NetworkFilter networkFilter,
                                @Named(Config.USE_LOCALHOST_FOR_P2P) boolean useLocalhostForP2P,
+                               @Named(Config.USE_NON_BLOCKING_IO) boolean useNonBlockingIo,
                                @Named(Config.NODE_PORT) int port,
                                @Named(Config.TOR_DIR) File torDir,
                                @Nullable @Named(Config.TORRC_FILE) File torrcFile,
@@ -56,7 +57,7 @@ public class NetworkNodeProvider implements Provider<NetworkNode> {
                                @Named(Config.TOR_STREAM_ISOLATION) boolean streamIsolation,
                                @Named(Config.TOR_CONTROL_USE_SAFE_COOKIE_AUTH) boolean useSafeCookieAuthentication) {
         if (useLocalhostForP2P) {
-            networkNode = new LocalhostNetworkNode(port, networkProtoResolver, networkFilter);
+            networkNode = new LocalhostNetworkNode(port, networkProtoResolver, networkFilter, useNonBlockingIo);
         } else {
             TorMode torMode = getTorMode(bridgeAddressProvider,
                     torDir,
@@ -74,6 +74,7 @@ public class P2PModule extends AppModule {
         requestStaticInjection(Connection.class);
 
         bindConstant().annotatedWith(named(USE_LOCALHOST_FOR_P2P)).to(config.useLocalhostForP2P);
+        bindConstant().annotatedWith(named(USE_NON_BLOCKING_IO)).to(config.useNonBlockingIo);
 
         bind(File.class).annotatedWith(named(TOR_DIR)).toInstance(config.torDir);
 
@@ -47,11 +47,26 @@ public final class PrefixedSealedAndSignedMessage extends NetworkEnvelope implem
 
     private final String uid;
 
+    // Short tag derived from the receivers encryption pub key and a random nonce (see
+    // EncryptionService.getRecipientHint). Allows nodes to skip the costly decryption of most mailbox messages not
+    // intended for them. Empty if not set, in which case the receiver has to try to decrypt the message.
+    private final byte[] recipientHintNonce;
+    private final byte[] recipientHint;
+
     public PrefixedSealedAndSignedMessage(NodeAddress senderNodeAddress, SealedAndSigned sealedAndSigned) {
+        this(senderNodeAddress, sealedAndSigned, new byte[0], new byte[0]);
+    }
+
+    public PrefixedSealedAndSignedMessage(NodeAddress senderNodeAddress,
+                                          SealedAndSigned sealedAndSigned,
+                                          byte[] recipientHintNonce,
+                                          byte[] recipientHint) {
         this(senderNodeAddress,
                 sealedAndSigned,
                 new byte[0],
                 UUID.randomUUID().toString(),
+                recipientHintNonce,
+                recipientHint,
                 Version.getP2PMessageVersion());
     }
 
@@ -64,12 +79,16 @@ public final class PrefixedSealedAndSignedMessage extends NetworkEnvelope implem
                                            SealedAndSigned sealedAndSigned,
                                            byte[] addressPrefixHash,
                                            String uid,
+                                           byte[] recipientHintNonce,
+                                           byte[] recipientHint,
                                            int messageVersion) {
         super(messageVersion);
         this.senderNodeAddress = checkNotNull(senderNodeAddress, "senderNodeAddress must not be null");
         this.sealedAndSigned = sealedAndSigned;
         this.addressPrefixHash = addressPrefixHash;
         this.uid = uid;
+        this.recipientHintNonce = recipientHintNonce;
+        this.recipientHint = recipientHint;
     }
 
     @Override
@@ -79,7 +98,9 @@ public final class PrefixedSealedAndSignedMessage extends NetworkEnvelope implem
                         .setNodeAddress(senderNodeAddress.toProtoMessage())
                         .setSealedAndSigned(sealedAndSigned.toProtoMessage())
                         .setAddressPrefixHash(ByteString.copyFrom(addressPrefixHash))
-                        .setUid(uid))
+                        .setUid(uid)
+                        .setRecipientHintNonce(ByteString.copyFrom(recipientHintNonce))
+                        .setRecipientHint(ByteString.copyFrom(recipientHint)))
                 .build();
     }
 
@@ -89,6 +110,8 @@ public final class PrefixedSealedAndSignedMessage extends NetworkEnvelope implem
                 SealedAndSigned.fromProto(proto.getSealedAndSigned()),
                 proto.getAddressPrefixHash().toByteArray(),
                 proto.getUid(),
+                proto.getRecipientHintNonce().toByteArray(),
+                proto.getRecipientHint().toByteArray(),
                 messageVersion);
     }
 
@@ -101,6 +124,8 @@ public final class PrefixedSealedAndSignedMessage extends NetworkEnvelope implem
                 SealedAndSigned.fromProto(proto.getSealedAndSigned()),
                 proto.getAddressPrefixHash().toByteArray(),
                 proto.getUid(),
+                proto.getRecipientHintNonce().toByteArray(),
+                proto.getRecipientHint().toByteArray(),
                 -1);
     }
 
@@ -108,4 +133,8 @@ public final class PrefixedSealedAndSignedMessage extends NetworkEnvelope implem
     public long getTTL() {
         return TTL;
     }
+
+    public boolean hasRecipientHint() {
+        return recipientHintNonce.length > 0 && recipientHint.length > 0;
+    }
 }
@@ -60,11 +60,12 @@ public class IgnoredMailboxService implements PersistedDataHost {
                 completeHandler);
     }
 
-    public boolean isIgnored(String uid) {
+    // Called from the mailbox decryption threads
+    public synchronized boolean isIgnored(String uid) {
         return ignoredMailboxMap.containsKey(uid);
     }
 
-    public void ignore(String uid, long creationTimeStamp) {
+    public synchronized void ignore(String uid, long creationTimeStamp) {
         ignoredMailboxMap.put(uid, creationTimeStamp);
         persistenceManager.requestPersistence();
     }
@@ -38,11 +38,15 @@ import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
 import bisq.network.utils.CapabilityUtils;
 
 import bisq.common.UserThread;
+import bisq.common.app.Capability;
 import bisq.common.config.Config;
 import bisq.common.crypto.CryptoException;
 import bisq.common.crypto.KeyRing;
 import bisq.common.crypto.PubKeyRing;
 import bisq.common.crypto.SealedAndSigned;
+import bisq.common.metrics.Counter;
+import bisq.common.metrics.Histogram;
+import bisq.common.metrics.Metrics;
 import bisq.common.persistence.PersistenceManager;
 import bisq.common.proto.ProtobufferException;
 import bisq.common.proto.network.NetworkEnvelope;
@@ -54,6 +58,7 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -71,14 +76,15 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
-import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -112,6 +118,13 @@ import static com.google.common.base.Preconditions.checkNotNull;
 @Slf4j
 public class MailboxMessageService implements HashMapChangedListener, PersistedDataHost {
     private static final long REPUBLISH_DELAY_SEC = TimeUnit.MINUTES.toSeconds(2);
+    private static final int NUM_DECRYPTION_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int MIN_CHUNK_SIZE = 50;
+
+    private static final Counter PROCESSED_ENTRIES = Metrics.counter("haveno_mailbox_processed_entries_total",
+            "Processed mailbox entries");
+    private static final Histogram CHUNK_DECRYPTION_DURATION = Metrics.histogram("haveno_mailbox_chunk_decryption_seconds",
+            "Duration of decrypting a chunk of mailbox entries at batch processing");
 
     private final NetworkNode networkNode;
     private final PeerManager peerManager;
@@ -126,6 +139,11 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
     private final Set<DecryptedMailboxListener> decryptedMailboxListeners = new CopyOnWriteArraySet<>();
     private final MailboxMessageList mailboxMessageList = new MailboxMessageList();
     private final Map<String, MailboxItem> mailboxItemsByUid = new HashMap<>();
+    // Entries of batches which are not applied yet
+    private final AtomicInteger numPendingEntries = new AtomicInteger();
+    // Shared by all batches. Threads time out if idle, so we do not keep threads after startup.
+    private final ListeningExecutorService decryptionExecutor = Utilities.getListeningExecutorService(
+            "MailboxDecryption-%d", NUM_DECRYPTION_THREADS, NUM_DECRYPTION_THREADS, 60, new LinkedBlockingQueue<>());
 
     private boolean isBootstrapped;
 
@@ -150,6 +168,9 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
         this.republishMailboxEntries = republishMailboxEntries;
 
         this.persistenceManager.initialize(mailboxMessageList, PersistenceManager.Source.PRIVATE_LOW_PRIO);
+
+        Metrics.gauge("haveno_mailbox_pending_entries", "Mailbox entries of batches waiting for decryption",
+                numPendingEntries::get);
     }
 
 
@@ -266,9 +287,15 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
         }
 
         try {
-            PrefixedSealedAndSignedMessage prefixedSealedAndSignedMessage = new PrefixedSealedAndSignedMessage(
-                    networkNode.getNodeAddress(),
-                    encryptionService.encryptAndSign(peersPubKeyRing, networkEnvelope));
+            // The mailbox data with a recipient hint only gets to nodes supporting it, so we only add it if the
+            // receiver supports it as well.
+            PrefixedSealedAndSignedMessage prefixedSealedAndSignedMessage =
+                    peerManager.peerHasCapability(peer, Capability.MAILBOX_RECIPIENT_HINT) ?
+                            encryptionService.createPrefixedSealedAndSignedMessage(networkNode.getNodeAddress(),
+                                    peersPubKeyRing,
+                                    networkEnvelope) :
+                            new PrefixedSealedAndSignedMessage(networkNode.getNodeAddress(),
+                                    encryptionService.encryptAndSign(peersPubKeyRing, networkEnvelope));
             SettableFuture<Connection> future = networkNode.sendMessage(peer, prefixedSealedAndSignedMessage);
             Futures.addCallback(future, new FutureCallback<>() {
                 @Override
@@ -385,45 +412,80 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
 
     private void processSingleMailboxEntry(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
         checkArgument(protectedMailboxStorageEntries.size() == 1);
-        var mailboxItems = new ArrayList<>(getMailboxItems(protectedMailboxStorageEntries));
-        if (mailboxItems.size() == 1) {
-            handleMailboxItem(mailboxItems.get(0));
-        }
+        DecryptionResult result = tryDecryptMailboxEntries(protectedMailboxStorageEntries);
+        applyDecryptionResult(result);
+        PROCESSED_ENTRIES.inc();
     }
 
-    // We run the batch processing of all mailbox messages we have received at startup in a thread to not block the UI.
-    // For about 1000 messages decryption takes about 1 sec.
+    // We run the batch processing of all mailbox messages we have received at startup on a thread pool to not block
+    // the UI. The entries are sorted by creation date and split into chunks which are decrypted in parallel. The
+    // chunks are applied in order as soon as all chunks before them are done, so the mailbox messages are applied in
+    // the order they got created. For about 1000 messages decryption takes about 1 sec on a single core.
     private void threadedBatchProcessMailboxEntries(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
-        ListeningExecutorService executor = Utilities.getSingleThreadListeningExecutor("processMailboxEntry-" + new Random().nextInt(1000));
         long ts = System.currentTimeMillis();
-        ListenableFuture<Set<MailboxItem>> future = executor.submit(() -> {
-            var mailboxItems = getMailboxItems(protectedMailboxStorageEntries);
-            log.info("Batch processing of {} mailbox entries took {} ms",
-                    protectedMailboxStorageEntries.size(),
-                    System.currentTimeMillis() - ts);
-            return mailboxItems;
-        });
-
-        Futures.addCallback(future, new FutureCallback<>() {
-            public void onSuccess(Set<MailboxItem> decryptedMailboxMessageWithEntries) {
-                UserThread.execute(() -> decryptedMailboxMessageWithEntries.forEach(e -> handleMailboxItem(e)));
-            }
+        List<ProtectedMailboxStorageEntry> entries = protectedMailboxStorageEntries.stream()
+                .sorted(Comparator.comparingLong(ProtectedStorageEntry::getCreationTimeStamp))
+                .collect(Collectors.toList());
+        int maxNumChunks = Math.max(1, Math.min(NUM_DECRYPTION_THREADS * 4, entries.size() / MIN_CHUNK_SIZE));
+        int chunkSize = (entries.size() + maxNumChunks - 1) / maxNumChunks;
+        List<List<ProtectedMailboxStorageEntry>> chunks = Lists.partition(entries, chunkSize);
+        numPendingEntries.addAndGet(entries.size());
+
+        AtomicLong decryptionNanos = new AtomicLong();
+        DecryptionResult[] results = new DecryptionResult[chunks.size()];
+        int[] numAppliedChunks = {0};
+        for (int i = 0; i < chunks.size(); i++) {
+            int chunkIndex = i;
+            List<ProtectedMailboxStorageEntry> chunk = chunks.get(chunkIndex);
+            ListenableFuture<DecryptionResult> future = decryptionExecutor.submit(() -> {
+                long decryptionTs = Histogram.startTimer();
+                DecryptionResult result = tryDecryptMailboxEntries(chunk);
+                CHUNK_DECRYPTION_DURATION.recordSince(decryptionTs);
+                decryptionNanos.addAndGet(System.nanoTime() - decryptionTs);
+                return result;
+            });
+            Futures.addCallback(future, new FutureCallback<>() {
+                public void onSuccess(DecryptionResult result) {
+                    UserThread.execute(() -> onChunkDecrypted(result));
+                }
 
-            public void onFailure(@NotNull Throwable throwable) {
-                log.error(throwable.toString());
-            }
-        }, MoreExecutors.directExecutor());
+                public void onFailure(@NotNull Throwable throwable) {
+                    log.error("Decryption of mailbox entries failed", throwable);
+                    // We continue with the next chunks
+                    UserThread.execute(() -> onChunkDecrypted(new DecryptionResult()));
+                }
+
+                private void onChunkDecrypted(DecryptionResult result) {
+                    results[chunkIndex] = result;
+                    while (numAppliedChunks[0] < results.length && results[numAppliedChunks[0]] != null) {
+                        applyDecryptionResult(results[numAppliedChunks[0]]);
+                        results[numAppliedChunks[0]] = null;
+                        int numEntries = chunks.get(numAppliedChunks[0]).size();
+                        numPendingEntries.addAndGet(-numEntries);
+                        PROCESSED_ENTRIES.inc(numEntries);
+                        numAppliedChunks[0]++;
+                    }
+                    if (numAppliedChunks[0] == results.length) {
+                        log.info("Batch processing of {} mailbox entries in {} chunks took {} ms. " +
+                                        "Decryption time on all threads: {} ms",
+                                entries.size(), results.length, System.currentTimeMillis() - ts,
+                                TimeUnit.NANOSECONDS.toMillis(decryptionNanos.get()));
+                    }
+                }
+            }, MoreExecutors.directExecutor());
+        }
     }
 
-    private Set<MailboxItem> getMailboxItems(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
-        Set<MailboxItem> mailboxItems = new HashSet<>();
-        protectedMailboxStorageEntries.stream()
-                .map(this::tryDecryptProtectedMailboxStorageEntry)
-                .forEach(mailboxItems::add);
-        return mailboxItems;
+    // Can be called from any thread. We do not write to the ignoredMailboxService here, that is done at
+    // applyDecryptionResult on the user thread.
+    private DecryptionResult tryDecryptMailboxEntries(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
+        DecryptionResult result = new DecryptionResult();
+        protectedMailboxStorageEntries.forEach(entry -> tryDecryptProtectedMailboxStorageEntry(entry, result));
+        return result;
     }
 
-    private MailboxItem tryDecryptProtectedMailboxStorageEntry(ProtectedMailboxStorageEntry protectedMailboxStorageEntry) {
+    private void tryDecryptProtectedMailboxStorageEntry(ProtectedMailboxStorageEntry protectedMailboxStorageEntry,
+                                                        DecryptionResult result) {
         PrefixedSealedAndSignedMessage prefixedSealedAndSignedMessage = protectedMailboxStorageEntry
                 .getMailboxStoragePayload()
                 .getPrefixedSealedAndSignedMessage();
@@ -431,21 +493,34 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
         String uid = prefixedSealedAndSignedMessage.getUid();
         if (ignoredMailboxService.isIgnored(uid)) {
             // We had persisted a past failed decryption attempt on that message so we don't try again and return early
-            return new MailboxItem(protectedMailboxStorageEntry, null);
+            result.mailboxItems.add(new MailboxItem(protectedMailboxStorageEntry, null));
+            return;
+        }
+        if (!encryptionService.mightBeForMe(prefixedSealedAndSignedMessage)) {
+            // The recipient hint does not match our key, so we can skip the costly decryption
+            result.mailboxItems.add(new MailboxItem(protectedMailboxStorageEntry, null));
+            return;
         }
         try {
             DecryptedMessageWithPubKey decryptedMessageWithPubKey = encryptionService.decryptAndVerify(sealedAndSigned);
             checkArgument(decryptedMessageWithPubKey.getNetworkEnvelope() instanceof MailboxMessage);
-            return new MailboxItem(protectedMailboxStorageEntry, decryptedMessageWithPubKey);
+            result.mailboxItems.add(new MailboxItem(protectedMailboxStorageEntry, decryptedMessageWithPubKey));
+            return;
         } catch (CryptoException ignore) {
             // Expected if message was not intended for us
             // We persist those entries so at the next startup we do not need to try to decrypt it anymore
-            ignoredMailboxService.ignore(uid, protectedMailboxStorageEntry.getCreationTimeStamp());
+            result.entriesToIgnore.add(protectedMailboxStorageEntry);
         } catch (ProtobufferException e) {
-            log.error(e.toString());
-            e.getStackTrace();
+            log.error("Could not parse decrypted mailbox message with uid {}", uid, e);
         }
-        return new MailboxItem(protectedMailboxStorageEntry, null);
+        result.mailboxItems.add(new MailboxItem(protectedMailboxStorageEntry, null));
+    }
+
+    private void applyDecryptionResult(DecryptionResult result) {
+        result.entriesToIgnore.forEach(entry -> ignoredMailboxService.ignore(
+                entry.getMailboxStoragePayload().getPrefixedSealedAndSignedMessage().getUid(),
+                entry.getCreationTimeStamp()));
+        result.mailboxItems.forEach(this::handleMailboxItem);
     }
 
     private void handleMailboxItem(MailboxItem mailboxItem) {
@@ -624,4 +699,14 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
     private void requestPersistence() {
         persistenceManager.requestPersistence();
     }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // DecryptionResult class
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static class DecryptionResult {
+        private final List<MailboxItem> mailboxItems = new ArrayList<>();
+        private final List<ProtectedMailboxStorageEntry> entriesToIgnore = new ArrayList<>();
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.network;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Pool of the byte arrays used by ProtoOutputStream for encoding the frames. Most messages fit into one buffer, so we
+ * avoid allocating a new array of the message size for each message we send. Larger frames get an array which is
+ * not pooled.
+ */
+@ThreadSafe
+final class BufferPool {
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 16;
+
+    private static final Queue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger numPooledBuffers = new AtomicInteger();
+
+    private BufferPool() {
+    }
+
+    static byte[] acquire(int minSize) {
+        if (minSize > BUFFER_SIZE) {
+            return new byte[minSize];
+        }
+        byte[] buffer = buffers.poll();
+        if (buffer == null) {
+            return new byte[BUFFER_SIZE];
+        }
+        numPooledBuffers.decrementAndGet();
+        return buffer;
+    }
+
+    static void release(byte[] buffer) {
+        if (buffer.length != BUFFER_SIZE) {
+            return;
+        }
+        if (numPooledBuffers.incrementAndGet() <= MAX_POOLED_BUFFERS) {
+            buffers.offer(buffer);
+        } else {
+            numPooledBuffers.decrementAndGet();
+        }
+    }
+
+    static int getNumPooledBuffers() {
+        return numPooledBuffers.get();
+    }
+}
@@ -38,11 +38,15 @@ import bisq.common.app.Capability;
 import bisq.common.app.HasCapabilities;
 import bisq.common.app.Version;
 import bisq.common.config.Config;
+import bisq.common.metrics.Counter;
+import bisq.common.metrics.Histogram;
+import bisq.common.metrics.Metrics;
 import bisq.common.proto.ProtobufferException;
 import bisq.common.proto.network.NetworkEnvelope;
 import bisq.common.proto.network.NetworkProtoResolver;
 import bisq.common.util.Utilities;
 
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
 
 import javax.inject.Inject;
@@ -57,6 +61,8 @@ import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 
+import java.nio.channels.SocketChannel;
+
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -65,17 +71,18 @@ import java.io.OptionalDataException;
 import java.io.StreamCorruptedException;
 
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -103,9 +110,16 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     // Static
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    @Inject
     @Nullable
     private static Config config;
+    private static ConnectionRateLimiter.Limits rateLimits = ConnectionRateLimiter.Limits.DEFAULT;
+
+    // Static injection. We parse the rate limits once, so invalid limits fail at startup.
+    @Inject
+    static void setConfig(@Nullable Config config) {
+        rateLimits = ConnectionRateLimiter.Limits.fromConfig(config);
+        Connection.config = config;
+    }
 
     // Leaving some constants package-private for tests to know limits.
     private static final int PERMITTED_MESSAGE_SIZE = 200 * 1024;                       // 200 kb
@@ -113,10 +127,28 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     //TODO decrease limits again after testing
     private static final int SOCKET_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(180);
 
+    private static final Counter SENT_BYTES = Metrics.counter("haveno_p2p_sent_bytes_total",
+            "Bytes of sent network messages");
+    private static final Counter RECEIVED_BYTES = Metrics.counter("haveno_p2p_received_bytes_total",
+            "Bytes of received network messages");
+    private static final Histogram SEND_DURATION = Metrics.histogram("haveno_p2p_message_send_seconds",
+            "Duration from the send request of a network message until it is written, including throttling");
+    private static final Counter OPENED_CONNECTIONS = Metrics.counter("haveno_p2p_connections_opened_total",
+            "Opened connections");
+    private static final Counter CLOSED_CONNECTIONS = Metrics.counter("haveno_p2p_connections_closed_total",
+            "Closed connections");
+
     public static int getPermittedMessageSize() {
         return PERMITTED_MESSAGE_SIZE;
     }
 
+    private static void addSentMessageMetrics(NetworkEnvelope networkEnvelope, int size, long startNanos) {
+        Metrics.counter("haveno_p2p_messages_sent_total", "Sent network messages",
+                "type", networkEnvelope.getClass().getSimpleName()).inc();
+        SENT_BYTES.inc(size);
+        SEND_DURATION.recordSince(startNanos);
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Class fields
@@ -140,6 +172,11 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
 
     // set in init
     private SynchronizedProtoOutputStream protoOutputStream;
+    // Only set if the socket has a channel
+    @Nullable
+    private SelectorIoEngine selectorIoEngine;
+    @Nullable
+    private Executor bundleExecutor;
 
     // mutable data, set from other threads but not changed internally.
     @Getter
@@ -149,7 +186,8 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
 
     @Getter
     private final ObjectProperty<NodeAddress> peersNodeAddressProperty = new SimpleObjectProperty<>();
-    private final List<Long> messageTimeStamps = new ArrayList<>();
+    @Getter
+    private final ConnectionRateLimiter rateLimiter = new ConnectionRateLimiter(rateLimits);
     private final CopyOnWriteArraySet<MessageListener> messageListeners = new CopyOnWriteArraySet<>();
     private volatile long lastSendTimeStamp = 0;
     // We use a weak reference here to ensure that no connection causes a memory leak in case it get closed without
@@ -184,21 +222,36 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         this.networkProtoResolver = networkProtoResolver;
         connectionState = new ConnectionState(this);
         connectionStatistics = new ConnectionStatistics(this, connectionState);
+        OPENED_CONNECTIONS.inc();
         init(peersNodeAddress);
     }
 
     private void init(@Nullable NodeAddress peersNodeAddress) {
         try {
             socket.setSoTimeout(SOCKET_TIMEOUT);
-            // Need to access first the ObjectOutputStream otherwise the ObjectInputStream would block
-            // See: https://stackoverflow.com/questions/5658089/java-creating-a-new-objectinputstream-blocks/5658109#5658109
-            // When you construct an ObjectInputStream, in the constructor the class attempts to read a header that
-            // the associated ObjectOutputStream on the other end of the connection has written.
-            // It will not return until that header has been read.
-            protoOutputStream = new SynchronizedProtoOutputStream(socket.getOutputStream(), statistic);
-            protoInputStream = socket.getInputStream();
-            // We create a thread for handling inputStream data
-            singleThreadExecutor.submit(this);
+            SocketChannel channel = socket.getChannel();
+            if (channel != null) {
+                // Channel based sockets are read by the shared selector thread, so we do not need a thread per
+                // connection. Messages exceeding our max. permitted size would be rejected anyway, so the engine
+                // does not need to buffer larger ones.
+                selectorIoEngine = SelectorIoEngine.getInstance();
+                bundleExecutor = selectorIoEngine.newSequentialExecutor();
+                protoOutputStream = new SynchronizedProtoOutputStream(
+                        new SelectorIoEngine.ChannelOutputStream(channel, SOCKET_TIMEOUT),
+                        statistic,
+                        selectorIoEngine.newSequentialExecutor());
+                selectorIoEngine.register(channel, new SelectorInputListener(), MAX_PERMITTED_MESSAGE_SIZE, SOCKET_TIMEOUT);
+            } else {
+                // Need to access first the ObjectOutputStream otherwise the ObjectInputStream would block
+                // See: https://stackoverflow.com/questions/5658089/java-creating-a-new-objectinputstream-blocks/5658109#5658109
+                // When you construct an ObjectInputStream, in the constructor the class attempts to read a header that
+                // the associated ObjectOutputStream on the other end of the connection has written.
+                // It will not return until that header has been read.
+                protoOutputStream = new SynchronizedProtoOutputStream(socket.getOutputStream(), statistic);
+                protoInputStream = socket.getInputStream();
+                // We create a thread for handling inputStream data
+                singleThreadExecutor.submit(this);
+            }
 
             if (peersNodeAddress != null) {
                 setPeersNodeAddress(peersNodeAddress);
@@ -222,12 +275,22 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     }
 
     private final Object lock = new Object();
-    private final Queue<BundleOfEnvelopes> queueOfBundles = new ConcurrentLinkedQueue<>();
+    private final Deque<PendingBundle> queueOfBundles = new ConcurrentLinkedDeque<>();
     private final ScheduledExecutorService bundleSender = Executors.newSingleThreadScheduledExecutor();
 
     // Called from various threads
     public void sendMessage(NetworkEnvelope networkEnvelope) {
+        sendMessage(networkEnvelope, null);
+    }
+
+    // Used for envelopes sent to multiple connections, so they get encoded only once
+    public void sendMessage(EncodedEnvelope encodedEnvelope) {
+        sendMessage(encodedEnvelope.getEnvelope(), encodedEnvelope);
+    }
+
+    private void sendMessage(NetworkEnvelope networkEnvelope, @Nullable EncodedEnvelope encodedEnvelope) {
         long ts = System.currentTimeMillis();
+        long startNanos = Histogram.startTimer();
         log.debug(">> Send networkEnvelope of type: {}", networkEnvelope.getClass().getSimpleName());
 
         if (stopped) {
@@ -246,16 +309,18 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             log.debug("Capability for networkEnvelope is required but not supported");
             return;
         }
-        int networkEnvelopeSize = networkEnvelope.toProtoNetworkEnvelope().getSerializedSize();
+        // We create the proto message only once and use it for the size and for writing
+        protobuf.NetworkEnvelope proto = encodedEnvelope != null ?
+                encodedEnvelope.getProto() :
+                networkEnvelope.toProtoNetworkEnvelope();
+        int networkEnvelopeSize = proto.getSerializedSize();
         try {
             // Throttle outbound network_messages
             long now = System.currentTimeMillis();
-            long elapsed = now - lastSendTimeStamp;
-            if (elapsed < getSendMsgThrottleTrigger()) {
-                log.debug("We got 2 sendMessage requests in less than {} ms. We set the thread to sleep " +
-                                "for {} ms to avoid flooding our peer. lastSendTimeStamp={}, now={}, elapsed={}, networkEnvelope={}",
-                        getSendMsgThrottleTrigger(), getSendMsgThrottleSleep(), lastSendTimeStamp, now, elapsed,
-                        networkEnvelope.getClass().getSimpleName());
+            if (!rateLimiter.tryAcquireOutbound(now)) {
+                log.debug("We exceeded our outbound message rate. We bundle or delay the message to avoid flooding " +
+                                "our peer. lastSendTimeStamp={}, now={}, networkEnvelope={}",
+                        lastSendTimeStamp, now, networkEnvelope.getClass().getSimpleName());
 
                 // check if BundleOfEnvelopes is supported
                 if (getCapabilities().containsAll(new Capabilities(Capability.BUNDLE_OF_ENVELOPES))) {
@@ -263,30 +328,25 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                         // check if current envelope fits size
                         // - no? create new envelope
 
-                        int size = !queueOfBundles.isEmpty() ? queueOfBundles.element().toProtoNetworkEnvelope().getSerializedSize() + networkEnvelopeSize : 0;
+                        int size = !queueOfBundles.isEmpty() ? queueOfBundles.getLast().getSerializedSize() + networkEnvelopeSize : 0;
                         if (queueOfBundles.isEmpty() || size > MAX_PERMITTED_MESSAGE_SIZE * 0.9) {
                             // - no? create a bucket
-                            queueOfBundles.add(new BundleOfEnvelopes());
+                            queueOfBundles.add(new PendingBundle());
 
                             // - and schedule it for sending
                             lastSendTimeStamp += getSendMsgThrottleSleep();
 
-                            bundleSender.schedule(() -> {
+                            scheduleBundle(() -> {
                                 if (!stopped) {
                                     synchronized (lock) {
-                                        BundleOfEnvelopes bundle = queueOfBundles.poll();
+                                        PendingBundle bundle = queueOfBundles.poll();
                                         if (bundle != null && !stopped) {
-                                            NetworkEnvelope envelope;
-                                            int msgSize;
-                                            if (bundle.getEnvelopes().size() == 1) {
-                                                envelope = bundle.getEnvelopes().get(0);
-                                                msgSize = envelope.toProtoNetworkEnvelope().getSerializedSize();
-                                            } else {
-                                                envelope = bundle;
-                                                msgSize = networkEnvelopeSize;
-                                            }
+                                            NetworkEnvelope envelope = bundle.getEnvelope();
+                                            protobuf.NetworkEnvelope envelopeProto = bundle.toProtoNetworkEnvelope();
+                                            int msgSize = envelopeProto.getSerializedSize();
                                             try {
-                                                protoOutputStream.writeEnvelope(envelope);
+                                                protoOutputStream.writeEnvelope(envelope, envelopeProto);
+                                                addSentMessageMetrics(envelope, msgSize, startNanos);
                                                 UserThread.execute(() -> messageListeners.forEach(e -> e.onMessageSent(envelope, this)));
                                                 UserThread.execute(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts, msgSize));
                                             } catch (Throwable t) {
@@ -300,22 +360,29 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                                         }
                                     }
                                 }
-                            }, lastSendTimeStamp - now, TimeUnit.MILLISECONDS);
+                            }, lastSendTimeStamp - now);
                         }
 
                         // - yes? add to bucket
-                        queueOfBundles.element().add(networkEnvelope);
+                        queueOfBundles.getLast().add(networkEnvelope, proto);
+                        rateLimiter.onOutboundMessageBundled();
                     }
                     return;
                 }
 
-                Thread.sleep(getSendMsgThrottleSleep());
+                // We only wait until the next message is permitted
+                Thread.sleep(rateLimiter.reserveOutbound(now));
             }
 
             lastSendTimeStamp = now;
 
             if (!stopped) {
-                protoOutputStream.writeEnvelope(networkEnvelope);
+                if (encodedEnvelope != null) {
+                    protoOutputStream.writeEncodedEnvelope(encodedEnvelope);
+                } else {
+                    protoOutputStream.writeEnvelope(networkEnvelope, proto);
+                }
+                addSentMessageMetrics(networkEnvelope, networkEnvelopeSize, startNanos);
                 UserThread.execute(() -> messageListeners.forEach(e -> e.onMessageSent(networkEnvelope, this)));
                 UserThread.execute(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts, networkEnvelopeSize));
             }
@@ -324,6 +391,47 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         }
     }
 
+    // Bundle with the proto messages of its envelopes, so we do not need to create them again for the size or for
+    // writing the bundle.
+    private static class PendingBundle {
+        private final BundleOfEnvelopes bundle = new BundleOfEnvelopes();
+        private final List<protobuf.NetworkEnvelope> protos = new ArrayList<>();
+        private int serializedSize;
+
+        void add(NetworkEnvelope networkEnvelope, protobuf.NetworkEnvelope proto) {
+            bundle.add(networkEnvelope);
+            protos.add(proto);
+            serializedSize += CodedOutputStream.computeMessageSize(1, proto);
+        }
+
+        int getSerializedSize() {
+            return serializedSize;
+        }
+
+        // A bundle with a single envelope is sent as that envelope
+        NetworkEnvelope getEnvelope() {
+            return protos.size() == 1 ? bundle.getEnvelopes().get(0) : bundle;
+        }
+
+        protobuf.NetworkEnvelope toProtoNetworkEnvelope() {
+            if (protos.size() == 1) {
+                return protos.get(0);
+            }
+            return bundle.getNetworkEnvelopeBuilder()
+                    .setBundleOfEnvelopes(protobuf.BundleOfEnvelopes.newBuilder().addAllEnvelopes(protos))
+                    .build();
+        }
+    }
+
+    private void scheduleBundle(Runnable task, long delayMs) {
+        if (selectorIoEngine != null && bundleExecutor != null) {
+            // The scheduler of the engine is shared, so we must not block it with the write
+            selectorIoEngine.getScheduler().schedule(() -> bundleExecutor.execute(task), delayMs, TimeUnit.MILLISECONDS);
+        } else {
+            bundleSender.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
     // TODO: If msg is BundleOfEnvelopes we should check each individual message for capability and filter out those
     //  which fail.
     public boolean noCapabilityRequiredOrCapabilityIsSupported(Proto msg) {
@@ -376,52 +484,10 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         capabilitiesListeners.add(new WeakReference<>(listener));
     }
 
-    private boolean violatesThrottleLimit() {
-        long now = System.currentTimeMillis();
-
-        messageTimeStamps.add(now);
-
-        // clean list
-        while (messageTimeStamps.size() > getMsgThrottlePer10Sec())
-            messageTimeStamps.remove(0);
-
-        return violatesThrottleLimit(now, 1, getMsgThrottlePerSec()) ||
-                violatesThrottleLimit(now, 10, getMsgThrottlePer10Sec());
-    }
-
-    private int getMsgThrottlePerSec() {
-        return config != null ? config.msgThrottlePerSec : 200;
-    }
-
-    private int getMsgThrottlePer10Sec() {
-        return config != null ? config.msgThrottlePer10Sec : 1000;
-    }
-
     private int getSendMsgThrottleSleep() {
         return config != null ? config.sendMsgThrottleSleep : 50;
     }
 
-    private int getSendMsgThrottleTrigger() {
-        return config != null ? config.sendMsgThrottleTrigger : 20;
-    }
-
-    private boolean violatesThrottleLimit(long now, int seconds, int messageCountLimit) {
-        if (messageTimeStamps.size() >= messageCountLimit) {
-
-            // find the entry in the message timestamp history which determines whether we overshot the limit or not
-            long compareValue = messageTimeStamps.get(messageTimeStamps.size() - messageCountLimit);
-
-            // if duration < seconds sec we received too much network_messages
-            if (now - compareValue < TimeUnit.SECONDS.toMillis(seconds)) {
-                log.error("violatesThrottleLimit {}/{} second(s)", messageCountLimit, seconds);
-
-                return true;
-            }
-        }
-
-        return false;
-    }
-
     ///////////////////////////////////////////////////////////////////////////////////////////
     // MessageListener implementation
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -553,6 +619,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     }
 
     private void doShutDown(CloseConnectionReason closeConnectionReason, @Nullable Runnable shutDownCompleteHandler) {
+        CLOSED_CONNECTIONS.inc();
         // Use UserThread.execute as its not clear if that is called from a non-UserThread
         UserThread.execute(() -> connectionListener.onDisconnect(closeConnectionReason, this));
         try {
@@ -568,7 +635,8 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             capabilitiesListeners.clear();
 
             try {
-                protoInputStream.close();
+                if (protoInputStream != null)
+                    protoInputStream.close();
             } catch (IOException e) {
                 log.error(e.getMessage());
                 e.printStackTrace();
@@ -741,12 +809,48 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     // Runs in same thread as Connection, receives a message, performs several checks on it
     // (including throttling limits, validity and statistics)
     // and delivers it to the message listener given in the constructor.
+    // For channel based sockets the messages are read by the SelectorIoEngine instead and passed to handleInput
+    // by the SelectorInputListener.
+    @Nullable
     private InputStream protoInputStream;
     private final NetworkProtoResolver networkProtoResolver;
 
-    private long lastReadTimeStamp;
     private boolean threadNameSet;
 
+    private interface ProtoSource {
+        @Nullable
+        protobuf.NetworkEnvelope read() throws IOException;
+    }
+
+    // Called in order of the messages on a thread of the SelectorIoEngine
+    private class SelectorInputListener implements SelectorIoEngine.InputListener {
+        private boolean inputStopped;
+
+        @Override
+        public long getInputDelay() {
+            return rateLimiter.getInboundDelay(System.currentTimeMillis());
+        }
+
+        @Override
+        public void onMessage(byte[] message) {
+            if (!stopped && !inputStopped) {
+                inputStopped = !handleInput(() -> protobuf.NetworkEnvelope.parseFrom(message));
+            }
+        }
+
+        @Override
+        public void onEndOfStream() {
+            if (!stopped && !inputStopped) {
+                inputStopped = !handleInput(() -> null);
+            }
+        }
+
+        @Override
+        public void onError(IOException e) {
+            handleException(e);
+        }
+    }
+
     @Override
     public void run() {
         try {
@@ -756,147 +860,159 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                     Thread.currentThread().setName("InputHandler-" + getPeersNodeAddressOptional().get().getFullAddress());
                     threadNameSet = true;
                 }
-                try {
-                    if (socket != null &&
-                            socket.isClosed()) {
-                        log.warn("Socket is null or closed socket={}", socket);
-                        shutDown(CloseConnectionReason.SOCKET_CLOSED);
-                        return;
-                    }
+                if (socket != null &&
+                        socket.isClosed()) {
+                    log.warn("Socket is null or closed socket={}", socket);
+                    shutDown(CloseConnectionReason.SOCKET_CLOSED);
+                    return;
+                }
 
-                    // Blocking read from the inputStream
-                    protobuf.NetworkEnvelope proto = protobuf.NetworkEnvelope.parseDelimitedFrom(protoInputStream);
+                // Throttle inbound network_messages
+                long inboundDelay = rateLimiter.getInboundDelay(System.currentTimeMillis());
+                if (inboundDelay > 0) {
+                    log.debug("We exceeded our inbound message rate. We set the thread to sleep " +
+                            "for {} ms to avoid getting flooded by our peer.", inboundDelay);
+                    Thread.sleep(inboundDelay);
+                }
 
-                    long ts = System.currentTimeMillis();
+                // Blocking read from the inputStream
+                if (!handleInput(() -> protobuf.NetworkEnvelope.parseDelimitedFrom(protoInputStream))) {
+                    return;
+                }
+            }
+        } catch (Throwable t) {
+            handleException(t);
+        }
+    }
 
-                    if (socket != null &&
-                            socket.isClosed()) {
-                        log.warn("Socket is null or closed socket={}", socket);
-                        shutDown(CloseConnectionReason.SOCKET_CLOSED);
-                        return;
-                    }
+    // Reads a message from the given source and delivers it to the message listeners if it passes our checks.
+    // Returns false if we must not read further messages from that connection. The callers throttle the inbound
+    // messages: the InputHandler thread sleeps before reading, the SelectorIoEngine pauses reading from the channel.
+    private boolean handleInput(ProtoSource protoSource) {
+        try {
+            protobuf.NetworkEnvelope proto = protoSource.read();
 
-                    if (proto == null) {
-                        if (protoInputStream.read() == -1) {
-                            log.warn("proto is null because protoInputStream.read()=-1 (EOF). That is expected if client got stopped without proper shutdown."); // TODO (woodser): why is this warning printing on shutdown?
-                        } else {
-                            log.warn("proto is null. protoInputStream.read()=" + protoInputStream.read());
-                        }
-                        shutDown(CloseConnectionReason.NO_PROTO_BUFFER_ENV);
-                        return;
-                    }
+            long ts = System.currentTimeMillis();
 
-                    if (networkFilter != null &&
-                            peersNodeAddressOptional.isPresent() &&
-                            networkFilter.isPeerBanned(peersNodeAddressOptional.get())) {
-                        reportInvalidRequest(RuleViolation.PEER_BANNED);
-                        return;
-                    }
+            if (socket != null &&
+                    socket.isClosed()) {
+                log.warn("Socket is null or closed socket={}", socket);
+                shutDown(CloseConnectionReason.SOCKET_CLOSED);
+                return false;
+            }
 
-                    // Throttle inbound network_messages
-                    long now = System.currentTimeMillis();
-                    long elapsed = now - lastReadTimeStamp;
-                    if (elapsed < 10) {
-                        log.debug("We got 2 network_messages received in less than 10 ms. We set the thread to sleep " +
-                                        "for 20 ms to avoid getting flooded by our peer. lastReadTimeStamp={}, now={}, elapsed={}",
-                                lastReadTimeStamp, now, elapsed);
-                        Thread.sleep(20);
-                    }
+            if (proto == null) {
+                if (protoInputStream == null || protoInputStream.read() == -1) {
+                    log.warn("proto is null because protoInputStream.read()=-1 (EOF). That is expected if client got stopped without proper shutdown."); // TODO (woodser): why is this warning printing on shutdown?
+                } else {
+                    log.warn("proto is null. protoInputStream.read()=" + protoInputStream.read());
+                }
+                shutDown(CloseConnectionReason.NO_PROTO_BUFFER_ENV);
+                return false;
+            }
 
-                    NetworkEnvelope networkEnvelope = networkProtoResolver.fromProto(proto);
-                    lastReadTimeStamp = now;
-                    log.debug("<< Received networkEnvelope of type: {}", networkEnvelope.getClass().getSimpleName());
-                    int size = proto.getSerializedSize();
+            if (networkFilter != null &&
+                    peersNodeAddressOptional.isPresent() &&
+                    networkFilter.isPeerBanned(peersNodeAddressOptional.get())) {
+                reportInvalidRequest(RuleViolation.PEER_BANNED);
+                return false;
+            }
 
-                    // We want to track the size of each object even if it is invalid data
-                    statistic.addReceivedBytes(size);
+            NetworkEnvelope networkEnvelope = networkProtoResolver.fromProto(proto);
+            log.debug("<< Received networkEnvelope of type: {}", networkEnvelope.getClass().getSimpleName());
+            int size = proto.getSerializedSize();
 
-                    // We want to track the network_messages also before the checks, so do it early...
-                    statistic.addReceivedMessage(networkEnvelope);
+            // We want to track the size of each object even if it is invalid data
+            statistic.addReceivedBytes(size);
 
-                    // First we check the size
-                    boolean exceeds;
-                    if (networkEnvelope instanceof ExtendedDataSizePermission) {
-                        exceeds = size > MAX_PERMITTED_MESSAGE_SIZE;
-                    } else {
-                        exceeds = size > PERMITTED_MESSAGE_SIZE;
-                    }
+            // We want to track the network_messages also before the checks, so do it early...
+            statistic.addReceivedMessage(networkEnvelope);
+            RECEIVED_BYTES.inc(size);
+            Metrics.counter("haveno_p2p_messages_received_total", "Received network messages",
+                    "type", networkEnvelope.getClass().getSimpleName()).inc();
 
-                    if (networkEnvelope instanceof AddPersistableNetworkPayloadMessage &&
-                            !((AddPersistableNetworkPayloadMessage) networkEnvelope).getPersistableNetworkPayload().verifyHashSize()) {
-                        log.warn("PersistableNetworkPayload.verifyHashSize failed. hashSize={}; object={}",
-                                ((AddPersistableNetworkPayloadMessage) networkEnvelope).getPersistableNetworkPayload().getHash().length,
-                                Utilities.toTruncatedString(proto));
-                        if (reportInvalidRequest(RuleViolation.MAX_MSG_SIZE_EXCEEDED))
-                            return;
-                    }
+            // First we check the size
+            boolean exceeds;
+            if (networkEnvelope instanceof ExtendedDataSizePermission) {
+                exceeds = size > MAX_PERMITTED_MESSAGE_SIZE;
+            } else {
+                exceeds = size > PERMITTED_MESSAGE_SIZE;
+            }
 
-                    if (exceeds) {
-                        log.warn("size > MAX_MSG_SIZE. size={}; object={}", size, Utilities.toTruncatedString(proto));
+            if (networkEnvelope instanceof AddPersistableNetworkPayloadMessage &&
+                    !((AddPersistableNetworkPayloadMessage) networkEnvelope).getPersistableNetworkPayload().verifyHashSize()) {
+                log.warn("PersistableNetworkPayload.verifyHashSize failed. hashSize={}; object={}",
+                        ((AddPersistableNetworkPayloadMessage) networkEnvelope).getPersistableNetworkPayload().getHash().length,
+                        Utilities.toTruncatedString(proto));
+                if (reportInvalidRequest(RuleViolation.MAX_MSG_SIZE_EXCEEDED))
+                    return false;
+            }
 
-                        if (reportInvalidRequest(RuleViolation.MAX_MSG_SIZE_EXCEEDED))
-                            return;
-                    }
+            if (exceeds) {
+                log.warn("size > MAX_MSG_SIZE. size={}; object={}", size, Utilities.toTruncatedString(proto));
 
-                    if (violatesThrottleLimit() && reportInvalidRequest(RuleViolation.THROTTLE_LIMIT_EXCEEDED))
-                        return;
-
-                    // Check P2P network ID
-                    if (proto.getMessageVersion() != Version.getP2PMessageVersion()
-                            && reportInvalidRequest(RuleViolation.WRONG_NETWORK_ID)) {
-                        log.warn("RuleViolation.WRONG_NETWORK_ID. version of message={}, app version={}, " +
-                                        "proto.toTruncatedString={}", proto.getMessageVersion(),
-                                Version.getP2PMessageVersion(),
-                                Utilities.toTruncatedString(proto.toString()));
-                        return;
-                    }
+                if (reportInvalidRequest(RuleViolation.MAX_MSG_SIZE_EXCEEDED))
+                    return false;
+            }
 
-                    boolean causedShutDown = maybeHandleSupportedCapabilitiesMessage(networkEnvelope);
-                    if (causedShutDown) {
-                        return;
-                    }
+            if (rateLimiter.violatesThrottleLimit(networkEnvelope, System.currentTimeMillis()) &&
+                    reportInvalidRequest(RuleViolation.THROTTLE_LIMIT_EXCEEDED))
+                return false;
+
+            // Check P2P network ID
+            if (proto.getMessageVersion() != Version.getP2PMessageVersion()
+                    && reportInvalidRequest(RuleViolation.WRONG_NETWORK_ID)) {
+                log.warn("RuleViolation.WRONG_NETWORK_ID. version of message={}, app version={}, " +
+                                "proto.toTruncatedString={}", proto.getMessageVersion(),
+                        Version.getP2PMessageVersion(),
+                        Utilities.toTruncatedString(proto.toString()));
+                return false;
+            }
 
-                    if (networkEnvelope instanceof CloseConnectionMessage) {
-                        // If we get a CloseConnectionMessage we shut down
-                        log.debug("CloseConnectionMessage received. Reason={}\n\t" +
-                                "connection={}", proto.getCloseConnectionMessage().getReason(), this);
+            boolean causedShutDown = maybeHandleSupportedCapabilitiesMessage(networkEnvelope);
+            if (causedShutDown) {
+                return false;
+            }
 
-                        if (CloseConnectionReason.PEER_BANNED.name().equals(proto.getCloseConnectionMessage().getReason())) {
-                            log.warn("We got shut down because we are banned by the other peer. " +
-                                    "(InputHandler.run CloseConnectionMessage). Peer: {}", getPeersNodeAddressOptional());
-                        }
-                        shutDown(CloseConnectionReason.CLOSE_REQUESTED_BY_PEER);
-                        return;
-                    } else if (!stopped) {
-                        // We don't want to get the activity ts updated by ping/pong msg
-                        if (!(networkEnvelope instanceof KeepAliveMessage))
-                            statistic.updateLastActivityTimestamp();
-
-                        // If SendersNodeAddressMessage we do some verifications and apply if successful,
-                        // otherwise we return false.
-                        if (networkEnvelope instanceof SendersNodeAddressMessage &&
-                                !processSendersNodeAddressMessage((SendersNodeAddressMessage) networkEnvelope)) {
-                            return;
-                        }
+            if (networkEnvelope instanceof CloseConnectionMessage) {
+                // If we get a CloseConnectionMessage we shut down
+                log.debug("CloseConnectionMessage received. Reason={}\n\t" +
+                        "connection={}", proto.getCloseConnectionMessage().getReason(), this);
 
-                        onMessage(networkEnvelope, this);
-                        UserThread.execute(() -> connectionStatistics.addReceivedMsgMetrics(System.currentTimeMillis() - ts, size));
-                    }
-                } catch (InvalidClassException e) {
-                    log.error(e.getMessage());
-                    e.printStackTrace();
-                    reportInvalidRequest(RuleViolation.INVALID_CLASS);
-                } catch (ProtobufferException | NoClassDefFoundError | InvalidProtocolBufferException e) {
-                    log.error(e.getMessage());
-                    e.printStackTrace();
-                    reportInvalidRequest(RuleViolation.INVALID_DATA_TYPE);
-                } catch (Throwable t) {
-                    handleException(t);
+                if (CloseConnectionReason.PEER_BANNED.name().equals(proto.getCloseConnectionMessage().getReason())) {
+                    log.warn("We got shut down because we are banned by the other peer. " +
+                            "(InputHandler.run CloseConnectionMessage). Peer: {}", getPeersNodeAddressOptional());
+                }
+                shutDown(CloseConnectionReason.CLOSE_REQUESTED_BY_PEER);
+                return false;
+            } else if (!stopped) {
+                // We don't want to get the activity ts updated by ping/pong msg
+                if (!(networkEnvelope instanceof KeepAliveMessage))
+                    statistic.updateLastActivityTimestamp();
+
+                // If SendersNodeAddressMessage we do some verifications and apply if successful,
+                // otherwise we return false.
+                if (networkEnvelope instanceof SendersNodeAddressMessage &&
+                        !processSendersNodeAddressMessage((SendersNodeAddressMessage) networkEnvelope)) {
+                    return false;
                 }
+
+                onMessage(networkEnvelope, this);
+                UserThread.execute(() -> connectionStatistics.addReceivedMsgMetrics(System.currentTimeMillis() - ts, size));
             }
+            return true;
+        } catch (InvalidClassException e) {
+            log.error(e.getMessage());
+            e.printStackTrace();
+            reportInvalidRequest(RuleViolation.INVALID_CLASS);
+        } catch (ProtobufferException | NoClassDefFoundError | InvalidProtocolBufferException e) {
+            log.error(e.getMessage());
+            e.printStackTrace();
+            reportInvalidRequest(RuleViolation.INVALID_DATA_TYPE);
         } catch (Throwable t) {
             handleException(t);
         }
+        return true;
     }
 
     public boolean maybeHandleSupportedCapabilitiesMessage(NetworkEnvelope networkEnvelope) {
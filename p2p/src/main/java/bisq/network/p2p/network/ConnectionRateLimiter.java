@@ -0,0 +1,238 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.common.config.Config;
+import bisq.common.proto.network.NetworkEnvelope;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Rate limits of a connection.
+ *
+ * For inbound messages we keep the timestamps of the last messages in a ring buffer to check the limits per second
+ * and per 10 seconds. Optionally message types can have their own budget per second (e.g. for expensive requests).
+ * Inbound messages are paced with a token bucket instead of a fixed sleep, so honest bursts of a few messages are not
+ * delayed.
+ *
+ * Outbound messages are sent without delay as long as the outbound token bucket permits it. Otherwise the caller
+ * bundles the message or waits until the next message is permitted.
+ */
+@Slf4j
+public class ConnectionRateLimiter {
+    private static final int INBOUND_BURST = 20;
+    // Same average rate as the former pause of 20 ms if 2 messages were received in less than 10 ms
+    private static final int INBOUND_MSG_PER_SEC = 100;
+
+    /**
+     * Limits of all connections. Created once from the config, so invalid limits fail at startup.
+     */
+    @Value
+    static class Limits {
+        static final Limits DEFAULT = new Limits(200, 1000, Collections.emptyMap(), 10, 20);
+
+        int msgThrottlePerSec;
+        int msgThrottlePer10Sec;
+        Map<String, Integer> msgThrottlePerSecByType;
+        int sendMsgThrottleBurst;
+        int sendMsgThrottleTrigger;
+
+        static Limits fromConfig(@Nullable Config config) {
+            if (config == null) {
+                return DEFAULT;
+            }
+            return new Limits(config.msgThrottlePerSec,
+                    config.msgThrottlePer10Sec,
+                    Collections.unmodifiableMap(parseBudgets(config.msgThrottlePerSecByType)),
+                    config.sendMsgThrottleBurst,
+                    config.sendMsgThrottleTrigger);
+        }
+    }
+
+    private final int msgThrottlePerSec;
+    private final int msgThrottlePer10Sec;
+    private final Map<String, Integer> msgThrottlePerSecByType;
+
+    // Only accessed from the thread reading the connection
+    private final long[] inboundTimeStamps;
+    private long numInboundMessages;
+    private final Map<Class<? extends NetworkEnvelope>, TokenBucket> inboundBucketsByType = new HashMap<>();
+    private final TokenBucket inboundBucket;
+
+    private final TokenBucket outboundBucket;
+
+    // Metrics
+    private final AtomicInteger numThrottledInboundMessages = new AtomicInteger();
+    private final AtomicInteger numDelayedOutboundMessages = new AtomicInteger();
+    private final AtomicLong outboundDelay = new AtomicLong();
+
+    ConnectionRateLimiter(Limits limits) {
+        this(limits.getMsgThrottlePerSec(),
+                limits.getMsgThrottlePer10Sec(),
+                limits.getMsgThrottlePerSecByType(),
+                limits.getSendMsgThrottleBurst(),
+                limits.getSendMsgThrottleTrigger(),
+                System.currentTimeMillis());
+    }
+
+    ConnectionRateLimiter(int msgThrottlePerSec,
+                          int msgThrottlePer10Sec,
+                          Map<String, Integer> msgThrottlePerSecByType,
+                          int sendMsgThrottleBurst,
+                          int sendMsgThrottleTrigger,
+                          long now) {
+        this.msgThrottlePerSec = msgThrottlePerSec;
+        this.msgThrottlePer10Sec = msgThrottlePer10Sec;
+        this.msgThrottlePerSecByType = msgThrottlePerSecByType;
+        inboundTimeStamps = new long[Math.max(1, Math.max(msgThrottlePerSec, msgThrottlePer10Sec))];
+        inboundBucket = new TokenBucket(INBOUND_BURST, INBOUND_MSG_PER_SEC, now);
+        // The trigger was the min. time between 2 sent messages, so we use it for the rate
+        outboundBucket = new TokenBucket(sendMsgThrottleBurst, 1000d / Math.max(1, sendMsgThrottleTrigger), now);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Inbound
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Returns the time in ms the reader should wait before handling the message
+    long getInboundDelay(long now) {
+        return inboundBucket.reserve(now);
+    }
+
+    boolean violatesThrottleLimit(NetworkEnvelope networkEnvelope, long now) {
+        inboundTimeStamps[(int) (numInboundMessages % inboundTimeStamps.length)] = now;
+        numInboundMessages++;
+
+        boolean violated = violatesThrottleLimit(now, 1, msgThrottlePerSec) ||
+                violatesThrottleLimit(now, 10, msgThrottlePer10Sec) ||
+                violatesBudgetOfType(networkEnvelope, now);
+        if (violated) {
+            numThrottledInboundMessages.incrementAndGet();
+        }
+        return violated;
+    }
+
+    private boolean violatesThrottleLimit(long now, int seconds, int messageCountLimit) {
+        if (messageCountLimit > 0 && numInboundMessages >= messageCountLimit) {
+            // The timestamp of the message messageCountLimit messages ago determines whether we overshot the limit
+            long compareValue = inboundTimeStamps[(int) ((numInboundMessages - messageCountLimit) % inboundTimeStamps.length)];
+
+            // if duration < seconds sec we received too much network_messages
+            if (now - compareValue < TimeUnit.SECONDS.toMillis(seconds)) {
+                log.error("violatesThrottleLimit {}/{} second(s)", messageCountLimit, seconds);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean violatesBudgetOfType(NetworkEnvelope networkEnvelope, long now) {
+        if (msgThrottlePerSecByType.isEmpty()) {
+            return false;
+        }
+
+        Class<? extends NetworkEnvelope> type = networkEnvelope.getClass();
+        TokenBucket bucket = inboundBucketsByType.get(type);
+        if (bucket == null) {
+            Integer budget = msgThrottlePerSecByType.get(type.getSimpleName());
+            if (budget == null) {
+                return false;
+            }
+            bucket = new TokenBucket(budget, budget, now);
+            inboundBucketsByType.put(type, bucket);
+        }
+
+        if (!bucket.tryAcquire(now)) {
+            log.error("violatesThrottleLimit of {}: {}/second", type.getSimpleName(), msgThrottlePerSecByType.get(type.getSimpleName()));
+            return true;
+        }
+        return false;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Outbound
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Returns false if we should not send the message now but bundle it with others or wait
+    boolean tryAcquireOutbound(long now) {
+        return outboundBucket.tryAcquire(now);
+    }
+
+    // Returns the time in ms the sender has to wait
+    long reserveOutbound(long now) {
+        long delay = outboundBucket.reserve(now);
+        numDelayedOutboundMessages.incrementAndGet();
+        outboundDelay.addAndGet(delay);
+        return delay;
+    }
+
+    void onOutboundMessageBundled() {
+        numDelayedOutboundMessages.incrementAndGet();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Getters
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public int getNumThrottledInboundMessages() {
+        return numThrottledInboundMessages.get();
+    }
+
+    public int getNumDelayedOutboundMessages() {
+        return numDelayedOutboundMessages.get();
+    }
+
+    public long getOutboundDelay() {
+        return outboundDelay.get();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Entries are in the format messageClassName:maxPerSec, e.g. GetDataRequest:2
+    static Map<String, Integer> parseBudgets(List<String> entries) {
+        Map<String, Integer> budgets = new HashMap<>();
+        entries.stream()
+                .filter(entry -> !entry.isEmpty())
+                .forEach(entry -> {
+                    String[] tokens = entry.split(":");
+                    if (tokens.length != 2) {
+                        throw new IllegalArgumentException("Invalid message throttle " + entry +
+                                ". Expected format is messageClassName:maxPerSec");
+                    }
+                    budgets.put(tokens[0].trim(), Integer.parseInt(tokens[1].trim()));
+                });
+        return budgets;
+    }
+}
@@ -99,7 +99,9 @@ public class ConnectionState implements MessageListener {
             numInitialDataRequests++;
             onInitialDataExchange();
         } else if (networkEnvelope instanceof InitialDataResponse) {
-            numInitialDataResponses++;
+            if (((InitialDataResponse) networkEnvelope).isLastPart()) {
+                numInitialDataResponses++;
+            }
             onInitialDataExchange();
         } else if (networkEnvelope instanceof PrefixedSealedAndSignedMessage &&
                 connection.getPeersNodeAddressOptional().isPresent()) {
@@ -96,6 +96,7 @@ public class ConnectionStatistics implements MessageListener {
             rrt = "Time for response: " + rrt + ls;
         }
         boolean seedNode = connectionState.isSeedNode();
+        ConnectionRateLimiter rateLimiter = connection.getRateLimiter();
         return String.format(
                 "Age: %s" + ls +
                         "Peer: %s%s " + ls +
@@ -107,7 +108,8 @@ public class ConnectionStatistics implements MessageListener {
                         "Sent data: %s; %s" + ls +
                         "Received data: %s; %s" + ls +
                         "CPU time spent on sending messages: %s" + ls +
-                        "CPU time spent on receiving messages: %s",
+                        "CPU time spent on receiving messages: %s" + ls +
+                        "Throttled received messages: %s; Delayed sent messages: %s (%s)",
                 age,
                 seedNode ? "[Seed node] " : "", peer,
                 connectionState.getPeerType().name(),
@@ -118,7 +120,10 @@ public class ConnectionStatistics implements MessageListener {
                 Utilities.readableFileSize(sentBytes), sentDataMap.toString(),
                 Utilities.readableFileSize(receivedBytes), receivedDataMap.toString(),
                 Utilities.formatDurationAsWords(timeOnSendMsg),
-                Utilities.formatDurationAsWords(timeOnReceivedMsg));
+                Utilities.formatDurationAsWords(timeOnReceivedMsg),
+                rateLimiter.getNumThrottledInboundMessages(),
+                rateLimiter.getNumDelayedOutboundMessages(),
+                Utilities.formatDurationAsWords(rateLimiter.getOutboundDelay()));
     }
 
     @Override
@@ -153,7 +158,8 @@ public class ConnectionStatistics implements MessageListener {
 
         if (networkEnvelope instanceof InitialDataRequest) {
             rrtMap.putIfAbsent(key, System.currentTimeMillis());
-        } else if (networkEnvelope instanceof InitialDataResponse) {
+        } else if (networkEnvelope instanceof InitialDataResponse &&
+                ((InitialDataResponse) networkEnvelope).isLastPart()) {
             String associatedRequest = ((InitialDataResponse) networkEnvelope).associatedRequest().getSimpleName();
             if (rrtMap.containsKey(associatedRequest)) {
                 rrtMap.put(associatedRequest, System.currentTimeMillis() - rrtMap.get(associatedRequest));
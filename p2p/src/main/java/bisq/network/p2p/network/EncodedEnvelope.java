@@ -0,0 +1,105 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.network;
+
+import bisq.common.proto.network.NetworkEnvelope;
+
+import com.google.protobuf.CodedOutputStream;
+
+import java.io.IOException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Envelope which gets sent to multiple connections (e.g. a broadcast). The proto message and the length delimited
+ * frame are created only once at the first send and the same immutable bytes are written to all connections.
+ */
+@ThreadSafe
+public final class EncodedEnvelope {
+    @Getter
+    private final NetworkEnvelope envelope;
+    @Nullable
+    private protobuf.NetworkEnvelope proto;
+    @Nullable
+    private byte[] frame;
+
+    private final AtomicLong encodeNanos = new AtomicLong();
+    private final AtomicLong writeNanos = new AtomicLong();
+    private final AtomicInteger numWrites = new AtomicInteger();
+
+    public EncodedEnvelope(NetworkEnvelope envelope) {
+        this.envelope = envelope;
+    }
+
+    public synchronized protobuf.NetworkEnvelope getProto() {
+        if (proto == null) {
+            long ts = System.nanoTime();
+            proto = envelope.toProtoNetworkEnvelope();
+            encodeNanos.addAndGet(System.nanoTime() - ts);
+        }
+        return proto;
+    }
+
+    // The returned array must not be modified
+    synchronized byte[] getFrame() {
+        if (frame == null) {
+            protobuf.NetworkEnvelope proto = getProto();
+            long ts = System.nanoTime();
+            int size = proto.getSerializedSize();
+            byte[] bytes = new byte[CodedOutputStream.computeUInt32SizeNoTag(size) + size];
+            CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(bytes);
+            try {
+                codedOutputStream.writeUInt32NoTag(size);
+                proto.writeTo(codedOutputStream);
+                codedOutputStream.checkNoSpaceLeft();
+            } catch (IOException e) {
+                // Cannot happen as we write to a byte array of the exact size
+                throw new IllegalStateException("Failed to encode envelope", e);
+            }
+            frame = bytes;
+            encodeNanos.addAndGet(System.nanoTime() - ts);
+        }
+        return frame;
+    }
+
+    public int getSerializedSize() {
+        return getProto().getSerializedSize();
+    }
+
+    void addWriteNanos(long nanos) {
+        writeNanos.addAndGet(nanos);
+        numWrites.incrementAndGet();
+    }
+
+    public long getEncodeNanos() {
+        return encodeNanos.get();
+    }
+
+    public long getWriteNanos() {
+        return writeNanos.get();
+    }
+
+    public int getNumWrites() {
+        return numWrites.get();
+    }
+}
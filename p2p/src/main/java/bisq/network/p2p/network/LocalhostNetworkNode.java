@@ -22,9 +22,13 @@ import bisq.network.p2p.NodeAddress;
 import bisq.common.UserThread;
 import bisq.common.proto.network.NetworkProtoResolver;
 
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
 import java.io.IOException;
 
 import java.util.concurrent.TimeUnit;
@@ -49,6 +53,10 @@ public class LocalhostNetworkNode extends NetworkNode {
         LocalhostNetworkNode.simulateTorDelayHiddenService = simulateTorDelayHiddenService;
     }
 
+    // If set we use channel based sockets, so the connections are read by the SelectorIoEngine instead of a thread
+    // per connection.
+    private final boolean useNonBlockingIo;
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -57,7 +65,15 @@ public class LocalhostNetworkNode extends NetworkNode {
     public LocalhostNetworkNode(int port,
                                 NetworkProtoResolver networkProtoResolver,
                                 @Nullable NetworkFilter networkFilter) {
+        this(port, networkProtoResolver, networkFilter, false);
+    }
+
+    public LocalhostNetworkNode(int port,
+                                NetworkProtoResolver networkProtoResolver,
+                                @Nullable NetworkFilter networkFilter,
+                                boolean useNonBlockingIo) {
         super(port, networkProtoResolver, networkFilter);
+        this.useNonBlockingIo = useNonBlockingIo;
     }
 
     @Override
@@ -76,7 +92,7 @@ public class LocalhostNetworkNode extends NetworkNode {
             // simulate tor HS publishing delay
             UserThread.runAfter(() -> {
                 try {
-                    startServer(new ServerSocket(servicePort));
+                    startServer(createServerSocket());
                 } catch (IOException e) {
                     e.printStackTrace();
                     log.error("Exception at startServer: " + e.getMessage());
@@ -89,6 +105,17 @@ public class LocalhostNetworkNode extends NetworkNode {
     // Called from NetworkNode thread
     @Override
     protected Socket createSocket(NodeAddress peerNodeAddress) throws IOException {
+        if (useNonBlockingIo) {
+            return SocketChannel.open(new InetSocketAddress(peerNodeAddress.getHostName(), peerNodeAddress.getPort())).socket();
+        }
         return new Socket(peerNodeAddress.getHostName(), peerNodeAddress.getPort());
     }
+
+    private ServerSocket createServerSocket() throws IOException {
+        if (useNonBlockingIo) {
+            // The sockets accepted by the server socket of a ServerSocketChannel have a SocketChannel as well
+            return ServerSocketChannel.open().bind(new InetSocketAddress(servicePort)).socket();
+        }
+        return new ServerSocket(servicePort);
+    }
 }
@@ -279,11 +279,20 @@ public abstract class NetworkNode implements MessageListener {
 
 
     public SettableFuture<Connection> sendMessage(Connection connection, NetworkEnvelope networkEnvelope) {
+        return sendMessage(connection, () -> connection.sendMessage(networkEnvelope));
+    }
+
+    // Used for sending the same envelope to multiple connections, it gets encoded only once
+    public SettableFuture<Connection> sendMessage(Connection connection, EncodedEnvelope encodedEnvelope) {
+        return sendMessage(connection, () -> connection.sendMessage(encodedEnvelope));
+    }
+
+    private SettableFuture<Connection> sendMessage(Connection connection, Runnable sendTask) {
         // connection.sendMessage might take a bit (compression, write to stream), so we use a thread to not block
         ListenableFuture<Connection> future = executorService.submit(() -> {
             String id = connection.getPeersNodeAddressOptional().isPresent() ? connection.getPeersNodeAddressOptional().get().getFullAddress() : connection.getUid();
             Thread.currentThread().setName("NetworkNode:SendMessage-to-" + id);
-            connection.sendMessage(networkEnvelope);
+            sendTask.run();
             return connection;
         });
         final SettableFuture<Connection> resultFuture = SettableFuture.create();
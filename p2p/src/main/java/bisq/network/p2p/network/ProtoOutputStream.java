@@ -21,6 +21,8 @@ import bisq.network.p2p.peers.keepalive.messages.KeepAliveMessage;
 
 import bisq.common.proto.network.NetworkEnvelope;
 
+import com.google.protobuf.CodedOutputStream;
+
 import java.io.IOException;
 import java.io.OutputStream;
 
@@ -42,8 +44,24 @@ class ProtoOutputStream {
     }
 
     void writeEnvelope(NetworkEnvelope envelope) {
+        writeEnvelope(envelope, envelope.toProtoNetworkEnvelope());
+    }
+
+    // Writes the already created proto message of the envelope, so callers which need the proto message before
+    // (e.g. for the size) or send the same message to multiple peers do not need to create it again.
+    void writeEnvelope(NetworkEnvelope envelope, protobuf.NetworkEnvelope proto) {
+        try {
+            writeEnvelopeOrThrow(envelope, proto);
+        } catch (IOException e) {
+            log.error("Failed to write envelope", e);
+            throw new HavenoRuntimeException("Failed to write envelope", e);
+        }
+    }
+
+    // Writes the frame of an envelope which is sent to multiple connections, so it is encoded only once
+    void writeEncodedEnvelope(EncodedEnvelope encodedEnvelope) {
         try {
-            writeEnvelopeOrThrow(envelope);
+            writeEncodedEnvelopeOrThrow(encodedEnvelope);
         } catch (IOException e) {
             log.error("Failed to write envelope", e);
             throw new HavenoRuntimeException("Failed to write envelope", e);
@@ -58,12 +76,38 @@ class ProtoOutputStream {
         }
     }
 
-    private void writeEnvelopeOrThrow(NetworkEnvelope envelope) throws IOException {
-        protobuf.NetworkEnvelope proto = envelope.toProtoNetworkEnvelope();
-        proto.writeDelimitedTo(delegate);
+    private void writeEnvelopeOrThrow(NetworkEnvelope envelope, protobuf.NetworkEnvelope proto) throws IOException {
+        // We encode the length prefix and the message into one buffer so the delegate gets a single write call
+        int size = proto.getSerializedSize();
+        int frameSize = CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+        byte[] buffer = BufferPool.acquire(frameSize);
+        try {
+            CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(buffer, 0, frameSize);
+            codedOutputStream.writeUInt32NoTag(size);
+            proto.writeTo(codedOutputStream);
+            codedOutputStream.checkNoSpaceLeft();
+
+            delegate.write(buffer, 0, frameSize);
+            delegate.flush();
+        } finally {
+            BufferPool.release(buffer);
+        }
+
+        onEnvelopeWritten(envelope, size);
+    }
+
+    private void writeEncodedEnvelopeOrThrow(EncodedEnvelope encodedEnvelope) throws IOException {
+        byte[] frame = encodedEnvelope.getFrame();
+        long ts = System.nanoTime();
+        delegate.write(frame);
         delegate.flush();
+        encodedEnvelope.addWriteNanos(System.nanoTime() - ts);
+
+        onEnvelopeWritten(encodedEnvelope.getEnvelope(), encodedEnvelope.getSerializedSize());
+    }
 
-        statistic.addSentBytes(proto.getSerializedSize());
+    private void onEnvelopeWritten(NetworkEnvelope envelope, int size) {
+        statistic.addSentBytes(size);
         statistic.addSentMessage(envelope);
 
         if (!(envelope instanceof KeepAliveMessage)) {
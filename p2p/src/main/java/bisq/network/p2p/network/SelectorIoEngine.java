@@ -0,0 +1,433 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+import java.net.SocketTimeoutException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Shared I/O engine for connections with a channel based socket. Instead of a blocking read thread per connection,
+ * one selector thread reads from all registered channels and splits the input into the length delimited messages.
+ * The messages are handled in order per connection on a small shared pool.
+ *
+ * Writes stay blocking from the perspective of the caller (see ChannelOutputStream) but do not need a thread per
+ * connection either, as they run on a shared pool which only grows with the number of concurrent writes.
+ *
+ * Not all sockets have a channel, so Connection uses the engine only if the socket supports it. Currently only
+ * LocalhostNetworkNode creates channel based sockets. The TorSocket and HiddenServiceSocket of the Tor library used
+ * by TorNetworkNode are plain sockets, so Tor connections keep their read thread.
+ */
+@Slf4j
+class SelectorIoEngine implements Runnable {
+    // Message handling is mostly CPU bound
+    private static final int NUM_INPUT_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+    // If a connection has more messages waiting to be handled we stop reading from it until they are handled.
+    private static final int MAX_PENDING_MESSAGES = 100;
+    private static final long CHECK_IDLE_INTERVAL_MS = TimeUnit.SECONDS.toMillis(1);
+
+    interface InputListener {
+        // Returns the time in ms the next message has to wait before it gets handled. We stop reading from the
+        // channel until the delay passed, so no thread is blocked by a peer sending too fast.
+        long getInputDelay();
+
+        void onMessage(byte[] message);
+
+        void onEndOfStream();
+
+        void onError(IOException e);
+    }
+
+    private static SelectorIoEngine instance;
+
+    static synchronized SelectorIoEngine getInstance() throws IOException {
+        if (instance == null) {
+            instance = new SelectorIoEngine();
+        }
+        return instance;
+    }
+
+    private final Selector selector;
+    private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>();
+    private final ExecutorService inputExecutor;
+    private final ExecutorService blockingExecutor;
+    private final ScheduledExecutorService scheduler;
+    private long lastIdleCheck;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private SelectorIoEngine() throws IOException {
+        selector = Selector.open();
+        inputExecutor = new ThreadPoolExecutor(NUM_INPUT_THREADS, NUM_INPUT_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), getThreadFactory("SelectorIoEngine-input-%d"));
+        ((ThreadPoolExecutor) inputExecutor).allowCoreThreadTimeOut(true);
+        blockingExecutor = Executors.newCachedThreadPool(getThreadFactory("SelectorIoEngine-write-%d"));
+        scheduler = Executors.newSingleThreadScheduledExecutor(getThreadFactory("SelectorIoEngine-scheduler"));
+
+        Thread thread = new Thread(this, "SelectorIoEngine");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Switches the channel into non-blocking mode and starts reading from it. After that the socket streams of the
+     * channel must not be used anymore, use a ChannelOutputStream for writing instead.
+     */
+    void register(SocketChannel channel, InputListener listener, int maxMessageSize, int readTimeout)
+            throws IOException {
+        channel.configureBlocking(false);
+        Registration registration = new Registration(channel, listener, maxMessageSize, readTimeout);
+        execute(() -> {
+            try {
+                registration.key = channel.register(selector, SelectionKey.OP_READ, registration);
+            } catch (ClosedChannelException e) {
+                registration.dispatch(() -> listener.onError(e));
+            }
+        });
+    }
+
+    // Executor keeping the order of the tasks. Used for the blocking writes of a connection.
+    Executor newSequentialExecutor() {
+        return MoreExecutors.newSequentialExecutor(blockingExecutor);
+    }
+
+    ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Selector thread
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                selector.select(CHECK_IDLE_INTERVAL_MS);
+
+                Runnable task;
+                while ((task = pendingTasks.poll()) != null) {
+                    task.run();
+                }
+
+                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    SelectionKey key = iterator.next();
+                    iterator.remove();
+                    if (key.isValid() && key.isReadable()) {
+                        ((Registration) key.attachment()).read();
+                    }
+                }
+
+                long now = System.currentTimeMillis();
+                if (now - lastIdleCheck >= CHECK_IDLE_INTERVAL_MS) {
+                    lastIdleCheck = now;
+                    selector.keys().forEach(key -> ((Registration) key.attachment()).checkIdle(now));
+                }
+            } catch (Throwable t) {
+                log.error("Error at selector loop", t);
+            }
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void execute(Runnable task) {
+        pendingTasks.add(task);
+        selector.wakeup();
+    }
+
+    private static ThreadFactory getThreadFactory(String nameFormat) {
+        return new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build();
+    }
+
+    // State of a registered channel. Only accessed from the selector thread, except the messages waiting to be handled
+    // and the throttling state, which are accessed by the sequential listener executor.
+    private class Registration {
+        private final SocketChannel channel;
+        private final InputListener listener;
+        private final int maxMessageSize;
+        private final int readTimeout;
+        private final Executor listenerExecutor;
+        private final AtomicInteger pendingMessages = new AtomicInteger();
+        private final Queue<byte[]> messages = new ConcurrentLinkedQueue<>();
+        private volatile boolean throttled;
+        @Nullable
+        private volatile Runnable closeHandler;
+        private SelectionKey key;
+        private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        private long lastReadTimeStamp = System.currentTimeMillis();
+        private boolean closed;
+
+        Registration(SocketChannel channel, InputListener listener, int maxMessageSize, int readTimeout) {
+            this.channel = channel;
+            this.listener = listener;
+            this.maxMessageSize = maxMessageSize;
+            this.readTimeout = readTimeout;
+            listenerExecutor = MoreExecutors.newSequentialExecutor(inputExecutor);
+        }
+
+        private void read() {
+            int numBytes;
+            try {
+                numBytes = channel.read(buffer);
+            } catch (IOException e) {
+                close(() -> listener.onError(e));
+                return;
+            }
+            if (numBytes == -1) {
+                close(listener::onEndOfStream);
+                return;
+            }
+            lastReadTimeStamp = System.currentTimeMillis();
+
+            buffer.flip();
+            try {
+                readMessages();
+            } catch (StreamCorruptedException e) {
+                close(() -> listener.onError(e));
+                return;
+            }
+            buffer.compact();
+            // We release large buffers once they are not needed anymore
+            if (buffer.position() == 0 && buffer.capacity() > INITIAL_BUFFER_SIZE) {
+                buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+            }
+
+            if (pendingMessages.get() >= MAX_PENDING_MESSAGES) {
+                key.interestOps(0);
+            }
+        }
+
+        // Reads all complete messages from the buffer. A message starts with its length as varint.
+        private void readMessages() throws StreamCorruptedException {
+            while (buffer.hasRemaining()) {
+                int start = buffer.position();
+                int length = 0;
+                int shift = 0;
+                boolean lengthComplete = false;
+                while (buffer.hasRemaining() && shift < 32) {
+                    byte b = buffer.get();
+                    length |= (b & 0x7F) << shift;
+                    shift += 7;
+                    if ((b & 0x80) == 0) {
+                        lengthComplete = true;
+                        break;
+                    }
+                }
+                if (!lengthComplete) {
+                    if (shift >= 32) {
+                        throw new StreamCorruptedException("Invalid message length");
+                    }
+                    buffer.position(start);
+                    return;
+                }
+                if (length < 0 || length > maxMessageSize) {
+                    throw new StreamCorruptedException("Message length " + length + " exceeds max. size of " +
+                            maxMessageSize);
+                }
+
+                if (buffer.remaining() < length) {
+                    int required = buffer.position() - start + length;
+                    buffer.position(start);
+                    if (required > buffer.capacity()) {
+                        ByteBuffer larger = ByteBuffer.allocate(Math.max(required, buffer.capacity() * 2));
+                        larger.put(buffer);
+                        larger.flip();
+                        buffer = larger;
+                    }
+                    return;
+                }
+
+                byte[] message = new byte[length];
+                buffer.get(message);
+                pendingMessages.incrementAndGet();
+                messages.add(message);
+                dispatch(this::handleMessages);
+            }
+        }
+
+        // Runs on the listener executor. If a message has to wait, we pause reading and continue after the delay
+        // with a task of the scheduler instead of blocking a thread of the shared input pool.
+        private void handleMessages() {
+            while (!throttled) {
+                byte[] message = messages.poll();
+                if (message == null) {
+                    Runnable handler = closeHandler;
+                    if (handler != null) {
+                        closeHandler = null;
+                        handler.run();
+                    }
+                    return;
+                }
+
+                long delay = listener.getInputDelay();
+                if (delay > 0) {
+                    throttled = true;
+                    execute(this::pauseReading);
+                    scheduler.schedule(() -> dispatch(() -> {
+                        throttled = false;
+                        execute(this::resumeReading);
+                        handleMessage(message);
+                        handleMessages();
+                    }), delay, TimeUnit.MILLISECONDS);
+                    return;
+                }
+                handleMessage(message);
+            }
+        }
+
+        private void handleMessage(byte[] message) {
+            try {
+                listener.onMessage(message);
+            } finally {
+                if (pendingMessages.decrementAndGet() == MAX_PENDING_MESSAGES / 2) {
+                    execute(this::resumeReading);
+                }
+            }
+        }
+
+        private void pauseReading() {
+            if (!closed && key != null && key.isValid()) {
+                key.interestOps(0);
+            }
+        }
+
+        private void resumeReading() {
+            if (!closed && key != null && key.isValid() && !throttled &&
+                    pendingMessages.get() < MAX_PENDING_MESSAGES) {
+                // We do not want to treat the time we paused reading as idle time
+                lastReadTimeStamp = System.currentTimeMillis();
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        private void checkIdle(long now) {
+            if (!closed && now - lastReadTimeStamp > readTimeout) {
+                close(() -> listener.onError(new SocketTimeoutException("Read timed out")));
+            }
+        }
+
+        // The handler is called after the messages read before got handled
+        private void close(Runnable handler) {
+            closed = true;
+            if (key != null) {
+                key.cancel();
+            }
+            closeHandler = handler;
+            dispatch(this::handleMessages);
+        }
+
+        private void dispatch(Runnable task) {
+            listenerExecutor.execute(task);
+        }
+    }
+
+    /**
+     * Blocking writes to a channel in non-blocking mode. If the send buffer of the socket is full we wait with a
+     * temporary selector until the channel is writable again.
+     */
+    static class ChannelOutputStream extends OutputStream {
+        private final SocketChannel channel;
+        private final int writeTimeout;
+        private Selector writeSelector;
+
+        ChannelOutputStream(SocketChannel channel, int writeTimeout) {
+            this.channel = channel;
+            this.writeTimeout = writeTimeout;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+            while (buffer.hasRemaining()) {
+                if (channel.write(buffer) == 0) {
+                    awaitWritable();
+                }
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            try {
+                channel.close();
+            } finally {
+                if (writeSelector != null) {
+                    writeSelector.close();
+                }
+            }
+        }
+
+        private void awaitWritable() throws IOException {
+            if (writeSelector == null) {
+                writeSelector = Selector.open();
+                channel.register(writeSelector, SelectionKey.OP_WRITE);
+            }
+            if (writeSelector.select(writeTimeout) == 0) {
+                throw new SocketTimeoutException("Write timed out");
+            }
+            writeSelector.selectedKeys().clear();
+        }
+    }
+}
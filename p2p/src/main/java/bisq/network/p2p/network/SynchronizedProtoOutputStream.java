@@ -22,9 +22,10 @@ import bisq.common.proto.network.NetworkEnvelope;
 import java.io.OutputStream;
 
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,16 +36,32 @@ import javax.annotation.concurrent.ThreadSafe;
 class SynchronizedProtoOutputStream extends ProtoOutputStream {
     private static final Logger log = LoggerFactory.getLogger(SynchronizedProtoOutputStream.class);
 
-    private final ExecutorService executorService;
+    private final Executor executor;
 
     SynchronizedProtoOutputStream(OutputStream delegate, Statistic statistic) {
+        this(delegate, statistic, Executors.newSingleThreadExecutor());
+    }
+
+    // The executor must run the tasks sequentially. If it is not an ExecutorService it is considered shared and
+    // does not get shut down with the connection.
+    SynchronizedProtoOutputStream(OutputStream delegate, Statistic statistic, Executor executor) {
         super(delegate, statistic);
-        this.executorService = Executors.newSingleThreadExecutor();
+        this.executor = executor;
     }
 
     @Override
-    void writeEnvelope(NetworkEnvelope envelope) {
-        Future<?> future = executorService.submit(() -> super.writeEnvelope(envelope));
+    void writeEnvelope(NetworkEnvelope envelope, protobuf.NetworkEnvelope proto) {
+        executeAndWait(() -> super.writeEnvelope(envelope, proto));
+    }
+
+    @Override
+    void writeEncodedEnvelope(EncodedEnvelope encodedEnvelope) {
+        executeAndWait(() -> super.writeEncodedEnvelope(encodedEnvelope));
+    }
+
+    private void executeAndWait(Runnable task) {
+        FutureTask<?> future = new FutureTask<>(task, null);
+        executor.execute(future);
         try {
             future.get();
         } catch (InterruptedException e) {
@@ -62,7 +79,9 @@ class SynchronizedProtoOutputStream extends ProtoOutputStream {
 
     void onConnectionShutdown() {
         try {
-            executorService.shutdownNow();
+            if (executor instanceof ExecutorService) {
+                ((ExecutorService) executor).shutdownNow();
+            }
             super.onConnectionShutdown();
         } catch (Throwable t) {
             log.error("Failed to handle connection shutdown. Throwable={}", t.toString());
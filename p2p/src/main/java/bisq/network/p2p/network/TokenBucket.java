@@ -0,0 +1,65 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Token bucket which permits bursts of up to capacity messages and refills with the given rate.
+ * Does not allocate at acquiring, so it can be used for each message.
+ */
+@ThreadSafe
+class TokenBucket {
+    private final int capacity;
+    private final double tokensPerMs;
+    private double tokens;
+    private long lastRefillTimeStamp;
+
+    TokenBucket(int capacity, double tokensPerSec, long now) {
+        this.capacity = Math.max(1, capacity);
+        this.tokensPerMs = tokensPerSec / 1000;
+        this.tokens = this.capacity;
+        this.lastRefillTimeStamp = now;
+    }
+
+    // Returns true if a token was available
+    synchronized boolean tryAcquire(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            tokens--;
+            return true;
+        }
+        return false;
+    }
+
+    // Takes a token even if none is available. Returns the time in ms until the token would have been available, so
+    // the caller can wait exactly that long.
+    synchronized long reserve(long now) {
+        refill(now);
+        tokens--;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerMs);
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillTimeStamp;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * tokensPerMs);
+            lastRefillTimeStamp = now;
+        }
+    }
+}
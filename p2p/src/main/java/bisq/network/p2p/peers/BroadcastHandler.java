@@ -20,11 +20,15 @@ package bisq.network.p2p.peers;
 import bisq.network.p2p.BundleOfEnvelopes;
 import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.network.Connection;
+import bisq.network.p2p.network.EncodedEnvelope;
 import bisq.network.p2p.network.NetworkNode;
 import bisq.network.p2p.storage.messages.BroadcastMessage;
 
 import bisq.common.Timer;
 import bisq.common.UserThread;
+import bisq.common.metrics.Counter;
+import bisq.common.metrics.Histogram;
+import bisq.common.metrics.Metrics;
 
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -32,8 +36,11 @@ import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -45,6 +52,14 @@ import org.jetbrains.annotations.NotNull;
 @Slf4j
 public class BroadcastHandler implements PeerManager.Listener {
     private static final long BASE_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(120);
+    private static final Counter SUCCEEDED_SENDS = Metrics.counter("haveno_p2p_broadcast_sends_total",
+            "Broadcast messages sent to peers", "result", "success");
+    private static final Counter FAILED_SENDS = Metrics.counter("haveno_p2p_broadcast_sends_total",
+            "Broadcast messages sent to peers", "result", "failure");
+    private static final Histogram ENCODE_DURATION = Metrics.histogram("haveno_p2p_broadcast_encode_seconds",
+            "Duration of encoding the messages of a broadcast");
+    private static final Histogram WRITE_DURATION = Metrics.histogram("haveno_p2p_broadcast_write_seconds",
+            "Duration of writing the messages of a broadcast to all connections");
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -74,6 +89,10 @@ public class BroadcastHandler implements PeerManager.Listener {
     private boolean stopped, timeoutTriggered;
     private int numOfCompletedBroadcasts, numOfFailedBroadcasts, numPeersForBroadcast;
     private Timer timeoutTimer;
+    // Most connections get the same requests, so we encode the message only once per distinct subset of requests and
+    // write the same bytes to all those connections. The subset is given by the indices of the requests, so the
+    // lookup does not hash the messages.
+    private final Map<BitSet, EncodedEnvelope> encodedEnvelopes = new HashMap<>();
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -131,10 +150,10 @@ public class BroadcastHandler implements PeerManager.Listener {
                 // We use broadcastRequests which have excluded the requests for messages the connection has
                 // originated to avoid sending back the message we received. We also remove messages not satisfying
                 // capability checks.
-                List<Broadcaster.BroadcastRequest> broadcastRequestsForConnection = getBroadcastRequestsForConnection(connection, broadcastRequests);
+                BitSet requestIndicesForConnection = getRequestIndicesForConnection(connection, broadcastRequests);
 
                 // Could be empty list...
-                if (broadcastRequestsForConnection.isEmpty()) {
+                if (requestIndicesForConnection.isEmpty()) {
                     // We decrease numPeers in that case for making completion checks correct.
                     if (numPeersForBroadcast > 0) {
                         numPeersForBroadcast--;
@@ -153,7 +172,7 @@ public class BroadcastHandler implements PeerManager.Listener {
                     return;
                 }
 
-                sendToPeer(connection, broadcastRequestsForConnection);
+                sendToPeer(connection, broadcastRequests, requestIndicesForConnection);
             }, minDelay, maxDelay, TimeUnit.MILLISECONDS);
         }
     }
@@ -226,24 +245,36 @@ public class BroadcastHandler implements PeerManager.Listener {
 
     // We exclude the requests containing a message we received from that connection
     // Also we filter out messages which requires a capability but peer does not support it.
-    private List<Broadcaster.BroadcastRequest> getBroadcastRequestsForConnection(Connection connection,
-                                                                                 List<Broadcaster.BroadcastRequest> broadcastRequests) {
-        return broadcastRequests.stream()
-                .filter(broadcastRequest -> !connection.getPeersNodeAddressOptional().isPresent() ||
-                        !connection.getPeersNodeAddressOptional().get().equals(broadcastRequest.getSender()))
-                .filter(broadcastRequest -> connection.noCapabilityRequiredOrCapabilityIsSupported(broadcastRequest.getMessage()))
-                .collect(Collectors.toList());
+    private BitSet getRequestIndicesForConnection(Connection connection,
+                                                  List<Broadcaster.BroadcastRequest> broadcastRequests) {
+        BitSet requestIndices = new BitSet(broadcastRequests.size());
+        for (int i = 0; i < broadcastRequests.size(); i++) {
+            Broadcaster.BroadcastRequest broadcastRequest = broadcastRequests.get(i);
+            if ((!connection.getPeersNodeAddressOptional().isPresent() ||
+                    !connection.getPeersNodeAddressOptional().get().equals(broadcastRequest.getSender())) &&
+                    connection.noCapabilityRequiredOrCapabilityIsSupported(broadcastRequest.getMessage())) {
+                requestIndices.set(i);
+            }
+        }
+        return requestIndices;
     }
 
-    private void sendToPeer(Connection connection, List<Broadcaster.BroadcastRequest> broadcastRequestsForConnection) {
+    private void sendToPeer(Connection connection,
+                            List<Broadcaster.BroadcastRequest> broadcastRequests,
+                            BitSet requestIndicesForConnection) {
+        List<Broadcaster.BroadcastRequest> broadcastRequestsForConnection = requestIndicesForConnection.stream()
+                .mapToObj(broadcastRequests::get)
+                .collect(Collectors.toList());
         // Can be BundleOfEnvelopes or a single BroadcastMessage
-        BroadcastMessage broadcastMessage = getMessage(broadcastRequestsForConnection);
-        SettableFuture<Connection> future = networkNode.sendMessage(connection, broadcastMessage);
+        EncodedEnvelope encodedEnvelope = encodedEnvelopes.computeIfAbsent(requestIndicesForConnection,
+                requestIndices -> new EncodedEnvelope(getMessage(broadcastRequestsForConnection)));
+        SettableFuture<Connection> future = networkNode.sendMessage(connection, encodedEnvelope);
 
         Futures.addCallback(future, new FutureCallback<>() {
             @Override
             public void onSuccess(Connection connection) {
                 numOfCompletedBroadcasts++;
+                SUCCEEDED_SENDS.inc();
 
                 if (stopped) {
                     return;
@@ -258,6 +289,7 @@ public class BroadcastHandler implements PeerManager.Listener {
                 log.warn("Broadcast to {} failed. ErrorMessage={}", connection.getPeersNodeAddressOptional(),
                         throwable.getMessage());
                 numOfFailedBroadcasts++;
+                FAILED_SENDS.inc();
 
                 if (stopped) {
                     return;
@@ -314,6 +346,8 @@ public class BroadcastHandler implements PeerManager.Listener {
 
     private void cleanup() {
         stopped = true;
+        recordEncodingStatistics();
+        encodedEnvelopes.clear();
         if (timeoutTimer != null) {
             timeoutTimer.stop();
             timeoutTimer = null;
@@ -322,6 +356,27 @@ public class BroadcastHandler implements PeerManager.Listener {
         resultHandler.onCompleted(this);
     }
 
+    private void recordEncodingStatistics() {
+        if (encodedEnvelopes.isEmpty()) {
+            return;
+        }
+
+        long encodeNanos = 0;
+        long writeNanos = 0;
+        int numWrites = 0;
+        for (EncodedEnvelope encodedEnvelope : encodedEnvelopes.values()) {
+            encodeNanos += encodedEnvelope.getEncodeNanos();
+            writeNanos += encodedEnvelope.getWriteNanos();
+            numWrites += encodedEnvelope.getNumWrites();
+        }
+        ENCODE_DURATION.record(encodeNanos);
+        WRITE_DURATION.record(writeNanos);
+        log.debug("Broadcast completed. numOfCompletedBroadcasts={}, numOfFailedBroadcasts={}, " +
+                        "numEncodings={}, encodeTime={} ms, numWrites={}, writeTime={} ms",
+                numOfCompletedBroadcasts, numOfFailedBroadcasts, encodedEnvelopes.size(),
+                encodeNanos / 1_000_000d, numWrites, writeNanos / 1_000_000d);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -23,12 +23,16 @@ import bisq.network.p2p.storage.messages.BroadcastMessage;
 
 import bisq.common.Timer;
 import bisq.common.UserThread;
+import bisq.common.metrics.Histogram;
+import bisq.common.metrics.Metrics;
 
 import javax.inject.Inject;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -41,10 +45,13 @@ import org.jetbrains.annotations.Nullable;
 @Slf4j
 public class Broadcaster implements BroadcastHandler.ResultHandler {
     private static final long BROADCAST_INTERVAL_MS = 2000;
+    private static final Histogram BROADCAST_DURATION = Metrics.histogram("haveno_p2p_broadcast_seconds",
+            "Duration of the broadcast of a bundle until it reached enough peers or failed");
 
     private final NetworkNode networkNode;
     private final PeerManager peerManager;
     private final Set<BroadcastHandler> broadcastHandlers = new CopyOnWriteArraySet<>();
+    private final Map<BroadcastHandler, Long> broadcastStartNanos = new ConcurrentHashMap<>();
     private final List<BroadcastRequest> broadcastRequests = new ArrayList<>();
     private Timer timer;
     private boolean shutDownRequested;
@@ -59,6 +66,9 @@ public class Broadcaster implements BroadcastHandler.ResultHandler {
     public Broadcaster(NetworkNode networkNode, PeerManager peerManager) {
         this.networkNode = networkNode;
         this.peerManager = peerManager;
+
+        Metrics.gauge("haveno_p2p_broadcast_pending_requests", "Broadcast requests waiting for the next bundle",
+                broadcastRequests::size);
     }
 
     public void shutDown(Runnable resultHandler) {
@@ -100,6 +110,8 @@ public class Broadcaster implements BroadcastHandler.ResultHandler {
                           @Nullable NodeAddress sender,
                           @Nullable BroadcastHandler.Listener listener) {
         broadcastRequests.add(new BroadcastRequest(message, sender, listener));
+        Metrics.counter("haveno_p2p_broadcast_requests_total", "Requested broadcasts",
+                "type", message.getClass().getSimpleName()).inc();
         // Keep that log on INFO for better debugging if the feature works as expected. Later it can
         // be remove or set to DEBUG
         log.debug("Broadcast requested for {}. We queue it up for next bundled broadcast.",
@@ -117,6 +129,7 @@ public class Broadcaster implements BroadcastHandler.ResultHandler {
                     broadcastRequests.stream().map(e -> e.getMessage().getClass().getSimpleName()).collect(Collectors.toList()));
             BroadcastHandler broadcastHandler = new BroadcastHandler(networkNode, peerManager, this);
             broadcastHandlers.add(broadcastHandler);
+            broadcastStartNanos.put(broadcastHandler, Histogram.startTimer());
             broadcastHandler.broadcast(new ArrayList<>(broadcastRequests), shutDownRequested);
             broadcastRequests.clear();
 
@@ -132,6 +145,10 @@ public class Broadcaster implements BroadcastHandler.ResultHandler {
     @Override
     public void onCompleted(BroadcastHandler broadcastHandler) {
         broadcastHandlers.remove(broadcastHandler);
+        Long startNanos = broadcastStartNanos.remove(broadcastHandler);
+        if (startNanos != null) {
+            BROADCAST_DURATION.recordSince(startNanos);
+        }
         if (shutDownRequested) {
             doShutDown();
         }
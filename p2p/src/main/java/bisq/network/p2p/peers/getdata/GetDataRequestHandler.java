@@ -26,12 +26,15 @@ import bisq.network.p2p.storage.P2PDataStorage;
 
 import bisq.common.Timer;
 import bisq.common.UserThread;
+import bisq.common.app.Capability;
 
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -43,7 +46,17 @@ import org.jetbrains.annotations.NotNull;
 public class GetDataRequestHandler {
     private static final long TIMEOUT = 180;
 
+    // Used for peers which do not support Capability.GET_DATA_RESPONSE_PARTS.
     private static final int MAX_ENTRIES = 10000;
+    // Used if the peer supports Capability.GET_DATA_RESPONSE_PARTS. Offers are about 2 kb, so a part stays well
+    // below the message size limit.
+    private static final int MAX_ENTRIES_PER_PART = 1000;
+    // Max. number of response parts sent concurrently over all handlers.
+    private static final int MAX_PARTS_IN_FLIGHT = 10;
+    private static final long RETRY_DELAY_MS = 100;
+
+    // Only accessed from the UserThread
+    private static int numPartsInFlight;
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Listener
@@ -88,50 +101,91 @@ public class GetDataRequestHandler {
                 .map(e -> "node address " + e.getFullAddress())
                 .orElseGet(() -> "connection UID " + connection.getUid());
 
-        AtomicBoolean wasPersistableNetworkPayloadsTruncated = new AtomicBoolean(false);
-        AtomicBoolean wasProtectedStorageEntriesTruncated = new AtomicBoolean(false);
-        GetDataResponse getDataResponse = dataStorage.buildGetDataResponse(
-                getDataRequest,
-                MAX_ENTRIES,
-                wasPersistableNetworkPayloadsTruncated,
-                wasProtectedStorageEntriesTruncated,
-                connection.getCapabilities());
-
-        if (wasPersistableNetworkPayloadsTruncated.get()) {
-            log.warn("The getData request from peer with {} caused too much PersistableNetworkPayload " +
-                            "entries to get delivered. We limited the entries for the response to {} entries",
-                    connectionInfo, MAX_ENTRIES);
+        Iterator<GetDataResponse> parts;
+        if (connection.getCapabilities().contains(Capability.GET_DATA_RESPONSE_PARTS)) {
+            // The parts are sent one after the other and the parts in flight are limited, so we do not need to limit
+            // the number of entries.
+            parts = dataStorage.buildGetDataResponseParts(
+                    getDataRequest,
+                    MAX_ENTRIES_PER_PART,
+                    connection.getCapabilities());
+        } else {
+            AtomicBoolean wasPersistableNetworkPayloadsTruncated = new AtomicBoolean(false);
+            AtomicBoolean wasProtectedStorageEntriesTruncated = new AtomicBoolean(false);
+            GetDataResponse getDataResponse = dataStorage.buildGetDataResponse(
+                    getDataRequest,
+                    MAX_ENTRIES,
+                    wasPersistableNetworkPayloadsTruncated,
+                    wasProtectedStorageEntriesTruncated,
+                    connection.getCapabilities());
+            log.info("The getDataResponse to peer with {} contains {} ProtectedStorageEntries and {} PersistableNetworkPayloads",
+                    connectionInfo,
+                    getDataResponse.getDataSet().size(),
+                    getDataResponse.getPersistableNetworkPayloadSet().size());
+
+            if (wasPersistableNetworkPayloadsTruncated.get()) {
+                log.warn("The getData request from peer with {} caused too much PersistableNetworkPayload " +
+                                "entries to get delivered. We limited the entries for the response to {} entries",
+                        connectionInfo, MAX_ENTRIES);
+            }
+
+            if (wasProtectedStorageEntriesTruncated.get()) {
+                log.warn("The getData request from peer with {} caused too much ProtectedStorageEntry " +
+                                "entries to get delivered. We limited the entries for the response to {} entries",
+                        connectionInfo, MAX_ENTRIES);
+            }
+            parts = List.of(getDataResponse).iterator();
         }
 
-        if (wasProtectedStorageEntriesTruncated.get()) {
-            log.warn("The getData request from peer with {} caused too much ProtectedStorageEntry " +
-                            "entries to get delivered. We limited the entries for the response to {} entries",
-                    connectionInfo, MAX_ENTRIES);
+        // The timeout covers the whole response, so a peer which stalls reading or parts which keep waiting for a
+        // free slot cannot keep the handler alive.
+        startTimeoutTimer(connection);
+        sendParts(parts, connection);
+        log.info("handle GetDataRequest took {} ms", System.currentTimeMillis() - ts);
+    }
+
+    public void stop() {
+        cleanup();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // We send the next part only after the previous one was written to the socket, so the peer's read speed limits
+    // our send rate and only the part in flight is serialised in memory.
+    private void sendParts(Iterator<GetDataResponse> parts, Connection connection) {
+        if (stopped) {
+            log.trace("We have stopped already. We ignore that sendParts call.");
+            return;
         }
 
-        log.info("The getDataResponse to peer with {} contains {} ProtectedStorageEntries and {} PersistableNetworkPayloads",
-                connectionInfo,
-                getDataResponse.getDataSet().size(),
-                getDataResponse.getPersistableNetworkPayloadSet().size());
-
-        if (timeoutTimer == null) {
-            timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
-                        String errorMessage = "A timeout occurred for getDataResponse " +
-                                " on connection:" + connection;
-                        handleFault(errorMessage, CloseConnectionReason.SEND_MSG_TIMEOUT, connection);
-                    },
-                    TIMEOUT, TimeUnit.SECONDS);
+        // Limit the number of parts which are serialised at the same time to bound memory usage if many peers
+        // request data at once. If we are at the limit we retry a bit later.
+        if (numPartsInFlight >= MAX_PARTS_IN_FLIGHT) {
+            log.debug("We have {} parts in flight. We delay sending the next part to {}.",
+                    numPartsInFlight, connection.getPeersNodeAddressOptional());
+            UserThread.runAfter(() -> sendParts(parts, connection), RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+            return;
         }
 
+        GetDataResponse getDataResponse = parts.next();
+        numPartsInFlight++;
         SettableFuture<Connection> future = networkNode.sendMessage(connection, getDataResponse);
         Futures.addCallback(future, new FutureCallback<>() {
             @Override
             public void onSuccess(Connection connection) {
+                numPartsInFlight--;
                 if (!stopped) {
                     log.trace("Send DataResponse to {} succeeded. getDataResponse={}",
                             connection.getPeersNodeAddressOptional(), getDataResponse);
-                    cleanup();
-                    listener.onComplete();
+                    if (parts.hasNext()) {
+                        sendParts(parts, connection);
+                    } else {
+                        cleanup();
+                        listener.onComplete();
+                    }
                 } else {
                     log.trace("We have stopped already. We ignore that networkNode.sendMessage.onSuccess call.");
                 }
@@ -139,6 +193,7 @@ public class GetDataRequestHandler {
 
             @Override
             public void onFailure(@NotNull Throwable throwable) {
+                numPartsInFlight--;
                 if (!stopped) {
                     String errorMessage = "Sending getDataRequest to " + connection +
                             " failed. That is expected if the peer is offline. getDataResponse=" + getDataResponse + "." +
@@ -149,17 +204,24 @@ public class GetDataRequestHandler {
                 }
             }
         }, MoreExecutors.directExecutor());
-        log.info("handle GetDataRequest took {} ms", System.currentTimeMillis() - ts);
     }
 
-    public void stop() {
-        cleanup();
+    private void startTimeoutTimer(Connection connection) {
+        stopTimeoutTimer();
+        timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
+                    String errorMessage = "A timeout occurred for getDataResponse " +
+                            " on connection:" + connection;
+                    handleFault(errorMessage, CloseConnectionReason.SEND_MSG_TIMEOUT, connection);
+                },
+                TIMEOUT, TimeUnit.SECONDS);
     }
 
-
-    ///////////////////////////////////////////////////////////////////////////////////////////
-    // Private
-    ///////////////////////////////////////////////////////////////////////////////////////////
+    private void stopTimeoutTimer() {
+        if (timeoutTimer != null) {
+            timeoutTimer.stop();
+            timeoutTimer = null;
+        }
+    }
 
     private void handleFault(String errorMessage, CloseConnectionReason closeConnectionReason, Connection connection) {
         if (!stopped) {
@@ -173,9 +235,6 @@ public class GetDataRequestHandler {
 
     private void cleanup() {
         stopped = true;
-        if (timeoutTimer != null) {
-            timeoutTimer.stop();
-            timeoutTimer = null;
-        }
+        stopTimeoutTimer();
     }
 }
@@ -31,6 +31,7 @@ import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
 
 import bisq.common.Timer;
 import bisq.common.UserThread;
+import bisq.common.app.Capability;
 import bisq.common.proto.network.NetworkEnvelope;
 import bisq.common.proto.network.NetworkPayload;
 import bisq.common.util.Tuple2;
@@ -121,27 +122,21 @@ class RequestDataHandler implements MessageListener {
         if (!stopped) {
             GetDataRequest getDataRequest;
 
+            // If we know that the peer supports it we send a bloom filter of our known PersistableNetworkPayload
+            // hashes instead of the full list to reduce the request size.
+            boolean useKnownHashesFilter = peerManager.peerHasCapability(nodeAddress,
+                    Capability.GET_DATA_KNOWN_HASHES_FILTER);
             if (isPreliminaryDataRequest)
-                getDataRequest = dataStorage.buildPreliminaryGetDataRequest(nonce);
+                getDataRequest = dataStorage.buildPreliminaryGetDataRequest(nonce, useKnownHashesFilter);
             else
-                getDataRequest = dataStorage.buildGetUpdatedDataRequest(networkNode.getNodeAddress(), nonce);
+                getDataRequest = dataStorage.buildGetUpdatedDataRequest(networkNode.getNodeAddress(), nonce,
+                        useKnownHashesFilter);
 
+            getDataRequestType = getDataRequest.getClass().getSimpleName();
             if (timeoutTimer == null) {
-                timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
-                            if (!stopped) {
-                                String errorMessage = "A timeout occurred at sending getDataRequest:" + getDataRequest +
-                                        " on nodeAddress:" + nodeAddress;
-                                log.debug(errorMessage + " / RequestDataHandler=" + RequestDataHandler.this);
-                                handleFault(errorMessage, nodeAddress, CloseConnectionReason.SEND_MSG_TIMEOUT);
-                            } else {
-                                log.trace("We have stopped already. We ignore that timeoutTimer.run call. " +
-                                        "Might be caused by a previous networkNode.sendMessage.onFailure.");
-                            }
-                        },
-                        TIMEOUT);
+                startTimeoutTimer(nodeAddress); // setup before sending to avoid race conditions
             }
 
-            getDataRequestType = getDataRequest.getClass().getSimpleName();
             log.info("We send a {} to peer {}. ", getDataRequestType, nodeAddress);
             networkNode.addMessageListener(this);
             SettableFuture<Connection> future = networkNode.sendMessage(nodeAddress, getDataRequest);
@@ -200,8 +195,15 @@ class RequestDataHandler implements MessageListener {
                         dataStorage.processGetDataResponse(getDataResponse,
                                 connection.getPeersNodeAddressOptional().get());
 
-                        cleanup();
-                        listener.onComplete();
+                        if (getDataResponse.isLastPart()) {
+                            cleanup();
+                            listener.onComplete();
+                        } else {
+                            // More parts will follow. We keep listening and restart the timeout for the next part.
+                            log.info("We received part {} of the GetDataResponse from {} and wait for more parts.",
+                                    getDataResponse.getPartIndex(), peersNodeAddress);
+                            startTimeoutTimer(peersNodeAddress);
+                        }
                         // firstRequest = false;
                     } else {
                         log.warn("Nonce not matching. That can happen rarely if we get a response after a canceled " +
@@ -285,6 +287,21 @@ class RequestDataHandler implements MessageListener {
         stopTimeoutTimer();
     }
 
+    private void startTimeoutTimer(NodeAddress nodeAddress) {
+        timeoutTimer = UserThread.runAfter(() -> {
+                    if (!stopped) {
+                        String errorMessage = "A timeout occurred at sending " + getDataRequestType +
+                                " on nodeAddress:" + nodeAddress;
+                        log.debug(errorMessage + " / RequestDataHandler=" + RequestDataHandler.this);
+                        handleFault(errorMessage, nodeAddress, CloseConnectionReason.SEND_MSG_TIMEOUT);
+                    } else {
+                        log.trace("We have stopped already. We ignore that timeoutTimer.run call. " +
+                                "Might be caused by a previous networkNode.sendMessage.onFailure.");
+                    }
+                },
+                TIMEOUT);
+    }
+
     private void stopTimeoutTimer() {
         if (timeoutTimer != null) {
             timeoutTimer.stop();
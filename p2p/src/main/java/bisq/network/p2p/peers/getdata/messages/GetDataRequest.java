@@ -44,13 +44,20 @@ public abstract class GetDataRequest extends NetworkEnvelope implements Extended
     @Nullable
     protected final String version;
 
+    // Bloom filter of the PersistableNetworkPayload hashes known by the requester. Only set if the peer supports
+    // Capability.GET_DATA_KNOWN_HASHES_FILTER. In that case excludedKeys only contains the ProtectedStorageEntry keys.
+    @Nullable
+    protected final KnownHashesFilter knownHashesFilter;
+
     public GetDataRequest(int messageVersion,
                           int nonce,
                           Set<byte[]> excludedKeys,
-                          @Nullable String version) {
+                          @Nullable String version,
+                          @Nullable KnownHashesFilter knownHashesFilter) {
         super(messageVersion);
         this.nonce = nonce;
         this.excludedKeys = excludedKeys;
         this.version = version;
+        this.knownHashesFilter = knownHashesFilter;
     }
 }
@@ -0,0 +1,160 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.peers.getdata.messages;
+
+import bisq.common.proto.network.NetworkPayload;
+
+import com.google.protobuf.ByteString;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.util.Collection;
+import java.util.Random;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bloom filter over the payload hashes a requester already knows. Sent instead of the full excluded keys list to
+ * peers supporting Capability.GET_DATA_KNOWN_HASHES_FILTER, so the request size is about 2 bytes per known hash
+ * instead of 32.
+ *
+ * A false positive means the responder assumes we have a payload we are in fact missing. Each filter uses a
+ * random tweak for its hash functions, so a payload missed in one request is delivered with high probability in the
+ * next one (e.g. the GetUpdatedDataRequest following the PreliminaryGetDataRequest).
+ */
+@Slf4j
+@EqualsAndHashCode
+@Getter
+public final class KnownHashesFilter implements NetworkPayload {
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+    private static final int MAX_NUM_HASH_FUNCTIONS = 30;
+    // 4 MB, about 2 million entries at our false positive rate. The message size limit of the connection applies as
+    // well but we want to fail early at deserialisation.
+    private static final int MAX_NUM_BYTES = 4 * 1024 * 1024;
+
+    private final byte[] bits;
+    private final int numHashFunctions;
+    private final int tweak;
+
+    public static KnownHashesFilter fromHashes(Collection<byte[]> hashes) {
+        int expectedEntries = Math.max(1, hashes.size());
+        long numBits = (long) Math.ceil(-expectedEntries * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+        int numBytes = (int) Math.min(MAX_NUM_BYTES, Math.max(1, (numBits + 7) / 8));
+        int numHashFunctions = (int) Math.round((double) numBytes * 8 / expectedEntries * Math.log(2));
+        numHashFunctions = Math.max(1, Math.min(MAX_NUM_HASH_FUNCTIONS, numHashFunctions));
+
+        KnownHashesFilter filter = new KnownHashesFilter(new byte[numBytes], numHashFunctions, new Random().nextInt());
+        hashes.forEach(filter::put);
+        return filter;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private KnownHashesFilter(byte[] bits, int numHashFunctions, int tweak) {
+        this.bits = bits;
+        this.numHashFunctions = numHashFunctions;
+        this.tweak = tweak;
+    }
+
+    @Override
+    public protobuf.KnownHashesFilter toProtoMessage() {
+        return protobuf.KnownHashesFilter.newBuilder()
+                .setBits(ByteString.copyFrom(bits))
+                .setNumHashFunctions(numHashFunctions)
+                .setTweak(tweak)
+                .build();
+    }
+
+    public static KnownHashesFilter fromProto(protobuf.KnownHashesFilter proto) {
+        byte[] bits = proto.getBits().toByteArray();
+        int numHashFunctions = proto.getNumHashFunctions();
+        if (bits.length == 0 || bits.length > MAX_NUM_BYTES)
+            throw new IllegalArgumentException("Invalid size of KnownHashesFilter bits: " + bits.length);
+        if (numHashFunctions < 1 || numHashFunctions > MAX_NUM_HASH_FUNCTIONS)
+            throw new IllegalArgumentException("Invalid numHashFunctions of KnownHashesFilter: " + numHashFunctions);
+
+        return new KnownHashesFilter(bits, numHashFunctions, proto.getTweak());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public boolean mightContain(byte[] hash) {
+        long numBits = (long) bits.length * 8;
+        ByteBuffer buffer = getHashBuffer(hash);
+        long hash1 = buffer.getLong();
+        long hash2 = buffer.getLong();
+        long combinedHash = hash1;
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = (combinedHash & Long.MAX_VALUE) % numBits;
+            if ((bits[(int) (index >>> 3)] & (1 << (index & 7))) == 0)
+                return false;
+            combinedHash += hash2;
+        }
+        return true;
+    }
+
+    public int getSizeInBytes() {
+        return bits.length;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void put(byte[] hash) {
+        long numBits = (long) bits.length * 8;
+        ByteBuffer buffer = getHashBuffer(hash);
+        long hash1 = buffer.getLong();
+        long hash2 = buffer.getLong();
+        long combinedHash = hash1;
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = (combinedHash & Long.MAX_VALUE) % numBits;
+            bits[(int) (index >>> 3)] |= (byte) (1 << (index & 7));
+            combinedHash += hash2;
+        }
+    }
+
+    // Payload hashes are not necessarily uniformly distributed (some payload types use short hashes), so we do not
+    // use the raw hash bytes as bit indices but hash them again with the tweak as seed.
+    private ByteBuffer getHashBuffer(byte[] hash) {
+        HashCode hashCode = Hashing.murmur3_128(tweak).hashBytes(hash);
+        return ByteBuffer.wrap(hashCode.asBytes()).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public String toString() {
+        return "KnownHashesFilter{" +
+                "\n     sizeInBytes=" + bits.length +
+                ",\n     numHashFunctions=" + numHashFunctions +
+                ",\n     tweak=" + tweak +
+                "\n}";
+    }
+}
@@ -28,6 +28,7 @@ import bisq.network.p2p.peers.Broadcaster;
 import bisq.network.p2p.peers.getdata.messages.GetDataRequest;
 import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
 import bisq.network.p2p.peers.getdata.messages.GetUpdatedDataRequest;
+import bisq.network.p2p.peers.getdata.messages.KnownHashesFilter;
 import bisq.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
 import bisq.network.p2p.storage.messages.AddDataMessage;
 import bisq.network.p2p.storage.messages.AddOncePayload;
@@ -45,11 +46,10 @@ import bisq.network.p2p.storage.payload.ProcessOncePersistableNetworkPayload;
 import bisq.network.p2p.storage.payload.ProtectedMailboxStorageEntry;
 import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
 import bisq.network.p2p.storage.payload.ProtectedStoragePayload;
+import bisq.network.p2p.storage.payload.ProtectedStoragePayloadCache;
 import bisq.network.p2p.storage.payload.RequiresOwnerIsOnlinePayload;
 import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreListener;
 import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
-import bisq.network.p2p.storage.persistence.HistoricalDataStoreService;
-import bisq.network.p2p.storage.persistence.PersistableNetworkPayloadStore;
 import bisq.network.p2p.storage.persistence.ProtectedDataStoreService;
 import bisq.network.p2p.storage.persistence.RemovedPayloadsService;
 import bisq.network.p2p.storage.persistence.ResourceDataStoreService;
@@ -61,6 +61,8 @@ import bisq.common.app.Capabilities;
 import bisq.common.crypto.CryptoException;
 import bisq.common.crypto.Hash;
 import bisq.common.crypto.Sig;
+import bisq.common.metrics.Histogram;
+import bisq.common.metrics.Metrics;
 import bisq.common.persistence.PersistenceManager;
 import bisq.common.proto.network.NetworkEnvelope;
 import bisq.common.proto.network.NetworkPayload;
@@ -98,14 +100,17 @@ import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import lombok.EqualsAndHashCode;
@@ -115,6 +120,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Nullable;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 @Slf4j
 public class P2PDataStorage implements MessageListener, ConnectionListener, PersistedDataHost {
     /**
@@ -147,6 +154,11 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     private final RemovedPayloadsService removedPayloadsService;
     private final Clock clock;
 
+    private static final Histogram BUILD_DATA_RESPONSE_DURATION = Metrics.histogram("haveno_p2p_build_data_response_seconds",
+            "Duration of building the data response for a data request of a peer");
+    private static final Histogram PROCESS_DATA_RESPONSE_DURATION = Metrics.histogram("haveno_p2p_process_data_response_seconds",
+            "Duration of applying a data response of a peer");
+
     /// The maximum number of items that must exist in the SequenceNumberMap before it is scheduled for a purge
     /// which removes entries after PURGE_AGE_DAYS.
     private final int maxSequenceNumberMapSizeBeforePurge;
@@ -182,6 +194,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         networkNode.addConnectionListener(this);
 
         this.persistenceManager.initialize(sequenceNumberMap, PersistenceManager.Source.PRIVATE_LOW_PRIO);
+
+        Metrics.gauge("haveno_p2p_protected_storage_entries", "Protected storage entries in the data storage", map::size);
     }
 
 
@@ -259,6 +273,19 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
      * Returns a PreliminaryGetDataRequest that can be sent to a peer node to request missing Payload data.
      */
     public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce) {
+        return buildPreliminaryGetDataRequest(nonce, false);
+    }
+
+    /**
+     * Returns a PreliminaryGetDataRequest that can be sent to a peer node to request missing Payload data.
+     * If useKnownHashesFilter is set the PersistableNetworkPayload hashes are sent as a KnownHashesFilter instead
+     * of the full list of excluded keys. Must only be used if the peer supports
+     * Capability.GET_DATA_KNOWN_HASHES_FILTER.
+     */
+    public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce, boolean useKnownHashesFilter) {
+        if (useKnownHashesFilter) {
+            return new PreliminaryGetDataRequest(nonce, getKeysAsByteSet(map), buildKnownHashesFilter());
+        }
         return new PreliminaryGetDataRequest(nonce, getKnownPayloadHashes());
     }
 
@@ -266,9 +293,37 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
      * Returns a GetUpdatedDataRequest that can be sent to a peer node to request missing Payload data.
      */
     public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress, int nonce) {
+        return buildGetUpdatedDataRequest(senderNodeAddress, nonce, false);
+    }
+
+    /**
+     * Returns a GetUpdatedDataRequest that can be sent to a peer node to request missing Payload data.
+     * See buildPreliminaryGetDataRequest for the use of useKnownHashesFilter.
+     */
+    public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress,
+                                                            int nonce,
+                                                            boolean useKnownHashesFilter) {
+        if (useKnownHashesFilter) {
+            return new GetUpdatedDataRequest(senderNodeAddress, nonce, getKeysAsByteSet(map), buildKnownHashesFilter());
+        }
         return new GetUpdatedDataRequest(senderNodeAddress, nonce, getKnownPayloadHashes());
     }
 
+    /**
+     * Returns a bloom filter over the known PersistableNetworkPayload hashes. Those are the large append-only stores,
+     * the ProtectedStorageEntry keys are still sent as exact excluded keys as missing an offer or mailbox message
+     * due a false positive would not get healed by later requests in case the peer does not request again.
+     */
+    private KnownHashesFilter buildKnownHashesFilter() {
+        long ts = System.currentTimeMillis();
+        Set<byte[]> persistableNetworkPayloadHashes = getKeysAsByteSet(appendOnlyDataStoreService.getMapsForDataRequest());
+        KnownHashesFilter knownHashesFilter = KnownHashesFilter.fromHashes(persistableNetworkPayloadHashes);
+        log.info("Creating KnownHashesFilter of {} kB for {} PersistableNetworkPayload hashes took {} ms",
+                knownHashesFilter.getSizeInBytes() / 1000d, persistableNetworkPayloadHashes.size(),
+                System.currentTimeMillis() - ts);
+        return knownHashesFilter;
+    }
+
     /**
      * Returns the set of known payload hashes. This is used in the GetData path to request missing data from peer nodes
      */
@@ -278,10 +333,10 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         // an object gets removed in between PreliminaryGetDataRequest and the GetUpdatedDataRequest and we would
         // miss that event if we do not load the full set or use some delta handling.
 
-        Map<ByteArray, PersistableNetworkPayload> mapForDataRequest = getMapForDataRequest();
-        Set<byte[]> excludedKeys = getKeysAsByteSet(mapForDataRequest);
+        List<Map<ByteArray, PersistableNetworkPayload>> mapsForDataRequest = appendOnlyDataStoreService.getMapsForDataRequest();
+        Set<byte[]> excludedKeys = getKeysAsByteSet(mapsForDataRequest);
         log.trace("## getKnownPayloadHashes map of PersistableNetworkPayloads={}, excludedKeys={}",
-                printPersistableNetworkPayloadMap(mapForDataRequest),
+                printPersistableNetworkPayloadMaps(mapsForDataRequest),
                 excludedKeys.stream().map(Utilities::encodeToHex).toArray());
 
         Set<byte[]> excludedKeysFromProtectedStorageEntryMap = getKeysAsByteSet(map);
@@ -302,36 +357,129 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             AtomicBoolean wasPersistableNetworkPayloadsTruncated,
             AtomicBoolean wasProtectedStorageEntriesTruncated,
             Capabilities peerCapabilities) {
+        long startNanos = Histogram.startTimer();
+        Tuple2<List<ProtectedStorageEntry>, List<PersistableNetworkPayload>> filteredEntries = getFilteredEntries(
+                getDataRequest,
+                maxEntriesPerType,
+                wasPersistableNetworkPayloadsTruncated,
+                wasProtectedStorageEntriesTruncated,
+                peerCapabilities);
+
+        GetDataResponse getDataResponse = new GetDataResponse(
+                new HashSet<>(filteredEntries.first),
+                new HashSet<>(filteredEntries.second),
+                getDataRequest.getNonce(),
+                getDataRequest instanceof GetUpdatedDataRequest);
+        BUILD_DATA_RESPONSE_DURATION.recordSince(startNanos);
+        return getDataResponse;
+    }
 
+    /**
+     * Returns the Payloads known locally, but not remotely, split into GetDataResponse parts of max.
+     * maxEntriesPerPart entries each. Used for peers supporting Capability.GET_DATA_RESPONSE_PARTS. As the response
+     * does not need to fit into a single message, it is not truncated: the requester gets all missing entries with
+     * one request.
+     *
+     * The parts are ordered: ProtectedStorageEntries first, then the PersistableNetworkPayloads with the
+     * DateSortedTruncatablePayloads sorted by date at the end. The requester applies each part as it arrives, so if the
+     * transfer gets interrupted, the known hashes of its next request act as the cursor for resuming it. The parts are
+     * created by the returned iterator when they get sent, so we only hold the references to the filtered entries and
+     * the part in flight.
+     */
+    public Iterator<GetDataResponse> buildGetDataResponseParts(GetDataRequest getDataRequest,
+                                                               int maxEntriesPerPart,
+                                                               Capabilities peerCapabilities) {
+        checkArgument(maxEntriesPerPart > 0, "maxEntriesPerPart must be positive");
+        long startNanos = Histogram.startTimer();
+        Tuple2<List<ProtectedStorageEntry>, List<PersistableNetworkPayload>> filteredEntries = getFilteredEntries(
+                getDataRequest,
+                Integer.MAX_VALUE,
+                new AtomicBoolean(),
+                new AtomicBoolean(),
+                peerCapabilities);
+        BUILD_DATA_RESPONSE_DURATION.recordSince(startNanos);
+        List<ProtectedStorageEntry> protectedStorageEntries = filteredEntries.first;
+        List<PersistableNetworkPayload> persistableNetworkPayloads = filteredEntries.second;
+
+        int numProtectedStorageEntries = protectedStorageEntries.size();
+        int numEntries = numProtectedStorageEntries + persistableNetworkPayloads.size();
+        int numParts = Math.max(1, (numEntries + maxEntriesPerPart - 1) / maxEntriesPerPart);
+        log.info("Split getDataResponse with {} entries into {} parts", numEntries, numParts);
+        return new Iterator<>() {
+            private int partIndex;
+
+            @Override
+            public boolean hasNext() {
+                return partIndex < numParts;
+            }
+
+            @Override
+            public GetDataResponse next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int fromIndex = partIndex * maxEntriesPerPart;
+                int toIndex = Math.min(numEntries, fromIndex + maxEntriesPerPart);
+                Set<ProtectedStorageEntry> dataSet = new HashSet<>(protectedStorageEntries.subList(
+                        Math.min(fromIndex, numProtectedStorageEntries),
+                        Math.min(toIndex, numProtectedStorageEntries)));
+                Set<PersistableNetworkPayload> persistableNetworkPayloadSet = new HashSet<>(persistableNetworkPayloads.subList(
+                        Math.max(0, fromIndex - numProtectedStorageEntries),
+                        Math.max(0, toIndex - numProtectedStorageEntries)));
+                GetDataResponse part = new GetDataResponse(dataSet,
+                        persistableNetworkPayloadSet,
+                        getDataRequest.getNonce(),
+                        getDataRequest instanceof GetUpdatedDataRequest,
+                        partIndex,
+                        partIndex < numParts - 1);
+                partIndex++;
+                return part;
+            }
+        };
+    }
+
+    private Tuple2<List<ProtectedStorageEntry>, List<PersistableNetworkPayload>> getFilteredEntries(
+            GetDataRequest getDataRequest,
+            int maxEntriesPerType,
+            AtomicBoolean wasPersistableNetworkPayloadsTruncated,
+            AtomicBoolean wasProtectedStorageEntriesTruncated,
+            Capabilities peerCapabilities) {
         Set<P2PDataStorage.ByteArray> excludedKeysAsByteArray =
                 P2PDataStorage.ByteArray.convertBytesSetToByteArraySet(getDataRequest.getExcludedKeys());
+        KnownHashesFilter knownHashesFilter = getDataRequest.getKnownHashesFilter();
+        Predicate<ByteArray> isKnownPersistableNetworkPayload = knownHashesFilter == null ?
+                excludedKeysAsByteArray::contains :
+                hash -> excludedKeysAsByteArray.contains(hash) || knownHashesFilter.mightContain(hash.bytes);
+        log.info("Num excludedKeys {}, knownHashesFilter {}", excludedKeysAsByteArray.size(), knownHashesFilter);
 
         // Pre v 1.4.0 requests do not have set the requesters version field so it is null.
         // The methods in HistoricalDataStoreService will return all historical data in that case.
-        // mapForDataResponse contains the filtered by version data from HistoricalDataStoreService as well as all other
-        // maps of the remaining appendOnlyDataStoreServices.
-        Map<ByteArray, PersistableNetworkPayload> mapForDataResponse = getMapForDataResponse(getDataRequest.getVersion());
-        Set<PersistableNetworkPayload> filteredPersistableNetworkPayloads =
+        // mapsForDataResponse contains the filtered by version data from HistoricalDataStoreService as well as all other
+        // maps of the remaining appendOnlyDataStoreServices. We do not merge them into one map to avoid copying all
+        // entries at each request.
+        List<Map<ByteArray, PersistableNetworkPayload>> mapsForDataResponse =
+                appendOnlyDataStoreService.getMapsForDataResponse(getDataRequest.getVersion());
+        List<PersistableNetworkPayload> filteredPersistableNetworkPayloads =
                 filterKnownHashes(
-                        mapForDataResponse,
+                        mapsForDataResponse,
                         Function.identity(),
-                        excludedKeysAsByteArray,
+                        isKnownPersistableNetworkPayload,
                         peerCapabilities,
                         maxEntriesPerType,
                         wasPersistableNetworkPayloadsTruncated);
         log.info("{} PersistableNetworkPayload entries remained after filtered by excluded keys. " +
                         "Original map had {} entries.",
-                filteredPersistableNetworkPayloads.size(), mapForDataResponse.size());
+                filteredPersistableNetworkPayloads.size(), mapsForDataResponse.stream().mapToInt(Map::size).sum());
         log.trace("## buildGetDataResponse filteredPersistableNetworkPayloadHashes={}",
                 filteredPersistableNetworkPayloads.stream()
                         .map(e -> Utilities.encodeToHex(e.getHash()))
                         .toArray());
 
-        Set<ProtectedStorageEntry> filteredProtectedStorageEntries =
+        List<ProtectedStorageEntry> filteredProtectedStorageEntries =
                 filterKnownHashes(
-                        map,
+                        List.of(map),
                         ProtectedStorageEntry::getProtectedStoragePayload,
-                        excludedKeysAsByteArray,
+                        excludedKeysAsByteArray::contains,
                         peerCapabilities,
                         maxEntriesPerType,
                         wasProtectedStorageEntriesTruncated);
@@ -343,11 +491,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                         .map(e -> get32ByteHashAsByteArray((e.getProtectedStoragePayload())))
                         .toArray());
 
-        return new GetDataResponse(
-                filteredProtectedStorageEntries,
-                filteredPersistableNetworkPayloads,
-                getDataRequest.getNonce(),
-                getDataRequest instanceof GetUpdatedDataRequest);
+        return new Tuple2<>(filteredProtectedStorageEntries, filteredPersistableNetworkPayloads);
     }
 
 
@@ -355,62 +499,30 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     // Utils for collecting the exclude hashes
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private Map<ByteArray, PersistableNetworkPayload> getMapForDataRequest() {
-        Map<ByteArray, PersistableNetworkPayload> map = new HashMap<>();
-        appendOnlyDataStoreService.getServices()
-                .forEach(service -> {
-                    Map<ByteArray, PersistableNetworkPayload> serviceMap;
-                    if (service instanceof HistoricalDataStoreService) {
-                        var historicalDataStoreService = (HistoricalDataStoreService<? extends PersistableNetworkPayloadStore>) service;
-                        // As we add the version to our request we only use the live data. Eventually missing data will be
-                        // derived from the version.
-                        serviceMap = historicalDataStoreService.getMapOfLiveData();
-                    } else {
-                        serviceMap = service.getMap();
-                    }
-                    map.putAll(serviceMap);
-                    log.info("We added {} entries from {} to the excluded key set of our request",
-                            serviceMap.size(), service.getClass().getSimpleName());
-                });
-        return map;
-    }
-
     public Map<ByteArray, PersistableNetworkPayload> getMapForDataResponse(String requestersVersion) {
         Map<ByteArray, PersistableNetworkPayload> map = new HashMap<>();
-        appendOnlyDataStoreService.getServices()
-                .forEach(service -> {
-                    Map<ByteArray, PersistableNetworkPayload> serviceMap;
-                    if (service instanceof HistoricalDataStoreService) {
-                        var historicalDataStoreService = (HistoricalDataStoreService<? extends PersistableNetworkPayloadStore>) service;
-                        serviceMap = historicalDataStoreService.getMapSinceVersion(requestersVersion);
-                    } else {
-                        serviceMap = service.getMap();
-                    }
-                    map.putAll(serviceMap);
-                    log.info("We added {} entries from {} to be filtered by excluded keys",
-                            serviceMap.size(), service.getClass().getSimpleName());
-                });
+        appendOnlyDataStoreService.getMapsForDataResponse(requestersVersion).forEach(map::putAll);
         return map;
     }
 
     /**
-     * Generic function that can be used to filter a Map<ByteArray, ProtectedStorageEntry || PersistableNetworkPayload>
-     * by a given set of keys and peer capabilities.
+     * Generic function that can be used to filter Map<ByteArray, ProtectedStorageEntry || PersistableNetworkPayload>
+     * maps by a given predicate for known keys and peer capabilities. The result contains the non
+     * DateSortedTruncatablePayloads first, followed by the DateSortedTruncatablePayloads sorted by date.
      */
-    static private <T extends NetworkPayload> Set<T> filterKnownHashes(
-            Map<ByteArray, T> toFilter,
+    static private <T extends NetworkPayload> List<T> filterKnownHashes(
+            Collection<Map<ByteArray, T>> toFilter,
             Function<T, ? extends NetworkPayload> objToPayload,
-            Set<ByteArray> knownHashes,
+            Predicate<ByteArray> isKnownHash,
             Capabilities peerCapabilities,
             int maxEntries,
             AtomicBoolean outTruncated) {
 
-        log.info("Num knownHashes {}", knownHashes.size());
-
-        Set<Map.Entry<ByteArray, T>> entries = toFilter.entrySet();
-        List<T> dateSortedTruncatablePayloads = entries.stream()
+        // We filter by the known hashes first as the values of memory mapped maps get decoded at access.
+        List<T> dateSortedTruncatablePayloads = toFilter.stream()
+                .flatMap(map -> map.entrySet().stream())
+                .filter(entry -> !isKnownHash.test(entry.getKey()))
                 .filter(entry -> entry.getValue() instanceof DateSortedTruncatablePayload)
-                .filter(entry -> !knownHashes.contains(entry.getKey()))
                 .map(Map.Entry::getValue)
                 .filter(payload -> shouldTransmitPayloadToPeer(peerCapabilities, objToPayload.apply(payload)))
                 .sorted(Comparator.comparing(payload -> ((DateSortedTruncatablePayload) payload).getDate()))
@@ -426,9 +538,10 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             }
         }
 
-        List<T> filteredResults = entries.stream()
+        List<T> filteredResults = toFilter.stream()
+                .flatMap(map -> map.entrySet().stream())
+                .filter(entry -> !isKnownHash.test(entry.getKey()))
                 .filter(entry -> !(entry.getValue() instanceof DateSortedTruncatablePayload))
-                .filter(entry -> !knownHashes.contains(entry.getKey()))
                 .map(Map.Entry::getValue)
                 .filter(payload -> shouldTransmitPayloadToPeer(peerCapabilities, objToPayload.apply(payload)))
                 .collect(Collectors.toList());
@@ -446,7 +559,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             log.info("Num filteredResults {}", filteredResults.size());
         }
 
-        return new HashSet<>(filteredResults);
+        return filteredResults;
     }
 
 
@@ -456,6 +569,13 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 .collect(Collectors.toSet());
     }
 
+    private Set<byte[]> getKeysAsByteSet(Collection<? extends Map<ByteArray, ? extends PersistablePayload>> maps) {
+        return maps.stream()
+                .flatMap(map -> map.keySet().stream())
+                .map(e -> e.bytes)
+                .collect(Collectors.toSet());
+    }
+
     /**
      * Returns true if a Payload should be transmit to a peer given the peer's supported capabilities.
      */
@@ -488,6 +608,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         final Set<ProtectedStorageEntry> dataSet = getDataResponse.getDataSet();
         Set<PersistableNetworkPayload> persistableNetworkPayloadSet = getDataResponse.getPersistableNetworkPayloadSet();
 
+        long startNanos = Histogram.startTimer();
         long ts2 = System.currentTimeMillis();
         dataSet.forEach(e -> {
             // We don't broadcast here (last param) as we are only connected to the seed node and would be pointless
@@ -520,8 +641,11 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
         // We only process PersistableNetworkPayloads implementing ProcessOncePersistableNetworkPayload once. It can cause performance
         // issues and since the data is rarely out of sync it is not worth it to apply them from multiple peers during
-        // startup.
-        initialRequestApplied = true;
+        // startup. If the response is delivered in multiple parts we apply all parts of it.
+        if (getDataResponse.isLastPart()) {
+            initialRequestApplied = true;
+        }
+        PROCESS_DATA_RESPONSE_DURATION.recordSince(startNanos);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -676,7 +800,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         }
 
         ByteArray hashAsByteArray = new ByteArray(payload.getHash());
-        boolean payloadHashAlreadyInStore = appendOnlyDataStoreService.getMap().containsKey(hashAsByteArray);
+        boolean payloadHashAlreadyInStore = appendOnlyDataStoreService.containsKey(hashAsByteArray);
 
         // Store already knows about this payload. Ignore it unless the caller specifically requests a republish.
         if (payloadHashAlreadyInStore && !reBroadcast) {
@@ -696,6 +820,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         if (!payloadHashAlreadyInStore) {
             appendOnlyDataStoreService.put(hashAsByteArray, payload);
             appendOnlyDataStoreListeners.forEach(e -> e.onAdded(payload));
+            Metrics.counter("haveno_p2p_persistable_payloads_added_total", "Added persistable network payloads",
+                    "type", payload.getClass().getSimpleName()).inc();
         }
 
         // Broadcast the payload if requested by caller
@@ -790,10 +916,11 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         // This is an updated entry. Record it and signal listeners.
         map.put(hashOfPayload, protectedStorageEntry);
         hashMapChangedListeners.forEach(e -> e.onAdded(Collections.singletonList(protectedStorageEntry)));
+        Metrics.counter("haveno_p2p_protected_storage_entries_added_total", "Added or updated protected storage entries",
+                "type", protectedStoragePayload.getClass().getSimpleName()).inc();
 
         // Record the updated sequence number and persist it. Higher delay so we can batch more items.
-        sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
-        requestPersistence();
+        putSequenceNumber(hashOfPayload, protectedStorageEntry.getSequenceNumber());
 
         log.trace("## ProtectedStorageEntry added to map. hash={}, map={}", hashOfPayload, printMap());
 
@@ -880,8 +1007,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         map.put(hashOfPayload, updatedEntry);
 
         // Record the latest sequence number and persist it
-        sequenceNumberMap.put(hashOfPayload, new MapValue(updatedEntry.getSequenceNumber(), this.clock.millis()));
-        requestPersistence();
+        putSequenceNumber(hashOfPayload, updatedEntry.getSequenceNumber());
 
         // Always broadcast refreshes
         broadcaster.broadcast(refreshTTLMessage, sender);
@@ -916,8 +1042,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             return false;
 
         // Record the latest sequence number and persist it
-        sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
-        requestPersistence();
+        putSequenceNumber(hashOfPayload, protectedStorageEntry.getSequenceNumber());
 
         // Update that we have seen this AddOncePayload so the next time it is seen it fails verification
         if (protectedStoragePayload instanceof AddOncePayload) {
@@ -1031,6 +1156,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             removedProtectedStorageEntries.add(protectedStorageEntry);
 
             ProtectedStoragePayload protectedStoragePayload = protectedStorageEntry.getProtectedStoragePayload();
+            Metrics.counter("haveno_p2p_protected_storage_entries_removed_total", "Removed protected storage entries",
+                    "type", protectedStoragePayload.getClass().getSimpleName()).inc();
             if (protectedStoragePayload instanceof PersistablePayload) {
                 ProtectedStorageEntry previous = protectedDataStoreService.remove(hashOfPayload, protectedStorageEntry);
                 if (previous == null)
@@ -1074,6 +1201,16 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         persistenceManager.requestPersistence();
     }
 
+    private void putSequenceNumber(ByteArray hashOfPayload, int sequenceNumber) {
+        MapValue mapValue = new MapValue(sequenceNumber, this.clock.millis());
+        sequenceNumberMap.put(hashOfPayload, mapValue);
+
+        // Later entries overwrite earlier ones at reading, so we only need to persist the changed entry.
+        SequenceNumberMap delta = new SequenceNumberMap();
+        delta.put(hashOfPayload, mapValue);
+        persistenceManager.appendToJournal(delta);
+    }
+
     public static ByteArray get32ByteHashAsByteArray(NetworkPayload data) {
         return new ByteArray(P2PDataStorage.get32ByteHash(data));
     }
@@ -1129,8 +1266,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 e.getValue().getProtectedStoragePayload().getClass().getSimpleName()).toArray());
     }
 
-    private String printPersistableNetworkPayloadMap(Map<ByteArray, PersistableNetworkPayload> map) {
-        return Arrays.toString(map.entrySet().stream().map(e -> Hex.encode(e.getKey().bytes) + ": " +
+    private String printPersistableNetworkPayloadMaps(List<Map<ByteArray, PersistableNetworkPayload>> maps) {
+        return Arrays.toString(maps.stream().flatMap(map -> map.entrySet().stream()).map(e -> Hex.encode(e.getKey().bytes) + ": " +
                 e.getValue().getClass().getSimpleName()).toArray());
     }
 
@@ -1139,6 +1276,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
      * @return Hash of data
      */
     public static byte[] get32ByteHash(NetworkPayload data) {
+        if (data instanceof ProtectedStoragePayload) {
+            return ProtectedStoragePayloadCache.get32ByteHash((ProtectedStoragePayload) data);
+        }
         return Hash.getSha256Hash(data.toProtoMessage().toByteArray());
     }
 
@@ -1166,7 +1306,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         @Override
         public com.google.protobuf.Message toProtoMessage() {
             return protobuf.DataAndSeqNrPair.newBuilder()
-                    .setPayload((protobuf.StoragePayload) protectedStoragePayload.toProtoMessage())
+                    .setPayload((protobuf.StoragePayload) ProtectedStoragePayloadCache.getProtoMessage(protectedStoragePayload))
                     .setSequenceNumber(sequenceNumber)
                     .build();
         }
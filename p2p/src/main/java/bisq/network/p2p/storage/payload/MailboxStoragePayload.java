@@ -20,6 +20,8 @@ package bisq.network.p2p.storage.payload;
 import bisq.network.p2p.PrefixedSealedAndSignedMessage;
 import bisq.network.p2p.storage.messages.AddOncePayload;
 
+import bisq.common.app.Capabilities;
+import bisq.common.app.Capability;
 import bisq.common.crypto.Sig;
 import bisq.common.util.CollectionUtils;
 import bisq.common.util.ExtraDataMapValidator;
@@ -53,7 +55,8 @@ import javax.annotation.Nullable;
 @Getter
 @EqualsAndHashCode
 @Slf4j
-public final class MailboxStoragePayload implements ProtectedStoragePayload, ExpirablePayload, AddOncePayload {
+public final class MailboxStoragePayload implements ProtectedStoragePayload, ExpirablePayload, AddOncePayload,
+        CapabilityRequiringPayload {
     public static final long TTL = TimeUnit.DAYS.toMillis(15);
 
     // Added in 1.5.5
@@ -145,4 +148,13 @@ public final class MailboxStoragePayload implements ProtectedStoragePayload, Exp
         // If not set in extraDataMap or value is invalid or too large we return default TTL
         return TTL;
     }
+
+    // Nodes not knowing the recipient hint drop it when they serialize the payload, so the hash changes and the
+    // signature check fails. We only send such payloads to peers supporting it.
+    @Override
+    public Capabilities getRequiredCapabilities() {
+        return prefixedSealedAndSignedMessage.hasRecipientHint() ?
+                new Capabilities(Capability.MAILBOX_RECIPIENT_HINT) :
+                new Capabilities();
+    }
 }
@@ -108,7 +108,7 @@ public class ProtectedStorageEntry implements NetworkPayload, PersistablePayload
 
     public Message toProtoMessage() {
         return protobuf.ProtectedStorageEntry.newBuilder()
-                .setStoragePayload((protobuf.StoragePayload) protectedStoragePayload.toProtoMessage())
+                .setStoragePayload((protobuf.StoragePayload) ProtectedStoragePayloadCache.getProtoMessage(protectedStoragePayload))
                 .setOwnerPubKeyBytes(ByteString.copyFrom(ownerPubKeyBytes))
                 .setSequenceNumber(sequenceNumber)
                 .setSignature(ByteString.copyFrom(signature))
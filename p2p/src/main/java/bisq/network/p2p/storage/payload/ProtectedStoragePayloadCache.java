@@ -0,0 +1,65 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.payload;
+
+import bisq.common.crypto.Hash;
+
+import com.google.protobuf.Message;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Caches the proto message and the 32 byte hash of ProtectedStoragePayloads. The same payload gets serialized at
+ * each add, remove and refresh check (hash of the payload and of its DataAndSeqNrPair for the signature), at
+ * broadcasting and at persisting. As the payloads are immutable we can reuse the result of the first encoding.
+ *
+ * We use weak keys, so the entries are compared by identity and removed once the payload is not referenced anymore.
+ * A payload we receive again from the network is a new object and gets encoded again, which is intended as we do not
+ * want to rely on equals() of the payloads here.
+ */
+public final class ProtectedStoragePayloadCache {
+    private static final Cache<ProtectedStoragePayload, Message> PROTO_MESSAGE_CACHE = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+    private static final Cache<ProtectedStoragePayload, byte[]> HASH_CACHE = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    private ProtectedStoragePayloadCache() {
+    }
+
+    public static Message getProtoMessage(ProtectedStoragePayload protectedStoragePayload) {
+        Message message = PROTO_MESSAGE_CACHE.getIfPresent(protectedStoragePayload);
+        if (message == null) {
+            message = protectedStoragePayload.toProtoMessage();
+            PROTO_MESSAGE_CACHE.put(protectedStoragePayload, message);
+        }
+        return message;
+    }
+
+    // The returned array is shared, so callers must not modify it.
+    public static byte[] get32ByteHash(ProtectedStoragePayload protectedStoragePayload) {
+        byte[] hash = HASH_CACHE.getIfPresent(protectedStoragePayload);
+        if (hash == null) {
+            hash = Hash.getSha256Hash(getProtoMessage(protectedStoragePayload).toByteArray());
+            HASH_CACHE.put(protectedStoragePayload, hash);
+        }
+        return hash;
+    }
+}
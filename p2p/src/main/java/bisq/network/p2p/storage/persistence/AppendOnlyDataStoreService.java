@@ -25,6 +25,7 @@ import javax.inject.Inject;
 import com.google.common.annotations.VisibleForTesting;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -33,6 +34,8 @@ import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 /**
  * Used for PersistableNetworkPayload data which gets appended to a map storage.
  */
@@ -87,6 +90,46 @@ public class AppendOnlyDataStoreService {
                 .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
     }
 
+    // Checks the maps of all services without merging them into a new map as getMap does. Used at each add of a
+    // PersistableNetworkPayload.
+    public boolean containsKey(P2PDataStorage.ByteArray hash) {
+        return services.stream().anyMatch(service -> service.containsKey(hash));
+    }
+
+    // Returns the maps of all services which are relevant for our data request. As we add our version to the request
+    // we only use the live data of the HistoricalDataStoreServices. Eventually missing data will be derived from the
+    // version. The maps are not copied and must not be modified by the caller.
+    public List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> getMapsForDataRequest() {
+        return services.stream()
+                .map(service -> {
+                    Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> serviceMap =
+                            service instanceof HistoricalDataStoreService ?
+                                    ((HistoricalDataStoreService<?>) service).getMapOfLiveData() :
+                                    service.getMap();
+                    log.info("We added {} entries from {} to the excluded key set of our request",
+                            serviceMap.size(), service.getClass().getSimpleName());
+                    return Collections.unmodifiableMap(serviceMap);
+                })
+                .collect(Collectors.toList());
+    }
+
+    // Returns the maps of all services which are relevant for a data response to a peer with the given version.
+    // Pre v 1.4.0 requests do not have set the requesters version field so it is null. The HistoricalDataStoreServices
+    // will return all historical data in that case. The maps are not copied and must not be modified by the caller.
+    public List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> getMapsForDataResponse(@Nullable String requestersVersion) {
+        List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> result = new ArrayList<>();
+        services.forEach(service -> {
+            List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> serviceMaps =
+                    service instanceof HistoricalDataStoreService ?
+                            ((HistoricalDataStoreService<?>) service).getMapsSinceVersion(requestersVersion) :
+                            List.of(Collections.unmodifiableMap(service.getMap()));
+            log.info("We added {} entries from {} to be filtered by excluded keys",
+                    serviceMaps.stream().mapToInt(Map::size).sum(), service.getClass().getSimpleName());
+            result.addAll(serviceMaps);
+        });
+        return result;
+    }
+
     public void put(P2PDataStorage.ByteArray hashAsByteArray, PersistableNetworkPayload payload) {
         services.stream()
                 .filter(service -> service.canHandle(payload))
@@ -20,6 +20,7 @@ package bisq.network.p2p.storage.persistence;
 import bisq.network.p2p.storage.P2PDataStorage;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 
+import bisq.common.UserThread;
 import bisq.common.app.DevEnv;
 import bisq.common.app.Version;
 import bisq.common.persistence.PersistenceManager;
@@ -27,13 +28,20 @@ import bisq.common.persistence.PersistenceManager;
 import com.google.common.collect.ImmutableMap;
 
 import java.io.File;
+import java.io.IOException;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 /**
  * Manages historical data stores tagged with the release versions.
  * New data is added to the default map in the store (live data). Historical data is created from resource files.
@@ -42,9 +50,9 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 public abstract class HistoricalDataStoreService<T extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> extends MapStoreService<T, PersistableNetworkPayload> {
-    private ImmutableMap<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion;
-    // Cache to avoid that we have to recreate the historical data at each request
-    private ImmutableMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads;
+    // The historical stores are memory mapped and decode their payloads only at access (see MappedPayloadMap). If
+    // mapping fails we fall back to the store read into the heap.
+    private ImmutableMap<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> mapsByVersion;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -63,11 +71,23 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
     // We give back a map of our live map and all historical maps newer than the requested version.
     // If requestersVersion is null we return all historical data.
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapSinceVersion(String requestersVersion) {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>();
+        getMapsSinceVersion(requestersVersion).forEach(result::putAll);
+        log.info("We found {} entries since requesters version {}",
+                result.size(), requestersVersion);
+        return result;
+    }
+
+    // Same as getMapSinceVersion but we do not copy the entries into a new map. The historical stores are immutable
+    // and the live data is the map of our store, so the returned maps are read-only views which are cheap to create
+    // even for large stores. Used for serving data requests where we would otherwise copy all entries per request.
+    public List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> getMapsSinceVersion(@Nullable String requestersVersion) {
+        List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> result = new ArrayList<>();
         // We add all our live data
-        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(store.getMap());
+        result.add(Collections.unmodifiableMap(store.getMap()));
 
         // If we have a store with a newer version than the requesters version we will add those as well.
-        storesByVersion.entrySet().stream()
+        mapsByVersion.entrySet().stream()
                 .filter(entry -> {
                     // Old nodes not sending the version will get delivered all data
                     if (requestersVersion == null) {
@@ -87,11 +107,8 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
                             requestersVersion, storeVersion, details);
                     return newVersion;
                 })
-                .map(e -> e.getValue().getMap())
-                .forEach(result::putAll);
-
-        log.info("We found {} entries since requesters version {}",
-                result.size(), requestersVersion);
+                .map(Map.Entry::getValue)
+                .forEach(result::add);
         return result;
     }
 
@@ -101,10 +118,17 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
 
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfAllData() {
         Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(getMapOfLiveData());
-        result.putAll(allHistoricalPayloads);
+        mapsByVersion.values().forEach(result::putAll);
         return result;
     }
 
+    // Streams the payloads of the live data and all historical data without copying them into a new map as
+    // getMapOfAllData does. The payloads of the historical stores get decoded when they are streamed.
+    public Stream<PersistableNetworkPayload> streamAllData() {
+        return Stream.concat(Stream.of(getMapOfLiveData()), mapsByVersion.values().stream())
+                .flatMap(map -> map.values().stream());
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // MapStoreService
@@ -124,7 +148,7 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         }
 
         getMapOfLiveData().put(hash, payload);
-        requestPersistence();
+        requestPersistence(hash, payload);
     }
 
     @Override
@@ -137,10 +161,25 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         // So it will be always null. We still keep the return type as we override the method from MapStoreService which
         // follow the Map.putIfAbsent signature.
         getMapOfLiveData().put(hash, payload);
-        requestPersistence();
+        requestPersistence(hash, payload);
         return null;
     }
 
+    // The stores are persisted as list of their payloads, so a store with only the new payload appended to the
+    // journal gets merged correctly.
+    @Override
+    protected T createJournalDelta(P2PDataStorage.ByteArray hash, PersistableNetworkPayload payload) {
+        T delta = createStore();
+        delta.getMap().put(hash, payload);
+        return delta;
+    }
+
+
+    // Looks up the hash in the live data and all historical data without copying or decoding any payloads.
+    @Override
+    public boolean containsKey(P2PDataStorage.ByteArray hash) {
+        return anyMapContainsKey(hash);
+    }
 
     @Override
     protected void readFromResources(String postFix, Runnable completeHandler) {
@@ -149,18 +188,15 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
                     getFileName(), getMapOfLiveData().size());
 
             // Now we add our historical data stores.
-            Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads = new HashMap<>();
-            Map<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion = new HashMap<>();
+            Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> mapsByVersion = new HashMap<>();
             AtomicInteger numFiles = new AtomicInteger(Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS.size());
             Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS.forEach(version -> readHistoricalStoreFromResources(version,
                     postFix,
-                    allHistoricalPayloads,
-                    storesByVersion,
+                    mapsByVersion,
                     () -> {
                         if (numFiles.decrementAndGet() == 0) {
                             // At last iteration we set the immutable map
-                            this.allHistoricalPayloads = ImmutableMap.copyOf(allHistoricalPayloads);
-                            this.storesByVersion = ImmutableMap.copyOf(storesByVersion);
+                            this.mapsByVersion = ImmutableMap.copyOf(mapsByVersion);
                             completeHandler.run();
                         }
                     }));
@@ -174,29 +210,53 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
 
     private void readHistoricalStoreFromResources(String version,
                                                   String postFix,
-                                                  Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads,
-                                                  Map<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion,
+                                                  Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> mapsByVersion,
                                                   Runnable completeHandler) {
 
         String fileName = getFileName() + "_" + version;
-        boolean wasCreatedFromResources = makeFileFromResourceFile(fileName, postFix);
+        makeFileFromResourceFile(fileName, postFix);
 
         // If resource file does not exist we do not create a new store as it would never get filled.
-        persistenceManager.readPersisted(fileName, persisted -> {
-                    storesByVersion.put(version, persisted);
-                    allHistoricalPayloads.putAll(persisted.getMap());
-                    log.info("We have read from {} {} historical items.", fileName, persisted.getMap().size());
-                    pruneStore(persisted, version);
-                    completeHandler.run();
-                },
-                completeHandler::run);
+        File storeFile = new File(absolutePathOfStorageDir, fileName);
+        if (!storeFile.exists()) {
+            completeHandler.run();
+            return;
+        }
+
+        new Thread(() -> {
+            try {
+                MappedPayloadMap map = MappedPayloadMap.create(storeFile, persistenceManager::fromProto);
+                UserThread.execute(() -> {
+                    log.info("We have mapped {} with {} historical items.", fileName, map.size());
+                    onHistoricalMapRead(map, version, mapsByVersion, completeHandler);
+                });
+            } catch (IOException | RuntimeException e) {
+                log.warn("Mapping {} failed with {}. We read it into memory instead.", fileName, e.toString());
+                UserThread.execute(() -> persistenceManager.readPersisted(fileName, persisted -> {
+                            log.info("We have read from {} {} historical items.", fileName, persisted.getMap().size());
+                            onHistoricalMapRead(persisted.getMap(), version, mapsByVersion, completeHandler);
+                        },
+                        completeHandler));
+            }
+        }, "HistoricalDataStoreService-map-" + fileName).start();
+    }
+
+    private void onHistoricalMapRead(Map<P2PDataStorage.ByteArray, ? extends PersistableNetworkPayload> historicalMap,
+                                     String version,
+                                     Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> mapsByVersion,
+                                     Runnable completeHandler) {
+        mapsByVersion.put(version, Collections.unmodifiableMap(historicalMap));
+        pruneStore(historicalMap, version);
+        completeHandler.run();
     }
 
-    private void pruneStore(PersistableNetworkPayloadStore<? extends PersistableNetworkPayload> historicalStore,
+    private void pruneStore(Map<P2PDataStorage.ByteArray, ? extends PersistableNetworkPayload> historicalMap,
                             String version) {
         Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> mapOfLiveData = getMapOfLiveData();
         int preLive = mapOfLiveData.size();
-        mapOfLiveData.keySet().removeAll(historicalStore.getMap().keySet());
+        // We iterate over the live data as it is much smaller than the historical data and the lookup in the
+        // historical map does not require decoding its payloads.
+        mapOfLiveData.keySet().removeIf(historicalMap::containsKey);
         int postLive = mapOfLiveData.size();
         if (preLive > postLive) {
             log.info("We pruned data from our live data store which are already contained in the historical data store with version {}. " +
@@ -209,6 +269,7 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
     }
 
     private boolean anyMapContainsKey(P2PDataStorage.ByteArray hash) {
-        return getMapOfLiveData().containsKey(hash) || allHistoricalPayloads.containsKey(hash);
+        return getMapOfLiveData().containsKey(hash) ||
+                mapsByVersion.values().stream().anyMatch(map -> map.containsKey(hash));
     }
 }
@@ -29,6 +29,8 @@ import java.util.Map;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 /**
  * Handles persisted data which is stored in a map.
  *
@@ -58,12 +60,12 @@ public abstract class MapStoreService<T extends PersistableEnvelope, R extends P
 
     void put(P2PDataStorage.ByteArray hash, R payload) {
         getMap().put(hash, payload);
-        requestPersistence();
+        requestPersistence(hash, payload);
     }
 
     protected R putIfAbsent(P2PDataStorage.ByteArray hash, R payload) {
         R previous = getMap().putIfAbsent(hash, payload);
-        requestPersistence();
+        requestPersistence(hash, payload);
         return previous;
     }
 
@@ -76,4 +78,21 @@ public abstract class MapStoreService<T extends PersistableEnvelope, R extends P
     boolean containsKey(P2PDataStorage.ByteArray hash) {
         return getMap().containsKey(hash);
     }
+
+    // Persists only the added entry if the store supports it, otherwise the whole store.
+    protected void requestPersistence(P2PDataStorage.ByteArray hash, R payload) {
+        T delta = createJournalDelta(hash, payload);
+        if (delta != null) {
+            persistenceManager.appendToJournal(delta);
+        } else {
+            requestPersistence();
+        }
+    }
+
+    // Stores which get merged correctly from a store containing only the added entry can override that to support
+    // the journaled persistence mode of the PersistenceManager.
+    @Nullable
+    protected T createJournalDelta(P2PDataStorage.ByteArray hash, R payload) {
+        return null;
+    }
 }
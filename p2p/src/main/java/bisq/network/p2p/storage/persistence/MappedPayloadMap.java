@@ -0,0 +1,377 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import bisq.common.file.FileUtil;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Read-only map over a persisted PersistableNetworkPayloadStore file. The file is memory mapped instead of read into
+ * the heap and the payloads are decoded at access. Lookups by hash only use the index and do not decode any payload.
+ *
+ * The index of the hashes to the location of the serialized payloads in the store file is built once, when we see the
+ * store file the first time, and gets saved in a separate index file next to it. Following starts only need to map
+ * both files.
+ *
+ * Used for the historical data stores which are immutable and only rarely accessed.
+ */
+@Slf4j
+class MappedPayloadMap extends AbstractMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+    private static final String INDEX_FILE_POSTFIX = ".index";
+    private static final int INDEX_VERSION = 1;
+    // version, length of store file, tag of store in envelope, number of entries, length of the keys
+    private static final int HEADER_SIZE = 4 + 8 + 4 + 4 + 4;
+    // tag, offset and length of the serialized payload in the store file
+    private static final int RECORD_VALUE_SIZE = 4 + 4 + 4;
+
+    private final ByteBuffer data;
+    private final ByteBuffer index;
+    private final Function<protobuf.PersistableEnvelope, ? extends PersistableNetworkPayloadStore<?>> decoder;
+    private final int envelopeTag;
+    private final int size;
+    private final int keyLength;
+    private final int recordSize;
+
+    /**
+     * @param storeFile     The store file as written by the PersistenceManager.
+     * @param decoder       Creates the store from the envelope. Used for decoding single payloads.
+     * @throws IOException  If the file cannot be read or has an unexpected format. The caller should fall back to
+     *                      read the store into the heap in that case.
+     */
+    static MappedPayloadMap create(File storeFile,
+                                   Function<protobuf.PersistableEnvelope, ? extends PersistableNetworkPayloadStore<?>> decoder)
+            throws IOException {
+        ByteBuffer data = map(storeFile);
+        File indexFile = new File(storeFile.getParentFile(), storeFile.getName() + INDEX_FILE_POSTFIX);
+        if (indexFile.exists()) {
+            ByteBuffer index = map(indexFile);
+            if (isValidIndex(index, storeFile.length())) {
+                return new MappedPayloadMap(data, index, decoder);
+            }
+            log.info("Index of {} is outdated. We rebuild it.", storeFile.getName());
+        }
+
+        long ts = System.currentTimeMillis();
+        writeIndex(data, storeFile.length(), decoder, indexFile);
+        log.info("Building index of {} took {} ms", storeFile.getName(), System.currentTimeMillis() - ts);
+        return new MappedPayloadMap(data, map(indexFile), decoder);
+    }
+
+    private MappedPayloadMap(ByteBuffer data,
+                             ByteBuffer index,
+                             Function<protobuf.PersistableEnvelope, ? extends PersistableNetworkPayloadStore<?>> decoder) {
+        this.data = data;
+        this.index = index;
+        this.decoder = decoder;
+        envelopeTag = index.getInt(12);
+        size = index.getInt(16);
+        keyLength = index.getInt(20);
+        recordSize = keyLength + RECORD_VALUE_SIZE;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Map
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof P2PDataStorage.ByteArray && findRecord(((P2PDataStorage.ByteArray) key).bytes) >= 0;
+    }
+
+    @Override
+    public PersistableNetworkPayload get(Object key) {
+        if (!(key instanceof P2PDataStorage.ByteArray)) {
+            return null;
+        }
+        int record = findRecord(((P2PDataStorage.ByteArray) key).bytes);
+        return record >= 0 ? decode(record) : null;
+    }
+
+    @Override
+    public Set<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> iterator() {
+                return new Iterator<>() {
+                    private int record = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return record < size;
+                    }
+
+                    @Override
+                    public Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return new LazyEntry(record++);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // The value is only decoded when requested, so iterating over the keys does not decode the payloads.
+    private class LazyEntry implements Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+        private final int record;
+        private final P2PDataStorage.ByteArray key;
+        @Nullable
+        private PersistableNetworkPayload value;
+
+        LazyEntry(int record) {
+            this.record = record;
+            this.key = new P2PDataStorage.ByteArray(readKey(record));
+        }
+
+        @Override
+        public P2PDataStorage.ByteArray getKey() {
+            return key;
+        }
+
+        @Override
+        public PersistableNetworkPayload getValue() {
+            if (value == null) {
+                value = decode(record);
+            }
+            return value;
+        }
+
+        @Override
+        public PersistableNetworkPayload setValue(PersistableNetworkPayload value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry))
+                return false;
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return key.equals(entry.getKey()) && getValue().equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ getValue().hashCode();
+        }
+    }
+
+    private byte[] readKey(int record) {
+        byte[] key = new byte[keyLength];
+        index.duplicate().position(HEADER_SIZE + record * recordSize).get(key);
+        return key;
+    }
+
+    // Binary search over the sorted keys. Returns the record or a negative value if not found.
+    private int findRecord(byte[] key) {
+        if (key.length != keyLength) {
+            return -1;
+        }
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int result = Arrays.compareUnsigned(readKey(mid), key);
+            if (result < 0) {
+                low = mid + 1;
+            } else if (result > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private PersistableNetworkPayload decode(int record) {
+        int position = HEADER_SIZE + record * recordSize + keyLength;
+        PersistableNetworkPayload payload = decode(data,
+                envelopeTag,
+                index.getInt(position),
+                index.getInt(position + 4),
+                index.getInt(position + 8),
+                decoder);
+        if (payload == null) {
+            throw new IllegalStateException("Could not decode payload at record " + record);
+        }
+        return payload;
+    }
+
+    // We wrap the serialized payload into an envelope containing a store with only this payload, so we can use the
+    // decoder of the store and do not need to know the concrete payload type.
+    @Nullable
+    private static PersistableNetworkPayload decode(ByteBuffer data,
+                                                    int envelopeTag,
+                                                    int tag,
+                                                    int offset,
+                                                    int length,
+                                                    Function<protobuf.PersistableEnvelope, ? extends PersistableNetworkPayloadStore<?>> decoder) {
+        try {
+            ByteBuffer serializedPayload = data.duplicate().position(offset).limit(offset + length).slice();
+            int storeLength = CodedOutputStream.computeUInt32SizeNoTag(tag) +
+                    CodedOutputStream.computeUInt32SizeNoTag(length) + length;
+            byte[] envelope = new byte[CodedOutputStream.computeUInt32SizeNoTag(envelopeTag) +
+                    CodedOutputStream.computeUInt32SizeNoTag(storeLength) + storeLength];
+            CodedOutputStream outputStream = CodedOutputStream.newInstance(envelope);
+            outputStream.writeUInt32NoTag(envelopeTag);
+            outputStream.writeUInt32NoTag(storeLength);
+            outputStream.writeUInt32NoTag(tag);
+            outputStream.writeUInt32NoTag(length);
+            outputStream.writeRawBytes(serializedPayload);
+            outputStream.checkNoSpaceLeft();
+
+            Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map =
+                    decoder.apply(protobuf.PersistableEnvelope.parseFrom(envelope)).getMap();
+            return map.isEmpty() ? null : map.values().iterator().next();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isValidIndex(ByteBuffer index, long storeFileLength) {
+        if (index.capacity() < HEADER_SIZE || index.getInt(0) != INDEX_VERSION || index.getLong(4) != storeFileLength) {
+            return false;
+        }
+        long expectedCapacity = HEADER_SIZE + (long) index.getInt(16) * (index.getInt(20) + RECORD_VALUE_SIZE);
+        return index.capacity() == expectedCapacity;
+    }
+
+    private static void writeIndex(ByteBuffer data,
+                                   long storeFileLength,
+                                   Function<protobuf.PersistableEnvelope, ? extends PersistableNetworkPayloadStore<?>> decoder,
+                                   File indexFile) throws IOException {
+        // The file contains one length delimited envelope. Its only field is the store, which contains the
+        // serialized payloads as repeated field.
+        CodedInputStream inputStream = CodedInputStream.newInstance(data.duplicate());
+        inputStream.setSizeLimit(Integer.MAX_VALUE);
+        inputStream.readRawVarint32();
+        int envelopeTag = inputStream.readTag();
+        if (WireFormat.getTagWireType(envelopeTag) != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+            throw new IOException("Unexpected envelope tag " + envelopeTag);
+        }
+        int storeLength = inputStream.readRawVarint32();
+        int storeEnd = inputStream.getTotalBytesRead() + storeLength;
+
+        List<Record> records = new ArrayList<>();
+        int keyLength = -1;
+        while (inputStream.getTotalBytesRead() < storeEnd) {
+            int tag = inputStream.readTag();
+            if (WireFormat.getTagWireType(tag) != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                inputStream.skipField(tag);
+                continue;
+            }
+            int length = inputStream.readRawVarint32();
+            int offset = inputStream.getTotalBytesRead();
+            inputStream.skipRawBytes(length);
+
+            PersistableNetworkPayload payload = decode(data, envelopeTag, tag, offset, length, decoder);
+            if (payload == null) {
+                continue;
+            }
+            byte[] key = payload.getHash();
+            if (keyLength == -1) {
+                keyLength = key.length;
+            } else if (keyLength != key.length) {
+                throw new IOException("Payloads with different hash lengths are not supported");
+            }
+            records.add(new Record(key, tag, offset, length));
+        }
+        records.sort((o1, o2) -> Arrays.compareUnsigned(o1.key, o2.key));
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + records.size() * (Math.max(0, keyLength) + RECORD_VALUE_SIZE));
+        buffer.putInt(INDEX_VERSION)
+                .putLong(storeFileLength)
+                .putInt(envelopeTag)
+                .putInt(records.size())
+                .putInt(Math.max(0, keyLength));
+        records.forEach(record -> buffer.put(record.key).putInt(record.tag).putInt(record.offset).putInt(record.length));
+
+        // We write to a temp file first, so we never map an incomplete index file.
+        File tempFile = File.createTempFile("temp_" + indexFile.getName(), null, indexFile.getParentFile());
+        try (FileOutputStream fileOutputStream = new FileOutputStream(tempFile)) {
+            fileOutputStream.write(buffer.array());
+            fileOutputStream.getFD().sync();
+        }
+        FileUtil.renameFile(tempFile, indexFile);
+    }
+
+    private static ByteBuffer map(File file) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+        }
+    }
+
+    private static class Record {
+        private final byte[] key;
+        private final int tag;
+        private final int offset;
+        private final int length;
+
+        Record(byte[] key, int tag, int offset, int length) {
+            this.key = key;
+            this.tag = tag;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
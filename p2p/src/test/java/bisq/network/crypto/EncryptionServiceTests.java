@@ -17,6 +17,12 @@
 
 package bisq.network.crypto;
 
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.PrefixedSealedAndSignedMessage;
+import bisq.network.p2p.storage.payload.MailboxStoragePayload;
+
+import bisq.common.app.Capability;
+
 import bisq.common.crypto.CryptoException;
 import bisq.common.crypto.KeyRing;
 import bisq.common.crypto.KeyStorage;
@@ -36,8 +42,12 @@ import org.slf4j.LoggerFactory;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
+import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 public class EncryptionServiceTests {
     private static final Logger log = LoggerFactory.getLogger(EncryptionServiceTests.class);
 
@@ -45,6 +55,7 @@ public class EncryptionServiceTests {
     public ExpectedException thrown = ExpectedException.none();
 
     private KeyRing keyRing;
+    private KeyRing otherKeyRing;
     private File dir;
 
     @Before
@@ -57,6 +68,10 @@ public class EncryptionServiceTests {
         dir.mkdir();
         KeyStorage keyStorage = new KeyStorage(dir);
         keyRing = new KeyRing(keyStorage, null, true);
+        File otherDir = new File(dir, "other");
+        //noinspection ResultOfMethodCallIgnored
+        otherDir.mkdir();
+        otherKeyRing = new KeyRing(new KeyStorage(otherDir), null, true);
     }
 
     @After
@@ -64,6 +79,59 @@ public class EncryptionServiceTests {
         FileUtil.deleteDirectory(dir);
     }
 
+    @Test
+    public void testRecipientHint() throws CryptoException {
+        EncryptionService encryptionService = new EncryptionService(keyRing, null);
+        EncryptionService otherEncryptionService = new EncryptionService(otherKeyRing, null);
+        NodeAddress nodeAddress = new NodeAddress("localhost", 2222);
+
+        int numRejectedByOther = 0;
+        for (int i = 0; i < 100; i++) {
+            PrefixedSealedAndSignedMessage message = otherEncryptionService.createPrefixedSealedAndSignedMessage(nodeAddress,
+                    keyRing.getPubKeyRing(),
+                    new MockMessage(i));
+            assertTrue(message.hasRecipientHint());
+            assertTrue(encryptionService.mightBeForMe(message));
+            if (!otherEncryptionService.mightBeForMe(message)) {
+                numRejectedByOther++;
+            }
+        }
+        // With a 1 byte hint we expect about 1 false positive in 256 messages
+        assertTrue(numRejectedByOther > 90);
+    }
+
+    @Test
+    public void testMailboxDataWithRecipientHintRequiresCapability() throws CryptoException {
+        EncryptionService encryptionService = new EncryptionService(keyRing, null);
+        NodeAddress nodeAddress = new NodeAddress("localhost", 2222);
+
+        PrefixedSealedAndSignedMessage message = encryptionService.createPrefixedSealedAndSignedMessage(nodeAddress,
+                otherKeyRing.getPubKeyRing(),
+                new MockMessage(1));
+        assertTrue(toMailboxStoragePayload(message).getRequiredCapabilities()
+                .containsAll(Capability.MAILBOX_RECIPIENT_HINT));
+
+        PrefixedSealedAndSignedMessage messageWithoutHint = new PrefixedSealedAndSignedMessage(nodeAddress,
+                encryptionService.encryptAndSign(otherKeyRing.getPubKeyRing(), new MockMessage(1)));
+        assertTrue(toMailboxStoragePayload(messageWithoutHint).getRequiredCapabilities().isEmpty());
+    }
+
+    private MailboxStoragePayload toMailboxStoragePayload(PrefixedSealedAndSignedMessage message) {
+        return new MailboxStoragePayload(message,
+                keyRing.getSignatureKeyPair().getPublic(),
+                otherKeyRing.getPubKeyRing().getSignaturePubKey(),
+                MailboxStoragePayload.TTL);
+    }
+
+    @Test
+    public void testMessageWithoutRecipientHint() throws CryptoException {
+        EncryptionService encryptionService = new EncryptionService(keyRing, null);
+        PrefixedSealedAndSignedMessage message = new PrefixedSealedAndSignedMessage(new NodeAddress("localhost", 2222),
+                encryptionService.encryptAndSign(otherKeyRing.getPubKeyRing(), new MockMessage(1)));
+        assertFalse(message.hasRecipientHint());
+        assertTrue(encryptionService.mightBeForMe(message));
+    }
+
     //TODO Use NetworkProtoResolver, PersistenceProtoResolver or ProtoResolver which are all in io.bisq.common.
 /*
     @Test
@@ -0,0 +1,166 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.mailbox;
+
+import bisq.network.crypto.EncryptionService;
+import bisq.network.p2p.DecryptedMessageWithPubKey;
+import bisq.network.p2p.MailboxMessage;
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.PrefixedSealedAndSignedMessage;
+import bisq.network.p2p.network.NetworkNode;
+import bisq.network.p2p.peers.PeerManager;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.MailboxStoragePayload;
+import bisq.network.p2p.storage.payload.ProtectedMailboxStorageEntry;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+
+import bisq.common.UserThread;
+import bisq.common.crypto.KeyRing;
+import bisq.common.crypto.SealedAndSigned;
+import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.network.NetworkEnvelope;
+
+import java.time.Clock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class MailboxMessageServiceTest {
+    private static final int NUM_ENTRIES = 500;
+
+    private final Random random = new Random();
+    private final List<String> receivedUids = Collections.synchronizedList(new ArrayList<>());
+    private Executor previousUserThreadExecutor;
+    private ExecutorService userThreadExecutor;
+    private EncryptionService encryptionService;
+    private MailboxMessageService mailboxMessageService;
+    private CountDownLatch latch;
+
+    @Before
+    public void setUp() throws Exception {
+        previousUserThreadExecutor = UserThread.getExecutor();
+        userThreadExecutor = Executors.newSingleThreadExecutor();
+        UserThread.setExecutor(userThreadExecutor);
+
+        NetworkNode networkNode = mock(NetworkNode.class);
+        when(networkNode.getNodeAddress()).thenReturn(new NodeAddress("localhost:9999"));
+        encryptionService = mock(EncryptionService.class);
+        when(encryptionService.mightBeForMe(any())).thenReturn(true);
+        mailboxMessageService = new MailboxMessageService(networkNode,
+                mock(PeerManager.class),
+                mock(P2PDataStorage.class),
+                encryptionService,
+                mock(IgnoredMailboxService.class),
+                mock(PersistenceManager.class),
+                mock(KeyRing.class),
+                Clock.systemDefaultZone(),
+                false);
+
+        latch = new CountDownLatch(NUM_ENTRIES);
+        mailboxMessageService.addDecryptedMailboxListener((decryptedMessageWithPubKey, senderNodeAddress) -> {
+            receivedUids.add(((MailboxMessage) decryptedMessageWithPubKey.getNetworkEnvelope()).getUid());
+            latch.countDown();
+        });
+    }
+
+    @After
+    public void tearDown() {
+        userThreadExecutor.shutdownNow();
+        UserThread.setExecutor(previousUserThreadExecutor);
+    }
+
+    @Test
+    public void testBatchIsAppliedInOrderOfCreation() throws Exception {
+        List<ProtectedStorageEntry> entries = new ArrayList<>();
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            entries.add(createMailboxEntry(i));
+        }
+        // The order of the entries we get from the storage is random
+        Collections.shuffle(entries);
+
+        mailboxMessageService.onAdded(entries);
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        List<String> expectedUids = IntStream.range(0, NUM_ENTRIES)
+                .mapToObj(MailboxMessageServiceTest::getUid)
+                .collect(Collectors.toList());
+        assertEquals(expectedUids, new ArrayList<>(receivedUids));
+        // Each entry got decrypted once, although the chunks were decrypted in parallel
+        verify(encryptionService, times(NUM_ENTRIES)).decryptAndVerify(any());
+    }
+
+    @Test
+    public void testSingleEntryIsAppliedImmediately() throws Exception {
+        mailboxMessageService.onAdded(List.of(createMailboxEntry(0)));
+
+        assertEquals(List.of(getUid(0)), new ArrayList<>(receivedUids));
+    }
+
+    private ProtectedMailboxStorageEntry createMailboxEntry(int index) throws Exception {
+        SealedAndSigned sealedAndSigned = mock(SealedAndSigned.class);
+        PrefixedSealedAndSignedMessage prefixedSealedAndSignedMessage = mock(PrefixedSealedAndSignedMessage.class);
+        when(prefixedSealedAndSignedMessage.getUid()).thenReturn(getUid(index));
+        when(prefixedSealedAndSignedMessage.getSealedAndSigned()).thenReturn(sealedAndSigned);
+
+        MailboxStoragePayload mailboxStoragePayload = mock(MailboxStoragePayload.class);
+        when(mailboxStoragePayload.getPrefixedSealedAndSignedMessage()).thenReturn(prefixedSealedAndSignedMessage);
+        when(mailboxStoragePayload.toProtoMessage()).thenReturn(protobuf.StoragePayload.getDefaultInstance());
+
+        ProtectedMailboxStorageEntry entry = mock(ProtectedMailboxStorageEntry.class);
+        when(entry.getMailboxStoragePayload()).thenReturn(mailboxStoragePayload);
+        when(entry.getProtectedStoragePayload()).thenReturn(mailboxStoragePayload);
+        when(entry.getCreationTimeStamp()).thenReturn(1000L + index);
+
+        NetworkEnvelope mailboxMessage = mock(NetworkEnvelope.class, withSettings().extraInterfaces(MailboxMessage.class));
+        when(((MailboxMessage) mailboxMessage).getUid()).thenReturn(getUid(index));
+        DecryptedMessageWithPubKey decryptedMessageWithPubKey = mock(DecryptedMessageWithPubKey.class);
+        when(decryptedMessageWithPubKey.getNetworkEnvelope()).thenReturn(mailboxMessage);
+        when(encryptionService.decryptAndVerify(sealedAndSigned)).thenAnswer(invocation -> {
+            // Let the chunks finish in random order
+            Thread.sleep(random.nextInt(2));
+            return decryptedMessageWithPubKey;
+        });
+        return entry;
+    }
+
+    private static String getUid(int index) {
+        return "uid-" + index;
+    }
+}
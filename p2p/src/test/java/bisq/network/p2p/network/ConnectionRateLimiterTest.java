@@ -0,0 +1,109 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.peers.keepalive.messages.Ping;
+import bisq.network.p2p.peers.keepalive.messages.Pong;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConnectionRateLimiterTest {
+    private static final Ping PING = new Ping(1, 0);
+    private static final Pong PONG = new Pong(1);
+
+    @Test
+    public void testLimitPerSec() {
+        ConnectionRateLimiter rateLimiter = createRateLimiter(Collections.emptyMap());
+        long now = 1000;
+        for (int i = 0; i < 9; i++) {
+            assertFalse(rateLimiter.violatesThrottleLimit(PING, now + i));
+        }
+        assertTrue(rateLimiter.violatesThrottleLimit(PING, now + 9));
+        assertEquals(1, rateLimiter.getNumThrottledInboundMessages());
+
+        // The 10th last message is older than 1 sec
+        assertFalse(rateLimiter.violatesThrottleLimit(PING, now + 1001));
+    }
+
+    @Test
+    public void testLimitPer10Sec() {
+        ConnectionRateLimiter rateLimiter = createRateLimiter(Collections.emptyMap());
+        long now = 1000;
+        // 5 messages per sec are below the limit per sec
+        for (int i = 0; i < 19; i++) {
+            assertFalse(rateLimiter.violatesThrottleLimit(PING, now + i * 200));
+        }
+        assertTrue(rateLimiter.violatesThrottleLimit(PING, now + 19 * 200));
+    }
+
+    @Test
+    public void testBudgetOfType() {
+        ConnectionRateLimiter rateLimiter = createRateLimiter(Map.of("Ping", 2));
+        long now = 1000;
+        assertFalse(rateLimiter.violatesThrottleLimit(PING, now));
+        assertFalse(rateLimiter.violatesThrottleLimit(PONG, now));
+        assertFalse(rateLimiter.violatesThrottleLimit(PING, now));
+        assertTrue(rateLimiter.violatesThrottleLimit(PING, now));
+        assertFalse(rateLimiter.violatesThrottleLimit(PONG, now));
+
+        // We get 2 new tokens per sec
+        assertFalse(rateLimiter.violatesThrottleLimit(PING, now + 500));
+    }
+
+    @Test
+    public void testOutboundBurst() {
+        ConnectionRateLimiter rateLimiter = createRateLimiter(Collections.emptyMap());
+        long now = 1000;
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rateLimiter.tryAcquireOutbound(now));
+        }
+        assertFalse(rateLimiter.tryAcquireOutbound(now));
+
+        // One message per 20 ms
+        assertEquals(20, rateLimiter.reserveOutbound(now));
+        assertEquals(40, rateLimiter.reserveOutbound(now));
+        assertEquals(2, rateLimiter.getNumDelayedOutboundMessages());
+        assertEquals(60, rateLimiter.getOutboundDelay());
+
+        assertFalse(rateLimiter.tryAcquireOutbound(now + 40));
+        assertTrue(rateLimiter.tryAcquireOutbound(now + 60));
+    }
+
+    @Test
+    public void testParseBudgets() {
+        assertEquals(Map.of("GetDataRequest", 2, "Ping", 1),
+                ConnectionRateLimiter.parseBudgets(Arrays.asList("GetDataRequest:2", " Ping : 1", "")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInvalidBudgets() {
+        ConnectionRateLimiter.parseBudgets(Collections.singletonList("GetDataRequest"));
+    }
+
+    private ConnectionRateLimiter createRateLimiter(Map<String, Integer> msgThrottlePerSecByType) {
+        return new ConnectionRateLimiter(10, 20, msgThrottlePerSecByType, 5, 20, 0);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.peers.keepalive.messages.Ping;
+import bisq.network.p2p.peers.keepalive.messages.Pong;
+
+import bisq.common.UserThread;
+import bisq.common.proto.network.NetworkProtoResolver;
+
+import java.net.Socket;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Compares the threads, heap and ping round trip times of a LocalhostNetworkNode with blocking sockets (a thread per
+// connection) and with the SelectorIoEngine at different numbers of inbound connections.
+// Run manually and each test in its own JVM, e.g. with -Xss256k for the blocking case at 2000 connections. Thread
+// stacks are not part of the heap, so the number of threads shows the memory difference better than the used heap.
+@Ignore
+public class NetworkNodeBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(NetworkNodeBenchmark.class);
+
+    private static final int[] NUM_CONNECTIONS = {50, 500, 2000};
+    private static final int NUM_ROUNDS = 5;
+    // The outbound throttle of Connection delays messages sent faster than every 20 ms
+    private static final long MIN_ROUND_DURATION_MS = 50;
+
+    private static int port = 9200;
+
+    @BeforeClass
+    public static void setUp() {
+        UserThread.setExecutor(Executors.newSingleThreadExecutor());
+        LocalhostNetworkNode.setSimulateTorDelayTorNode(0);
+        LocalhostNetworkNode.setSimulateTorDelayHiddenService(0);
+    }
+
+    @Test
+    public void benchmarkBlockingIo() throws Exception {
+        for (int numConnections : NUM_CONNECTIONS) {
+            run(numConnections, false);
+        }
+    }
+
+    @Test
+    public void benchmarkNonBlockingIo() throws Exception {
+        for (int numConnections : NUM_CONNECTIONS) {
+            run(numConnections, true);
+        }
+    }
+
+    private void run(int numConnections, boolean useNonBlockingIo) throws Exception {
+        int servicePort = port++;
+        LocalhostNetworkNode node = new LocalhostNetworkNode(servicePort, getNetworkProtoResolver(), null, useNonBlockingIo);
+        node.addMessageListener((message, connection) -> {
+            if (message instanceof Ping) {
+                node.sendMessage(connection, new Pong(((Ping) message).getNonce()));
+            }
+        });
+        startNode(node);
+
+        long usedHeapBefore = getUsedHeap();
+        int threadsBefore = Thread.activeCount();
+
+        List<Socket> sockets = new ArrayList<>();
+        for (int i = 0; i < numConnections; i++) {
+            Socket socket = new Socket("localhost", servicePort);
+            // Otherwise we would measure the delayed ACKs of our small messages
+            socket.setTcpNoDelay(true);
+            sockets.add(socket);
+        }
+
+        // The first round makes sure all connections are set up at the server
+        long[] roundTripTimes = new long[numConnections * NUM_ROUNDS];
+        for (int round = 0; round <= NUM_ROUNDS; round++) {
+            long roundStart = System.currentTimeMillis();
+            for (int i = 0; i < numConnections; i++) {
+                long roundTripTime = ping(sockets.get(i), i);
+                if (round > 0) {
+                    roundTripTimes[(round - 1) * numConnections + i] = roundTripTime;
+                }
+            }
+            long remaining = MIN_ROUND_DURATION_MS - (System.currentTimeMillis() - roundStart);
+            if (remaining > 0) {
+                Thread.sleep(remaining);
+            }
+        }
+
+        int threads = Thread.activeCount() - threadsBefore;
+        long usedHeap = getUsedHeap() - usedHeapBefore;
+        Arrays.sort(roundTripTimes);
+        log.info("\n{} connections, {}:\n\tadditional threads={}\n\tadditional heap={} MB\n\t" +
+                        "round trip time median={} ms, p99={} ms, max={} ms",
+                numConnections,
+                useNonBlockingIo ? "non-blocking IO" : "blocking IO",
+                threads,
+                usedHeap / 1024 / 1024,
+                toMillis(roundTripTimes[roundTripTimes.length / 2]),
+                toMillis(roundTripTimes[roundTripTimes.length * 99 / 100]),
+                toMillis(roundTripTimes[roundTripTimes.length - 1]));
+
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        CountDownLatch shutDownLatch = new CountDownLatch(1);
+        node.shutDown(shutDownLatch::countDown);
+        shutDownLatch.await(10, TimeUnit.SECONDS);
+    }
+
+    private long ping(Socket socket, int nonce) throws IOException {
+        long ts = System.nanoTime();
+        new Ping(nonce, 0).toProtoNetworkEnvelope().writeDelimitedTo(socket.getOutputStream());
+        protobuf.NetworkEnvelope response = protobuf.NetworkEnvelope.parseDelimitedFrom(socket.getInputStream());
+        assertTrue(response.hasPong());
+        return System.nanoTime() - ts;
+    }
+
+    private void startNode(LocalhostNetworkNode node) throws InterruptedException {
+        CountDownLatch startedLatch = new CountDownLatch(1);
+        node.start(new SetupListener() {
+            @Override
+            public void onTorNodeReady() {
+            }
+
+            @Override
+            public void onHiddenServicePublished() {
+                startedLatch.countDown();
+            }
+
+            @Override
+            public void onSetupFailed(Throwable throwable) {
+            }
+
+            @Override
+            public void onRequestCustomBridges() {
+            }
+        });
+        startedLatch.await();
+    }
+
+    private static NetworkProtoResolver getNetworkProtoResolver() throws Exception {
+        NetworkProtoResolver networkProtoResolver = mock(NetworkProtoResolver.class);
+        when(networkProtoResolver.fromProto(any(protobuf.NetworkEnvelope.class)))
+                .thenAnswer(invocation -> {
+                    protobuf.NetworkEnvelope proto = invocation.getArgument(0);
+                    return Ping.fromProto(proto.getPing(), proto.getMessageVersion());
+                });
+        return networkProtoResolver;
+    }
+
+    private static long getUsedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+}
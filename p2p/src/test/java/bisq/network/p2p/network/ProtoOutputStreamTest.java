@@ -0,0 +1,86 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.BundleOfEnvelopes;
+import bisq.network.p2p.peers.keepalive.messages.Ping;
+
+import bisq.common.proto.network.NetworkEnvelope;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProtoOutputStreamTest {
+
+    @Test
+    public void testWriteDelimitedFrames() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ProtoOutputStream protoOutputStream = new ProtoOutputStream(outputStream, new Statistic());
+
+        Ping ping = new Ping(1, 2);
+        BundleOfEnvelopes largeBundle = createBundle(20000);
+        protobuf.NetworkEnvelope largeBundleProto = largeBundle.toProtoNetworkEnvelope();
+        assertTrue(largeBundleProto.getSerializedSize() > BufferPool.BUFFER_SIZE);
+
+        protoOutputStream.writeEnvelope(ping);
+        protoOutputStream.writeEnvelope(largeBundle, largeBundleProto);
+        protoOutputStream.writeEnvelope(ping);
+
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+        assertEquals(ping.toProtoNetworkEnvelope(), protobuf.NetworkEnvelope.parseDelimitedFrom(inputStream));
+        assertEquals(largeBundleProto, protobuf.NetworkEnvelope.parseDelimitedFrom(inputStream));
+        assertEquals(ping.toProtoNetworkEnvelope(), protobuf.NetworkEnvelope.parseDelimitedFrom(inputStream));
+        assertEquals(0, inputStream.available());
+    }
+
+    @Test
+    public void testWriteEncodedEnvelopeToMultipleStreams() throws IOException {
+        BundleOfEnvelopes bundle = createBundle(10);
+        EncodedEnvelope encodedEnvelope = new EncodedEnvelope(bundle);
+        ByteArrayOutputStream outputStream1 = new ByteArrayOutputStream();
+        ByteArrayOutputStream outputStream2 = new ByteArrayOutputStream();
+        Statistic statistic = new Statistic();
+
+        new ProtoOutputStream(outputStream1, statistic).writeEncodedEnvelope(encodedEnvelope);
+        new ProtoOutputStream(outputStream2, new Statistic()).writeEncodedEnvelope(encodedEnvelope);
+
+        assertArrayEquals(outputStream1.toByteArray(), outputStream2.toByteArray());
+        assertEquals(2, encodedEnvelope.getNumWrites());
+        assertEquals(bundle.toProtoNetworkEnvelope().getSerializedSize(), statistic.getSentBytes());
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(outputStream1.toByteArray());
+        assertEquals(bundle.toProtoNetworkEnvelope(), protobuf.NetworkEnvelope.parseDelimitedFrom(inputStream));
+        assertEquals(0, inputStream.available());
+    }
+
+    private static BundleOfEnvelopes createBundle(int numEnvelopes) {
+        List<NetworkEnvelope> envelopes = new ArrayList<>();
+        for (int i = 0; i < numEnvelopes; i++) {
+            envelopes.add(new Ping(i, i));
+        }
+        return new BundleOfEnvelopes(envelopes);
+    }
+}
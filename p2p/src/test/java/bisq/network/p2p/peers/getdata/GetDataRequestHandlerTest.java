@@ -0,0 +1,141 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.peers.getdata;
+
+import bisq.network.p2p.network.Connection;
+import bisq.network.p2p.network.NetworkNode;
+import bisq.network.p2p.peers.Broadcaster;
+import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
+import bisq.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.mocks.AppendOnlyDataStoreServiceFake;
+import bisq.network.p2p.storage.mocks.PersistableNetworkPayloadStub;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+import bisq.network.p2p.storage.persistence.ProtectedDataStoreService;
+import bisq.network.p2p.storage.persistence.RemovedPayloadsService;
+import bisq.network.p2p.storage.persistence.ResourceDataStoreService;
+
+import bisq.common.app.Capabilities;
+import bisq.common.app.Capability;
+import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.network.NetworkEnvelope;
+
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.nio.ByteBuffer;
+
+import java.time.Clock;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GetDataRequestHandlerTest {
+    // More than the max. entries of a response for peers not supporting Capability.GET_DATA_RESPONSE_PARTS
+    private static final int NUM_ENTRIES = 12500;
+
+    private final List<GetDataResponse> sentResponses = new ArrayList<>();
+    private NetworkNode networkNode;
+    private P2PDataStorage dataStorage;
+    private GetDataRequestHandler.Listener listener;
+
+    @Before
+    public void setUp() {
+        networkNode = mock(NetworkNode.class);
+        AppendOnlyDataStoreServiceFake appendOnlyDataStoreService = new AppendOnlyDataStoreServiceFake();
+        dataStorage = new P2PDataStorage(networkNode,
+                mock(Broadcaster.class),
+                appendOnlyDataStoreService,
+                new ProtectedDataStoreService(),
+                mock(ResourceDataStoreService.class),
+                mock(PersistenceManager.class),
+                mock(RemovedPayloadsService.class),
+                Clock.systemDefaultZone(),
+                1000);
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            PersistableNetworkPayload payload = new PersistableNetworkPayloadStub(getHash(i));
+            appendOnlyDataStoreService.put(new P2PDataStorage.ByteArray(payload.getHash()), payload);
+        }
+        listener = mock(GetDataRequestHandler.Listener.class);
+    }
+
+    @Test
+    public void testAllEntriesAreSentInParts() {
+        Connection connection = createConnection(new Capabilities(Capability.GET_DATA_RESPONSE_PARTS));
+
+        new GetDataRequestHandler(networkNode, dataStorage, listener)
+                .handle(new PreliminaryGetDataRequest(1, new HashSet<>()), connection);
+
+        verify(listener).onComplete();
+        Set<P2PDataStorage.ByteArray> receivedHashes = new HashSet<>();
+        for (int i = 0; i < sentResponses.size(); i++) {
+            GetDataResponse part = sentResponses.get(i);
+            assertEquals(i, part.getPartIndex());
+            assertEquals(i == sentResponses.size() - 1, part.isLastPart());
+            part.getPersistableNetworkPayloadSet().forEach(payload ->
+                    assertTrue(receivedHashes.add(new P2PDataStorage.ByteArray(payload.getHash()))));
+        }
+        assertTrue(sentResponses.size() > 1);
+        assertEquals(NUM_ENTRIES, receivedHashes.size());
+    }
+
+    @Test
+    public void testResponseIsTruncatedForPeersNotSupportingParts() {
+        Connection connection = createConnection(new Capabilities());
+
+        new GetDataRequestHandler(networkNode, dataStorage, listener)
+                .handle(new PreliminaryGetDataRequest(1, new HashSet<>()), connection);
+
+        verify(listener).onComplete();
+        assertEquals(1, sentResponses.size());
+        assertTrue(sentResponses.get(0).isLastPart());
+        int numSentEntries = sentResponses.get(0).getPersistableNetworkPayloadSet().size();
+        assertTrue(numSentEntries < NUM_ENTRIES);
+    }
+
+    private Connection createConnection(Capabilities capabilities) {
+        Connection connection = mock(Connection.class);
+        when(connection.getCapabilities()).thenReturn(capabilities);
+        when(connection.getPeersNodeAddressOptional()).thenReturn(Optional.empty());
+        when(connection.getUid()).thenReturn("uid");
+        when(networkNode.sendMessage(eq(connection), any(NetworkEnvelope.class))).thenAnswer(invocation -> {
+            sentResponses.add(invocation.getArgument(1));
+            SettableFuture<Connection> future = SettableFuture.create();
+            future.set(connection);
+            return future;
+        });
+        return connection;
+    }
+
+    private static byte[] getHash(int index) {
+        return ByteBuffer.allocate(20).putInt(index).array();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package bisq.network.p2p.peers.getdata.messages;
+
+import bisq.common.crypto.Hash;
+
+import java.nio.ByteBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class KnownHashesFilterTest {
+
+    private static List<byte[]> getHashes(int from, int to) {
+        List<byte[]> hashes = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            hashes.add(Hash.getSha256Hash(ByteBuffer.allocate(4).putInt(i).array()));
+        }
+        return hashes;
+    }
+
+    @Test
+    public void mightContain_noFalseNegatives() {
+        List<byte[]> hashes = getHashes(0, 10000);
+        KnownHashesFilter filter = KnownHashesFilter.fromHashes(hashes);
+
+        hashes.forEach(hash -> Assert.assertTrue(filter.mightContain(hash)));
+    }
+
+    @Test
+    public void mightContain_shortHashes() {
+        List<byte[]> hashes = List.of(new byte[]{1}, new byte[]{2}, new byte[0]);
+        KnownHashesFilter filter = KnownHashesFilter.fromHashes(hashes);
+
+        hashes.forEach(hash -> Assert.assertTrue(filter.mightContain(hash)));
+    }
+
+    @Test
+    public void mightContain_falsePositiveRate() {
+        KnownHashesFilter filter = KnownHashesFilter.fromHashes(getHashes(0, 10000));
+
+        long numFalsePositives = getHashes(10000, 20000).stream()
+                .filter(filter::mightContain)
+                .count();
+
+        // Expected rate is 0.1%, we allow some tolerance
+        Assert.assertTrue("numFalsePositives=" + numFalsePositives, numFalsePositives < 50);
+    }
+
+    @Test
+    public void fromHashes_sizeIsSmallerThanHashes() {
+        KnownHashesFilter filter = KnownHashesFilter.fromHashes(getHashes(0, 10000));
+
+        Assert.assertTrue(filter.getSizeInBytes() < 10000 * 32 / 10);
+    }
+
+    @Test
+    public void fromHashes_empty() {
+        KnownHashesFilter filter = KnownHashesFilter.fromHashes(new ArrayList<>());
+
+        Assert.assertFalse(filter.mightContain(getHashes(0, 1).get(0)));
+    }
+
+    @Test
+    public void protoRoundTrip() {
+        List<byte[]> hashes = getHashes(0, 1000);
+        KnownHashesFilter filter = KnownHashesFilter.fromHashes(hashes);
+
+        KnownHashesFilter fromProto = KnownHashesFilter.fromProto(filter.toProtoMessage());
+
+        Assert.assertEquals(filter, fromProto);
+        hashes.forEach(hash -> Assert.assertTrue(fromProto.mightContain(hash)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromProto_invalidNumHashFunctions() {
+        KnownHashesFilter filter = KnownHashesFilter.fromHashes(getHashes(0, 10));
+
+        KnownHashesFilter.fromProto(filter.toProtoMessage().toBuilder().setNumHashFunctions(1000).build());
+    }
+}
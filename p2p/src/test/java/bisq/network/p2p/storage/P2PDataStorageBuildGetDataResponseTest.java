@@ -34,6 +34,7 @@ import bisq.common.app.Capabilities;
 import bisq.common.app.Capability;
 import bisq.common.crypto.Sig;
 
+import com.google.common.collect.Lists;
 import com.google.protobuf.Message;
 
 import java.security.KeyPair;
@@ -41,6 +42,7 @@ import java.security.NoSuchAlgorithmException;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -462,6 +464,88 @@ public class P2PDataStorageBuildGetDataResponseTest {
             Assert.assertTrue(getDataResponse.getPersistableNetworkPayloadSet().isEmpty());
             Assert.assertTrue(getDataResponse.getDataSet().contains(onlyLocal));
         }
+
+        // TESTCASE: Given a GetDataRequest w/o known PSE and PNPs, send all back in parts instead of truncating
+        @Test
+        public void buildGetDataResponseParts_unknownPSEAndPNPsSendBackInParts() throws NoSuchAlgorithmException {
+            ProtectedStorageEntry onlyLocal1 = getProtectedStorageEntryForAdd();
+            PersistableNetworkPayload onlyLocal2 = new PersistableNetworkPayloadStub(new byte[]{1});
+            PersistableNetworkPayload onlyLocal3 = new PersistableNetworkPayloadStub(new byte[]{2});
+
+            this.testState.mockedStorage.addProtectedStorageEntry(
+                    onlyLocal1, this.localNodeAddress, null);
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    onlyLocal2, this.localNodeAddress, false);
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    onlyLocal3, this.localNodeAddress, false);
+
+            GetDataRequest getDataRequest =
+                    this.buildGetDataRequest(1, new HashSet<>());
+
+            List<GetDataResponse> parts = Lists.newArrayList(this.testState.mockedStorage.buildGetDataResponseParts(
+                    getDataRequest, 2, new Capabilities()));
+
+            Assert.assertEquals(2, parts.size());
+            Assert.assertEquals(0, parts.get(0).getPartIndex());
+            Assert.assertFalse(parts.get(0).isLastPart());
+            Assert.assertEquals(1, parts.get(1).getPartIndex());
+            Assert.assertTrue(parts.get(1).isLastPart());
+            parts.forEach(part -> {
+                Assert.assertEquals(1, part.getRequestNonce());
+                Assert.assertEquals(getDataRequest instanceof GetUpdatedDataRequest, part.isGetUpdatedDataResponse());
+            });
+
+            // ProtectedStorageEntries are sent first
+            Assert.assertTrue(parts.get(0).getDataSet().contains(onlyLocal1));
+            Assert.assertEquals(1, parts.get(0).getPersistableNetworkPayloadSet().size());
+            Assert.assertTrue(parts.get(1).getDataSet().isEmpty());
+            Assert.assertEquals(1, parts.get(1).getPersistableNetworkPayloadSet().size());
+
+            Set<PersistableNetworkPayload> persistableNetworkPayloads = new HashSet<>();
+            parts.forEach(part -> persistableNetworkPayloads.addAll(part.getPersistableNetworkPayloadSet()));
+            Assert.assertTrue(persistableNetworkPayloads.contains(onlyLocal2));
+            Assert.assertTrue(persistableNetworkPayloads.contains(onlyLocal3));
+        }
+
+        // TESTCASE: Given a GetDataRequest w/o known PNPs, the parts are not truncated
+        @Test
+        public void buildGetDataResponseParts_unknownPNPsNotTruncated() {
+            PersistableNetworkPayload onlyLocal1 = new PersistableNetworkPayloadStub(new byte[]{1});
+            PersistableNetworkPayload onlyLocal2 = new PersistableNetworkPayloadStub(new byte[]{2});
+            PersistableNetworkPayload onlyLocal3 = new PersistableNetworkPayloadStub(new byte[]{3});
+
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    onlyLocal1, this.localNodeAddress, false);
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    onlyLocal2, this.localNodeAddress, false);
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    onlyLocal3, this.localNodeAddress, false);
+
+            GetDataRequest getDataRequest =
+                    this.buildGetDataRequest(1, new HashSet<>());
+
+            List<GetDataResponse> parts = Lists.newArrayList(this.testState.mockedStorage.buildGetDataResponseParts(
+                    getDataRequest, 1, new Capabilities()));
+
+            Assert.assertEquals(3, parts.size());
+            Assert.assertTrue(parts.get(2).isLastPart());
+            parts.forEach(part -> Assert.assertEquals(1, part.getPersistableNetworkPayloadSet().size()));
+        }
+
+        // TESTCASE: Given a GetDataRequest w/ nothing to send back, a single empty last part is sent
+        @Test
+        public void buildGetDataResponseParts_nothingToSendSingleEmptyPart() {
+            GetDataRequest getDataRequest =
+                    this.buildGetDataRequest(1, new HashSet<>());
+
+            List<GetDataResponse> parts = Lists.newArrayList(this.testState.mockedStorage.buildGetDataResponseParts(
+                    getDataRequest, 2, new Capabilities()));
+
+            Assert.assertEquals(1, parts.size());
+            Assert.assertTrue(parts.get(0).isLastPart());
+            Assert.assertTrue(parts.get(0).getDataSet().isEmpty());
+            Assert.assertTrue(parts.get(0).getPersistableNetworkPayloadSet().isEmpty());
+        }
     }
 
     public static class P2PDataStorageBuildGetDataResponseTestPreliminary extends P2PDataStorageBuildGetDataResponseTestBase {
@@ -170,4 +170,29 @@ public class P2PDataStorageRequestDataTest {
         Assert.assertTrue(byteSetContains(getDataRequest.getExcludedKeys(),
                 P2PDataStorage.get32ByteHash(toAdd4.getProtectedStoragePayload())));
     }
+
+    // TESTCASE: With the known hashes filter the PersistableNetworkPayload hashes are only contained in the filter
+    // and the ProtectedStorageEntry keys are still sent as excluded keys.
+    @Test
+    public void buildPreliminaryGetDataRequest_FilledP2PDataStore_KnownHashesFilter() throws NoSuchAlgorithmException {
+        PersistableNetworkPayload toAdd1 = new PersistableNetworkPayloadStub(new byte[] { 1 });
+        PersistableNetworkPayload toAdd2 = new PersistableNetworkPayloadStub(new byte[] { 2 });
+        ProtectedStorageEntry toAdd3 = getProtectedStorageEntryForAdd();
+
+        this.testState.mockedStorage.addPersistableNetworkPayload(toAdd1, this.localNodeAddress, false);
+        this.testState.mockedStorage.addPersistableNetworkPayload(toAdd2, this.localNodeAddress, false);
+
+        this.testState.mockedStorage.addProtectedStorageEntry(toAdd3, this.localNodeAddress, null);
+
+        PreliminaryGetDataRequest getDataRequest =
+                this.testState.mockedStorage.buildPreliminaryGetDataRequest(1, true);
+
+        Assert.assertEquals(getDataRequest.getNonce(), 1);
+        Assert.assertEquals(1, getDataRequest.getExcludedKeys().size());
+        Assert.assertTrue(byteSetContains(getDataRequest.getExcludedKeys(),
+                P2PDataStorage.get32ByteHash(toAdd3.getProtectedStoragePayload())));
+        Assert.assertNotNull(getDataRequest.getKnownHashesFilter());
+        Assert.assertTrue(getDataRequest.getKnownHashesFilter().mightContain(toAdd1.getHash()));
+        Assert.assertTrue(getDataRequest.getKnownHashesFilter().mightContain(toAdd2.getHash()));
+    }
 }
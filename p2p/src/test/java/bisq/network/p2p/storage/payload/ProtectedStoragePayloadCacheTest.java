@@ -0,0 +1,77 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.payload;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import bisq.common.crypto.Hash;
+
+import com.google.protobuf.Message;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ProtectedStoragePayloadCacheTest {
+
+    private static ProtectedStoragePayload buildProtectedStoragePayload(String alertMessage) {
+        ProtectedStoragePayload protectedStoragePayload = mock(ProtectedStoragePayload.class);
+        when(protectedStoragePayload.toProtoMessage()).thenReturn(protobuf.StoragePayload.newBuilder()
+                .setAlert(protobuf.Alert.newBuilder().setMessage(alertMessage))
+                .build());
+        return protectedStoragePayload;
+    }
+
+    // TESTCASE: The payload is only serialized once for repeated hash and proto message lookups
+    @Test
+    public void getProtoMessage_serializedOnce() {
+        ProtectedStoragePayload protectedStoragePayload = buildProtectedStoragePayload("alert");
+
+        Message message = ProtectedStoragePayloadCache.getProtoMessage(protectedStoragePayload);
+        byte[] hash = ProtectedStoragePayloadCache.get32ByteHash(protectedStoragePayload);
+
+        Assert.assertSame(message, ProtectedStoragePayloadCache.getProtoMessage(protectedStoragePayload));
+        Assert.assertSame(hash, P2PDataStorage.get32ByteHash(protectedStoragePayload));
+        verify(protectedStoragePayload, times(1)).toProtoMessage();
+    }
+
+    // TESTCASE: The cached hash matches the hash of the serialized payload
+    @Test
+    public void get32ByteHash_matchesHashOfSerializedPayload() {
+        ProtectedStoragePayload protectedStoragePayload = buildProtectedStoragePayload("alert");
+        byte[] expected = Hash.getSha256Hash(protectedStoragePayload.toProtoMessage().toByteArray());
+
+        Assert.assertArrayEquals(expected, ProtectedStoragePayloadCache.get32ByteHash(protectedStoragePayload));
+    }
+
+    // TESTCASE: Distinct payload objects get their own cache entries
+    @Test
+    public void get32ByteHash_distinctPayloads() {
+        ProtectedStoragePayload protectedStoragePayload1 = buildProtectedStoragePayload("alert1");
+        ProtectedStoragePayload protectedStoragePayload2 = buildProtectedStoragePayload("alert2");
+
+        Assert.assertFalse(Arrays.equals(ProtectedStoragePayloadCache.get32ByteHash(protectedStoragePayload1),
+                ProtectedStoragePayloadCache.get32ByteHash(protectedStoragePayload2)));
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Message;
+
+import java.nio.file.Files;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MappedPayloadMapTest {
+    private File dir;
+    private File storeFile;
+    private File indexFile;
+    private int numDecoded;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("mapped").toFile();
+        storeFile = new File(dir, "PayloadStore_1.0.0");
+        indexFile = new File(dir, "PayloadStore_1.0.0.index");
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testLookupAndIteration() throws IOException {
+        List<PayloadStub> payloads = createPayloads(100);
+        writeStore(payloads);
+
+        MappedPayloadMap map = MappedPayloadMap.create(storeFile, this::decode);
+        assertTrue(indexFile.exists());
+        assertEquals(100, map.size());
+
+        numDecoded = 0;
+        payloads.forEach(payload -> assertTrue(map.containsKey(new P2PDataStorage.ByteArray(payload.getHash()))));
+        assertFalse(map.containsKey(new P2PDataStorage.ByteArray(new byte[20])));
+        assertFalse(map.containsKey(new P2PDataStorage.ByteArray(new byte[]{1})));
+        assertEquals(0, numDecoded);
+
+        PayloadStub payload = payloads.get(42);
+        assertEquals(payload, map.get(new P2PDataStorage.ByteArray(payload.getHash())));
+        assertNull(map.get(new P2PDataStorage.ByteArray(new byte[20])));
+        assertEquals(1, numDecoded);
+
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> expected = payloads.stream()
+                .collect(Collectors.toMap(e -> new P2PDataStorage.ByteArray(e.getHash()), e -> e));
+        assertEquals(expected, new HashMap<>(map));
+    }
+
+    @Test
+    public void testIndexIsReusedAndRebuiltIfStoreChanged() throws IOException {
+        writeStore(createPayloads(10));
+        MappedPayloadMap.create(storeFile, this::decode);
+
+        numDecoded = 0;
+        MappedPayloadMap map = MappedPayloadMap.create(storeFile, this::decode);
+        assertEquals(10, map.size());
+        assertEquals(0, numDecoded);
+
+        List<PayloadStub> payloads = createPayloads(20);
+        writeStore(payloads);
+        map = MappedPayloadMap.create(storeFile, this::decode);
+        assertEquals(20, map.size());
+        assertTrue(map.containsKey(new P2PDataStorage.ByteArray(payloads.get(19).getHash())));
+    }
+
+    @Test
+    public void testEmptyStore() throws IOException {
+        writeStore(new ArrayList<>());
+        MappedPayloadMap map = MappedPayloadMap.create(storeFile, this::decode);
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(new P2PDataStorage.ByteArray(new byte[20])));
+    }
+
+    @Test(expected = IOException.class)
+    public void testMixedHashLengthsAreRejected() throws IOException {
+        List<PayloadStub> payloads = createPayloads(2);
+        payloads.add(new PayloadStub(new byte[]{1, 2}, 1));
+        writeStore(payloads);
+        MappedPayloadMap.create(storeFile, this::decode);
+    }
+
+    private List<PayloadStub> createPayloads(int numPayloads) {
+        List<PayloadStub> payloads = new ArrayList<>();
+        for (int i = 0; i < numPayloads; i++) {
+            byte[] hash = new byte[20];
+            hash[0] = (byte) (i * 37);
+            hash[1] = 1;
+            hash[19] = (byte) i;
+            payloads.add(new PayloadStub(hash, 1000L + i));
+        }
+        return payloads;
+    }
+
+    private void writeStore(List<PayloadStub> payloads) throws IOException {
+        try (FileOutputStream fileOutputStream = new FileOutputStream(storeFile)) {
+            new StoreStub(payloads).toProtoMessage().writeDelimitedTo(fileOutputStream);
+        }
+    }
+
+    private StoreStub decode(protobuf.PersistableEnvelope proto) {
+        numDecoded++;
+        return new StoreStub(proto.getAccountAgeWitnessStore().getItemsList().stream()
+                .map(item -> new PayloadStub(item.getHash().toByteArray(), item.getDate()))
+                .collect(Collectors.toList()));
+    }
+
+    private static class StoreStub extends PersistableNetworkPayloadStore<PayloadStub> {
+        StoreStub(List<PayloadStub> payloads) {
+            super(payloads);
+        }
+
+        @Override
+        public Message toProtoMessage() {
+            return protobuf.PersistableEnvelope.newBuilder()
+                    .setAccountAgeWitnessStore(protobuf.AccountAgeWitnessStore.newBuilder()
+                            .addAllItems(map.values().stream()
+                                    .map(payload -> ((PayloadStub) payload).toProtoAccountAgeWitness())
+                                    .collect(Collectors.toList())))
+                    .build();
+        }
+    }
+
+    private static class PayloadStub implements PersistableNetworkPayload {
+        private final byte[] hash;
+        private final long date;
+
+        PayloadStub(byte[] hash, long date) {
+            this.hash = hash;
+            this.date = date;
+        }
+
+        protobuf.AccountAgeWitness toProtoAccountAgeWitness() {
+            return protobuf.AccountAgeWitness.newBuilder().setHash(ByteString.copyFrom(hash)).setDate(date).build();
+        }
+
+        @Override
+        public protobuf.PersistableNetworkPayload toProtoMessage() {
+            return protobuf.PersistableNetworkPayload.newBuilder()
+                    .setAccountAgeWitness(toProtoAccountAgeWitness())
+                    .build();
+        }
+
+        @Override
+        public byte[] getHash() {
+            return hash;
+        }
+
+        @Override
+        public boolean verifyHashSize() {
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PayloadStub)) return false;
+            PayloadStub that = (PayloadStub) o;
+            return date == that.date && Arrays.equals(hash, that.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(date) * 31 + Arrays.hashCode(hash);
+        }
+    }
+}
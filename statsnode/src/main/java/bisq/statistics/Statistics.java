@@ -21,6 +21,7 @@ import bisq.core.app.misc.AppSetup;
 import bisq.core.app.misc.AppSetupWithP2PAndDAO;
 import bisq.core.offer.OfferBookService;
 import bisq.core.provider.price.PriceFeedService;
+import bisq.core.trade.statistics.TradeStatisticsCandleService;
 import bisq.core.trade.statistics.TradeStatisticsManager;
 
 import bisq.network.p2p.BootstrapListener;
@@ -39,6 +40,7 @@ public class Statistics {
     private OfferBookService offerBookService; // pin to not get GC'ed
     private PriceFeedService priceFeedService;
     private TradeStatisticsManager tradeStatisticsManager;
+    private TradeStatisticsCandleService tradeStatisticsCandleService;
     private P2PService p2pService;
     private AppSetup appSetup;
 
@@ -50,6 +52,8 @@ public class Statistics {
         offerBookService = injector.getInstance(OfferBookService.class);
         priceFeedService = injector.getInstance(PriceFeedService.class);
         tradeStatisticsManager = injector.getInstance(TradeStatisticsManager.class);
+        // Created before the trade statistics are loaded, so the candles are built up while they get added
+        tradeStatisticsCandleService = injector.getInstance(TradeStatisticsCandleService.class);
 
         // We need the price feed for market based offers
         priceFeedService.setCurrencyCode("USD");